@@ -29,6 +29,34 @@ public class ArrayAccess extends Expression {
         return null;
     }
 
+    /**
+     * Evaluates this array access expression in an interpreted program.
+     * @param env The run-time state of the program
+     * @return The value at the specified array index
+     * @throws RuntimeException if the index is out of bounds
+     */
+    @Override
+    public Object evaluate(Environment env) {
+        Object[] elements = (Object[]) env.lookup(array);
+        return elements[elementIndex(elements, index.evaluate(env), array)];
+    }
+
+    /**
+     * Converts a 1-based source language index to a position in the array.
+     * @param elements The array being indexed
+     * @param index The value of the index expression
+     * @param array The array name, used in messages
+     * @return The 0-based position
+     * @throws RuntimeException if the index is out of bounds
+     */
+    static int elementIndex(Object[] elements, Object index, String array) {
+        int position = (Integer) index - 1;
+        if (position < 0 || position >= elements.length) {
+            throw new RuntimeException("Array index out of bounds: " + array + "[" + index + "]");
+        }
+        return position;
+    }
+
     /**
      * Gets the name of the array being accessed.
      * @return The array name
@@ -57,4 +85,9 @@ public class ArrayAccess extends Expression {
         sb.append("└── Index: ").append(index);
         return sb.toString();
     }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitArrayAccess(this);
+    }
 }
@@ -38,6 +38,15 @@ public class ArrayDecl extends Statement implements VariableDeclaration {
         return type;
     }
 
+    /**
+     * Declares the array in an interpreted program, with every element at its initial value.
+     * @param env The run-time state of the program
+     */
+    @Override
+    public void execute(Environment env) {
+        env.declare(name, env.defaultValue(type));
+    }
+
     /**
      * Returns a string representation of this array declaration in tree format.
      * @return A string showing the array name and type
@@ -48,4 +57,9 @@ public class ArrayDecl extends Statement implements VariableDeclaration {
                 + "├── name: " + name + "\n"
                 + "└── type: " + type;
     }
-}
\ No newline at end of file
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitArrayDecl(this);
+    }
+}
@@ -14,7 +14,7 @@ public class ArrayType extends Type {
      * Creates a new dynamic array type with the specified element type.
      * @param elementType The type of elements that will be stored in the array
      */
-    public ArrayType(Type elementType) {
+    ArrayType(Type elementType) {
         super("array of " + elementType.toString());
         this.elementType = elementType;
         this.size = null;
@@ -24,8 +24,9 @@ public class ArrayType extends Type {
      * Creates a new fixed-size array type with the specified element type and size.
      * @param elementType The type of elements that will be stored in the array
      * @param size The fixed size of the array
+     * @see Type#array(Type, Integer)
      */
-    public ArrayType(Type elementType, Integer size) {
+    ArrayType(Type elementType, Integer size) {
         super("array[" + size + "] of " + elementType.toString());
         this.elementType = elementType;
         this.size = size;
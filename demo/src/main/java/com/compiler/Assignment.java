@@ -1,5 +1,7 @@
 package com.compiler;
 
+import java.util.Map;
+
 /**
  * Represents an assignment statement in the source code.
  * Can handle both regular variable assignments and array element assignments.
@@ -67,6 +69,28 @@ public class Assignment extends Statement {
         return index;
     }
 
+    /**
+     * Executes this assignment in an interpreted program.
+     * The target is a variable, an array element, or a record field written "record.field".
+     * @param env The run-time state of the program
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void execute(Environment env) {
+        if (index != null) {
+            Object[] elements = (Object[]) env.lookup(target);
+            int position = ArrayAccess.elementIndex(elements, index.evaluate(env), target);
+            elements[position] = Environment.widen(elements[position], value.evaluate(env));
+        } else if (target.contains(".")) {
+            int dot = target.indexOf('.');
+            Map<String, Object> record = (Map<String, Object>) env.lookup(target.substring(0, dot));
+            String field = target.substring(dot + 1);
+            record.put(field, Environment.widen(record.get(field), value.evaluate(env)));
+        } else {
+            env.assign(target, value.evaluate(env));
+        }
+    }
+
     /**
      * Returns a string representation of this assignment.
      * For regular assignments: "target := value"
@@ -84,4 +108,9 @@ public class Assignment extends Statement {
         sb.append("└── Value: ").append(value);
         return sb.toString();
     }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitAssignment(this);
+    }
 }
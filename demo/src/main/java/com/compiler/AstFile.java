@@ -0,0 +1,838 @@
+package com.compiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary form of a parsed program, to load its AST again without lexing or parsing.
+ * <p>
+ * A file starts with the bytes "IAST" and a format version, followed by four tables:
+ * <ul>
+ *   <li>the names, in the order of their IDs in the program's {@link NameTable};</li>
+ *   <li>the other strings: string literals as written in the source, type names and
+ *       record field names;</li>
+ *   <li>the types, each element or field type before the types made of it;</li>
+ *   <li>the top-level declarations: the node tag, the name and the position and length
+ *       of the encoded declaration in the section that follows.</li>
+ * </ul>
+ * Each node is a tag byte followed by its fields. Counts, indexes into the tables and
+ * positions are unsigned varints, integer literals zigzag varints, and real literals the
+ * eight bytes of their bits. A list is written as its size plus one, and a missing list,
+ * type or expression as 0. Operators are written as their ordinal, so reordering
+ * {@link Operator} needs a new version.
+ * <p>
+ * Opening a file only reads the tables; each declaration is decoded when asked for, so a
+ * tool that needs one routine of a large program reads only that routine's bytes of the
+ * memory-mapped file.
+ */
+public class AstFile {
+    /** Version of the format written, the only one read */
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIC = {'I', 'A', 'S', 'T'};
+
+    // Node tags
+    private static final int NONE = 0;
+    private static final int VAR_DECL = 1;
+    private static final int ARRAY_DECL = 2;
+    private static final int TYPE_DECL = 3;
+    private static final int ROUTINE_DECL = 4;
+    private static final int ASSIGNMENT = 5;
+    private static final int IF_STATEMENT = 6;
+    private static final int WHILE_STATEMENT = 7;
+    private static final int FOR_LOOP = 8;
+    private static final int PRINT_STATEMENT = 9;
+    private static final int READ_STATEMENT = 10;
+    private static final int RETURN_STATEMENT = 11;
+    private static final int INTEGER_LITERAL = 12;
+    private static final int REAL_LITERAL = 13;
+    private static final int STRING_LITERAL = 14;
+    private static final int BOOLEAN_LITERAL = 15;
+    private static final int VARIABLE_REFERENCE = 16;
+    private static final int RECORD_ACCESS = 17;
+    private static final int ARRAY_ACCESS = 18;
+    private static final int ROUTINE_CALL = 19;
+    private static final int TYPE_CAST = 20;
+    private static final int BINARY_EXPRESSION = 21;
+    private static final int UNARY_EXPRESSION = 22;
+
+    // Type tags
+    private static final int SIMPLE_TYPE = 1;
+    private static final int ARRAY_TYPE = 2;
+    private static final int RECORD_TYPE = 3;
+
+    /** The whole file */
+    private final ByteBuffer bytes;
+    /** Position in {@link #bytes} of the first encoded declaration */
+    private final int declarationsStart;
+    /** The names, interned again in the order of their IDs */
+    private final NameTable names = new NameTable();
+    private final String[] strings;
+    private final Type[] types;
+    /** Tag, name index, position and length of each declaration */
+    private final int[] declarations;
+
+    /**
+     * Reads the tables of a file.
+     *
+     * @param bytes The file, from its first byte
+     * @throws IOException if the bytes are not an AST file of this version
+     */
+    public AstFile(ByteBuffer bytes) throws IOException {
+        this.bytes = bytes.duplicate();
+        Decoder in = new Decoder(this.bytes, 0);
+        for (byte b : MAGIC) {
+            if (!in.in.hasRemaining() || in.in.get() != b) {
+                throw new IOException("Not an AST file");
+            }
+        }
+        try {
+            int version = in.varint();
+            if (version != VERSION) {
+                throw new IOException("Unsupported AST file version " + version + ", expected " + VERSION);
+            }
+            int nameCount = in.varint();
+            for (int i = 0; i < nameCount; i++) {
+                if (names.intern(in.utf8()) != i) {
+                    throw new IOException("Duplicate name in AST file");
+                }
+            }
+            strings = new String[in.varint()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = in.utf8();
+            }
+            types = new Type[in.varint()];
+            for (int i = 0; i < types.length; i++) {
+                types[i] = in.typeEntry();
+            }
+            declarations = new int[in.varint() * 4];
+            for (int i = 0; i < declarations.length; i++) {
+                declarations[i] = in.varint();
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt AST file: " + e, e);
+        }
+        declarationsStart = in.position();
+    }
+
+    /**
+     * Maps a file into memory and reads its tables.
+     *
+     * @param file An AST file written by {@link #write}
+     * @return The opened file
+     * @throws IOException if the file cannot be read or is not an AST file of this version
+     */
+    public static AstFile open(File file) throws IOException {
+        return new AstFile(MappedSourceReader.map(file));
+    }
+
+    /**
+     * Returns the names of the program, with the IDs they had when it was written.
+     */
+    public NameTable getNames() {
+        return names;
+    }
+
+    /**
+     * Returns the number of top-level declarations.
+     */
+    public int size() {
+        return declarations.length / 4;
+    }
+
+    /**
+     * Returns the name a top-level declaration declares.
+     */
+    public String getName(int index) {
+        return names.getName(declarations[index * 4 + 1]);
+    }
+
+    /**
+     * Returns whether a top-level declaration is a routine.
+     */
+    public boolean isRoutine(int index) {
+        return declarations[index * 4] == ROUTINE_DECL;
+    }
+
+    /**
+     * Decodes a top-level declaration. Each call makes new nodes.
+     *
+     * @throws IllegalStateException if the declaration's bytes are corrupt
+     */
+    public Statement getDeclaration(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Declaration " + index + " of " + size());
+        }
+        int start = declarationsStart + declarations[index * 4 + 2];
+        Decoder in = new Decoder(bytes, start);
+        Statement declaration;
+        try {
+            declaration = in.statement();
+        } catch (IllegalStateException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Corrupt AST file: " + e, e);
+        }
+        if (in.position() - start != declarations[index * 4 + 3]) {
+            throw new IllegalStateException("Corrupt AST file: declaration " + index + " has the wrong length");
+        }
+        return declaration;
+    }
+
+    /**
+     * Decodes the first top-level routine with the given name.
+     *
+     * @return The routine, or null if there is none
+     */
+    public RoutineDecl getRoutine(String name) {
+        for (int i = 0; i < size(); i++) {
+            if (isRoutine(i) && getName(i).equals(name)) {
+                return (RoutineDecl) getDeclaration(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Decodes the whole program.
+     */
+    public Program load() {
+        List<Statement> statements = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) {
+            statements.add(getDeclaration(i));
+        }
+        return new Program(statements, names);
+    }
+
+    /**
+     * Writes a program.
+     *
+     * @param program A program as built by the parsers
+     * @param out Stream receiving the file
+     * @throws IOException if writing fails
+     * @throws IllegalArgumentException if the program holds a kind of node the parsers do not make
+     */
+    public static void write(Program program, OutputStream out) throws IOException {
+        Encoder encoder = new Encoder(program.getNames());
+        Bytes body = new Bytes();
+        List<int[]> index = new ArrayList<>();
+        for (Statement declaration : program.getStatements()) {
+            int start = body.size;
+            declaration.accept(encoder.into(body));
+            index.add(new int[] {encoder.lastTag, encoder.lastName, start, body.size - start});
+        }
+
+        Bytes header = new Bytes();
+        header.write(MAGIC);
+        header.varint(VERSION);
+        header.varint(encoder.names.size());
+        for (String name : encoder.names) {
+            header.utf8(name);
+        }
+        header.varint(encoder.strings.size());
+        for (String string : encoder.strings) {
+            header.utf8(string);
+        }
+        header.varint(encoder.typeCount);
+        header.write(encoder.typeTable);
+        header.varint(index.size());
+        for (int[] entry : index) {
+            for (int field : entry) {
+                header.varint(field);
+            }
+        }
+        out.write(header.data, 0, header.size);
+        out.write(body.data, 0, body.size);
+        out.flush();
+    }
+
+    /** A growable byte array with the encodings of the format */
+    private static class Bytes {
+        byte[] data = new byte[256];
+        int size;
+
+        void write(int b) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = (byte) b;
+        }
+
+        void write(byte[] b) {
+            write(b, b.length);
+        }
+
+        void write(Bytes b) {
+            write(b.data, b.size);
+        }
+
+        private void write(byte[] b, int length) {
+            if (size + length > data.length) {
+                data = Arrays.copyOf(data, Math.max(size + length, data.length * 2));
+            }
+            System.arraycopy(b, 0, data, size, length);
+            size += length;
+        }
+
+        void varint(int value) {
+            while ((value & ~0x7F) != 0) {
+                write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+
+        void utf8(String s) {
+            byte[] encoded = s.getBytes(StandardCharsets.UTF_8);
+            varint(encoded.length);
+            write(encoded);
+        }
+    }
+
+    /** Encodes nodes, collecting the names, strings and types they use into tables */
+    private static class Encoder implements AstVisitor<Void> {
+        /** The program's names, whose IDs are the indexes of the names table */
+        private final NameTable table;
+        /** The names table: those of the program, then any the AST has that it lacks */
+        final List<String> names = new ArrayList<>();
+        private final Map<String, Integer> extraNames = new HashMap<>();
+        final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> stringIndexes = new HashMap<>();
+        final Bytes typeTable = new Bytes();
+        int typeCount;
+        private final Map<Type, Integer> typeIndexes = new HashMap<>();
+
+        /** Where nodes are being written */
+        private Bytes out;
+        /** Number of statement lists being written that the current node is in */
+        private int depth;
+        /** Tag and name of the last top-level declaration written */
+        int lastTag;
+        int lastName;
+
+        Encoder(NameTable table) {
+            this.table = table;
+            if (table != null) {
+                for (int id = 0; id < table.size(); id++) {
+                    names.add(table.getName(id));
+                }
+            }
+        }
+
+        Encoder into(Bytes out) {
+            this.out = out;
+            return this;
+        }
+
+        private int name(String name) {
+            int id = table != null ? table.getId(name) : -1;
+            if (id >= 0) {
+                return id;
+            }
+            Integer extra = extraNames.get(name);
+            if (extra == null) {
+                extra = names.size();
+                names.add(name);
+                extraNames.put(name, extra);
+            }
+            return extra;
+        }
+
+        private int string(String string) {
+            Integer index = stringIndexes.get(string);
+            if (index == null) {
+                index = strings.size();
+                strings.add(string);
+                stringIndexes.put(string, index);
+            }
+            return index;
+        }
+
+        /** Index of a type plus one, or 0 for none, adding it and its parts to the table */
+        private int type(Type type) {
+            if (type == null) {
+                return 0;
+            }
+            Integer index = typeIndexes.get(type);
+            if (index != null) {
+                return index + 1;
+            }
+            // Parts first, so that a reader can make each type from types it already has
+            Bytes entry = new Bytes();
+            if (type instanceof ArrayType) {
+                ArrayType array = (ArrayType) type;
+                int element = type(array.getElementType());
+                entry.write(ARRAY_TYPE);
+                entry.varint(element);
+                entry.varint(array.getSize() == null ? 0 : array.getSize() + 1);
+            } else if (type instanceof RecordType) {
+                List<int[]> fields = new ArrayList<>();
+                for (Map.Entry<String, Type> field : ((RecordType) type).getFieldEntries()) {
+                    fields.add(new int[] {string(field.getKey()), type(field.getValue())});
+                }
+                entry.write(RECORD_TYPE);
+                entry.varint(fields.size());
+                for (int[] field : fields) {
+                    entry.varint(field[0]);
+                    entry.varint(field[1]);
+                }
+            } else if (type instanceof SimpleType) {
+                entry.write(SIMPLE_TYPE);
+                entry.varint(string(((SimpleType) type).getName()));
+            } else {
+                throw new IllegalArgumentException("Cannot write type " + type.getClass().getSimpleName());
+            }
+            typeTable.write(entry);
+            typeIndexes.put(type, typeCount);
+            return ++typeCount;
+        }
+
+        private void declaration(int tag, String name) {
+            out.write(tag);
+            int index = name(name);
+            out.varint(index);
+            if (depth == 0) {
+                lastTag = tag;
+                lastName = index;
+            }
+        }
+
+        private void statements(List<Statement> statements) {
+            if (statements == null) {
+                out.varint(0);
+                return;
+            }
+            out.varint(statements.size() + 1);
+            depth++;
+            for (Statement statement : statements) {
+                statement.accept(this);
+            }
+            depth--;
+        }
+
+        private void expression(Expression expression) {
+            if (expression == null) {
+                out.write(NONE);
+            } else {
+                expression.accept(this);
+            }
+        }
+
+        @Override
+        public Void visitStatement(Statement stmt) {
+            throw new IllegalArgumentException("Cannot write " + stmt.getClass().getSimpleName());
+        }
+
+        @Override
+        public Void visitExpression(Expression expr) {
+            throw new IllegalArgumentException("Cannot write " + expr.getClass().getSimpleName());
+        }
+
+        @Override
+        public Void visitVarDecl(VarDecl stmt) {
+            int type = type(stmt.getType());
+            declaration(VAR_DECL, stmt.getName());
+            out.varint(type);
+            expression(stmt.getInitializer());
+            return null;
+        }
+
+        @Override
+        public Void visitArrayDecl(ArrayDecl stmt) {
+            int type = type(stmt.getType());
+            declaration(ARRAY_DECL, stmt.getName());
+            out.varint(type);
+            return null;
+        }
+
+        @Override
+        public Void visitTypeDecl(TypeDecl stmt) {
+            int type = type(stmt.getType());
+            declaration(TYPE_DECL, stmt.getName());
+            out.varint(type);
+            return null;
+        }
+
+        @Override
+        public Void visitRoutineDecl(RoutineDecl stmt) {
+            declaration(ROUTINE_DECL, stmt.getName());
+            List<Parameter> parameters = stmt.getParameters();
+            out.varint(parameters == null ? 0 : parameters.size() + 1);
+            if (parameters != null) {
+                for (Parameter parameter : parameters) {
+                    out.varint(name(parameter.getName()));
+                    out.varint(type(parameter.getType()));
+                }
+            }
+            out.varint(type(stmt.getReturnType()));
+            statements(stmt.getBody());
+            return null;
+        }
+
+        @Override
+        public Void visitAssignment(Assignment stmt) {
+            out.write(ASSIGNMENT);
+            out.varint(name(stmt.getTarget()));
+            expression(stmt.getIndex());
+            expression(stmt.getValue());
+            return null;
+        }
+
+        @Override
+        public Void visitIfStatement(IfStatement stmt) {
+            out.write(IF_STATEMENT);
+            expression(stmt.getCondition());
+            statements(stmt.getThenStatements());
+            statements(stmt.getElseStatements());
+            return null;
+        }
+
+        @Override
+        public Void visitWhileStatement(WhileStatement stmt) {
+            out.write(WHILE_STATEMENT);
+            expression(stmt.getCondition());
+            statements(stmt.getBody());
+            return null;
+        }
+
+        @Override
+        public Void visitForLoop(ForLoop stmt) {
+            out.write(FOR_LOOP);
+            out.varint(name(stmt.getVariable()));
+            out.write(stmt.isReverse() ? 1 : 0);
+            expression(stmt.getRangeStart());
+            expression(stmt.getRangeEnd());
+            statements(stmt.getBody());
+            return null;
+        }
+
+        @Override
+        public Void visitPrintStatement(PrintStatement stmt) {
+            out.write(PRINT_STATEMENT);
+            expression(stmt.getExpression());
+            return null;
+        }
+
+        @Override
+        public Void visitReadStatement(ReadStatement stmt) {
+            out.write(READ_STATEMENT);
+            out.varint(name(stmt.getVariable()));
+            return null;
+        }
+
+        @Override
+        public Void visitReturnStatement(ReturnStatement stmt) {
+            out.write(RETURN_STATEMENT);
+            expression(stmt.getExpression());
+            return null;
+        }
+
+        @Override
+        public Void visitIntegerLiteral(IntegerLiteral expr) {
+            out.write(INTEGER_LITERAL);
+            out.varint((expr.getValue() << 1) ^ (expr.getValue() >> 31));
+            return null;
+        }
+
+        @Override
+        public Void visitRealLiteral(RealLiteral expr) {
+            out.write(REAL_LITERAL);
+            long bits = Double.doubleToRawLongBits(expr.getValue());
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) (bits >>> shift));
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitStringLiteral(StringLiteral expr) {
+            out.write(STRING_LITERAL);
+            out.varint(string(expr.getRawValue()));
+            return null;
+        }
+
+        @Override
+        public Void visitBooleanLiteral(BooleanLiteral expr) {
+            out.write(BOOLEAN_LITERAL);
+            out.write(expr.getValue() ? 1 : 0);
+            return null;
+        }
+
+        @Override
+        public Void visitVariableReference(VariableReference expr) {
+            out.write(VARIABLE_REFERENCE);
+            out.varint(name(expr.getName()));
+            return null;
+        }
+
+        @Override
+        public Void visitRecordAccess(RecordAccess expr) {
+            out.write(RECORD_ACCESS);
+            out.varint(name(expr.getRecord()));
+            out.varint(name(expr.getField()));
+            return null;
+        }
+
+        @Override
+        public Void visitArrayAccess(ArrayAccess expr) {
+            out.write(ARRAY_ACCESS);
+            out.varint(name(expr.getArray()));
+            expression(expr.getIndex());
+            return null;
+        }
+
+        @Override
+        public Void visitRoutineCall(RoutineCall expr) {
+            out.write(ROUTINE_CALL);
+            out.varint(name(expr.getName()));
+            List<Expression> arguments = expr.getArguments();
+            out.varint(arguments == null ? 0 : arguments.size() + 1);
+            if (arguments != null) {
+                for (Expression argument : arguments) {
+                    expression(argument);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitTypeCast(TypeCast expr) {
+            int type = type(expr.getTargetType());
+            out.write(TYPE_CAST);
+            expression(expr.getExpression());
+            out.varint(type);
+            return null;
+        }
+
+        @Override
+        public Void visitBinaryExpression(BinaryExpression expr) {
+            out.write(BINARY_EXPRESSION);
+            out.write(expr.getOperator().ordinal());
+            expression(expr.getLeft());
+            expression(expr.getRight());
+            return null;
+        }
+
+        @Override
+        public Void visitUnaryExpression(UnaryExpression expr) {
+            out.write(UNARY_EXPRESSION);
+            out.write(expr.getOperator().ordinal());
+            expression(expr.getExpression());
+            return null;
+        }
+    }
+
+    /** Decodes the tables and nodes of a file, reading from its own position */
+    private class Decoder {
+        final ByteBuffer in;
+
+        Decoder(ByteBuffer bytes, int position) {
+            in = bytes.duplicate();
+            in.position(position);
+        }
+
+        int position() {
+            return in.position();
+        }
+
+        int varint() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = in.get();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+                if (shift >= 28) {
+                    throw new IllegalStateException("Corrupt AST file: varint too long");
+                }
+            }
+        }
+
+        String utf8() {
+            byte[] encoded = new byte[varint()];
+            in.get(encoded);
+            return new String(encoded, StandardCharsets.UTF_8);
+        }
+
+        Type typeEntry() {
+            int tag = in.get();
+            switch (tag) {
+                case SIMPLE_TYPE:
+                    return Type.simple(strings[varint()]);
+                case ARRAY_TYPE: {
+                    Type element = type();
+                    int size = varint();
+                    return Type.array(element, size == 0 ? null : size - 1);
+                }
+                case RECORD_TYPE: {
+                    int count = varint();
+                    List<VariableDeclaration> fields = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        String field = strings[varint()];
+                        fields.add(new VarDecl(field, type(), null));
+                    }
+                    return Type.record(fields);
+                }
+                default:
+                    throw new IllegalStateException("Corrupt AST file: unknown type tag " + tag);
+            }
+        }
+
+        Type type() {
+            int index = varint();
+            return index == 0 ? null : types[index - 1];
+        }
+
+        String name() {
+            return names.getName(varint());
+        }
+
+        List<Statement> statements() {
+            int size = varint() - 1;
+            if (size < 0) {
+                return null;
+            }
+            List<Statement> statements = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                statements.add(statement());
+            }
+            return statements;
+        }
+
+        Statement statement() {
+            int tag = in.get();
+            switch (tag) {
+                case VAR_DECL: {
+                    String name = name();
+                    Type type = type();
+                    return new VarDecl(name, type, expression());
+                }
+                case ARRAY_DECL: {
+                    String name = name();
+                    return new ArrayDecl(name, (ArrayType) type());
+                }
+                case TYPE_DECL: {
+                    String name = name();
+                    return new TypeDecl(name, type());
+                }
+                case ROUTINE_DECL: {
+                    String name = name();
+                    int count = varint() - 1;
+                    List<Parameter> parameters = null;
+                    if (count >= 0) {
+                        parameters = new ArrayList<>(count);
+                        for (int i = 0; i < count; i++) {
+                            String parameter = name();
+                            parameters.add(new Parameter(parameter, type()));
+                        }
+                    }
+                    Type returnType = type();
+                    return new RoutineDecl(name, parameters, returnType, statements());
+                }
+                case ASSIGNMENT: {
+                    String target = name();
+                    Expression index = expression();
+                    Expression value = expression();
+                    return index == null ? new Assignment(target, value) : new Assignment(target, index, value);
+                }
+                case IF_STATEMENT: {
+                    Expression condition = expression();
+                    List<Statement> thenBody = statements();
+                    return new IfStatement(condition, thenBody, statements());
+                }
+                case WHILE_STATEMENT: {
+                    Expression condition = expression();
+                    return new WhileStatement(condition, statements());
+                }
+                case FOR_LOOP: {
+                    String variable = name();
+                    Reverse reverse = new Reverse(in.get() != 0);
+                    Expression start = expression();
+                    Expression end = expression();
+                    return new ForLoop(variable, reverse, start, end, statements());
+                }
+                case PRINT_STATEMENT:
+                    return new PrintStatement(expression());
+                case READ_STATEMENT:
+                    return new ReadStatement(name());
+                case RETURN_STATEMENT:
+                    return new ReturnStatement(expression());
+                default:
+                    throw new IllegalStateException("Corrupt AST file: unknown statement tag " + tag);
+            }
+        }
+
+        Expression expression() {
+            int tag = in.get();
+            switch (tag) {
+                case NONE:
+                    return null;
+                case INTEGER_LITERAL: {
+                    int zigzag = varint();
+                    return new IntegerLiteral((zigzag >>> 1) ^ -(zigzag & 1));
+                }
+                case REAL_LITERAL:
+                    return new RealLiteral(Double.longBitsToDouble(in.getLong()));
+                case STRING_LITERAL:
+                    return new StringLiteral(strings[varint()]);
+                case BOOLEAN_LITERAL:
+                    return new BooleanLiteral(in.get() != 0);
+                case VARIABLE_REFERENCE:
+                    return new VariableReference(name());
+                case RECORD_ACCESS: {
+                    String record = name();
+                    return new RecordAccess(record, name());
+                }
+                case ARRAY_ACCESS: {
+                    String array = name();
+                    return new ArrayAccess(array, expression());
+                }
+                case ROUTINE_CALL: {
+                    String name = name();
+                    int count = varint() - 1;
+                    List<Expression> arguments = null;
+                    if (count >= 0) {
+                        arguments = new ArrayList<>(count);
+                        for (int i = 0; i < count; i++) {
+                            arguments.add(expression());
+                        }
+                    }
+                    return new RoutineCall(name, arguments);
+                }
+                case TYPE_CAST: {
+                    Expression expression = expression();
+                    return new TypeCast(expression, type());
+                }
+                case BINARY_EXPRESSION: {
+                    Operator operator = operator();
+                    Expression left = expression();
+                    return new BinaryExpression(left, operator, expression());
+                }
+                case UNARY_EXPRESSION: {
+                    Operator operator = operator();
+                    return new UnaryExpression(operator, expression());
+                }
+                default:
+                    throw new IllegalStateException("Corrupt AST file: unknown expression tag " + tag);
+            }
+        }
+
+        private Operator operator() {
+            int ordinal = in.get();
+            Operator[] operators = Operator.values();
+            if (ordinal < 0 || ordinal >= operators.length) {
+                throw new IllegalStateException("Corrupt AST file: unknown operator " + ordinal);
+            }
+            return operators[ordinal];
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.compiler;
+
+/**
+ * Visitor over the statements and expressions of the AST.
+ * A pass that handles nodes differently by class implements this interface and calls
+ * {@link Statement#accept(AstVisitor)} or {@link Expression#accept(AstVisitor)}; each node
+ * calls back the visit method for its own class, so a pass dispatches with one virtual
+ * call instead of testing the node against every class in turn.
+ * <p>
+ * Every visit method defaults to {@link #visitStatement(Statement)} or
+ * {@link #visitExpression(Expression)}, which return null, so a pass only overrides the
+ * nodes it handles and can override the fallbacks to treat the rest alike.
+ *
+ * @param <R> Type of the value each visit returns; {@link Void} for passes that return nothing
+ */
+public interface AstVisitor<R> {
+
+    /**
+     * Visits a statement whose class has no overridden visit method.
+     */
+    default R visitStatement(Statement stmt) {
+        return null;
+    }
+
+    /**
+     * Visits an expression whose class has no overridden visit method.
+     */
+    default R visitExpression(Expression expr) {
+        return null;
+    }
+
+    // Statements
+
+    default R visitArrayDecl(ArrayDecl stmt) {
+        return visitStatement(stmt);
+    }
+
+    default R visitAssignment(Assignment stmt) {
+        return visitStatement(stmt);
+    }
+
+    default R visitBlockStatement(BlockStatement stmt) {
+        return visitStatement(stmt);
+    }
+
+    default R visitFieldAssignment(FieldAssignment stmt) {
+        return visitStatement(stmt);
+    }
+
+    default R visitForLoop(ForLoop stmt) {
+        return visitStatement(stmt);
+    }
+
+    default R visitIfStatement(IfStatement stmt) {
+        return visitStatement(stmt);
+    }
+
+    default R visitPrintStatement(PrintStatement stmt) {
+        return visitStatement(stmt);
+    }
+
+    default R visitReadStatement(ReadStatement stmt) {
+        return visitStatement(stmt);
+    }
+
+    default R visitRecordTypeDecl(RecordTypeDecl stmt) {
+        return visitStatement(stmt);
+    }
+
+    default R visitReturnStatement(ReturnStatement stmt) {
+        return visitStatement(stmt);
+    }
+
+    default R visitRoutineCallStatement(RoutineCallStatement stmt) {
+        return visitStatement(stmt);
+    }
+
+    default R visitRoutineDecl(RoutineDecl stmt) {
+        return visitStatement(stmt);
+    }
+
+    default R visitTypeDecl(TypeDecl stmt) {
+        return visitStatement(stmt);
+    }
+
+    default R visitVarDecl(VarDecl stmt) {
+        return visitStatement(stmt);
+    }
+
+    default R visitWhileStatement(WhileStatement stmt) {
+        return visitStatement(stmt);
+    }
+
+    // Expressions
+
+    default R visitArrayAccess(ArrayAccess expr) {
+        return visitExpression(expr);
+    }
+
+    default R visitBinaryExpression(BinaryExpression expr) {
+        return visitExpression(expr);
+    }
+
+    default R visitBinaryOperation(BinaryOperation expr) {
+        return visitExpression(expr);
+    }
+
+    default R visitBooleanLiteral(BooleanLiteral expr) {
+        return visitExpression(expr);
+    }
+
+    default R visitFieldAccess(FieldAccess expr) {
+        return visitExpression(expr);
+    }
+
+    default R visitIntegerLiteral(IntegerLiteral expr) {
+        return visitExpression(expr);
+    }
+
+    default R visitLiteralExpression(LiteralExpression expr) {
+        return visitExpression(expr);
+    }
+
+    default R visitRealLiteral(RealLiteral expr) {
+        return visitExpression(expr);
+    }
+
+    default R visitRecordAccess(RecordAccess expr) {
+        return visitExpression(expr);
+    }
+
+    default R visitRoutineCall(RoutineCall expr) {
+        return visitExpression(expr);
+    }
+
+    default R visitRoutineCallExpression(RoutineCallExpression expr) {
+        return visitExpression(expr);
+    }
+
+    default R visitStringLiteral(StringLiteral expr) {
+        return visitExpression(expr);
+    }
+
+    default R visitTypeCast(TypeCast expr) {
+        return visitExpression(expr);
+    }
+
+    default R visitTypeCastExpression(TypeCastExpression expr) {
+        return visitExpression(expr);
+    }
+
+    default R visitUnaryExpression(UnaryExpression expr) {
+        return visitExpression(expr);
+    }
+
+    default R visitVariableExpression(VariableExpression expr) {
+        return visitExpression(expr);
+    }
+
+    default R visitVariableReference(VariableReference expr) {
+        return visitExpression(expr);
+    }
+}
@@ -0,0 +1,233 @@
+package com.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compiles many programs in one JVM.
+ * Each program goes through its own {@link CompilerPipeline} on a pool of worker threads,
+ * one per core by default, and its class files are written to a directory of its own
+ * under the output directory, named after the source file. Programs are compiled but not
+ * run. Results are reported in the order the sources were given, and the exit status is
+ * 0 only if every program compiled.
+ */
+public class BatchCompiler {
+    /** Usage text for batch mode */
+    public static final String USAGE = "--batch [--out=DIR] [--jobs=N] <file-or-directory>... " + CompilerOptions.USAGE;
+
+    /** Extensions of the source files picked up from a directory */
+    private static final List<String> SOURCE_EXTENSIONS = Arrays.asList(".txt", ".imp");
+
+    /** Options for every compilation */
+    private final CompilerOptions options;
+    /** Directory the per-program output directories are created in */
+    private final File outputRoot;
+    /** Number of programs compiled at the same time */
+    private final int jobs;
+    /** Stream for the per-program results */
+    private final PrintStream out;
+
+    /**
+     * Creates a batch compiler.
+     *
+     * @param options Options for every compilation
+     * @param outputRoot Directory the per-program output directories are created in
+     * @param jobs Number of programs compiled at the same time
+     * @param out Stream for the per-program results and their logs
+     */
+    public BatchCompiler(CompilerOptions options, File outputRoot, int jobs, PrintStream out) {
+        this.options = options;
+        this.outputRoot = outputRoot;
+        this.jobs = jobs;
+        this.out = out;
+    }
+
+    /**
+     * Entry point for "--batch", with the arguments that follow it.
+     */
+    public static void main(String[] args) {
+        File outputRoot = new File("output");
+        int jobs = Runtime.getRuntime().availableProcessors();
+        List<String> paths = new ArrayList<>();
+        List<String> flags = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--out=")) {
+                outputRoot = new File(arg.substring("--out=".length()));
+            } else if (arg.startsWith("--jobs=")) {
+                jobs = Integer.parseInt(arg.substring("--jobs=".length()));
+            } else if (arg.startsWith("--")) {
+                flags.add(arg);
+            } else {
+                paths.add(arg);
+            }
+        }
+
+        CompilerOptions options;
+        List<File> sources;
+        try {
+            options = CompilerOptions.parse(flags);
+            if (options.isInterpret()) {
+                throw new IllegalArgumentException("--interpret cannot be used with --batch");
+            }
+            sources = collectSources(paths);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java -jar imperativeLangParser.jar " + USAGE);
+            System.exit(1);
+            return;
+        }
+        System.exit(new BatchCompiler(options, outputRoot, jobs, System.out).compileAll(sources));
+    }
+
+    /**
+     * Expands the given paths into source files: files are taken as they are, and
+     * directories contribute the source files directly inside them, sorted by name.
+     *
+     * @throws IllegalArgumentException if a path does not exist or no source is found
+     */
+    static List<File> collectSources(List<String> paths) {
+        List<File> sources = new ArrayList<>();
+        for (String path : paths) {
+            File file = new File(path);
+            if (file.isDirectory()) {
+                File[] children = file.listFiles();
+                if (children == null) {
+                    throw new IllegalArgumentException("Cannot list directory: " + path);
+                }
+                Arrays.sort(children);
+                for (File child : children) {
+                    if (child.isFile() && isSource(child)) {
+                        sources.add(child);
+                    }
+                }
+            } else if (file.isFile()) {
+                sources.add(file);
+            } else {
+                throw new IllegalArgumentException("Input file not found: " + path);
+            }
+        }
+        if (sources.isEmpty()) {
+            throw new IllegalArgumentException("No source files given");
+        }
+        return sources;
+    }
+
+    private static boolean isSource(File file) {
+        for (String extension : SOURCE_EXTENSIONS) {
+            if (file.getName().endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compiles every source, writing the class files of each into its own output directory,
+     * and prints each program's result in the order of the sources.
+     *
+     * @param sources Source files to compile
+     * @return 0 if every program compiled, 1 otherwise
+     */
+    public int compileAll(List<File> sources) {
+        List<File> outputDirs = outputDirectories(sources);
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, Math.min(jobs, sources.size())));
+        try {
+            List<Future<Outcome>> outcomes = new ArrayList<>();
+            for (int i = 0; i < sources.size(); i++) {
+                File source = sources.get(i);
+                File outputDir = outputDirs.get(i);
+                outcomes.add(workers.submit(() -> compile(source, outputDir)));
+            }
+
+            int failed = 0;
+            for (int i = 0; i < sources.size(); i++) {
+                Outcome outcome = outcomes.get(i).get();
+                out.print(outcome.log);
+                if (outcome.errors.isEmpty()) {
+                    out.println(sources.get(i).getPath() + ": compiled to " + outputDirs.get(i).getPath());
+                } else {
+                    failed++;
+                    out.println(sources.get(i).getPath() + ": failed");
+                    for (String error : outcome.errors) {
+                        out.println("    " + error);
+                    }
+                }
+            }
+            out.println(sources.size() - failed + " of " + sources.size() + " programs compiled");
+            return failed == 0 ? 0 : 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Names the output directory of each source after its file name without the extension,
+     * numbering repeated names so programs never share a directory.
+     */
+    private List<File> outputDirectories(List<File> sources) {
+        List<File> dirs = new ArrayList<>();
+        Set<String> used = new HashSet<>();
+        for (File source : sources) {
+            String name = source.getName();
+            int dot = name.lastIndexOf('.');
+            String base = dot > 0 ? name.substring(0, dot) : name;
+            String unique = base;
+            for (int n = 2; !used.add(unique); n++) {
+                unique = base + "-" + n;
+            }
+            dirs.add(new File(outputRoot, unique));
+        }
+        return dirs;
+    }
+
+    /**
+     * Compiles one program; runs on a worker thread.
+     */
+    private Outcome compile(File source, File outputDir) throws IOException {
+        ByteArrayOutputStream logBytes = new ByteArrayOutputStream();
+        PrintStream log = new PrintStream(logBytes, true, "UTF-8");
+        List<String> errors;
+        try {
+            CompilationResult result = new CompilerPipeline(options, log).compile(source, outputDir);
+            errors = result.getErrors();
+            if (result.isSuccess()) {
+                Main.writeClassFiles(outputDir, result.getClasses());
+            }
+        } catch (Exception e) {
+            e.printStackTrace(log);
+            errors = new ArrayList<>();
+            errors.add("Error compiling " + source.getPath() + ": " + e);
+        }
+        return new Outcome(new String(logBytes.toByteArray(), StandardCharsets.UTF_8), errors);
+    }
+
+    /**
+     * What compiling one program printed and the errors it found.
+     */
+    private static class Outcome {
+        final String log;
+        final List<String> errors;
+
+        Outcome(String log, List<String> errors) {
+            this.log = log;
+            this.errors = errors;
+        }
+    }
+}
@@ -8,18 +8,18 @@ package com.compiler;
 public class BinaryExpression extends Expression {
     /** The left operand expression */
     private Expression left;
-    /** The operator symbol/string */
-    private String operator;
+    /** The operator */
+    private Operator operator;
     /** The right operand expression */
     private Expression right;
 
     /**
      * Creates a new binary expression with the given operands and operator.
      * @param left The left operand expression
-     * @param operator The operator symbol/string
+     * @param operator The operator
      * @param right The right operand expression
      */
-    public BinaryExpression(Expression left, String operator, Expression right) {
+    public BinaryExpression(Expression left, Operator operator, Expression right) {
         this.left = left;
         this.operator = operator;
         this.right = right;
@@ -42,10 +42,10 @@ public class BinaryExpression extends Expression {
     }
 
     /**
-     * Gets the operator symbol/string.
+     * Gets the operator.
      * @return The operator
      */
-    public String getOperator() {
+    public Operator getOperator() {
         return operator;
     }
 
@@ -56,37 +56,64 @@ public class BinaryExpression extends Expression {
      */
     @Override
     public Object evaluate() {
-        Object leftVal = left.evaluate();
-        Object rightVal = right.evaluate();
+        return apply(left.evaluate(), right.evaluate());
+    }
+
+    /**
+     * Evaluates this binary expression in an interpreted program.
+     * "and" and "or" only evaluate the right operand when it decides the result.
+     * @param env The run-time state of the program
+     * @return The result of evaluating the expression
+     * @throws RuntimeException if the operator is unknown or operand types are invalid
+     */
+    @Override
+    public Object evaluate(Environment env) {
+        Object leftVal = left.evaluate(env);
+        if (operator == Operator.AND && Boolean.FALSE.equals(leftVal)) {
+            return false;
+        }
+        if (operator == Operator.OR && Boolean.TRUE.equals(leftVal)) {
+            return true;
+        }
+        return apply(leftVal, right.evaluate(env));
+    }
 
+    /**
+     * Applies the operator to two operand values.
+     * @param leftVal The value of the left operand
+     * @param rightVal The value of the right operand
+     * @return The result of the operation
+     * @throws RuntimeException if the operator is unknown or operand types are invalid
+     */
+    private Object apply(Object leftVal, Object rightVal) {
         switch (operator) {
-            case "+":
+            case ADD:
                 return add(leftVal, rightVal);
-            case "-":
+            case SUBTRACT:
                 return subtract(leftVal, rightVal);
-            case "*":
+            case MULTIPLY:
                 return multiply(leftVal, rightVal);
-            case "/":
+            case DIVIDE:
                 return divide(leftVal, rightVal);
-            case "%":
+            case MODULO:
                 return mod(leftVal, rightVal);
-            case "and":
+            case AND:
                 return and(leftVal, rightVal);
-            case "or":
+            case OR:
                 return or(leftVal, rightVal);
-            case "xor":
+            case XOR:
                 return xor(leftVal, rightVal);
-            case "=":
+            case EQUAL:
                 return equals(leftVal, rightVal);
-            case "!=":
+            case NOT_EQUAL:
                 return notEquals(leftVal, rightVal);
-            case "<":
+            case LESS:
                 return lessThan(leftVal, rightVal);
-            case "<=":
+            case LESS_OR_EQUAL:
                 return lessOrEqual(leftVal, rightVal);
-            case ">":
+            case GREATER:
                 return greaterThan(leftVal, rightVal);
-            case ">=":
+            case GREATER_OR_EQUAL:
                 return greaterOrEqual(leftVal, rightVal);
             default:
                 throw new RuntimeException("Unknown operator: " + operator);
@@ -97,14 +124,19 @@ public class BinaryExpression extends Expression {
      * Performs addition of two operands.
      * @param left The left operand
      * @param right The right operand
-     * @return The sum of the operands
-     * @throws RuntimeException if operands are not both integers
+     * @return The sum of the operands, or their concatenation if either is a string
+     * @throws RuntimeException if operands are neither numbers nor strings
      */
     private Object add(Object left, Object right) {
         if (left instanceof Integer && right instanceof Integer) {
             return (Integer) left + (Integer) right;
         }
-        // Add other type combinations as needed
+        if (left instanceof String || right instanceof String) {
+            return String.valueOf(left) + right;
+        }
+        if (isNumber(left) && isNumber(right)) {
+            return toDouble(left) + toDouble(right);
+        }
         throw new RuntimeException("Invalid operand types for +");
     }
 
@@ -113,12 +145,15 @@ public class BinaryExpression extends Expression {
      * @param left The left operand
      * @param right The right operand
      * @return The difference of the operands
-     * @throws RuntimeException if operands are not both integers
+     * @throws RuntimeException if operands are not both numbers
      */
     private Object subtract(Object left, Object right) {
         if (left instanceof Integer && right instanceof Integer) {
             return (Integer) left - (Integer) right;
         }
+        if (isNumber(left) && isNumber(right)) {
+            return toDouble(left) - toDouble(right);
+        }
         throw new RuntimeException("Invalid operand types for -");
     }
 
@@ -127,12 +162,15 @@ public class BinaryExpression extends Expression {
      * @param left The left operand
      * @param right The right operand
      * @return The product of the operands
-     * @throws RuntimeException if operands are not both integers
+     * @throws RuntimeException if operands are not both numbers
      */
     private Object multiply(Object left, Object right) {
         if (left instanceof Integer && right instanceof Integer) {
             return (Integer) left * (Integer) right;
         }
+        if (isNumber(left) && isNumber(right)) {
+            return toDouble(left) * toDouble(right);
+        }
         throw new RuntimeException("Invalid operand types for *");
     }
 
@@ -141,12 +179,15 @@ public class BinaryExpression extends Expression {
      * @param left The left operand
      * @param right The right operand
      * @return The quotient of the operands
-     * @throws RuntimeException if operands are not both integers
+     * @throws RuntimeException if operands are not both numbers
      */
     private Object divide(Object left, Object right) {
         if (left instanceof Integer && right instanceof Integer) {
             return (Integer) left / (Integer) right;
         }
+        if (isNumber(left) && isNumber(right)) {
+            return toDouble(left) / toDouble(right);
+        }
         throw new RuntimeException("Invalid operand types for /");
     }
 
@@ -155,12 +196,15 @@ public class BinaryExpression extends Expression {
      * @param left The left operand
      * @param right The right operand
      * @return The remainder after division
-     * @throws RuntimeException if operands are not both integers
+     * @throws RuntimeException if operands are not both numbers
      */
     private Object mod(Object left, Object right) {
         if (left instanceof Integer && right instanceof Integer) {
             return (Integer) left % (Integer) right;
         }
+        if (isNumber(left) && isNumber(right)) {
+            return toDouble(left) % toDouble(right);
+        }
         throw new RuntimeException("Invalid operand types for %");
     }
 
@@ -213,7 +257,7 @@ public class BinaryExpression extends Expression {
      * @return True if operands are not equal, false otherwise
      */
     private Object notEquals(Object left, Object right) {
-        return !left.equals(right);
+        return !(Boolean) equals(left, right);
     }
 
     /**
@@ -221,12 +265,15 @@ public class BinaryExpression extends Expression {
      * @param left The left operand
      * @param right The right operand
      * @return True if left is less than right, false otherwise
-     * @throws RuntimeException if operands are not both integers
+     * @throws RuntimeException if operands are not both numbers
      */
     private Object lessThan(Object left, Object right) {
         if (left instanceof Integer && right instanceof Integer) {
             return (Integer) left < (Integer) right;
         }
+        if (isNumber(left) && isNumber(right)) {
+            return toDouble(left) < toDouble(right);
+        }
         throw new RuntimeException("Invalid operand types for <");
     }
 
@@ -235,12 +282,15 @@ public class BinaryExpression extends Expression {
      * @param left The left operand
      * @param right The right operand
      * @return True if left is less than or equal to right, false otherwise
-     * @throws RuntimeException if operands are not both integers
+     * @throws RuntimeException if operands are not both numbers
      */
     private Object lessOrEqual(Object left, Object right) {
         if (left instanceof Integer && right instanceof Integer) {
             return (Integer) left <= (Integer) right;
         }
+        if (isNumber(left) && isNumber(right)) {
+            return toDouble(left) <= toDouble(right);
+        }
         throw new RuntimeException("Invalid operand types for <=");
     }
 
@@ -249,12 +299,15 @@ public class BinaryExpression extends Expression {
      * @param left The left operand
      * @param right The right operand
      * @return True if left is greater than right, false otherwise
-     * @throws RuntimeException if operands are not both integers
+     * @throws RuntimeException if operands are not both numbers
      */
     private Object greaterThan(Object left, Object right) {
         if (left instanceof Integer && right instanceof Integer) {
             return (Integer) left > (Integer) right;
         }
+        if (isNumber(left) && isNumber(right)) {
+            return toDouble(left) > toDouble(right);
+        }
         throw new RuntimeException("Invalid operand types for >");
     }
 
@@ -263,12 +316,15 @@ public class BinaryExpression extends Expression {
      * @param left The left operand
      * @param right The right operand
      * @return True if left is greater than or equal to right, false otherwise
-     * @throws RuntimeException if operands are not both integers
+     * @throws RuntimeException if operands are not both numbers
      */
     private Object greaterOrEqual(Object left, Object right) {
         if (left instanceof Integer && right instanceof Integer) {
             return (Integer) left >= (Integer) right;
         }
+        if (isNumber(left) && isNumber(right)) {
+            return toDouble(left) >= toDouble(right);
+        }
         throw new RuntimeException("Invalid operand types for >=");
     }
 
@@ -279,9 +335,30 @@ public class BinaryExpression extends Expression {
      * @return True if operands are equal, false otherwise
      */
     private Object equals(Object left, Object right) {
+        if (isNumber(left) && isNumber(right) && (left instanceof Double || right instanceof Double)) {
+            return toDouble(left) == toDouble(right);
+        }
         return left.equals(right);
     }
 
+    /**
+     * Checks if a value is an integer or a real.
+     * @param value The value to check
+     * @return True if the value is numeric
+     */
+    private static boolean isNumber(Object value) {
+        return value instanceof Integer || value instanceof Double;
+    }
+
+    /**
+     * Converts a numeric value to a real.
+     * @param value An Integer or Double
+     * @return The value as a double
+     */
+    private static double toDouble(Object value) {
+        return ((Number) value).doubleValue();
+    }
+
     /**
      * Returns a string representation of this binary expression in tree format.
      * @return A string showing the operator and both operands
@@ -295,4 +372,9 @@ public class BinaryExpression extends Expression {
         sb.append("└── Right: ").append(right);
         return sb.toString();
     }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitBinaryExpression(this);
+    }
 }
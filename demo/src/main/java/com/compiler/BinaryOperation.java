@@ -5,10 +5,10 @@ package com.compiler;
  */
 public class BinaryOperation extends Expression {
     private final Expression left;
-    private final String operator;
+    private final Operator operator;
     private final Expression right;
 
-    public BinaryOperation(Expression left, String operator, Expression right) {
+    public BinaryOperation(Expression left, Operator operator, Expression right) {
         this.left = left;
         this.operator = operator;
         this.right = right;
@@ -18,7 +18,7 @@ public class BinaryOperation extends Expression {
         return left;
     }
 
-    public String getOperator() {
+    public Operator getOperator() {
         return operator;
     }
 
@@ -41,24 +41,24 @@ public class BinaryOperation extends Expression {
         }
 
         switch (operator) {
-            case "+":
+            case ADD:
                 if (leftValue instanceof Integer && rightValue instanceof Integer) {
                     return (Integer) leftValue + (Integer) rightValue;
                 } else if (leftValue instanceof String || rightValue instanceof String) {
                     return String.valueOf(leftValue) + String.valueOf(rightValue);
                 }
                 break;
-            case "-":
+            case SUBTRACT:
                 if (leftValue instanceof Integer && rightValue instanceof Integer) {
                     return (Integer) leftValue - (Integer) rightValue;
                 }
                 break;
-            case "*":
+            case MULTIPLY:
                 if (leftValue instanceof Integer && rightValue instanceof Integer) {
                     return (Integer) leftValue * (Integer) rightValue;
                 }
                 break;
-            case "/":
+            case DIVIDE:
                 if (leftValue instanceof Integer && rightValue instanceof Integer) {
                     if ((Integer) rightValue == 0) {
                         throw new ArithmeticException("Division by zero");
@@ -66,19 +66,26 @@ public class BinaryOperation extends Expression {
                     return (Integer) leftValue / (Integer) rightValue;
                 }
                 break;
-            case "and":
+            case AND:
                 if (leftValue instanceof Boolean && rightValue instanceof Boolean) {
                     return (Boolean) leftValue && (Boolean) rightValue;
                 }
                 break;
-            case "or":
+            case OR:
                 if (leftValue instanceof Boolean && rightValue instanceof Boolean) {
                     return (Boolean) leftValue || (Boolean) rightValue;
                 }
                 break;
+            default:
+                break;
         }
         
         throw new RuntimeException("Invalid operation: " + operator + 
                                  " between " + leftValue + " and " + rightValue);
     }
-} 
\ No newline at end of file
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitBinaryOperation(this);
+    }
+}
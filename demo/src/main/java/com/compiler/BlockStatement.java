@@ -48,4 +48,9 @@ public class BlockStatement extends Statement {
         }
         return sb.toString();
     }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitBlockStatement(this);
+    }
 }
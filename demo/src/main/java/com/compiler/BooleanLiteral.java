@@ -41,4 +41,9 @@ public class BooleanLiteral extends Expression {
     public String toString() {
         return "BooleanLiteral\n└── value: " + value;
     }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitBooleanLiteral(this);
+    }
 }
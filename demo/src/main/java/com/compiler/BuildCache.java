@@ -0,0 +1,234 @@
+package com.compiler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent cache of compiled programs, addressed by content.
+ * An entry holds the class files of one successful compilation and the files it left in
+ * the output directory, such as the Jasmin sources, and is keyed by the SHA-256 of the
+ * source text, the backend and a fingerprint of the compiler itself, so a hit can only
+ * return what compiling again would produce. The other options do not change what a
+ * compilation produces and are left out of the key: "--parser" and "--flat-ast" build the
+ * same program, "--fork-jasmin" assembles the same classes, "--debug" only adds log
+ * output, which a hit does not repeat, and "--save-ast" writes its file on a hit as well.
+ * <p>
+ * Entries are written to a temporary file and renamed into place, and never change once
+ * they exist, so any number of compiler processes can share one cache directory: a reader
+ * sees a complete entry or none, and two writers of the same entry write the same bytes.
+ */
+public class BuildCache {
+    /** Identifies entry files, and changes with their layout */
+    private static final int ENTRY_MAGIC = 0x494C4332; // "ILC2"
+
+    /** Fingerprint of the compiler classes, computed on first use */
+    private static String compilerFingerprint;
+
+    /** Directory holding the entries */
+    private final File directory;
+
+    /**
+     * Creates a cache in the given directory, which is created when the first entry is stored.
+     */
+    public BuildCache(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Computes the key of a compilation.
+     *
+     * @param source The program source text
+     * @param options Options of the compilation; only those that change its output count
+     * @return The key, as a hex string
+     */
+    public String key(String source, CompilerOptions options) throws IOException {
+        return key(ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_8)), options);
+    }
+
+    /**
+     * Computes the key of a compilation from the source text as UTF-8 bytes, such as a
+     * mapped source file, without decoding it.
+     *
+     * @param source The program source text in UTF-8; its remaining bytes are consumed
+     * @param options Options of the compilation; only those that change its output count
+     * @return The key, as a hex string
+     */
+    public String key(ByteBuffer source, CompilerOptions options) throws IOException {
+        MessageDigest digest = sha256();
+        digest.update(compilerFingerprint().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(options.getBackend().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(source);
+        return toHex(digest.digest());
+    }
+
+    /**
+     * What one compilation produced.
+     */
+    public static class Entry {
+        private final Map<String, byte[]> classes;
+        private final Map<String, byte[]> files;
+
+        Entry(Map<String, byte[]> classes, Map<String, byte[]> files) {
+            this.classes = classes;
+            this.files = files;
+        }
+
+        /** Returns the class file bytes keyed by class name */
+        public Map<String, byte[]> getClasses() {
+            return classes;
+        }
+
+        /** Returns the contents of the files left in the output directory, keyed by file name */
+        public Map<String, byte[]> getFiles() {
+            return files;
+        }
+    }
+
+    /**
+     * Loads the entry stored under a key.
+     *
+     * @return The entry, or null if there is none
+     * @throws IOException if the entry exists but cannot be read
+     */
+    public Entry load(String key) throws IOException {
+        File entry = entryFile(key);
+        if (!entry.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(entry)))) {
+            if (in.readInt() != ENTRY_MAGIC) {
+                return null;
+            }
+            Map<String, byte[]> classes = readFiles(in);
+            return new Entry(classes, readFiles(in));
+        }
+    }
+
+    /**
+     * Stores what a compilation produced under a key. Processes storing the same key at the
+     * same time write identical entries, and whichever rename lands last is kept.
+     *
+     * @param classes Class file bytes keyed by class name
+     * @param files Contents of the files the compilation left in the output directory, keyed by file name
+     */
+    public void store(String key, Map<String, byte[]> classes, Map<String, byte[]> files) throws IOException {
+        File entry = entryFile(key);
+        File shard = entry.getParentFile();
+        if (!shard.isDirectory() && !shard.mkdirs() && !shard.isDirectory()) {
+            throw new IOException("Cannot create cache directory " + shard);
+        }
+        File temp = File.createTempFile(key, ".tmp", shard);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeInt(ENTRY_MAGIC);
+                writeFiles(out, classes);
+                writeFiles(out, files);
+            }
+            try {
+                Files.move(temp.toPath(), entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), entry.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    private static Map<String, byte[]> readFiles(DataInputStream in) throws IOException {
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            String name = CompileProtocol.readString(in);
+            files.put(name, CompileProtocol.readBytes(in));
+        }
+        return files;
+    }
+
+    private static void writeFiles(DataOutputStream out, Map<String, byte[]> files) throws IOException {
+        out.writeInt(files.size());
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            CompileProtocol.writeString(out, file.getKey());
+            CompileProtocol.writeBytes(out, file.getValue());
+        }
+    }
+
+    /** Entries are spread over subdirectories named by the first two hex digits of the key */
+    private File entryFile(String key) {
+        return new File(new File(directory, key.substring(0, 2)), key);
+    }
+
+    /**
+     * Fingerprints the compiler by the path, size and modification time of the jar or of
+     * each file in the class directory it was loaded from, so rebuilding the compiler
+     * invalidates every entry without reading the classes on each run.
+     */
+    private static synchronized String compilerFingerprint() throws IOException {
+        if (compilerFingerprint == null) {
+            MessageDigest digest = sha256();
+            File location;
+            try {
+                location = new File(BuildCache.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            } catch (Exception e) {
+                throw new IOException("Cannot locate the compiler classes", e);
+            }
+            List<File> files = new ArrayList<>();
+            collectFiles(location, files);
+            for (File file : files) {
+                String stamp = file.getPath() + "\0" + file.length() + "\0" + file.lastModified() + "\0";
+                digest.update(stamp.getBytes(StandardCharsets.UTF_8));
+            }
+            compilerFingerprint = toHex(digest.digest());
+        }
+        return compilerFingerprint;
+    }
+
+    private static void collectFiles(File file, List<File> files) {
+        File[] children = file.listFiles();
+        if (children == null) {
+            files.add(file);
+            return;
+        }
+        List<File> sorted = new ArrayList<>();
+        Collections.addAll(sorted, children);
+        Collections.sort(sorted);
+        for (File child : sorted) {
+            collectFiles(child, files);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
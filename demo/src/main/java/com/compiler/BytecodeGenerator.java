@@ -0,0 +1,1015 @@
+package com.compiler;
+
+import com.compiler.bytecode.ClassWriter;
+import com.compiler.bytecode.Label;
+import com.compiler.bytecode.MethodWriter;
+import com.compiler.semantic.SymbolTable;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.compiler.bytecode.Opcodes.*;
+
+/**
+ * Bytecode generator for the compiler.
+ * This class translates the analyzed program straight into JVM class files, without
+ * going through Jasmin assembly. It follows the same translation scheme as
+ * {@link JasminCodeGenerator}, so both backends produce the same classes (a Main class
+ * with static fields and methods, plus one class per record type), but the instruction
+ * encoding, constant pool, maximum stack and locals and stack map frames are computed
+ * here and in the {@code com.compiler.bytecode} package.
+ * <p>
+ * Where the Jasmin backend emits code the JVM verifier would reject (float opcodes on
+ * doubles, int array opcodes on boolean arrays, missing conversions), this generator
+ * emits the verifiable equivalent instead.
+ */
+public class BytecodeGenerator {
+    /** Name of the generated main class */
+    private static final String MAIN_CLASS = "Main";
+
+    /** Maps variable names to their local variable indices */
+    private Map<String, Integer> localVariables = new HashMap<>();
+    /** Maps variable names to their types for local variables */
+    private Map<String, Type> variableTypes = new HashMap<>();
+    /** Maps variable names to their types for global variables */
+    private Map<String, Type> globalVariableTypes = new HashMap<>();
+    /** Flag for enabling debug output */
+    private boolean debug = false;
+
+    /** Next available index for local variables */
+    private int nextLocalVariableIndex = 1;
+    /** Return type of the method being generated, null for void */
+    private Type currentReturnType;
+    /** Symbol table containing program's semantic information */
+    private SymbolTable symbolTable;
+    /** Flat form of the program, or null */
+    private FlatAst flatAst;
+
+    /**
+     * Constructs a new BytecodeGenerator with the given symbol table and debug setting.
+     *
+     * @param symbolTable The symbol table containing program's semantic information
+     * @param debug Flag to enable/disable debug output during code generation
+     */
+    public BytecodeGenerator(SymbolTable symbolTable, boolean debug) {
+        this.symbolTable = symbolTable;
+        this.debug = debug;
+    }
+
+    /**
+     * Lets the read-only checks scan a flat store of the program instead of walking its tree.
+     *
+     * @param flatAst The program being generated in flat form, or null to walk the tree
+     */
+    public void setFlatAst(FlatAst flatAst) {
+        this.flatAst = flatAst;
+    }
+
+    /**
+     * Outputs debug information if debug mode is enabled.
+     *
+     * @param message The debug message to output
+     */
+    private void debugLog(String message) {
+        if (debug) {
+            System.err.println("[DEBUG] " + message);
+        }
+    }
+
+    /**
+     * Generates the class files for a program.
+     *
+     * @param program The analyzed program
+     * @return Map of class names to class file bytes; record classes come before Main
+     */
+    public Map<String, byte[]> generate(Program program) {
+        debugLog("Starting bytecode generation");
+        localVariables.clear();
+        variableTypes.clear();
+        globalVariableTypes.clear();
+        Map<String, byte[]> classes = new LinkedHashMap<>();
+        DeclarationIndex declarations = program.getDeclarations();
+
+        // Generate record type classes first
+        for (TypeDecl typeDecl : declarations.getTypes()) {
+            if (typeDecl.getType() instanceof RecordType) {
+                debugLog("Generating record type class: " + typeDecl.getName());
+                classes.put(typeDecl.getName(), generateRecordTypeClass(typeDecl));
+            }
+        }
+
+        ClassWriter cw = new ClassWriter(MAIN_CLASS, "java/lang/Object");
+        cw.addField(ACC_PRIVATE | ACC_STATIC, "scanner", "Ljava/util/Scanner;");
+
+        // Generate global variable fields and store their types
+        for (Statement stmt : declarations.getVariables()) {
+            if (stmt instanceof VarDecl) {
+                VarDecl varDecl = (VarDecl) stmt;
+                cw.addField(ACC_PRIVATE | ACC_STATIC, varDecl.getName(), getTypeDescriptor(varDecl.getType()));
+                globalVariableTypes.put(varDecl.getName(), varDecl.getType());
+            } else if (stmt instanceof ArrayDecl) {
+                ArrayDecl arrayDecl = (ArrayDecl) stmt;
+                cw.addField(ACC_PRIVATE | ACC_STATIC, arrayDecl.getName(), getTypeDescriptor(arrayDecl.getType()));
+                globalVariableTypes.put(arrayDecl.getName(), arrayDecl.getType());
+            }
+        }
+
+        generateDefaultConstructor(cw);
+
+        for (RoutineDecl routine : declarations.getRoutines()) {
+            generateRoutineDecl(cw, routine);
+        }
+
+        generateMainMethod(cw, program);
+        classes.put(MAIN_CLASS, cw.toByteArray());
+        return classes;
+    }
+
+    private void generateDefaultConstructor(ClassWriter cw) {
+        MethodWriter mw = cw.addMethod(ACC_PUBLIC, "<init>", "()V");
+        mw.varInsn(ALOAD, 0);
+        mw.methodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V");
+        mw.insn(RETURN);
+    }
+
+    private byte[] generateRecordTypeClass(TypeDecl typeDecl) {
+        ClassWriter cw = new ClassWriter(typeDecl.getName(), "java/lang/Object");
+        RecordType recordType = (RecordType) typeDecl.getType();
+        for (Map.Entry<String, Type> field : recordType.getFields().entrySet()) {
+            cw.addField(ACC_PUBLIC, field.getKey(), getTypeDescriptor(field.getValue()));
+        }
+        generateDefaultConstructor(cw);
+        return cw.toByteArray();
+    }
+
+    /**
+     * Generates the JVM entry point: it creates the scanner, record instances and
+     * global arrays, then runs the body of the main routine.
+     */
+    private void generateMainMethod(ClassWriter cw, Program program) {
+        MethodWriter mw = cw.addMethod(ACC_PUBLIC | ACC_STATIC, "main", "([Ljava/lang/String;)V");
+        currentReturnType = null;
+
+        if (flatAst != null ? flatAst.contains(FlatAst.READ_STATEMENT) : hasReadStatements(program.getStatements())) {
+            mw.typeInsn(NEW, "java/util/Scanner");
+            mw.insn(DUP);
+            mw.fieldInsn(GETSTATIC, "java/lang/System", "in", "Ljava/io/InputStream;");
+            mw.methodInsn(INVOKESPECIAL, "java/util/Scanner", "<init>", "(Ljava/io/InputStream;)V");
+            mw.fieldInsn(PUTSTATIC, MAIN_CLASS, "scanner", "Ljava/util/Scanner;");
+        }
+
+        // Start at 1 because 0 is reserved for args array
+        nextLocalVariableIndex = 1;
+        localVariables.clear();
+        variableTypes.clear();
+
+        for (Statement stmt : program.getDeclarations().getVariables()) {
+            if (stmt instanceof VarDecl) {
+                VarDecl varDecl = (VarDecl) stmt;
+                if (varDecl.getType() instanceof SimpleType) {
+                    String typeName = ((SimpleType) varDecl.getType()).getName();
+                    if (symbolTable.getTypeDefinition(typeName) instanceof RecordType) {
+                        mw.typeInsn(NEW, typeName);
+                        mw.insn(DUP);
+                        mw.methodInsn(INVOKESPECIAL, typeName, "<init>", "()V");
+                        mw.fieldInsn(PUTSTATIC, MAIN_CLASS, varDecl.getName(), "L" + typeName + ";");
+                    }
+                }
+                if (varDecl.getInitializer() != null) {
+                    generateExpression(varDecl.getInitializer(), mw);
+                    generateImplicitCast(getExpressionType(varDecl.getInitializer()), varDecl.getType(), mw);
+                    mw.fieldInsn(PUTSTATIC, MAIN_CLASS, varDecl.getName(), getTypeDescriptor(varDecl.getType()));
+                }
+            } else if (stmt instanceof ArrayDecl) {
+                ArrayDecl arrayDecl = (ArrayDecl) stmt;
+                generateNewArray((ArrayType) arrayDecl.getType(), mw);
+                mw.fieldInsn(PUTSTATIC, MAIN_CLASS, arrayDecl.getName(), getTypeDescriptor(arrayDecl.getType()));
+            }
+        }
+
+        for (RoutineDecl routine : program.getDeclarations().getRoutines()) {
+            if (routine.getName().equals("main")) {
+                for (Statement bodyStmt : routine.getBody()) {
+                    generateStatement(bodyStmt, mw);
+                }
+            }
+        }
+        mw.insn(RETURN);
+    }
+
+    private void generateRoutineDecl(ClassWriter cw, RoutineDecl routine) {
+        debugLog("Generating routine: " + routine.getName());
+        localVariables.clear();
+        variableTypes.clear();
+        currentReturnType = isVoid(routine.getReturnType()) ? null : routine.getReturnType();
+
+        MethodWriter mw = cw.addMethod(ACC_PUBLIC | ACC_STATIC, routine.getName(), getMethodDescriptor(routine));
+
+        // Map parameters to local variables
+        int paramIndex = 0;
+        for (Parameter param : routine.getParameters()) {
+            localVariables.put(param.getName(), paramIndex);
+            variableTypes.put(param.getName(), param.getType());
+            paramIndex += getTypeSlotSize(param.getType());
+        }
+        nextLocalVariableIndex = paramIndex;
+
+        for (Statement stmt : routine.getBody()) {
+            generateStatement(stmt, mw);
+        }
+
+        // Add default return if needed
+        if (!endsWithReturn(routine.getBody())) {
+            generateDefaultReturn(mw);
+        }
+    }
+
+    private void generateDefaultReturn(MethodWriter mw) {
+        if (currentReturnType == null) {
+            mw.insn(RETURN);
+        } else if (isReal(currentReturnType)) {
+            mw.insn(DCONST_0);
+            mw.insn(DRETURN);
+        } else if (isReference(currentReturnType)) {
+            mw.insn(ACONST_NULL);
+            mw.insn(ARETURN);
+        } else {
+            mw.insn(ICONST_0);
+            mw.insn(IRETURN);
+        }
+    }
+
+    private void generateStatement(Statement stmt, MethodWriter mw) {
+        debugLog("Generating statement: " + stmt.getClass().getName());
+        stmt.accept(new StatementGenerator(mw));
+    }
+
+    /**
+     * Emits the instructions for each kind of statement into a method.
+     */
+    private class StatementGenerator implements AstVisitor<Void> {
+        private final MethodWriter mw;
+
+        StatementGenerator(MethodWriter mw) {
+            this.mw = mw;
+        }
+
+        @Override
+        public Void visitVarDecl(VarDecl stmt) {
+            generateVarDecl(stmt, mw);
+            return null;
+        }
+
+        @Override
+        public Void visitArrayDecl(ArrayDecl stmt) {
+            generateArrayDecl(stmt, mw);
+            return null;
+        }
+
+        @Override
+        public Void visitPrintStatement(PrintStatement stmt) {
+            generatePrintStatement(stmt, mw);
+            return null;
+        }
+
+        @Override
+        public Void visitRoutineCallStatement(RoutineCallStatement routineCall) {
+            generateRoutineCall(new RoutineCall(routineCall.getName(), routineCall.getArguments()), mw);
+            RoutineDecl routine = symbolTable.getRoutine(routineCall.getName());
+            if (!isVoid(routine.getReturnType())) {
+                mw.insn(isReal(routine.getReturnType()) ? POP2 : POP);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitIfStatement(IfStatement stmt) {
+            generateIfStatement(stmt, mw);
+            return null;
+        }
+
+        @Override
+        public Void visitWhileStatement(WhileStatement stmt) {
+            generateWhileStatement(stmt, mw);
+            return null;
+        }
+
+        @Override
+        public Void visitAssignment(Assignment stmt) {
+            generateAssignment(stmt, mw);
+            return null;
+        }
+
+        @Override
+        public Void visitForLoop(ForLoop stmt) {
+            generateForLoop(stmt, mw);
+            return null;
+        }
+
+        @Override
+        public Void visitReturnStatement(ReturnStatement stmt) {
+            generateReturnStatement(stmt, mw);
+            return null;
+        }
+
+        @Override
+        public Void visitReadStatement(ReadStatement stmt) {
+            generateReadStatement(stmt, mw);
+            return null;
+        }
+    }
+
+    private void generateVarDecl(VarDecl decl, MethodWriter mw) {
+        debugLog("Generating variable declaration: " + decl.getName());
+        Type type = decl.getType();
+        int varIndex = nextLocalVariableIndex;
+        nextLocalVariableIndex += getTypeSlotSize(type);
+
+        localVariables.put(decl.getName(), varIndex);
+        variableTypes.put(decl.getName(), type);
+
+        // Initialize variables to their zero value so they are definitely assigned
+        if (type == Type.INTEGER || type == Type.BOOLEAN) {
+            mw.insn(ICONST_0);
+            mw.varInsn(ISTORE, varIndex);
+        } else if (isReal(type)) {
+            mw.insn(DCONST_0);
+            mw.varInsn(DSTORE, varIndex);
+        } else if (type == Type.STRING) {
+            mw.ldc("");
+            mw.varInsn(ASTORE, varIndex);
+        } else if (type instanceof ArrayType) {
+            // Arrays declared inside routines are parsed as plain variable declarations
+            generateNewArray((ArrayType) type, mw);
+            mw.varInsn(ASTORE, varIndex);
+        }
+
+        if (decl.getInitializer() != null) {
+            if (decl.getInitializer() instanceof TypeCast) {
+                TypeCast cast = (TypeCast) decl.getInitializer();
+                generateExpression(cast.getExpression(), mw);
+                generateTypeConversion(getExpressionType(cast.getExpression()), type, mw);
+            } else if (type == Type.STRING && decl.getInitializer() instanceof BinaryExpression) {
+                generateStringBuilder((BinaryExpression) decl.getInitializer(), mw);
+            } else {
+                generateExpression(decl.getInitializer(), mw);
+                generateImplicitCast(getExpressionType(decl.getInitializer()), type, mw);
+            }
+            generateStore(type, varIndex, mw);
+        }
+    }
+
+    private void generateStore(Type type, int varIndex, MethodWriter mw) {
+        if (isReal(type)) {
+            mw.varInsn(DSTORE, varIndex);
+        } else if (isReference(type)) {
+            mw.varInsn(ASTORE, varIndex);
+        } else {
+            mw.varInsn(ISTORE, varIndex);
+        }
+    }
+
+    private void generateLoad(Type type, int varIndex, MethodWriter mw) {
+        if (isReal(type)) {
+            mw.varInsn(DLOAD, varIndex);
+        } else if (isReference(type)) {
+            mw.varInsn(ALOAD, varIndex);
+        } else {
+            mw.varInsn(ILOAD, varIndex);
+        }
+    }
+
+    private void generatePrintStatement(PrintStatement stmt, MethodWriter mw) {
+        Expression expr = stmt.getExpression();
+        mw.fieldInsn(GETSTATIC, "java/lang/System", "out", "Ljava/io/PrintStream;");
+
+        // A '+' builds a string only if the analyzer typed it as one
+        generateExpression(expr, mw);
+        mw.methodInsn(INVOKEVIRTUAL, "java/io/PrintStream", "println",
+            "(" + getValueDescriptor(getExpressionType(expr)) + ")V");
+    }
+
+    /**
+     * Builds the string for a '+' chain: new StringBuilder, the appends, and toString.
+     */
+    private void generateStringBuilder(BinaryExpression expr, MethodWriter mw) {
+        mw.typeInsn(NEW, "java/lang/StringBuilder");
+        mw.insn(DUP);
+        mw.methodInsn(INVOKESPECIAL, "java/lang/StringBuilder", "<init>", "()V");
+        generateStringConcatenation(expr, mw);
+        mw.methodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "toString", "()Ljava/lang/String;");
+    }
+
+    private void generateStringConcatenation(BinaryExpression expr, MethodWriter mw) {
+        // Only a left operand that is itself a string is appended piece by piece;
+        // an arithmetic sum on the left is computed first, as the interpreters do
+        if (expr.getLeft() instanceof BinaryExpression && isStringConcatenation((BinaryExpression) expr.getLeft())) {
+            generateStringConcatenation((BinaryExpression) expr.getLeft(), mw);
+        } else {
+            generateAppend(expr.getLeft(), mw);
+        }
+        generateAppend(expr.getRight(), mw);
+    }
+
+    private void generateAppend(Expression expr, MethodWriter mw) {
+        generateExpression(expr, mw);
+        mw.methodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "append",
+            "(" + getValueDescriptor(getExpressionType(expr)) + ")Ljava/lang/StringBuilder;");
+    }
+
+    /**
+     * Returns the descriptor used to pass a value of the given type to
+     * println or StringBuilder.append.
+     */
+    private String getValueDescriptor(Type type) {
+        if (type == Type.BOOLEAN) {
+            return "Z";
+        } else if (isReal(type)) {
+            return "D";
+        } else if (type == Type.STRING) {
+            return "Ljava/lang/String;";
+        } else if (isReference(type)) {
+            return "Ljava/lang/Object;";
+        }
+        return "I";
+    }
+
+    /**
+     * Returns the type semantic analysis resolved for an expression.
+     *
+     * @throws IllegalStateException if the expression was not analyzed
+     */
+    private Type getExpressionType(Expression expr) {
+        Type type = expr != null ? expr.getResolvedType() : null;
+        if (type == null) {
+            throw new IllegalStateException("No type was resolved for expression " + expr);
+        }
+        return type;
+    }
+
+    private void generateExpression(Expression expr, MethodWriter mw) {
+        debugLog("Generating expression: " + expr.getClass().getSimpleName());
+        expr.accept(new ExpressionGenerator(mw));
+    }
+
+    /**
+     * Emits the instructions that leave the value of each kind of expression on the stack.
+     */
+    private class ExpressionGenerator implements AstVisitor<Void> {
+        private final MethodWriter mw;
+
+        ExpressionGenerator(MethodWriter mw) {
+            this.mw = mw;
+        }
+
+        @Override
+        public Void visitIntegerLiteral(IntegerLiteral expr) {
+            mw.iconst(expr.getValue());
+            return null;
+        }
+
+        @Override
+        public Void visitRealLiteral(RealLiteral expr) {
+            mw.ldc(expr.getValue());
+            return null;
+        }
+
+        @Override
+        public Void visitBooleanLiteral(BooleanLiteral expr) {
+            mw.iconst(expr.getValue() ? 1 : 0);
+            return null;
+        }
+
+        @Override
+        public Void visitStringLiteral(StringLiteral expr) {
+            mw.ldc(expr.getValue());
+            return null;
+        }
+
+        @Override
+        public Void visitVariableReference(VariableReference expr) {
+            String varName = expr.getName();
+            Integer varIndex = localVariables.get(varName);
+            if (varIndex != null) {
+                generateLoad(variableTypes.get(varName), varIndex, mw);
+            } else {
+                Type varType = globalVariableTypes.get(varName);
+                if (varType == null) {
+                    throw new RuntimeException("Undefined variable: " + varName);
+                }
+                mw.fieldInsn(GETSTATIC, MAIN_CLASS, varName, getTypeDescriptor(varType));
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitTypeCast(TypeCast cast) {
+            generateExpression(cast.getExpression(), mw);
+            generateTypeConversion(getExpressionType(cast.getExpression()), cast.getTargetType(), mw);
+            return null;
+        }
+
+        @Override
+        public Void visitRoutineCall(RoutineCall call) {
+            generateRoutineCall(call, mw);
+            return null;
+        }
+
+        @Override
+        public Void visitArrayAccess(ArrayAccess access) {
+            Type elementType = generateArrayElementAddress(access.getArray(), access.getIndex(), mw);
+            if (isReal(elementType)) {
+                mw.insn(DALOAD);
+            } else if (elementType == Type.BOOLEAN) {
+                mw.insn(BALOAD);
+            } else {
+                mw.insn(IALOAD);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitRecordAccess(RecordAccess access) {
+            String recordTypeName = getRecordTypeName(access.getRecord());
+            mw.fieldInsn(GETSTATIC, MAIN_CLASS, access.getRecord(), "L" + recordTypeName + ";");
+            mw.fieldInsn(GETFIELD, recordTypeName, access.getField(),
+                getTypeDescriptor(getRecordFieldType(access.getRecord(), access.getField())));
+            return null;
+        }
+
+        @Override
+        public Void visitUnaryExpression(UnaryExpression unary) {
+            generateExpression(unary.getExpression(), mw);
+            Operator op = unary.getOperator();
+            if (op == Operator.NOT) {
+                generateCondition(IFEQ, mw);
+            } else {
+                mw.insn(isReal(getExpressionType(unary.getExpression())) ? op.getRealOpcode() : op.getIntOpcode());
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitBinaryExpression(BinaryExpression binary) {
+            generateBinaryExpression(binary, mw);
+            return null;
+        }
+    }
+
+    private void generateBinaryExpression(BinaryExpression binary, MethodWriter mw) {
+        Operator op = binary.getOperator();
+        Type leftType = getExpressionType(binary.getLeft());
+        Type rightType = getExpressionType(binary.getRight());
+
+        if (op.isLogical()) {
+            generateLogicalOperation(binary, mw);
+        } else if (op == Operator.EQUAL && (leftType == Type.STRING || rightType == Type.STRING)) {
+            generateExpression(binary.getLeft(), mw);
+            generateExpression(binary.getRight(), mw);
+            mw.methodInsn(INVOKEVIRTUAL, "java/lang/String", "equals", "(Ljava/lang/Object;)Z");
+        } else if (isStringConcatenation(binary)) {
+            generateStringBuilder(binary, mw);
+        } else if (isRealOperation(binary)) {
+            // Mixed integer/real operands are widened to double
+            generateExpression(binary.getLeft(), mw);
+            generateImplicitCast(leftType, Type.REAL, mw);
+            generateExpression(binary.getRight(), mw);
+            generateImplicitCast(rightType, Type.REAL, mw);
+            if (op.isComparison()) {
+                mw.insn(op.getRealCompareOpcode());
+                generateCondition(op.getRealOpcode(), mw);
+            } else {
+                mw.insn(op.getRealOpcode());
+            }
+        } else {
+            generateExpression(binary.getLeft(), mw);
+            generateExpression(binary.getRight(), mw);
+            if (!op.isComparison()) {
+                mw.insn(op.getIntOpcode());
+            } else if (isReference(leftType) || isReference(rightType)) {
+                generateCondition(op == Operator.EQUAL ? IF_ACMPEQ : IF_ACMPNE, mw);
+            } else {
+                generateCondition(op.getIntOpcode(), mw);
+            }
+        }
+    }
+
+    /**
+     * Turns the outcome of a conditional jump into 1 (jump taken) or 0 on the stack.
+     */
+    private void generateCondition(int jumpOpcode, MethodWriter mw) {
+        Label trueLabel = new Label();
+        Label endLabel = new Label();
+        mw.jump(jumpOpcode, trueLabel);
+        mw.insn(ICONST_0);
+        mw.jump(GOTO, endLabel);
+        mw.mark(trueLabel);
+        mw.insn(ICONST_1);
+        mw.mark(endLabel);
+    }
+
+    private void generateLogicalOperation(BinaryExpression expr, MethodWriter mw) {
+        Operator op = expr.getOperator();
+
+        if (op == Operator.AND) {
+            // Short-circuit AND
+            Label falseLabel = new Label();
+            Label endLabel = new Label();
+            generateExpression(expr.getLeft(), mw);
+            mw.jump(IFEQ, falseLabel);
+            generateExpression(expr.getRight(), mw);
+            mw.jump(IFEQ, falseLabel);
+            mw.insn(ICONST_1);
+            mw.jump(GOTO, endLabel);
+            mw.mark(falseLabel);
+            mw.insn(ICONST_0);
+            mw.mark(endLabel);
+        } else if (op == Operator.OR) {
+            // Short-circuit OR
+            Label trueLabel = new Label();
+            Label endLabel = new Label();
+            generateExpression(expr.getLeft(), mw);
+            mw.jump(IFNE, trueLabel);
+            generateExpression(expr.getRight(), mw);
+            mw.jump(IFNE, trueLabel);
+            mw.insn(ICONST_0);
+            mw.jump(GOTO, endLabel);
+            mw.mark(trueLabel);
+            mw.insn(ICONST_1);
+            mw.mark(endLabel);
+        } else if (op == Operator.XOR) {
+            generateExpression(expr.getLeft(), mw);
+            generateExpression(expr.getRight(), mw);
+            mw.insn(op.getIntOpcode());
+        }
+    }
+
+    private void generateRoutineCall(RoutineCall call, MethodWriter mw) {
+        debugLog("Generating routine call: " + call.getName());
+        RoutineDecl routine = symbolTable.getRoutine(call.getName());
+        List<Parameter> params = routine.getParameters();
+
+        // Generate code for arguments and handle implicit casting
+        List<Expression> arguments = call.getArguments();
+        for (int i = 0; i < arguments.size(); i++) {
+            Expression arg = arguments.get(i);
+            generateExpression(arg, mw);
+            generateImplicitCast(getExpressionType(arg), params.get(i).getType(), mw);
+        }
+        mw.methodInsn(INVOKESTATIC, MAIN_CLASS, call.getName(), getMethodDescriptor(routine));
+    }
+
+    private void generateReadStatement(ReadStatement stmt, MethodWriter mw) {
+        String varName = stmt.getVariable();
+        Type varType = variableTypes.get(varName);
+        Integer varIndex = localVariables.get(varName);
+        boolean isGlobal = false;
+
+        if (varType == null || varIndex == null) {
+            varType = globalVariableTypes.get(varName);
+            if (varType == null) {
+                throw new RuntimeException("Undefined variable: " + varName);
+            }
+            isGlobal = true;
+        }
+
+        mw.fieldInsn(GETSTATIC, MAIN_CLASS, "scanner", "Ljava/util/Scanner;");
+        if (varType == Type.INTEGER) {
+            mw.methodInsn(INVOKEVIRTUAL, "java/util/Scanner", "nextInt", "()I");
+        } else if (isReal(varType)) {
+            mw.methodInsn(INVOKEVIRTUAL, "java/util/Scanner", "nextDouble", "()D");
+        } else if (varType == Type.STRING) {
+            mw.methodInsn(INVOKEVIRTUAL, "java/util/Scanner", "next", "()Ljava/lang/String;");
+        } else if (varType == Type.BOOLEAN) {
+            mw.methodInsn(INVOKEVIRTUAL, "java/util/Scanner", "nextBoolean", "()Z");
+        } else {
+            throw new RuntimeException("Unsupported type for read: " + varType);
+        }
+
+        if (isGlobal) {
+            mw.fieldInsn(PUTSTATIC, MAIN_CLASS, varName, getTypeDescriptor(varType));
+        } else {
+            generateStore(varType, varIndex, mw);
+        }
+    }
+
+    /**
+     * Converts the value on the stack for an explicit 'as' cast.
+     */
+    private void generateTypeConversion(Type sourceType, Type targetType, MethodWriter mw) {
+        debugLog("Generating type cast from " + sourceType + " to " + targetType);
+        if (isReal(sourceType) && targetType == Type.BOOLEAN) {
+            mw.insn(DCONST_0);
+            mw.insn(DCMPL);
+            generateCondition(IFNE, mw);
+        } else if (sourceType == Type.INTEGER && targetType == Type.BOOLEAN) {
+            generateCondition(IFNE, mw);
+        } else {
+            generateImplicitCast(sourceType, targetType, mw);
+        }
+    }
+
+    /**
+     * Converts between the int and double stack representations where the types require it.
+     * Integers and booleans share the int representation and need no conversion.
+     */
+    private void generateImplicitCast(Type sourceType, Type targetType, MethodWriter mw) {
+        if (sourceType == null || targetType == null) {
+            return;
+        }
+        boolean sourceReal = isReal(sourceType);
+        boolean targetReal = isReal(targetType);
+        boolean sourceReference = isReference(sourceType);
+        boolean targetReference = isReference(targetType);
+        if (!sourceReal && !sourceReference && targetReal) {
+            mw.insn(I2D);
+        } else if (sourceReal && !targetReal && !targetReference) {
+            mw.insn(D2I);
+        } else if (sourceReal != targetReal || sourceReference != targetReference) {
+            throw new RuntimeException("Unsupported implicit cast from " + sourceType + " to " + targetType);
+        }
+    }
+
+    private void generateReturnStatement(ReturnStatement stmt, MethodWriter mw) {
+        if (stmt.getExpression() == null || currentReturnType == null) {
+            mw.insn(RETURN);
+            return;
+        }
+        generateExpression(stmt.getExpression(), mw);
+        generateImplicitCast(getExpressionType(stmt.getExpression()), currentReturnType, mw);
+        if (isReal(currentReturnType)) {
+            mw.insn(DRETURN);
+        } else if (isReference(currentReturnType)) {
+            mw.insn(ARETURN);
+        } else {
+            mw.insn(IRETURN);
+        }
+    }
+
+    private void generateIfStatement(IfStatement stmt, MethodWriter mw) {
+        Label elseLabel = new Label();
+        Label endLabel = new Label();
+
+        generateExpression(stmt.getCondition(), mw);
+        mw.jump(IFEQ, elseLabel);
+
+        for (Statement thenStmt : stmt.getThenStatements()) {
+            generateStatement(thenStmt, mw);
+        }
+        if (!endsWithReturn(stmt.getThenStatements())) {
+            mw.jump(GOTO, endLabel);
+        }
+
+        mw.mark(elseLabel);
+        if (stmt.getElseStatements() != null) {
+            for (Statement elseStmt : stmt.getElseStatements()) {
+                generateStatement(elseStmt, mw);
+            }
+        }
+        mw.mark(endLabel);
+    }
+
+    private boolean endsWithReturn(List<Statement> statements) {
+        if (statements == null || statements.isEmpty()) {
+            return false;
+        }
+        return statements.get(statements.size() - 1) instanceof ReturnStatement;
+    }
+
+    private void generateWhileStatement(WhileStatement stmt, MethodWriter mw) {
+        Label startLabel = new Label();
+        Label endLabel = new Label();
+
+        mw.mark(startLabel);
+        generateExpression(stmt.getCondition(), mw);
+        mw.jump(IFEQ, endLabel);
+        for (Statement bodyStmt : stmt.getBody()) {
+            generateStatement(bodyStmt, mw);
+        }
+        mw.jump(GOTO, startLabel);
+        mw.mark(endLabel);
+    }
+
+    private void generateAssignment(Assignment stmt, MethodWriter mw) {
+        if (stmt.getTarget().contains(".")) {  // Record field assignment
+            String[] parts = stmt.getTarget().split("\\.");
+            String recordName = parts[0];
+            String fieldName = parts[1];
+            String recordTypeName = getRecordTypeName(recordName);
+            Type fieldType = getRecordFieldType(recordName, fieldName);
+
+            mw.fieldInsn(GETSTATIC, MAIN_CLASS, recordName, "L" + recordTypeName + ";");
+            generateExpression(stmt.getValue(), mw);
+            generateImplicitCast(getExpressionType(stmt.getValue()), fieldType, mw);
+            mw.fieldInsn(PUTFIELD, recordTypeName, fieldName, getTypeDescriptor(fieldType));
+        } else if (stmt.getIndex() != null) {  // Array assignment
+            Type elementType = generateArrayElementAddress(stmt.getTarget(), stmt.getIndex(), mw);
+            generateExpression(stmt.getValue(), mw);
+            generateImplicitCast(getExpressionType(stmt.getValue()), elementType, mw);
+            if (isReal(elementType)) {
+                mw.insn(DASTORE);
+            } else if (elementType == Type.BOOLEAN) {
+                mw.insn(BASTORE);
+            } else {
+                mw.insn(IASTORE);
+            }
+        } else {  // Regular variable assignment
+            String varName = stmt.getTarget();
+            Integer varIndex = localVariables.get(varName);
+            generateExpression(stmt.getValue(), mw);
+            if (varIndex != null) {
+                Type varType = variableTypes.get(varName);
+                generateImplicitCast(getExpressionType(stmt.getValue()), varType, mw);
+                generateStore(varType, varIndex, mw);
+            } else {
+                Type globalVarType = globalVariableTypes.get(varName);
+                if (globalVarType == null) {
+                    throw new RuntimeException("Undefined global variable: " + varName);
+                }
+                generateImplicitCast(getExpressionType(stmt.getValue()), globalVarType, mw);
+                mw.fieldInsn(PUTSTATIC, MAIN_CLASS, varName, getTypeDescriptor(globalVarType));
+            }
+        }
+    }
+
+    /**
+     * Pushes an array reference and a zero-based index for an element access.
+     *
+     * @return The element type of the array
+     */
+    private Type generateArrayElementAddress(String arrayName, Expression index, MethodWriter mw) {
+        ArrayType arrayType = getArrayType(arrayName);
+        Integer arrayIndex = localVariables.get(arrayName);
+        if (arrayIndex != null) {
+            mw.varInsn(ALOAD, arrayIndex);
+        } else {
+            mw.fieldInsn(GETSTATIC, MAIN_CLASS, arrayName, getTypeDescriptor(arrayType));
+        }
+        generateExpression(index, mw);
+        mw.insn(ICONST_1);
+        mw.insn(ISUB); // Adjust index for zero-based arrays
+        return arrayType.getElementType();
+    }
+
+    private ArrayType getArrayType(String arrayName) {
+        Type type = localVariables.containsKey(arrayName)
+            ? variableTypes.get(arrayName)
+            : globalVariableTypes.get(arrayName);
+        if (!(type instanceof ArrayType)) {
+            throw new RuntimeException("Undefined array: " + arrayName);
+        }
+        return (ArrayType) type;
+    }
+
+    private void generateForLoop(ForLoop stmt, MethodWriter mw) {
+        Label startLabel = new Label();
+        Label endLabel = new Label();
+
+        int varIndex = nextLocalVariableIndex++;
+        localVariables.put(stmt.getVariable(), varIndex);
+        variableTypes.put(stmt.getVariable(), Type.INTEGER);
+
+        generateExpression(stmt.getRangeStart(), mw);
+        mw.varInsn(ISTORE, varIndex);
+
+        mw.mark(startLabel);
+        mw.varInsn(ILOAD, varIndex);
+        generateExpression(stmt.getRangeEnd(), mw);
+        // A reverse loop stops below the end value, a normal loop above it
+        mw.jump(stmt.isReverse() ? IF_ICMPLT : IF_ICMPGT, endLabel);
+
+        for (Statement bodyStmt : stmt.getBody()) {
+            generateStatement(bodyStmt, mw);
+        }
+
+        mw.iinc(varIndex, stmt.isReverse() ? -1 : 1);
+        mw.jump(GOTO, startLabel);
+        mw.mark(endLabel);
+    }
+
+    private void generateArrayDecl(ArrayDecl decl, MethodWriter mw) {
+        debugLog("Generating array declaration: " + decl.getName());
+        ArrayType arrayType = (ArrayType) decl.getType();
+        generateNewArray(arrayType, mw);
+
+        int varIndex = nextLocalVariableIndex++;
+        localVariables.put(decl.getName(), varIndex);
+        variableTypes.put(decl.getName(), arrayType);
+        mw.varInsn(ASTORE, varIndex);
+    }
+
+    private void generateNewArray(ArrayType arrayType, MethodWriter mw) {
+        Type elementType = arrayType.getElementType();
+        mw.iconst(arrayType.getSize());
+        if (elementType == Type.INTEGER) {
+            mw.intInsn(NEWARRAY, T_INT);
+        } else if (elementType == Type.BOOLEAN) {
+            mw.intInsn(NEWARRAY, T_BOOLEAN);
+        } else if (isReal(elementType)) {
+            mw.intInsn(NEWARRAY, T_DOUBLE);
+        } else {
+            throw new RuntimeException("Unsupported array element type: " + elementType);
+        }
+    }
+
+    private boolean hasReadStatements(List<Statement> statements) {
+        if (statements == null) {
+            return false;
+        }
+        for (Statement stmt : statements) {
+            if (stmt instanceof ReadStatement) {
+                return true;
+            }
+            if (stmt instanceof RoutineDecl && hasReadStatements(((RoutineDecl) stmt).getBody())) {
+                return true;
+            }
+            if (stmt instanceof IfStatement
+                    && (hasReadStatements(((IfStatement) stmt).getThenStatements())
+                        || hasReadStatements(((IfStatement) stmt).getElseStatements()))) {
+                return true;
+            }
+            if (stmt instanceof WhileStatement && hasReadStatements(((WhileStatement) stmt).getBody())) {
+                return true;
+            }
+            if (stmt instanceof ForLoop && hasReadStatements(((ForLoop) stmt).getBody())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String getRecordTypeName(String varName) {
+        Type type = globalVariableTypes.get(varName);
+        if (type == null) {
+            throw new RuntimeException("Variable not found: " + varName);
+        }
+        if (type instanceof SimpleType) {
+            return ((SimpleType) type).getName();
+        }
+        throw new RuntimeException("Variable " + varName + " is not a record type");
+    }
+
+    private Type getRecordFieldType(String recordName, String fieldName) {
+        RecordType recordType = (RecordType) symbolTable.getTypeDefinition(getRecordTypeName(recordName));
+        return recordType.getFields().get(fieldName);
+    }
+
+    private boolean isStringConcatenation(BinaryExpression binary) {
+        return binary.getOperator() == Operator.ADD
+            && (getExpressionType(binary.getLeft()) == Type.STRING
+                || getExpressionType(binary.getRight()) == Type.STRING);
+    }
+
+    private boolean isRealOperation(BinaryExpression binary) {
+        return isReal(getExpressionType(binary.getLeft())) || isReal(getExpressionType(binary.getRight()));
+    }
+
+    private static boolean isVoid(Type type) {
+        return type == null || type == Type.VOID;
+    }
+
+    private static boolean isReal(Type type) {
+        return type == Type.REAL;
+    }
+
+    /**
+     * Checks whether values of a type are held as object references on the JVM.
+     */
+    private static boolean isReference(Type type) {
+        return type != null && type != Type.INTEGER && type != Type.BOOLEAN && type != Type.VOID && !isReal(type);
+    }
+
+    private int getTypeSlotSize(Type type) {
+        return isReal(type) ? 2 : 1;
+    }
+
+    private String getMethodDescriptor(RoutineDecl routine) {
+        StringBuilder sb = new StringBuilder("(");
+        for (Parameter param : routine.getParameters()) {
+            sb.append(getTypeDescriptor(param.getType()));
+        }
+        return sb.append(")").append(getTypeDescriptor(routine.getReturnType())).toString();
+    }
+
+    private String getTypeDescriptor(Type type) {
+        if (isVoid(type)) {
+            return "V";
+        } else if (type == Type.INTEGER) {
+            return "I";
+        } else if (type == Type.BOOLEAN) {
+            return "Z";
+        } else if (type == Type.STRING) {
+            return "Ljava/lang/String;";
+        } else if (type instanceof ArrayType) {
+            return "[" + getTypeDescriptor(((ArrayType) type).getElementType());
+        } else if (type == Type.REAL) {
+            return "D";
+        } else if (type instanceof SimpleType) {
+            String typeName = ((SimpleType) type).getName();
+            return "L" + typeName + ";";
+        }
+        throw new RuntimeException("Unsupported type: " + type);
+    }
+}
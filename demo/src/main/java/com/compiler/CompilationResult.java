@@ -0,0 +1,49 @@
+package com.compiler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of compiling one source file: the error messages, if any, and otherwise
+ * the class files of the compiled program.
+ */
+public class CompilationResult {
+    private final List<String> errors;
+    private final Map<String, byte[]> classes;
+
+    /**
+     * Creates a result.
+     *
+     * @param errors Error messages; empty if compilation succeeded
+     * @param classes Class file bytes keyed by class name, in the order they were produced
+     */
+    public CompilationResult(List<String> errors, Map<String, byte[]> classes) {
+        this.errors = Collections.unmodifiableList(new ArrayList<>(errors));
+        this.classes = Collections.unmodifiableMap(new LinkedHashMap<>(classes));
+    }
+
+    /**
+     * Creates a failed result.
+     *
+     * @param errors Error messages
+     * @return A result with no classes
+     */
+    public static CompilationResult failure(List<String> errors) {
+        return new CompilationResult(errors, Collections.<String, byte[]>emptyMap());
+    }
+
+    public boolean isSuccess() {
+        return errors.isEmpty();
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public Map<String, byte[]> getClasses() {
+        return classes;
+    }
+}
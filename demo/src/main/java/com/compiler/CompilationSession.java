@@ -0,0 +1,314 @@
+package com.compiler;
+
+import com.compiler.semantic.SemanticError;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Keeps what the compilation of a program found, so that compiling it again after an
+ * edit only parses, analyzes and generates code for the routines the edit touched.
+ * <p>
+ * The program is lexed in full each time, which is cheap, and split at its top-level
+ * declarations. A routine whose tokens are the same as those of a routine of the last
+ * program is taken over with its AST, the errors found in its body and its generated
+ * Jasmin method, unless it names something whose declaration changed. What users of a
+ * declaration depend on is its header, the tokens before "is", or all of a type
+ * declaration: a routine whose body alone changed does not touch its callers. A routine
+ * naming a changed declaration is parsed again; if it names it in its own header, the
+ * meaning of that header may have changed, so everything naming the routine is parsed
+ * again in turn. Global variable and type declarations are always parsed again; there
+ * are few of them and they are checked with the rest of the program.
+ * <p>
+ * Caches are keyed by the AST nodes themselves, so a routine parsed again starts without
+ * any. A session is used by one compilation at a time.
+ */
+public class CompilationSession {
+    /** Names of every version of the program, so that a name keeps its ID and String */
+    private final NameTable names = new NameTable();
+    /** Each routine of the last program, keyed by its tokens */
+    private Map<String, RoutineDecl> routines = new HashMap<>();
+    /** Header of each name declared once at the top level of the last program */
+    private Map<Integer, String> headers = new HashMap<>();
+    /** Errors found in the body of each routine of the last program */
+    private Map<RoutineDecl, List<SemanticError>> bodyErrors = new IdentityHashMap<>();
+    /** Jasmin method generated for each routine of the last program */
+    private Map<RoutineDecl, String> methods = new IdentityHashMap<>();
+    /** The last program parsed, or null before the first */
+    private Program program;
+    /** Number of declarations parsed by the last call to {@link #parse} */
+    private int parsed;
+
+    /**
+     * Returns the table the tokens of each version of the program must be interned into.
+     */
+    public NameTable getNames() {
+        return names;
+    }
+
+    /**
+     * Parses a program, taking over the routines of the last program that the changes
+     * have not touched.
+     *
+     * @param tokens The tokens of the program, interned into {@link #getNames()}
+     * @param parseAll Parses the whole program; called for the first version, and
+     *                 whenever a declaration does not parse on its own so that a syntax
+     *                 error is reported as usual
+     * @return The program
+     * @throws Exception if the program cannot be parsed
+     */
+    public Program parse(TokenBuffer tokens, Callable<Program> parseAll) throws Exception {
+        if (tokens.getNames() != names) {
+            throw new IllegalArgumentException("Tokens not interned into the session's name table");
+        }
+        List<Integer> starts = RecursiveDescentParser.declarationStarts(tokens);
+        int count = starts.size();
+        if (count == 0 || starts.get(0) != 0) {
+            return parseAll(parseAll, new String[0], new HashMap<Integer, String>());
+        }
+
+        int[] ends = new int[count];
+        int[] headerEnds = new int[count];
+        String[] keys = new String[count];
+        int[] declared = new int[count];
+        Map<Integer, String> nextHeaders = new HashMap<>();
+        Set<Integer> duplicates = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            int from = starts.get(i);
+            ends[i] = i + 1 < count ? starts.get(i + 1) : tokens.size();
+            keys[i] = key(tokens, from, ends[i]);
+            headerEnds[i] = headerEnd(tokens, from, ends[i]);
+            declared[i] = from + 1 < ends[i] && tokens.getKind(from + 1) == sym.IDENTIFIER
+                ? tokens.getNameId(from + 1) : -1;
+            if (declared[i] >= 0 && (nextHeaders.put(declared[i], key(tokens, from, headerEnds[i])) != null)) {
+                duplicates.add(declared[i]);
+            }
+        }
+        for (int name : duplicates) {
+            nextHeaders.remove(name);
+        }
+
+        // A name is changed if its header is, or it is declared more or fewer times
+        BitSet changed = new BitSet(names.size());
+        for (Map.Entry<Integer, String> header : headers.entrySet()) {
+            if (!header.getValue().equals(nextHeaders.get(header.getKey()))) {
+                changed.set(header.getKey());
+            }
+        }
+        for (Map.Entry<Integer, String> header : nextHeaders.entrySet()) {
+            if (!headers.containsKey(header.getKey())) {
+                changed.set(header.getKey());
+            }
+        }
+        for (int name : duplicates) {
+            changed.set(name);
+        }
+
+        boolean[] reparse = new boolean[count];
+        Set<String> taken = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            reparse[i] = tokens.getKind(starts.get(i)) != sym.ROUTINE || !routines.containsKey(keys[i])
+                || !taken.add(keys[i]);
+        }
+        propagate(tokens, starts, ends, headerEnds, declared, changed, reparse);
+
+        List<Statement> statements = new ArrayList<>(count);
+        parsed = 0;
+        for (int i = 0; i < count; i++) {
+            if (!reparse[i]) {
+                statements.add(routines.get(keys[i]));
+                continue;
+            }
+            List<Statement> declaration;
+            try {
+                declaration = new RecursiveDescentParser(tokens, starts.get(i), ends[i]).declarations();
+            } catch (ParseException e) {
+                return parseAll(parseAll, keys, nextHeaders);
+            }
+            if (declaration.size() != 1) {
+                return parseAll(parseAll, keys, nextHeaders);
+            }
+            statements.add(declaration.get(0));
+            parsed++;
+        }
+        return remember(new Program(statements, names), keys, nextHeaders);
+    }
+
+    /**
+     * Marks every declaration that names a changed name to be parsed again, and its own
+     * name as changed if the changed name is in its header, until no more names change.
+     */
+    private static void propagate(TokenBuffer tokens, List<Integer> starts, int[] ends, int[] headerEnds,
+                                  int[] declared, BitSet changed, boolean[] reparse) {
+        // The declarations naming each name, as linked lists threaded through int arrays
+        int[] first = new int[tokens.getNames().size()];
+        Arrays.fill(first, -1);
+        int[] user = new int[64];
+        int[] next = new int[64];
+        int users = 0;
+        for (int i = 0; i < starts.size(); i++) {
+            for (int t = starts.get(i); t < ends[i]; t++) {
+                if (tokens.getKind(t) != sym.IDENTIFIER) {
+                    continue;
+                }
+                int name = tokens.getNameId(t);
+                if (first[name] >= 0 && user[first[name]] == i) {
+                    continue; // named before in this declaration
+                }
+                if (users == user.length) {
+                    user = Arrays.copyOf(user, users * 2);
+                    next = Arrays.copyOf(next, users * 2);
+                }
+                user[users] = i;
+                next[users] = first[name];
+                first[name] = users++;
+            }
+        }
+
+        List<Integer> pending = new ArrayList<>();
+        for (int name = changed.nextSetBit(0); name >= 0 && name < first.length; name = changed.nextSetBit(name + 1)) {
+            pending.add(name);
+        }
+        while (!pending.isEmpty()) {
+            int name = pending.remove(pending.size() - 1);
+            for (int entry = first[name]; entry >= 0; entry = next[entry]) {
+                int i = user[entry];
+                reparse[i] = true;
+                if (declared[i] >= 0 && !changed.get(declared[i]) && names(tokens, starts.get(i), headerEnds[i], name)) {
+                    changed.set(declared[i]);
+                    pending.add(declared[i]);
+                }
+            }
+        }
+    }
+
+    private Program parseAll(Callable<Program> parseAll, String[] keys, Map<Integer, String> nextHeaders)
+            throws Exception {
+        Program all = parseAll.call();
+        parsed = all.getStatements().size();
+        return remember(all, keys, nextHeaders);
+    }
+
+    /**
+     * Makes a program the last one, keeping the body errors and methods of the routines
+     * taken over from the one before.
+     *
+     * @param keys Tokens of each declaration found before parsing, matched up with the
+     *             statements of the program if there are as many
+     */
+    private Program remember(Program next, String[] keys, Map<Integer, String> nextHeaders) {
+        List<Statement> statements = next.getStatements();
+        Map<String, RoutineDecl> nextRoutines = new HashMap<>();
+        Map<RoutineDecl, List<SemanticError>> nextBodyErrors = new IdentityHashMap<>();
+        Map<RoutineDecl, String> nextMethods = new IdentityHashMap<>();
+        for (int i = 0; i < statements.size(); i++) {
+            if (!(statements.get(i) instanceof RoutineDecl)) {
+                continue;
+            }
+            RoutineDecl routine = (RoutineDecl) statements.get(i);
+            if (statements.size() == keys.length) {
+                nextRoutines.putIfAbsent(keys[i], routine);
+            }
+            if (bodyErrors.containsKey(routine)) {
+                nextBodyErrors.put(routine, bodyErrors.get(routine));
+            }
+            if (methods.containsKey(routine)) {
+                nextMethods.put(routine, methods.get(routine));
+            }
+        }
+        routines = nextRoutines;
+        headers = statements.size() == keys.length ? nextHeaders : new HashMap<Integer, String>();
+        bodyErrors = nextBodyErrors;
+        methods = nextMethods;
+        program = next;
+        return next;
+    }
+
+    /**
+     * Encodes the tokens from one index up to, not including, another as a string:
+     * the kind of each token, then the ID of an identifier or the length and value of a
+     * literal.
+     * Two declarations with the same string parse into the same AST.
+     */
+    private static String key(TokenBuffer tokens, int from, int to) {
+        StringBuilder sb = new StringBuilder((to - from) * 2);
+        for (int i = from; i < to; i++) {
+            int kind = tokens.getKind(i);
+            sb.append((char) kind);
+            if (kind == sym.IDENTIFIER) {
+                int id = tokens.getNameId(i);
+                sb.append((char) (id >>> 16)).append((char) id);
+            } else if (tokens.getValue(i) != null) {
+                String value = String.valueOf(tokens.getValue(i));
+                sb.append((char) (value.length() >>> 16)).append((char) value.length()).append(value);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the end of the part of a declaration its users depend on: all of a type
+     * declaration, or the tokens before the first "is" of a routine or variable declaration.
+     */
+    private static int headerEnd(TokenBuffer tokens, int from, int to) {
+        if (tokens.getKind(from) == sym.TYPE) {
+            return to;
+        }
+        int end = from;
+        while (end < to && tokens.getKind(end) != sym.IS) {
+            end++;
+        }
+        return end;
+    }
+
+    /** Whether a name is among the tokens from one index up to, not including, another */
+    private static boolean names(TokenBuffer tokens, int from, int to, int name) {
+        for (int i = from; i < to; i++) {
+            if (tokens.getKind(i) == sym.IDENTIFIER && tokens.getNameId(i) == name) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the errors found in the body of each routine of the last program parsed
+     * that was analyzed before, to be filled in for the others by
+     * {@link com.compiler.semantic.SemanticAnalyzer#analyze(Program, Map)}.
+     */
+    public Map<RoutineDecl, List<SemanticError>> getBodyErrors() {
+        return bodyErrors;
+    }
+
+    /**
+     * Returns the Jasmin method of each routine of the last program parsed that was
+     * generated before, to be filled in for the others by
+     * {@link JasminCodeGenerator#generate(Program, java.io.Writer, Map)}.
+     */
+    public Map<RoutineDecl, String> getMethods() {
+        return methods;
+    }
+
+    /**
+     * Returns the last program parsed, or null if none has been.
+     */
+    public Program getProgram() {
+        return program;
+    }
+
+    /**
+     * Returns the number of declarations the last call to {@link #parse} parsed, rather
+     * than took over from the program before.
+     */
+    public int getParsedCount() {
+        return parsed;
+    }
+}
@@ -0,0 +1,220 @@
+package com.compiler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thin client for {@link CompileServer}.
+ * It sends a source file and its option flags to the server, writes the class files it
+ * gets back into the output directory and runs the program, so from the command line it
+ * behaves like {@link Main} without paying for loading and warming up the compiler.
+ */
+public class CompileClient {
+    /** Port of the server to talk to */
+    private final int port;
+    /** File the server wrote its token to */
+    private final File tokenFile;
+
+    /**
+     * Creates a client for a server on the local machine that uses the default token file.
+     *
+     * @param port Port the server listens on
+     */
+    public CompileClient(int port) {
+        this(port, CompileProtocol.tokenFile(port));
+    }
+
+    /**
+     * Creates a client for a server on the local machine.
+     *
+     * @param port Port the server listens on
+     * @param tokenFile File the server wrote its token to
+     */
+    public CompileClient(int port, File tokenFile) {
+        this.port = port;
+        this.tokenFile = tokenFile;
+    }
+
+    /**
+     * Compiles a source file on the server.
+     *
+     * @param fileName Name of the source file, used in messages
+     * @param source The program source text
+     * @param args Option flags for the compilation
+     * @param log Stream the server's debug output is copied to
+     * @return The errors or class files the server produced
+     * @throws IOException if the server cannot be reached, rejects the token, or reports a
+     *         compiler failure
+     */
+    public CompilationResult compile(String fileName, String source, List<String> args, PrintStream log)
+            throws IOException {
+        byte[] token = CompileProtocol.readToken(tokenFile);
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            CompileProtocol.writeHeader(out, token);
+            out.writeByte(CompileProtocol.COMPILE);
+            CompileProtocol.writeString(out, fileName);
+            out.writeInt(args.size());
+            for (String arg : args) {
+                CompileProtocol.writeString(out, arg);
+            }
+            CompileProtocol.writeString(out, source);
+            out.flush();
+            return readResponse(new DataInputStream(new BufferedInputStream(socket.getInputStream())), log);
+        }
+    }
+
+    /**
+     * Asks the server to stop.
+     *
+     * @throws IOException if the server cannot be reached or rejects the token
+     */
+    public void shutdownServer() throws IOException {
+        byte[] token = CompileProtocol.readToken(tokenFile);
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            CompileProtocol.writeHeader(out, token);
+            out.writeByte(CompileProtocol.SHUTDOWN);
+            out.flush();
+            readResponse(new DataInputStream(socket.getInputStream()), new PrintStream(new ByteArrayOutputStream()));
+        }
+    }
+
+    /**
+     * Reads the server's response, copying its log.
+     *
+     * @throws IOException if the server reports a failure
+     */
+    private static CompilationResult readResponse(DataInputStream in, PrintStream log) throws IOException {
+        int status = in.readInt();
+        log.print(CompileProtocol.readString(in));
+        List<String> errors = new ArrayList<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            errors.add(CompileProtocol.readString(in));
+        }
+        Map<String, byte[]> classes = new LinkedHashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            String className = CompileProtocol.readString(in);
+            classes.put(className, CompileProtocol.readBytes(in));
+        }
+        if (status == CompileProtocol.STATUS_FAILURE) {
+            throw new IOException(String.join("\n", errors));
+        }
+        return new CompilationResult(errors, classes);
+    }
+
+    /**
+     * Turns options into the flags sent to the server.
+     * The server runs in another directory, so paths are made absolute. Options that only
+     * make sense in the compiler's own JVM are rejected.
+     *
+     * @param options The options from the client's command line
+     * @return The flags for {@link #compile(String, String, List, PrintStream)}
+     * @throws IllegalArgumentException if an option cannot be used through the server
+     */
+    static List<String> serverArguments(CompilerOptions options) {
+        if (options.isInterpret()) {
+            throw new IllegalArgumentException(
+                "--interpret runs the program without compiling it; use com.compiler.Main instead");
+        }
+        if (options.isForkJasmin()) {
+            throw new IllegalArgumentException("--fork-jasmin is not supported: the compile server assembles in process");
+        }
+        if (options.isDebug()) {
+            throw new IllegalArgumentException(
+                "--debug is not supported by the compile client; use com.compiler.Main instead");
+        }
+        List<String> args = new ArrayList<>();
+        for (String arg : options.toArguments()) {
+            if (arg.startsWith("--cache=")) {
+                arg = "--cache=" + new File(options.getCacheDir()).getAbsolutePath();
+            } else if (arg.startsWith("--save-ast=")) {
+                arg = "--save-ast=" + new File(options.getAstFile()).getAbsolutePath();
+            }
+            args.add(arg);
+        }
+        return args;
+    }
+
+    /**
+     * Compiles and runs a program through the compile server.
+     *
+     * @param args Command line arguments: the input file followed by the same flags as
+     *             {@link Main} except --interpret, --fork-jasmin and --debug, plus "--port=N"
+     *             to choose the server; or "--shutdown [--port=N]" to stop the server
+     */
+    public static void main(String[] args) {
+        int port = CompileServer.DEFAULT_PORT;
+        boolean shutdown = false;
+        String inputFilePath = null;
+        List<String> flags = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(arg.substring("--port=".length()));
+            } else if (arg.equals("--shutdown")) {
+                shutdown = true;
+            } else if (inputFilePath == null && !arg.startsWith("--")) {
+                inputFilePath = arg;
+            } else {
+                flags.add(arg);
+            }
+        }
+
+        CompileClient client = new CompileClient(port);
+        try {
+            if (shutdown) {
+                client.shutdownServer();
+                return;
+            }
+            if (inputFilePath == null) {
+                System.err.println("Please provide an input file path");
+                System.err.println("Usage: java -cp imperativeLangParser.jar com.compiler.CompileClient <input-file> "
+                    + CompilerOptions.USAGE + " [--port=N]");
+                System.err.println("       java -cp imperativeLangParser.jar com.compiler.CompileClient --shutdown [--port=N]");
+                System.exit(1);
+            }
+            CompilerOptions options = CompilerOptions.parse(flags);
+            List<String> serverArgs = serverArguments(options);
+
+            File inputFile = new File(inputFilePath);
+            if (!inputFile.exists()) {
+                System.err.println("Input file not found: " + inputFilePath);
+                System.exit(1);
+            }
+            String source = new String(Files.readAllBytes(inputFile.toPath()), StandardCharsets.UTF_8);
+
+            CompilationResult result = client.compile(inputFilePath, source, serverArgs, System.err);
+            if (!result.isSuccess()) {
+                System.err.println("Semantic errors found:");
+                for (String error : result.getErrors()) {
+                    System.err.println(error);
+                }
+                System.exit(1);
+            }
+
+            String outputPath = "output";
+            Main.writeClassFiles(new File(outputPath), result.getClasses());
+            Main.runProgram(result.getClasses(), outputPath, options);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        } catch (Exception e) {
+            System.err.println("Compile server error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
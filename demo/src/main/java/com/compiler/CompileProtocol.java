@@ -0,0 +1,172 @@
+package com.compiler;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+/**
+ * Wire format shared by {@link CompileServer} and {@link CompileClient}.
+ * Each connection carries one request and one response.
+ * <p>
+ * Request: magic, version, token, kind, and for COMPILE the file name, the option flags
+ * and the source text. Response: status, the compiler log, the error messages, and the
+ * class files as name/bytes pairs.
+ * <p>
+ * The token is a random secret the server writes to a file only its user can read, so
+ * other local users cannot submit jobs or stop the server through the loopback port.
+ */
+final class CompileProtocol {
+    static final int MAGIC = 0x494C4353; // "ILCS"
+    static final int VERSION = 2;
+
+    /** Length of the token in bytes */
+    static final int TOKEN_LENGTH = 32;
+    /** Largest string or byte array a message may carry */
+    static final int MAX_LENGTH = 64 * 1024 * 1024;
+    /** Most option flags a COMPILE request may carry */
+    static final int MAX_OPTIONS = 64;
+
+    /** Request kinds */
+    static final byte COMPILE = 1;
+    static final byte SHUTDOWN = 2;
+
+    /** Response status: classes produced */
+    static final int STATUS_OK = 0;
+    /** Response status: the program has errors, no classes */
+    static final int STATUS_ERRORS = 1;
+    /** Response status: the compiler failed, the messages describe the failure */
+    static final int STATUS_FAILURE = 2;
+
+    private CompileProtocol() {
+    }
+
+    /**
+     * Writes a string of any length as UTF-8 with an int length prefix.
+     */
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(DataOutputStream, String)}.
+     */
+    static String readString(DataInputStream in) throws IOException {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a byte array with an int length prefix.
+     */
+    static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a byte array written by {@link #writeBytes(DataOutputStream, byte[])}.
+     */
+    static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_LENGTH) {
+            throw new IOException("Invalid length in compile server message: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Reads and checks the magic number and version at the start of a request.
+     */
+    static void readHeader(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a compile server request");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported compile server protocol version " + version);
+        }
+    }
+
+    /**
+     * Writes the magic number, version and token at the start of a request.
+     */
+    static void writeHeader(DataOutputStream out, byte[] token) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.write(token);
+    }
+
+    /**
+     * Reads the token that follows the header and compares it with the server's.
+     *
+     * @return Whether the request carries the server's token
+     */
+    static boolean readToken(DataInputStream in, byte[] token) throws IOException {
+        byte[] sent = new byte[TOKEN_LENGTH];
+        in.readFully(sent);
+        return MessageDigest.isEqual(sent, token);
+    }
+
+    /**
+     * Returns the token file of a server on the given port, in the user's home directory.
+     */
+    static File tokenFile(int port) {
+        return new File(new File(System.getProperty("user.home"), ".compile-server"), port + ".token");
+    }
+
+    /**
+     * Creates a new random token and writes it to a file only the current user can read.
+     *
+     * @return The token
+     */
+    static byte[] writeToken(File file) throws IOException {
+        byte[] token = new byte[TOKEN_LENGTH];
+        new SecureRandom().nextBytes(token);
+        Path path = file.toPath();
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        // The file is created with its final permissions, so no one else can open it in between
+        Files.deleteIfExists(path);
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(path, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            Files.createFile(path);
+            File created = path.toFile();
+            created.setReadable(false, false);
+            created.setReadable(true, true);
+            created.setWritable(false, false);
+            created.setWritable(true, true);
+        }
+        Files.write(path, token);
+        return token;
+    }
+
+    /**
+     * Reads the token a server wrote with {@link #writeToken(File)}.
+     *
+     * @throws IOException if there is no token file, usually because the server is not running
+     */
+    static byte[] readToken(File file) throws IOException {
+        byte[] token;
+        try {
+            token = Files.readAllBytes(file.toPath());
+        } catch (NoSuchFileException e) {
+            throw new IOException("No compile server token in " + file + "; is the server running?");
+        }
+        if (token.length != TOKEN_LENGTH) {
+            throw new IOException("Invalid compile server token in " + file);
+        }
+        return token;
+    }
+}
@@ -0,0 +1,338 @@
+package com.compiler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long-running compile server.
+ * Starting a JVM, loading the lexer, the parser tables and the semantic analyzer and
+ * warming them up costs far more than compiling a typical program, so the server keeps
+ * all of that resident and compiles the sources that {@link CompileClient} sends it.
+ * It listens on a loopback TCP port only; each connection carries one request, and only
+ * requests carrying the token the server wrote to its token file are served.
+ * <p>
+ * The server also keeps a {@link CompilationSession} for each of the files it compiled
+ * most recently, so that compiling a file again after an edit only redoes the work for
+ * the routines the edit touched.
+ */
+public class CompileServer {
+    /** Port used when none is given */
+    public static final int DEFAULT_PORT = 5151;
+
+    /** Program compiled once at startup so the first real request runs on warm code */
+    private static final String WARM_UP_SOURCE =
+        "routine main() is\n" +
+        "    var i: integer;\n" +
+        "    for i in 1 .. 3 loop\n" +
+        "        print(i * 2 + 1);\n" +
+        "    end;\n" +
+        "end;\n";
+
+    /** Number of files whose last compilation is kept */
+    private static final int MAX_SESSIONS = 16;
+
+    /** Milliseconds a connection may go without sending any of its request by default */
+    public static final int READ_TIMEOUT_MILLIS = 10000;
+
+    private final ServerSocket serverSocket;
+    /** File the token is written to for clients to read */
+    private final File tokenFile;
+    /** Secret every request must carry */
+    private final byte[] token;
+    private final ExecutorService workers;
+    /** Stream for the server's own log messages */
+    private final PrintStream log;
+    private volatile boolean running = true;
+    /** Milliseconds a connection may go without sending any of its request */
+    private volatile int readTimeout = READ_TIMEOUT_MILLIS;
+    /** Session of each recently compiled file, keyed by file name and options, least recent first */
+    private final Map<String, CompilationSession> sessions =
+        new LinkedHashMap<String, CompilationSession>(MAX_SESSIONS, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompilationSession> eldest) {
+                return size() > MAX_SESSIONS;
+            }
+        };
+
+    /**
+     * Creates a server bound to a loopback port, with its token in the default token file
+     * for that port.
+     *
+     * @param port Port to listen on, or 0 for any free port
+     * @param log Stream for the server's log messages
+     * @throws IOException if the port cannot be bound or the token cannot be written
+     */
+    public CompileServer(int port, PrintStream log) throws IOException {
+        this(port, null, log);
+    }
+
+    /**
+     * Creates a server bound to a loopback port.
+     *
+     * @param port Port to listen on, or 0 for any free port
+     * @param tokenFile File to write the token to, or null for the default token file
+     * @param log Stream for the server's log messages
+     * @throws IOException if the port cannot be bound or the token cannot be written
+     */
+    public CompileServer(int port, File tokenFile, PrintStream log) throws IOException {
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.tokenFile = tokenFile != null ? tokenFile : CompileProtocol.tokenFile(getPort());
+        try {
+            this.token = CompileProtocol.writeToken(this.tokenFile);
+        } catch (IOException e) {
+            serverSocket.close();
+            throw e;
+        }
+        this.workers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        this.log = log;
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Sets how long a connection may go without sending any of its request before it is
+     * closed, so that idle connections cannot hold on to every worker.
+     *
+     * @param millis The timeout in milliseconds
+     * @throws IllegalArgumentException if the timeout is not positive
+     */
+    public void setReadTimeout(int millis) {
+        if (millis < 1) {
+            throw new IllegalArgumentException("Read timeout must be positive: " + millis);
+        }
+        this.readTimeout = millis;
+    }
+
+    /**
+     * Accepts and handles requests until a shutdown request arrives or {@link #shutdown()} is called.
+     */
+    public void serve() throws IOException {
+        try {
+            while (running) {
+                Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (SocketException e) {
+                    if (!running) {
+                        break;
+                    }
+                    throw e;
+                }
+                workers.execute(() -> handle(socket));
+            }
+        } finally {
+            workers.shutdown();
+            try {
+                workers.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Stops accepting requests. Requests already being compiled are finished.
+     */
+    public void shutdown() {
+        running = false;
+        tokenFile.delete();
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            log.println("Error closing compile server socket: " + e.getMessage());
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (Socket connection = socket) {
+            connection.setSoTimeout(readTimeout);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+            CompileProtocol.readHeader(in);
+            if (!CompileProtocol.readToken(in, token)) {
+                writeResponse(out, CompileProtocol.STATUS_FAILURE, "",
+                    Collections.singletonList("Compile server token does not match " + tokenFile),
+                    Collections.<String, byte[]>emptyMap());
+                log.println("Compile server rejected a request without its token");
+                return;
+            }
+            byte kind = in.readByte();
+            if (kind == CompileProtocol.SHUTDOWN) {
+                writeResponse(out, CompileProtocol.STATUS_OK, "",
+                    Collections.<String>emptyList(), Collections.<String, byte[]>emptyMap());
+                log.println("Compile server shutting down");
+                shutdown();
+                return;
+            }
+            if (kind != CompileProtocol.COMPILE) {
+                throw new IOException("Unknown compile server request " + kind);
+            }
+
+            String fileName = CompileProtocol.readString(in);
+            int optionCount = in.readInt();
+            if (optionCount < 0 || optionCount > CompileProtocol.MAX_OPTIONS) {
+                throw new IOException("Invalid option count in compile server request: " + optionCount);
+            }
+            List<String> args = new ArrayList<>();
+            for (int i = 0; i < optionCount; i++) {
+                args.add(CompileProtocol.readString(in));
+            }
+            String source = CompileProtocol.readString(in);
+            compile(fileName, args, source, out);
+        } catch (SocketTimeoutException e) {
+            log.println("Compile server closed a connection that sent no request for " + readTimeout + " ms");
+        } catch (IOException e) {
+            log.println("Compile server request failed: " + e.getMessage());
+        }
+    }
+
+    private void compile(String fileName, List<String> args, String source, DataOutputStream out) throws IOException {
+        CompilerOptions options;
+        try {
+            options = CompilerOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            writeResponse(out, CompileProtocol.STATUS_FAILURE, "",
+                Collections.singletonList(e.getMessage()), Collections.<String, byte[]>emptyMap());
+            return;
+        }
+
+        ByteArrayOutputStream logBytes = new ByteArrayOutputStream();
+        PrintStream requestLog = new PrintStream(logBytes, true, "UTF-8");
+        // Intermediate .j files of concurrent requests must not overwrite each other
+        File workDir = Files.createTempDirectory("compile-server").toFile();
+        CompilationSession session = session(fileName, args);
+        try {
+            CompilationResult result;
+            synchronized (session) {
+                result = new CompilerPipeline(options, requestLog, session).compile(source, workDir);
+            }
+            writeResponse(out, result.isSuccess() ? CompileProtocol.STATUS_OK : CompileProtocol.STATUS_ERRORS,
+                new String(logBytes.toByteArray(), StandardCharsets.UTF_8), result.getErrors(), result.getClasses());
+        } catch (Exception e) {
+            e.printStackTrace(requestLog);
+            writeResponse(out, CompileProtocol.STATUS_FAILURE,
+                new String(logBytes.toByteArray(), StandardCharsets.UTF_8),
+                Collections.singletonList("Error compiling " + fileName + ": " + e),
+                Collections.<String, byte[]>emptyMap());
+        } finally {
+            deleteRecursively(workDir);
+        }
+    }
+
+    /**
+     * Returns the session of a file compiled with the given options, starting one if there
+     * is none.
+     */
+    private CompilationSession session(String fileName, List<String> args) {
+        String key = fileName + "\0" + String.join("\0", args);
+        synchronized (sessions) {
+            return sessions.computeIfAbsent(key, k -> new CompilationSession());
+        }
+    }
+
+    private static void writeResponse(DataOutputStream out, int status, String logText, List<String> errors,
+                                      Map<String, byte[]> classes) throws IOException {
+        out.writeInt(status);
+        CompileProtocol.writeString(out, logText);
+        out.writeInt(errors.size());
+        for (String error : errors) {
+            CompileProtocol.writeString(out, error);
+        }
+        out.writeInt(classes.size());
+        for (Map.Entry<String, byte[]> compiled : classes.entrySet()) {
+            CompileProtocol.writeString(out, compiled.getKey());
+            CompileProtocol.writeBytes(out, compiled.getValue());
+        }
+        out.flush();
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * Compiles a small program with each backend so the lexer, parser, analyzer and
+     * code generators are loaded and compiled by the JIT before the first request.
+     */
+    private void warmUp() {
+        PrintStream discard = new PrintStream(new ByteArrayOutputStream());
+        for (String backend : Arrays.asList("--backend=bytecode", "--backend=jasmin")) {
+            File workDir = null;
+            try {
+                workDir = Files.createTempDirectory("compile-server").toFile();
+                CompilerOptions options = CompilerOptions.parse(Collections.singletonList(backend));
+                for (int i = 0; i < 20; i++) {
+                    new CompilerPipeline(options, discard).compile(WARM_UP_SOURCE, workDir);
+                }
+            } catch (Exception e) {
+                log.println("Compile server warm-up with " + backend + " failed: " + e);
+            } finally {
+                if (workDir != null) {
+                    deleteRecursively(workDir);
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts the compile server.
+     *
+     * @param args Optional "--port=N"
+     */
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        for (String arg : args) {
+            if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(arg.substring("--port=".length()));
+            } else {
+                System.err.println("Unknown option: " + arg);
+                System.err.println("Usage: java -cp imperativeLangParser.jar com.compiler.CompileServer [--port=N]");
+                System.exit(1);
+            }
+        }
+
+        try {
+            CompileServer server = new CompileServer(port, System.err);
+            server.warmUp();
+            System.err.println("Compile server listening on "
+                + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort());
+            server.serve();
+        } catch (IOException e) {
+            System.err.println("Compile server failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Options that control a single compilation.
+ * They are parsed from the command line flags that follow the input file, and can be
+ * turned back into flags so a client can forward them to the compile server.
+ */
+public class CompilerOptions {
+    /** Usage text for the options, shared by every entry point */
+    public static final String USAGE = "[--debug] [--fork-jasmin] [--backend=jasmin|bytecode] [--in-process] [--interpret[=nodes|tree]] [--cache=DIR] [--parser=cup|descent] [--save-ast=FILE] [--flat-ast]";
+
+    /** Flag to enable/disable debug output for detailed compilation information */
+    private boolean debug = false;
+    /** Flag to assemble .j files by forking jasmin.jar instead of assembling in process */
+    private boolean forkJasmin = false;
+    /** Code generation backend: "jasmin" (generate and assemble .j files) or "bytecode" (write class files directly) */
+    private String backend = "jasmin";
+    /** Flag to run the compiled program inside the compiler JVM instead of a new java process */
+    private boolean inProcess = false;
+    /** Interpreter to run the program with instead of generating code: "nodes", "tree", or null to compile */
+    private String interpreter = null;
+    /** Directory of the {@link BuildCache} for compiled programs, or null to always compile */
+    private String cacheDir = null;
+    /** Parser to build the AST with: "cup" (the generated LALR parser) or "descent" (the hand-written one) */
+    private String parser = "cup";
+    /** File to write the parsed AST to as an {@link AstFile}, or null not to write it */
+    private String astFile = null;
+    /** Flag to run the code generators' read-only checks on a {@link FlatAst} of the program */
+    private boolean flatAst = false;
+
+    /**
+     * Parses option flags.
+     *
+     * @param args The flags, without the input file
+     * @return The parsed options
+     * @throws IllegalArgumentException if a flag is not recognized
+     */
+    public static CompilerOptions parse(List<String> args) {
+        CompilerOptions options = new CompilerOptions();
+        for (String arg : args) {
+            if (arg.equals("--debug")) {
+                options.debug = true;
+            } else if (arg.equals("--fork-jasmin")) {
+                options.forkJasmin = true;
+            } else if (arg.equals("--backend=jasmin") || arg.equals("--backend=bytecode")) {
+                options.backend = arg.substring("--backend=".length());
+            } else if (arg.equals("--in-process")) {
+                options.inProcess = true;
+            } else if (arg.equals("--interpret") || arg.equals("--interpret=nodes")) {
+                options.interpreter = "nodes";
+            } else if (arg.equals("--interpret=tree")) {
+                options.interpreter = "tree";
+            } else if (arg.startsWith("--cache=") && arg.length() > "--cache=".length()) {
+                options.cacheDir = arg.substring("--cache=".length());
+            } else if (arg.equals("--parser=cup") || arg.equals("--parser=descent")) {
+                options.parser = arg.substring("--parser=".length());
+            } else if (arg.startsWith("--save-ast=") && arg.length() > "--save-ast=".length()) {
+                options.astFile = arg.substring("--save-ast=".length());
+            } else if (arg.equals("--flat-ast")) {
+                options.flatAst = true;
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Converts the options back into command line flags.
+     *
+     * @return Flags that {@link #parse(List)} turns into equal options
+     */
+    public List<String> toArguments() {
+        List<String> args = new ArrayList<>();
+        if (debug) {
+            args.add("--debug");
+        }
+        if (forkJasmin) {
+            args.add("--fork-jasmin");
+        }
+        args.add("--backend=" + backend);
+        if (inProcess) {
+            args.add("--in-process");
+        }
+        if (interpreter != null) {
+            args.add("--interpret=" + interpreter);
+        }
+        if (cacheDir != null) {
+            args.add("--cache=" + cacheDir);
+        }
+        args.add("--parser=" + parser);
+        if (astFile != null) {
+            args.add("--save-ast=" + astFile);
+        }
+        if (flatAst) {
+            args.add("--flat-ast");
+        }
+        return args;
+    }
+
+    public boolean isDebug() {
+        return debug;
+    }
+
+    public boolean isForkJasmin() {
+        return forkJasmin;
+    }
+
+    public String getBackend() {
+        return backend;
+    }
+
+    public boolean isInProcess() {
+        return inProcess;
+    }
+
+    public boolean isInterpret() {
+        return interpreter != null;
+    }
+
+    public String getInterpreter() {
+        return interpreter;
+    }
+
+    public String getCacheDir() {
+        return cacheDir;
+    }
+
+    public String getParser() {
+        return parser;
+    }
+
+    public String getAstFile() {
+        return astFile;
+    }
+
+    public boolean isFlatAst() {
+        return flatAst;
+    }
+}
@@ -0,0 +1,395 @@
+package com.compiler;
+
+import com.compiler.interpreter.NodeCompiler;
+import com.compiler.semantic.SemanticAnalyzer;
+import com.compiler.semantic.SemanticError;
+import java_cup.runtime.ComplexSymbolFactory;
+import java_cup.runtime.Symbol;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Runs the compilation phases on one source file:
+ * <ul>
+ *   <li>Lexical Analysis - Tokenizing the input file</li>
+ *   <li>Syntactic Analysis - Parsing tokens into an AST</li>
+ *   <li>Semantic Analysis - Type checking and validation</li>
+ *   <li>Code Generation - Producing class files via Jasmin or the bytecode backend</li>
+ * </ul>
+ * With "--interpret" the checked AST is executed directly instead of being compiled, and
+ * with "--cache=DIR" a program compiled before is taken from the {@link BuildCache}
+ * without running any phase, leaving the same files in the output directory.
+ * A pipeline holds no state between compilations, so the command line driver and the
+ * compile server use it the same way. State kept from one compilation of a program to
+ * the next lives in a {@link CompilationSession} the pipeline may be given.
+ */
+public class CompilerPipeline {
+    /** Options for this compilation */
+    private final CompilerOptions options;
+    /** Stream for debug output */
+    private final PrintStream err;
+    /** What the last compilation of the program found, or null to start from scratch */
+    private final CompilationSession session;
+
+    /**
+     * Creates a pipeline.
+     *
+     * @param options Options for the compilation
+     * @param err Stream for debug output and assembler messages
+     */
+    public CompilerPipeline(CompilerOptions options, PrintStream err) {
+        this(options, err, null);
+    }
+
+    /**
+     * Creates a pipeline that only redoes the work for the parts of a program that changed
+     * since the last compilation in a session.
+     *
+     * @param options Options for the compilation, the same for each compilation in the session
+     * @param err Stream for debug output and assembler messages
+     * @param session The session, used by this pipeline alone while it compiles
+     */
+    public CompilerPipeline(CompilerOptions options, PrintStream err, CompilationSession session) {
+        this.options = options;
+        this.err = err;
+        this.session = session;
+    }
+
+    /**
+     * Compiles a program.
+     *
+     * @param source The program source text
+     * @param outputDir Directory for intermediate .j files; class files are returned, not written
+     * @return The semantic errors, or the class files of the program
+     * @throws Exception if the source cannot be parsed or the classes cannot be assembled
+     */
+    public CompilationResult compile(String source, File outputDir) throws Exception {
+        ByteBuffer sourceBytes = ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_8));
+        return compile(() -> parse(new StringReader(source)), sourceBytes, outputDir);
+    }
+
+    /**
+     * Compiles a program from its source file, which is memory-mapped and lexed straight
+     * from the mapped bytes instead of being read into a String first. A file whose name
+     * ends in ".ast" is an {@link AstFile} written with "--save-ast", which is loaded
+     * without lexing or parsing.
+     *
+     * @param sourceFile The program source file, in UTF-8, or a saved AST
+     * @param outputDir Directory for intermediate .j files; class files are returned, not written
+     * @return The semantic errors, or the class files of the program
+     * @throws Exception if the source cannot be read or parsed or the classes cannot be assembled
+     */
+    public CompilationResult compile(File sourceFile, File outputDir) throws Exception {
+        ByteBuffer sourceBytes = MappedSourceReader.map(sourceFile);
+        return compile(() -> parse(sourceFile, sourceBytes), sourceBytes, outputDir);
+    }
+
+    /**
+     * Compiles a program.
+     *
+     * @param parse Parses the program, unless it is found in the build cache and no AST file is wanted
+     * @param sourceBytes The source text in UTF-8 or the saved AST, which keys the build cache
+     * @param outputDir Directory for intermediate .j files
+     */
+    private CompilationResult compile(Callable<Program> parse, ByteBuffer sourceBytes, File outputDir)
+            throws Exception {
+        BuildCache cache = options.getCacheDir() != null ? new BuildCache(new File(options.getCacheDir())) : null;
+        String cacheKey = null;
+        if (cache != null) {
+            cacheKey = cache.key(sourceBytes.duplicate(), options);
+            BuildCache.Entry cached = cache.load(cacheKey);
+            if (cached != null) {
+                if (options.isDebug()) {
+                    err.println("Using cached classes " + cacheKey);
+                }
+                if (options.getAstFile() != null) {
+                    // Parsing is what writes the AST file, so it still has to happen
+                    parse.call();
+                }
+                writeFiles(outputDir, cached.getFiles());
+                return new CompilationResult(new ArrayList<String>(), cached.getClasses());
+            }
+        }
+
+        Program program = parse.call();
+        SemanticAnalyzer analyzer = new SemanticAnalyzer(options.isDebug());
+        List<String> errors = analyze(program, analyzer);
+        if (!errors.isEmpty()) {
+            return CompilationResult.failure(errors);
+        }
+
+        if (!outputDir.exists()) {
+            outputDir.mkdirs();
+        }
+
+        Map<String, byte[]> classes = new LinkedHashMap<>();
+        // Files left in the output directory, which a cache hit writes again
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        if (options.getBackend().equals("bytecode")) {
+            // Generate class files directly, without Jasmin
+            BytecodeGenerator bytecodeGen = new BytecodeGenerator(analyzer.getSymbolTable(), options.isDebug());
+            bytecodeGen.setFlatAst(flatAst(program));
+            classes.putAll(bytecodeGen.generate(program));
+        } else {
+            generateWithJasmin(program, analyzer, outputDir, classes, files);
+        }
+        if (cache != null) {
+            cache.store(cacheKey, classes, files);
+        }
+        return new CompilationResult(new ArrayList<String>(), classes);
+    }
+
+    /**
+     * Checks a program and runs it without generating any code, either by compiling it
+     * into executable nodes with {@link NodeCompiler} or, with "--interpret=tree", by
+     * walking its AST.
+     *
+     * @param source The program source text
+     * @param in Stream the program reads from
+     * @param out Stream the program prints to
+     * @return The semantic errors, or a result without classes once the program has run
+     * @throws Exception if the source cannot be parsed
+     * @throws RuntimeException if the program fails while running
+     */
+    public CompilationResult interpret(String source, InputStream in, PrintStream out) throws Exception {
+        return interpret(parse(new StringReader(source)), in, out);
+    }
+
+    /**
+     * Checks a program and runs it without generating any code, lexing it straight from
+     * its memory-mapped source file or loading it from a saved AST.
+     *
+     * @see #interpret(String, InputStream, PrintStream)
+     */
+    public CompilationResult interpret(File sourceFile, InputStream in, PrintStream out) throws Exception {
+        ByteBuffer sourceBytes = MappedSourceReader.map(sourceFile);
+        return interpret(parse(sourceFile, sourceBytes), in, out);
+    }
+
+    private CompilationResult interpret(Program program, InputStream in, PrintStream out) throws Exception {
+        SemanticAnalyzer analyzer = new SemanticAnalyzer(options.isDebug());
+        List<String> errors = analyze(program, analyzer);
+        if (!errors.isEmpty()) {
+            return CompilationResult.failure(errors);
+        }
+
+        if (options.isDebug()) {
+            err.println("\nInterpreting the program:");
+            err.println("----------------------------");
+        }
+        if (options.getInterpreter().equals("tree")) {
+            program.execute(new Environment(analyzer.getSymbolTable(), in, out));
+        } else {
+            new NodeCompiler(analyzer.getSymbolTable(), in, out).compile(program).run();
+        }
+        out.flush();
+        if (options.isDebug()) {
+            err.println("----------------------------");
+        }
+        return new CompilationResult(new ArrayList<String>(), new LinkedHashMap<String, byte[]>());
+    }
+
+    /**
+     * Loads a program from a saved AST if its file name ends in ".ast", or else lexes and
+     * parses its mapped source.
+     */
+    private Program parse(File sourceFile, ByteBuffer sourceBytes) throws Exception {
+        if (!sourceFile.getName().endsWith(".ast")) {
+            return parse(new MappedSourceReader(sourceBytes.duplicate()));
+        }
+        Program program = new AstFile(sourceBytes.duplicate()).load();
+        if (options.isDebug()) {
+            err.println("Loaded " + program.getStatements().size() + " declarations from " + sourceFile);
+        }
+        return program;
+    }
+
+    /**
+     * Lexes and parses a program, printing the tokens and the AST in debug mode, and
+     * writing the AST to the file given with "--save-ast".
+     * The source is lexed once into a compact token buffer, which is printed in debug
+     * mode and then replayed into the CUP parser or read directly by the hand-written one.
+     * In a session, only the declarations that changed are parsed.
+     */
+    private Program parse(Reader source) throws Exception {
+        boolean debug = options.isDebug();
+        ComplexSymbolFactory symbolFactory = new ComplexSymbolFactory();
+        TokenBuffer tokens = session != null
+            ? TokenBuffer.record(new Lexer(source, symbolFactory), session.getNames())
+            : TokenBuffer.record(new Lexer(source, symbolFactory));
+
+        if (debug) {
+            err.println("\nLexical Analysis Output:");
+            err.println("----------------------------");
+            for (Symbol token : tokens.getTokens()) {
+                err.println("Token: " + token);
+            }
+            err.println("----------------------------\n");
+        }
+
+        // Parse the source
+        Program program;
+        if (session != null) {
+            program = session.parse(tokens, () -> parse(tokens, symbolFactory));
+        } else {
+            program = parse(tokens, symbolFactory);
+        }
+
+        if (debug) {
+            err.println("Parsed successfully!");
+            if (session != null) {
+                err.println("Parsed " + session.getParsedCount() + " of "
+                    + program.getStatements().size() + " declarations");
+            }
+
+            err.println("\nAbstract Syntax Tree:");
+            err.println("----------------------------");
+            err.println(program.toString());
+            err.println("----------------------------\n");
+        }
+        if (options.getAstFile() != null) {
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(options.getAstFile()))) {
+                AstFile.write(program, out);
+            }
+        }
+        return program;
+    }
+
+    /**
+     * Parses all of a program with the parser chosen by the options.
+     */
+    private Program parse(TokenBuffer tokens, ComplexSymbolFactory symbolFactory) throws Exception {
+        if (options.getParser().equals("descent")) {
+            return new RecursiveDescentParser(tokens).parseConcurrently();
+        }
+        ImperativeLangParser parser = new ImperativeLangParser(tokens.replay(), symbolFactory);
+        parser.setNames(tokens.getNames());
+        return (Program) parser.parse().value;
+    }
+
+    /**
+     * Stores an analyzed program in a {@link FlatAst} for the code generators' read-only
+     * checks if "--flat-ast" was given.
+     *
+     * @return The flat form, or null
+     */
+    private FlatAst flatAst(Program program) {
+        if (!options.isFlatAst()) {
+            return null;
+        }
+        FlatAst flat = FlatAst.of(program);
+        if (options.isDebug()) {
+            err.println("Stored " + flat.size() + " nodes in a flat AST");
+        }
+        return flat;
+    }
+
+    /**
+     * Runs semantic analysis on a parsed program.
+     *
+     * @return The semantic errors as messages, empty if the program is valid
+     */
+    private List<String> analyze(Program program, SemanticAnalyzer analyzer) {
+        List<String> errors = new ArrayList<>();
+        List<SemanticError> found = session != null
+            ? analyzer.analyze(program, session.getBodyErrors())
+            : analyzer.analyze(program);
+        for (SemanticError error : found) {
+            errors.add(error.toString());
+        }
+        if (errors.isEmpty() && options.isDebug()) {
+            err.println("Semantic analysis completed successfully!");
+        }
+        return errors;
+    }
+
+    private void generateWithJasmin(Program program, SemanticAnalyzer analyzer, File outputDir,
+                                    Map<String, byte[]> classes, Map<String, byte[]> files) throws IOException {
+        JasminCodeGenerator codeGen = new JasminCodeGenerator(analyzer.getSymbolTable(), options.isDebug());
+        codeGen.setFlatAst(flatAst(program));
+
+        // Stream Main.j to its file a method at a time instead of building it as one string
+        File mainJasminFile = new File(outputDir, "Main.j");
+        try (Writer writer = Files.newBufferedWriter(mainJasminFile.toPath(), StandardCharsets.UTF_8)) {
+            codeGen.generate(program, writer, session != null ? session.getMethods() : null);
+        }
+
+        if (options.isDebug()) {
+            err.println("\nGenerated Jasmin code:");
+            err.println("----------------------------");
+            Files.copy(mainJasminFile.toPath(), err);
+            err.println();
+            err.println("----------------------------\n");
+        }
+
+        // Write the record type files next to Main.j and assemble them all at once
+        Map<String, File> jasminFiles = new LinkedHashMap<>();
+        for (Map.Entry<String, String> record : codeGen.getRecordClasses().entrySet()) {
+            File recordJasminFile = new File(outputDir, record.getKey() + ".j");
+            try (Writer writer = Files.newBufferedWriter(recordJasminFile.toPath(), StandardCharsets.UTF_8)) {
+                writer.write(record.getValue());
+            }
+            jasminFiles.put(record.getKey(), recordJasminFile);
+        }
+        jasminFiles.put("Main", mainJasminFile);
+        for (File jasminFile : jasminFiles.values()) {
+            files.put(jasminFile.getName(), Files.readAllBytes(jasminFile.toPath()));
+        }
+
+        JasminAssembler assembler = new JasminAssembler(
+            new File(JasminAssembler.DEFAULT_JASMIN_JAR), options.isDebug(), err);
+        if (options.isForkJasmin()) {
+            List<String> paths = new ArrayList<>();
+            for (File jasminFile : jasminFiles.values()) {
+                paths.add(jasminFile.getPath());
+            }
+            assembler.assembleAllInSubprocesses(paths, outputDir.getPath());
+            for (String className : jasminFiles.keySet()) {
+                classes.put(className, readClassFile(outputDir, className));
+                files.put(className + ".class", classes.get(className));
+            }
+        } else {
+            // Assemble the record classes and Main in this JVM, in parallel
+            classes.putAll(assembler.assembleAll(jasminFiles));
+        }
+    }
+
+    /**
+     * Writes files taken from the build cache into the output directory.
+     */
+    private static void writeFiles(File outputDir, Map<String, byte[]> files) throws IOException {
+        if (!files.isEmpty() && !outputDir.exists()) {
+            outputDir.mkdirs();
+        }
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            Files.write(new File(outputDir, file.getKey()).toPath(), file.getValue());
+        }
+    }
+
+    /**
+     * Reads a class file that jasmin.jar wrote into the output directory.
+     *
+     * @param outputDir Directory containing the .class file
+     * @param className Name of the class
+     * @return The class file bytes
+     */
+    private static byte[] readClassFile(File outputDir, String className) throws IOException {
+        return Files.readAllBytes(new File(outputDir, className + ".class").toPath());
+    }
+}
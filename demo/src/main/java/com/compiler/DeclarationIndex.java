@@ -0,0 +1,68 @@
+package com.compiler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The top-level statements of a program sorted by kind, each kind in program order.
+ * It is built once with the program, so that a phase needing only the routines, or
+ * only the global variables, walks those instead of every statement again.
+ */
+public class DeclarationIndex {
+    private final List<RoutineDecl> routines;
+    private final List<TypeDecl> types;
+    /** Variable and array declarations */
+    private final List<Statement> variables;
+    /** Every statement that is not a declaration */
+    private final List<Statement> others;
+
+    /**
+     * Sorts the top-level statements of a program.
+     *
+     * @param statements The statements, in program order
+     */
+    public DeclarationIndex(List<Statement> statements) {
+        List<RoutineDecl> routines = new ArrayList<>();
+        List<TypeDecl> types = new ArrayList<>();
+        List<Statement> variables = new ArrayList<>();
+        List<Statement> others = new ArrayList<>();
+        for (Statement stmt : statements) {
+            if (stmt instanceof RoutineDecl) {
+                routines.add((RoutineDecl) stmt);
+            } else if (stmt instanceof TypeDecl) {
+                types.add((TypeDecl) stmt);
+            } else if (stmt instanceof VarDecl || stmt instanceof ArrayDecl) {
+                variables.add(stmt);
+            } else {
+                others.add(stmt);
+            }
+        }
+        this.routines = Collections.unmodifiableList(routines);
+        this.types = Collections.unmodifiableList(types);
+        this.variables = Collections.unmodifiableList(variables);
+        this.others = Collections.unmodifiableList(others);
+    }
+
+    public List<RoutineDecl> getRoutines() {
+        return routines;
+    }
+
+    public List<TypeDecl> getTypes() {
+        return types;
+    }
+
+    /**
+     * Returns the global variable and array declarations.
+     */
+    public List<Statement> getVariables() {
+        return variables;
+    }
+
+    /**
+     * Returns the top-level statements that declare nothing.
+     */
+    public List<Statement> getOthers() {
+        return others;
+    }
+}
@@ -0,0 +1,299 @@
+package com.compiler;
+
+import com.compiler.semantic.SymbolTable;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+
+/**
+ * Run-time state of a program executed by walking its AST.
+ * Variables are kept the same way the {@link SymbolTable} keeps their types: a map per
+ * scope, searched from the innermost scope outwards and then in the globals. Every routine
+ * call gets a frame of its own scopes, so a routine sees its parameters and locals and the
+ * globals, but not the locals of its caller. Routines and record types are resolved through
+ * the symbol table filled in by semantic analysis.
+ * <p>
+ * Values are Integer, Double, Boolean and String; arrays are Object[] indexed from 1 in the
+ * source language, and records are maps from field name to value.
+ */
+public class Environment {
+    /** Symbol table from semantic analysis, used to resolve routines and type names */
+    private final SymbolTable symbolTable;
+
+    /** Values of global variables */
+    private final Map<String, Object> globals = new HashMap<>();
+
+    /** Frames of the active routine calls; each frame is a stack of block scopes */
+    private final Deque<List<Map<String, Object>>> frames = new ArrayDeque<>();
+
+    /** Stream print statements write to */
+    private final PrintStream out;
+
+    /** Stream read statements read from */
+    private final InputStream in;
+
+    /** Scanner over {@link #in}, created by the first read statement */
+    private Scanner scanner;
+
+    /**
+     * Creates an environment with only an empty global scope.
+     *
+     * @param symbolTable Symbol table filled in by semantic analysis of the program
+     * @param in Stream read statements read from
+     * @param out Stream print statements write to
+     */
+    public Environment(SymbolTable symbolTable, InputStream in, PrintStream out) {
+        this.symbolTable = symbolTable;
+        this.in = in;
+        this.out = out;
+    }
+
+    /**
+     * Thrown by a return statement and caught by the routine call that is returning.
+     */
+    public static class ReturnSignal extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final Object value;
+
+        public ReturnSignal(Object value) {
+            super(null, null, false, false);
+            this.value = value;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * Declares a variable in the innermost scope, or as a global outside any routine.
+     */
+    public void declare(String name, Object value) {
+        if (frames.isEmpty()) {
+            globals.put(name, value);
+        } else {
+            List<Map<String, Object>> scopes = frames.peek();
+            scopes.get(scopes.size() - 1).put(name, value);
+        }
+    }
+
+    /**
+     * Gets the value of a variable.
+     *
+     * @throws RuntimeException if the variable is not declared
+     */
+    public Object lookup(String name) {
+        Map<String, Object> scope = findScope(name);
+        if (scope == null) {
+            throw new RuntimeException("Undefined variable: " + name);
+        }
+        return scope.get(name);
+    }
+
+    /**
+     * Assigns a new value to a declared variable. An integer assigned to a real variable
+     * is widened, as the compiled code does.
+     *
+     * @throws RuntimeException if the variable is not declared
+     */
+    public void assign(String name, Object value) {
+        Map<String, Object> scope = findScope(name);
+        if (scope == null) {
+            throw new RuntimeException("Undefined variable: " + name);
+        }
+        scope.put(name, widen(scope.get(name), value));
+    }
+
+    private Map<String, Object> findScope(String name) {
+        List<Map<String, Object>> scopes = frames.peek();
+        if (scopes != null) {
+            // Search scopes from innermost to outermost
+            for (int i = scopes.size() - 1; i >= 0; i--) {
+                if (scopes.get(i).containsKey(name)) {
+                    return scopes.get(i);
+                }
+            }
+        }
+        return globals.containsKey(name) ? globals : null;
+    }
+
+    /**
+     * Opens a block scope in the current frame.
+     */
+    public void enterScope() {
+        frames.peek().add(new HashMap<String, Object>());
+    }
+
+    /**
+     * Closes the innermost block scope, dropping its variables.
+     */
+    public void exitScope() {
+        List<Map<String, Object>> scopes = frames.peek();
+        scopes.remove(scopes.size() - 1);
+    }
+
+    /**
+     * Executes statements in a block scope of their own.
+     */
+    public void executeBlock(List<Statement> statements) {
+        enterScope();
+        try {
+            for (Statement stmt : statements) {
+                stmt.execute(this);
+            }
+        } finally {
+            exitScope();
+        }
+    }
+
+    /**
+     * Calls a routine declared in the symbol table.
+     *
+     * @param name Name of the routine
+     * @param arguments Values of the arguments, in parameter order
+     * @return The returned value, or null for a procedure
+     * @throws RuntimeException if no such routine is declared
+     */
+    public Object call(String name, List<Object> arguments) {
+        RoutineDecl routine = symbolTable.getRoutine(name);
+        if (routine == null) {
+            throw new RuntimeException("Undefined routine: " + name);
+        }
+
+        List<Map<String, Object>> scopes = new ArrayList<>();
+        Map<String, Object> parameters = new HashMap<>();
+        for (int i = 0; i < routine.getParameters().size(); i++) {
+            Parameter param = routine.getParameters().get(i);
+            parameters.put(param.getName(), convert(arguments.get(i), param.getType()));
+        }
+        scopes.add(parameters);
+
+        frames.push(scopes);
+        try {
+            for (Statement stmt : routine.getBody()) {
+                stmt.execute(this);
+            }
+            return null;
+        } catch (ReturnSignal signal) {
+            return convert(signal.getValue(), routine.getReturnType());
+        } finally {
+            frames.pop();
+        }
+    }
+
+    /**
+     * Creates the initial value of a variable of the given type: zero, false or the empty
+     * string for simple types, a new array of initial values, or a new record.
+     */
+    public Object defaultValue(Type type) {
+        if (type instanceof ArrayType) {
+            ArrayType arrayType = (ArrayType) type;
+            int size = arrayType.getSize() != null ? arrayType.getSize() : 0;
+            Object[] array = new Object[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = defaultValue(arrayType.getElementType());
+            }
+            return array;
+        }
+        if (type instanceof RecordType) {
+            Map<String, Object> record = new LinkedHashMap<>();
+            for (Map.Entry<String, Type> field : ((RecordType) type).getFieldEntries()) {
+                record.put(field.getKey(), defaultValue(field.getValue()));
+            }
+            return record;
+        }
+        if (type == null) {
+            return null;
+        }
+        String typeName = typeName(type);
+        switch (typeName) {
+            case "integer":
+                return 0;
+            case "real":
+                return 0.0;
+            case "boolean":
+                return false;
+            case "string":
+                return "";
+            default:
+                Type definition = symbolTable.getTypeDefinition(typeName);
+                if (definition == null) {
+                    throw new RuntimeException("Unknown type: " + type);
+                }
+                return defaultValue(definition);
+        }
+    }
+
+    /**
+     * Converts a value to be stored in a variable of the given type.
+     * Only the implicit integer to real conversion is needed; the analyzer rejects the rest.
+     */
+    public static Object convert(Object value, Type type) {
+        if (value instanceof Integer && type == Type.REAL) {
+            return ((Integer) value).doubleValue();
+        }
+        return value;
+    }
+
+    /**
+     * Gets the name of a type, such as "integer" or the name of a record type.
+     */
+    public static String typeName(Type type) {
+        return type instanceof SimpleType ? ((SimpleType) type).getName() : type.toString();
+    }
+
+    /**
+     * Converts a value to be stored where the given old value was, keeping reals real.
+     */
+    public static Object widen(Object oldValue, Object value) {
+        if (oldValue instanceof Double && value instanceof Integer) {
+            return ((Integer) value).doubleValue();
+        }
+        return value;
+    }
+
+    /**
+     * Interprets a condition value; integers are true when non-zero.
+     */
+    public static boolean isTrue(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof Integer) {
+            return (Integer) value != 0;
+        }
+        throw new RuntimeException("Condition is not a boolean: " + value);
+    }
+
+    /**
+     * Gets the symbol table routines and types are resolved in.
+     */
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    /**
+     * Gets the stream print statements write to.
+     */
+    public PrintStream getOut() {
+        return out;
+    }
+
+    /**
+     * Gets the scanner read statements read from.
+     */
+    public Scanner getScanner() {
+        if (scanner == null) {
+            scanner = new Scanner(in);
+        }
+        return scanner;
+    }
+}
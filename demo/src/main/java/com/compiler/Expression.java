@@ -4,11 +4,42 @@ package com.compiler;
  * Base class for all expressions in the AST
  */
 public abstract class Expression {
+    /** Type of the expression, set by semantic analysis */
+    private Type resolvedType;
+
     /**
      * Evaluates the expression and returns its value
      */
     public abstract Object evaluate();
 
+    /**
+     * Evaluates the expression against the run-time state of an interpreted program.
+     * Expressions that read variables or call routines override this; the default
+     * runs {@link #evaluate()}.
+     */
+    public Object evaluate(Environment env) {
+        return evaluate();
+    }
+
+    /**
+     * Gets the type semantic analysis resolved for this expression, so later phases read it
+     * instead of typing the expression again.
+     *
+     * @return The type, or null if the expression has not been analyzed or has no type
+     */
+    public Type getResolvedType() {
+        return resolvedType;
+    }
+
+    public void setResolvedType(Type resolvedType) {
+        this.resolvedType = resolvedType;
+    }
+
+    /**
+     * Calls back the visit method of the visitor for this expression's class
+     */
+    public abstract <R> R accept(AstVisitor<R> visitor);
+
     /**
      * Returns a string representation of the expression
      */
@@ -71,4 +71,9 @@ public class FieldAccess extends Expression {
         sb.append("└── Field: ").append(fieldName);
         return sb.toString();
     }
-}
\ No newline at end of file
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitFieldAccess(this);
+    }
+}
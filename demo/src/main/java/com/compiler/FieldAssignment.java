@@ -66,4 +66,9 @@ public class FieldAssignment extends Statement {
         return String.format("%s.%s := %s [type: %s]", 
             recordName, fieldName, value, type);
     }
-}
\ No newline at end of file
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitFieldAssignment(this);
+    }
+}
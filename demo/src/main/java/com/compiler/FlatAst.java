@@ -0,0 +1,640 @@
+package com.compiler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A program's AST stored as parallel int arrays instead of one object per node, for
+ * walking very large programs without chasing pointers.
+ * <p>
+ * Nodes are numbered in preorder, so the nodes of a subtree are the ones from its root
+ * up to, not including, {@link #end}: the first child of a node follows it, and each
+ * child is followed by its next sibling. Every node has a kind and two operands whose
+ * meaning depends on the kind:
+ * <ul>
+ *   <li>names, string literals as written and record field names are indexes into one
+ *       string table, in which each name of the program's {@link NameTable} keeps its ID;</li>
+ *   <li>types are indexes into a type table, or -1 for none;</li>
+ *   <li>integer and boolean literals, operators (by ordinal) and the reverse flag of a
+ *       for loop are stored as they are, and a real literal as the two halves of its bits.</li>
+ * </ul>
+ * Children are at fixed positions. A missing expression or statement list is a
+ * {@link #NONE} node, and a list is a {@link #BLOCK} node whose children are its items,
+ * so a routine is its parameters block, then its body block.
+ * <p>
+ * The store is read-only. {@link #statement} makes the usual nodes of one subtree, for
+ * the phases that annotate and rewrite the tree in place.
+ */
+public class FlatAst {
+    /** A missing expression or statement list */
+    public static final int NONE = 0;
+    /** Operands: name, type; children: initializer */
+    public static final int VAR_DECL = 1;
+    /** Operands: name, type */
+    public static final int ARRAY_DECL = 2;
+    /** Operands: name, type */
+    public static final int TYPE_DECL = 3;
+    /** Operands: name, return type; children: parameters block, body block */
+    public static final int ROUTINE_DECL = 4;
+    /** Operands: target; children: index, value */
+    public static final int ASSIGNMENT = 5;
+    /** Children: condition, then block, else block */
+    public static final int IF_STATEMENT = 6;
+    /** Children: condition, body block */
+    public static final int WHILE_STATEMENT = 7;
+    /** Operands: variable, 1 if reverse; children: range start, range end, body block */
+    public static final int FOR_LOOP = 8;
+    /** Children: expression */
+    public static final int PRINT_STATEMENT = 9;
+    /** Operands: variable */
+    public static final int READ_STATEMENT = 10;
+    /** Children: expression */
+    public static final int RETURN_STATEMENT = 11;
+    /** Operands: value */
+    public static final int INTEGER_LITERAL = 12;
+    /** Operands: high and low half of the bits of the value */
+    public static final int REAL_LITERAL = 13;
+    /** Operands: value as written */
+    public static final int STRING_LITERAL = 14;
+    /** Operands: 1 if true */
+    public static final int BOOLEAN_LITERAL = 15;
+    /** Operands: name */
+    public static final int VARIABLE_REFERENCE = 16;
+    /** Operands: record, field */
+    public static final int RECORD_ACCESS = 17;
+    /** Operands: array; children: index */
+    public static final int ARRAY_ACCESS = 18;
+    /** Operands: name; children: arguments block */
+    public static final int ROUTINE_CALL = 19;
+    /** Operands: -, target type; children: expression */
+    public static final int TYPE_CAST = 20;
+    /** Operands: operator; children: left, right */
+    public static final int BINARY_EXPRESSION = 21;
+    /** Operands: operator; children: expression */
+    public static final int UNARY_EXPRESSION = 22;
+    /** Operands: name, type */
+    public static final int PARAMETER = 23;
+    /** Children: the items of a list */
+    public static final int BLOCK = 24;
+
+    private final NameTable names;
+    private final int[] kinds;
+    private final int[] ends;
+    private final int[] operandsA;
+    private final int[] operandsB;
+    private final String[] strings;
+    private final Type[] types;
+    /** Root node of each top-level declaration */
+    private final int[] declarations;
+
+    private FlatAst(Builder builder, int[] declarations) {
+        this.names = builder.names;
+        this.kinds = Arrays.copyOf(builder.kinds, builder.size);
+        this.ends = Arrays.copyOf(builder.ends, builder.size);
+        this.operandsA = Arrays.copyOf(builder.operandsA, builder.size);
+        this.operandsB = Arrays.copyOf(builder.operandsB, builder.size);
+        this.strings = builder.strings.toArray(new String[0]);
+        this.types = builder.types.toArray(new Type[0]);
+        this.declarations = declarations;
+    }
+
+    /**
+     * Stores a program.
+     *
+     * @param program A program as built by the parsers
+     * @return The flat form of the program
+     * @throws IllegalArgumentException if the program holds a kind of node the parsers do not make
+     */
+    public static FlatAst of(Program program) {
+        Builder builder = new Builder(program.getNames());
+        List<Statement> statements = program.getStatements();
+        int[] declarations = new int[statements.size()];
+        for (int i = 0; i < declarations.length; i++) {
+            declarations[i] = builder.size;
+            statements.get(i).accept(builder);
+        }
+        return new FlatAst(builder, declarations);
+    }
+
+    /**
+     * Returns the names of the program, whose IDs are the string indexes of its names.
+     */
+    public NameTable getNames() {
+        return names;
+    }
+
+    /**
+     * Returns the number of nodes.
+     */
+    public int size() {
+        return kinds.length;
+    }
+
+    /**
+     * Checks whether any node is of the given kind, by scanning the kinds array instead of
+     * walking a tree.
+     *
+     * @param kind One of the node kind constants
+     */
+    public boolean contains(int kind) {
+        for (int nodeKind : kinds) {
+            if (nodeKind == kind) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of top-level declarations.
+     */
+    public int getDeclarationCount() {
+        return declarations.length;
+    }
+
+    /**
+     * Returns the root node of a top-level declaration.
+     */
+    public int getDeclaration(int index) {
+        return declarations[index];
+    }
+
+    public int kind(int node) {
+        return kinds[node];
+    }
+
+    /**
+     * Returns the node after the subtree of a node, which is its next sibling if it has one.
+     */
+    public int end(int node) {
+        return ends[node];
+    }
+
+    /**
+     * Returns the first child of a node, or -1 if it has none.
+     */
+    public int firstChild(int node) {
+        return node + 1 < ends[node] ? node + 1 : -1;
+    }
+
+    /**
+     * Returns a child of a node by its position.
+     */
+    public int child(int node, int index) {
+        int child = node + 1;
+        for (int i = 0; i < index; i++) {
+            child = ends[child];
+        }
+        if (child >= ends[node]) {
+            throw new IndexOutOfBoundsException("Child " + index + " of node " + node);
+        }
+        return child;
+    }
+
+    public int childCount(int node) {
+        int count = 0;
+        for (int child = node + 1; child < ends[node]; child = ends[child]) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the name a declaration, parameter, assignment, for loop, read statement,
+     * variable reference, record access, array access or routine call names.
+     */
+    public String name(int node) {
+        return strings[operandsA[node]];
+    }
+
+    /**
+     * Returns the index into the string table of the name a node names, which is its
+     * ID if it is in {@link #getNames()}.
+     */
+    public int nameIndex(int node) {
+        return operandsA[node];
+    }
+
+    /**
+     * Returns the field a record access reads.
+     */
+    public String field(int node) {
+        return strings[operandsB[node]];
+    }
+
+    /**
+     * Returns the type of a declaration or parameter, the return type of a routine or
+     * the target type of a cast, or null if it has none.
+     */
+    public Type type(int node) {
+        return operandsB[node] < 0 ? null : types[operandsB[node]];
+    }
+
+    public int intValue(int node) {
+        return operandsA[node];
+    }
+
+    public double realValue(int node) {
+        return Double.longBitsToDouble(((long) operandsA[node] << 32) | (operandsB[node] & 0xFFFFFFFFL));
+    }
+
+    public boolean booleanValue(int node) {
+        return operandsA[node] != 0;
+    }
+
+    /**
+     * Returns a string literal as written, with its quotes and escape sequences.
+     */
+    public String stringValue(int node) {
+        return strings[operandsA[node]];
+    }
+
+    public Operator operator(int node) {
+        return Operator.values()[operandsA[node]];
+    }
+
+    public boolean isReverse(int node) {
+        return operandsB[node] != 0;
+    }
+
+    /**
+     * Makes the usual statement nodes of a subtree. Each call makes new nodes.
+     */
+    public Statement statement(int node) {
+        switch (kinds[node]) {
+            case VAR_DECL:
+                return new VarDecl(name(node), type(node), expression(node + 1));
+            case ARRAY_DECL:
+                return new ArrayDecl(name(node), (ArrayType) type(node));
+            case TYPE_DECL:
+                return new TypeDecl(name(node), type(node));
+            case ROUTINE_DECL: {
+                int parameterBlock = node + 1;
+                List<Parameter> parameters = null;
+                if (kinds[parameterBlock] == BLOCK) {
+                    parameters = new ArrayList<>();
+                    for (int p = parameterBlock + 1; p < ends[parameterBlock]; p = ends[p]) {
+                        parameters.add(new Parameter(name(p), type(p)));
+                    }
+                }
+                return new RoutineDecl(name(node), parameters, type(node), statements(ends[parameterBlock]));
+            }
+            case ASSIGNMENT: {
+                Expression index = expression(node + 1);
+                Expression value = expression(ends[node + 1]);
+                return index == null ? new Assignment(name(node), value) : new Assignment(name(node), index, value);
+            }
+            case IF_STATEMENT: {
+                int thenBlock = ends[node + 1];
+                return new IfStatement(expression(node + 1), statements(thenBlock), statements(ends[thenBlock]));
+            }
+            case WHILE_STATEMENT:
+                return new WhileStatement(expression(node + 1), statements(ends[node + 1]));
+            case FOR_LOOP: {
+                int rangeEnd = ends[node + 1];
+                return new ForLoop(name(node), new Reverse(isReverse(node)), expression(node + 1),
+                    expression(rangeEnd), statements(ends[rangeEnd]));
+            }
+            case PRINT_STATEMENT:
+                return new PrintStatement(expression(node + 1));
+            case READ_STATEMENT:
+                return new ReadStatement(name(node));
+            case RETURN_STATEMENT:
+                return new ReturnStatement(expression(node + 1));
+            default:
+                throw new IllegalArgumentException("Node " + node + " is not a statement");
+        }
+    }
+
+    /**
+     * Makes the usual expression nodes of a subtree, or returns null for a {@link #NONE}
+     * node. Each call makes new nodes.
+     */
+    public Expression expression(int node) {
+        switch (kinds[node]) {
+            case NONE:
+                return null;
+            case INTEGER_LITERAL:
+                return new IntegerLiteral(intValue(node));
+            case REAL_LITERAL:
+                return new RealLiteral(realValue(node));
+            case STRING_LITERAL:
+                return new StringLiteral(stringValue(node));
+            case BOOLEAN_LITERAL:
+                return new BooleanLiteral(booleanValue(node));
+            case VARIABLE_REFERENCE:
+                return new VariableReference(name(node));
+            case RECORD_ACCESS:
+                return new RecordAccess(name(node), field(node));
+            case ARRAY_ACCESS:
+                return new ArrayAccess(name(node), expression(node + 1));
+            case ROUTINE_CALL: {
+                int argumentBlock = node + 1;
+                List<Expression> arguments = null;
+                if (kinds[argumentBlock] == BLOCK) {
+                    arguments = new ArrayList<>();
+                    for (int a = argumentBlock + 1; a < ends[argumentBlock]; a = ends[a]) {
+                        arguments.add(expression(a));
+                    }
+                }
+                return new RoutineCall(name(node), arguments);
+            }
+            case TYPE_CAST:
+                return new TypeCast(expression(node + 1), type(node));
+            case BINARY_EXPRESSION:
+                return new BinaryExpression(expression(node + 1), operator(node), expression(ends[node + 1]));
+            case UNARY_EXPRESSION:
+                return new UnaryExpression(operator(node), expression(node + 1));
+            default:
+                throw new IllegalArgumentException("Node " + node + " is not an expression");
+        }
+    }
+
+    /**
+     * Makes the statements of a block, or returns null for a {@link #NONE} node.
+     */
+    private List<Statement> statements(int block) {
+        if (kinds[block] == NONE) {
+            return null;
+        }
+        List<Statement> statements = new ArrayList<>();
+        for (int child = block + 1; child < ends[block]; child = ends[child]) {
+            statements.add(statement(child));
+        }
+        return statements;
+    }
+
+    /**
+     * Makes the usual nodes of the whole program.
+     */
+    public Program toProgram() {
+        List<Statement> statements = new ArrayList<>(declarations.length);
+        for (int declaration : declarations) {
+            statements.add(statement(declaration));
+        }
+        return new Program(statements, names);
+    }
+
+    /** Appends the nodes of a subtree in preorder, filling in its end once its children are in */
+    private static class Builder implements AstVisitor<Void> {
+        final NameTable names;
+        int[] kinds = new int[256];
+        int[] ends = new int[256];
+        int[] operandsA = new int[256];
+        int[] operandsB = new int[256];
+        int size;
+        final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> stringIndexes = new HashMap<>();
+        final List<Type> types = new ArrayList<>();
+        private final Map<Type, Integer> typeIndexes = new HashMap<>();
+
+        Builder(NameTable names) {
+            this.names = names;
+            if (names != null) {
+                for (int id = 0; id < names.size(); id++) {
+                    string(names.getName(id));
+                }
+            }
+        }
+
+        /** Appends a node, returning it so that its end can be set after its children */
+        private int open(int kind, int a, int b) {
+            if (size == kinds.length) {
+                int capacity = size * 2;
+                kinds = Arrays.copyOf(kinds, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                operandsA = Arrays.copyOf(operandsA, capacity);
+                operandsB = Arrays.copyOf(operandsB, capacity);
+            }
+            kinds[size] = kind;
+            operandsA[size] = a;
+            operandsB[size] = b;
+            ends[size] = size + 1;
+            return size++;
+        }
+
+        private Void close(int node) {
+            ends[node] = size;
+            return null;
+        }
+
+        private int string(String string) {
+            Integer index = stringIndexes.get(string);
+            if (index == null) {
+                index = strings.size();
+                strings.add(string);
+                stringIndexes.put(string, index);
+            }
+            return index;
+        }
+
+        private int type(Type type) {
+            if (type == null) {
+                return -1;
+            }
+            Integer index = typeIndexes.get(type);
+            if (index == null) {
+                index = types.size();
+                types.add(type);
+                typeIndexes.put(type, index);
+            }
+            return index;
+        }
+
+        private void expression(Expression expression) {
+            if (expression == null) {
+                open(NONE, 0, 0);
+            } else {
+                expression.accept(this);
+            }
+        }
+
+        private void statements(List<Statement> statements) {
+            if (statements == null) {
+                open(NONE, 0, 0);
+                return;
+            }
+            int block = open(BLOCK, 0, 0);
+            for (Statement statement : statements) {
+                statement.accept(this);
+            }
+            close(block);
+        }
+
+        @Override
+        public Void visitStatement(Statement stmt) {
+            throw new IllegalArgumentException("Cannot store " + stmt.getClass().getSimpleName());
+        }
+
+        @Override
+        public Void visitExpression(Expression expr) {
+            throw new IllegalArgumentException("Cannot store " + expr.getClass().getSimpleName());
+        }
+
+        @Override
+        public Void visitVarDecl(VarDecl stmt) {
+            int node = open(VAR_DECL, string(stmt.getName()), type(stmt.getType()));
+            expression(stmt.getInitializer());
+            return close(node);
+        }
+
+        @Override
+        public Void visitArrayDecl(ArrayDecl stmt) {
+            return close(open(ARRAY_DECL, string(stmt.getName()), type(stmt.getType())));
+        }
+
+        @Override
+        public Void visitTypeDecl(TypeDecl stmt) {
+            return close(open(TYPE_DECL, string(stmt.getName()), type(stmt.getType())));
+        }
+
+        @Override
+        public Void visitRoutineDecl(RoutineDecl stmt) {
+            int node = open(ROUTINE_DECL, string(stmt.getName()), type(stmt.getReturnType()));
+            List<Parameter> parameters = stmt.getParameters();
+            if (parameters == null) {
+                open(NONE, 0, 0);
+            } else {
+                int block = open(BLOCK, 0, 0);
+                for (Parameter parameter : parameters) {
+                    open(PARAMETER, string(parameter.getName()), type(parameter.getType()));
+                }
+                close(block);
+            }
+            statements(stmt.getBody());
+            return close(node);
+        }
+
+        @Override
+        public Void visitAssignment(Assignment stmt) {
+            int node = open(ASSIGNMENT, string(stmt.getTarget()), 0);
+            expression(stmt.getIndex());
+            expression(stmt.getValue());
+            return close(node);
+        }
+
+        @Override
+        public Void visitIfStatement(IfStatement stmt) {
+            int node = open(IF_STATEMENT, 0, 0);
+            expression(stmt.getCondition());
+            statements(stmt.getThenStatements());
+            statements(stmt.getElseStatements());
+            return close(node);
+        }
+
+        @Override
+        public Void visitWhileStatement(WhileStatement stmt) {
+            int node = open(WHILE_STATEMENT, 0, 0);
+            expression(stmt.getCondition());
+            statements(stmt.getBody());
+            return close(node);
+        }
+
+        @Override
+        public Void visitForLoop(ForLoop stmt) {
+            int node = open(FOR_LOOP, string(stmt.getVariable()), stmt.isReverse() ? 1 : 0);
+            expression(stmt.getRangeStart());
+            expression(stmt.getRangeEnd());
+            statements(stmt.getBody());
+            return close(node);
+        }
+
+        @Override
+        public Void visitPrintStatement(PrintStatement stmt) {
+            int node = open(PRINT_STATEMENT, 0, 0);
+            expression(stmt.getExpression());
+            return close(node);
+        }
+
+        @Override
+        public Void visitReadStatement(ReadStatement stmt) {
+            return close(open(READ_STATEMENT, string(stmt.getVariable()), 0));
+        }
+
+        @Override
+        public Void visitReturnStatement(ReturnStatement stmt) {
+            int node = open(RETURN_STATEMENT, 0, 0);
+            expression(stmt.getExpression());
+            return close(node);
+        }
+
+        @Override
+        public Void visitIntegerLiteral(IntegerLiteral expr) {
+            return close(open(INTEGER_LITERAL, expr.getValue(), 0));
+        }
+
+        @Override
+        public Void visitRealLiteral(RealLiteral expr) {
+            long bits = Double.doubleToRawLongBits(expr.getValue());
+            return close(open(REAL_LITERAL, (int) (bits >>> 32), (int) bits));
+        }
+
+        @Override
+        public Void visitStringLiteral(StringLiteral expr) {
+            return close(open(STRING_LITERAL, string(expr.getRawValue()), 0));
+        }
+
+        @Override
+        public Void visitBooleanLiteral(BooleanLiteral expr) {
+            return close(open(BOOLEAN_LITERAL, expr.getValue() ? 1 : 0, 0));
+        }
+
+        @Override
+        public Void visitVariableReference(VariableReference expr) {
+            return close(open(VARIABLE_REFERENCE, string(expr.getName()), 0));
+        }
+
+        @Override
+        public Void visitRecordAccess(RecordAccess expr) {
+            return close(open(RECORD_ACCESS, string(expr.getRecord()), string(expr.getField())));
+        }
+
+        @Override
+        public Void visitArrayAccess(ArrayAccess expr) {
+            int node = open(ARRAY_ACCESS, string(expr.getArray()), 0);
+            expression(expr.getIndex());
+            return close(node);
+        }
+
+        @Override
+        public Void visitRoutineCall(RoutineCall expr) {
+            int node = open(ROUTINE_CALL, string(expr.getName()), 0);
+            List<Expression> arguments = expr.getArguments();
+            if (arguments == null) {
+                open(NONE, 0, 0);
+            } else {
+                int block = open(BLOCK, 0, 0);
+                for (Expression argument : arguments) {
+                    expression(argument);
+                }
+                close(block);
+            }
+            return close(node);
+        }
+
+        @Override
+        public Void visitTypeCast(TypeCast expr) {
+            int node = open(TYPE_CAST, 0, type(expr.getTargetType()));
+            expression(expr.getExpression());
+            return close(node);
+        }
+
+        @Override
+        public Void visitBinaryExpression(BinaryExpression expr) {
+            int node = open(BINARY_EXPRESSION, expr.getOperator().ordinal(), 0);
+            expression(expr.getLeft());
+            expression(expr.getRight());
+            return close(node);
+        }
+
+        @Override
+        public Void visitUnaryExpression(UnaryExpression expr) {
+            int node = open(UNARY_EXPRESSION, expr.getOperator().ordinal(), 0);
+            expression(expr.getExpression());
+            return close(node);
+        }
+    }
+}
@@ -104,6 +104,33 @@ public class ForLoop extends Statement {
         }
     }
 
+    /**
+     * Executes the for loop in an interpreted program.
+     * Like the generated code, the loop variable starts at the range start and the range
+     * end is checked before every iteration; the loop variable lives in a scope of its own.
+     *
+     * @param env The run-time state of the program
+     */
+    @Override
+    public void execute(Environment env) {
+        env.enterScope();
+        try {
+            env.declare(variable, start.evaluate(env));
+            while (true) {
+                int current = (Integer) env.lookup(variable);
+                int endVal = (Integer) end.evaluate(env);
+                if (reverse.isReverse() ? current < endVal : current > endVal) {
+                    break;
+                }
+                env.executeBlock(body);
+                int next = (Integer) env.lookup(variable) + (reverse.isReverse() ? -1 : 1);
+                env.assign(variable, next);
+            }
+        } finally {
+            env.exitScope();
+        }
+    }
+
     /**
      * Returns a string representation of the ForLoop in a tree-like structure.
      * Shows the loop variable, reverse flag, range bounds, and body statements.
@@ -138,4 +165,9 @@ public class ForLoop extends Statement {
         }
         return sb.toString();
     }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitForLoop(this);
+    }
 }
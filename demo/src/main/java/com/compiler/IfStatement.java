@@ -61,6 +61,20 @@ public class IfStatement extends Statement {
         this.condition = condition;
     }
 
+    /**
+     * Executes the then block or the else block in an interpreted program.
+     *
+     * @param env The run-time state of the program
+     */
+    @Override
+    public void execute(Environment env) {
+        if (Environment.isTrue(condition.evaluate(env))) {
+            env.executeBlock(thenBody);
+        } else if (elseBody != null) {
+            env.executeBlock(elseBody);
+        }
+    }
+
     /**
      * Returns a string representation of this if statement using ASCII art tree structure.
      * The output includes the condition, then block, and else block (if present) in a
@@ -98,4 +112,9 @@ public class IfStatement extends Statement {
         
         return sb.toString().trim();
     }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitIfStatement(this);
+    }
 }
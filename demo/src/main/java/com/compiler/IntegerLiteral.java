@@ -50,4 +50,9 @@ public class IntegerLiteral extends Expression {
         }
         return String.valueOf(value);
     }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitIntegerLiteral(this);
+    }
 }
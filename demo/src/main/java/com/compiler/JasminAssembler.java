@@ -0,0 +1,282 @@
+package com.compiler;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Assembles Jasmin source produced by {@link JasminCodeGenerator} into JVM class files.
+ * By default the Jasmin assembler from lib/jasmin.jar is loaded into the compiler JVM and
+ * driven directly, so each class is assembled in memory without starting a new process.
+ * The original behaviour of running "java -jar lib/jasmin.jar" once per file is kept
+ * as a fallback mode.
+ * <p>
+ * Jasmin keeps its parser state in static fields, so one copy of it cannot assemble two
+ * classes at once. Each thread therefore loads its own copy through a class loader of its
+ * own, and {@link #assembleAll(Map)} assembles the classes of a program in parallel on a
+ * bounded pool of worker threads shared by all assemblers.
+ */
+public class JasminAssembler {
+    /** Default location of the Jasmin assembler jar, relative to the working directory */
+    public static final String DEFAULT_JASMIN_JAR = "lib/jasmin.jar";
+
+    /** Path to the Jasmin assembler jar */
+    private final File jasminJar;
+    /** Flag for enabling debug output */
+    private final boolean debug;
+    /** Stream for error messages and debug output */
+    private final PrintStream err;
+
+    /**
+     * The copy of Jasmin each thread assembles with, loaded on its first in-process use and
+     * kept so a long-running compiler keeps it loaded and compiled.
+     */
+    private static final ThreadLocal<Jasmin> JASMIN = new ThreadLocal<>();
+
+    /** Number of classes of a program assembled at the same time */
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    /** Worker threads assembling the classes of a program in parallel, created on first use */
+    private static ExecutorService workers;
+
+    /**
+     * Creates an assembler using the Jasmin jar at the given location.
+     *
+     * @param jasminJar Path to jasmin.jar
+     * @param debug Flag to enable/disable debug output
+     * @param err Stream for error messages and debug output
+     */
+    public JasminAssembler(File jasminJar, boolean debug, PrintStream err) {
+        this.jasminJar = jasminJar;
+        this.debug = debug;
+        this.err = err;
+    }
+
+    /**
+     * Assembles Jasmin source into class file bytes inside the current JVM.
+     *
+     * @param className Name of the class being assembled, used in error messages
+     * @param source The Jasmin assembly source
+     * @return The bytes of the assembled class file
+     * @throws IOException if Jasmin cannot be loaded or reports errors in the source
+     */
+    public byte[] assemble(String className, String source) throws IOException {
+        return assemble(className, new StringReader(source));
+    }
+
+    /**
+     * Assembles a Jasmin file into class file bytes inside the current JVM, reading it as
+     * Jasmin parses it.
+     *
+     * @param className Name of the class being assembled, used in error messages
+     * @param jasminFile The Jasmin assembly file, in UTF-8
+     * @return The bytes of the assembled class file
+     * @throws IOException if the file cannot be read, Jasmin cannot be loaded or it reports errors
+     */
+    public byte[] assemble(String className, File jasminFile) throws IOException {
+        try (Reader source = Files.newBufferedReader(jasminFile.toPath(), StandardCharsets.UTF_8)) {
+            return assemble(className, source);
+        }
+    }
+
+    private byte[] assemble(String className, Reader source) throws IOException {
+        Jasmin jasmin = loadJasmin();
+        try {
+            Object classFile = jasmin.classFileClass.getConstructor().newInstance();
+            jasmin.readJasmin.invoke(classFile, source, className + ".j", false);
+            int errors = (Integer) jasmin.errorCount.invoke(classFile);
+            if (errors > 0) {
+                throw new IOException("Jasmin reported " + errors + " error(s) in " + className + ".j");
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            jasmin.write.invoke(classFile, bytes);
+            if (debug) {
+                err.println("Successfully assembled " + className + " in process");
+            }
+            return bytes.toByteArray();
+        } catch (InvocationTargetException e) {
+            throw new IOException("Error assembling " + className + ".j: " + e.getCause(), e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Error assembling " + className + ".j: " + e, e);
+        }
+    }
+
+    /**
+     * Assembles several Jasmin files inside the current JVM, in parallel when there is more
+     * than one and more than one processor. The classes do not refer to each other's class
+     * files, so they can be assembled in any order.
+     *
+     * @param jasminFiles Jasmin file of each class, keyed by class name; must not be empty
+     * @return The bytes of each assembled class file, in the order of the files
+     * @throws IOException if Jasmin cannot be loaded or reports errors in a file
+     */
+    public Map<String, byte[]> assembleAll(Map<String, File> jasminFiles) throws IOException {
+        Map<String, byte[]> classes = new LinkedHashMap<>();
+        if (jasminFiles.size() == 1 || PARALLELISM == 1) {
+            // Loading another copy of Jasmin would cost more than it saves
+            for (Map.Entry<String, File> source : jasminFiles.entrySet()) {
+                classes.put(source.getKey(), assemble(source.getKey(), source.getValue()));
+            }
+            return classes;
+        }
+
+        // The workers take all classes but the last, which this thread assembles meanwhile
+        List<Map.Entry<String, File>> entries = new ArrayList<>(jasminFiles.entrySet());
+        List<Future<byte[]>> pending = new ArrayList<>();
+        for (Map.Entry<String, File> source : entries.subList(0, entries.size() - 1)) {
+            pending.add(workers().submit(() -> assemble(source.getKey(), source.getValue())));
+        }
+        Map.Entry<String, File> last = entries.get(entries.size() - 1);
+        byte[] lastClass = assemble(last.getKey(), last.getValue());
+
+        for (int i = 0; i < pending.size(); i++) {
+            classes.put(entries.get(i).getKey(), await(pending.get(i)));
+        }
+        classes.put(last.getKey(), lastClass);
+        return classes;
+    }
+
+    /**
+     * Assembles several Jasmin files in parallel, each by running jasmin.jar in a separate JVM.
+     *
+     * @param jasminFiles Paths to the input Jasmin assembly files (.j)
+     * @param outputDir Directory where the compiled .class files should be placed
+     */
+    public void assembleAllInSubprocesses(List<String> jasminFiles, String outputDir) throws IOException {
+        List<Future<?>> pending = new ArrayList<>();
+        for (String jasminFile : jasminFiles) {
+            pending.add(workers().submit(() -> assembleInSubprocess(jasminFile, outputDir)));
+        }
+        for (Future<?> assembled : pending) {
+            await(assembled);
+        }
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while assembling", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Error assembling: " + e.getCause(), e.getCause());
+        }
+    }
+
+    private static synchronized ExecutorService workers() {
+        if (workers == null) {
+            workers = Executors.newFixedThreadPool(PARALLELISM, task -> {
+                Thread thread = new Thread(task, "jasmin-assembler");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return workers;
+    }
+
+    /**
+     * Assembles a Jasmin file by running jasmin.jar in a separate JVM.
+     * This is the fallback mode; the .class file is written into the output directory.
+     *
+     * @param jasminFile Path to the input Jasmin assembly file (.j)
+     * @param outputDir Directory where the compiled .class file should be placed
+     */
+    public void assembleInSubprocess(String jasminFile, String outputDir) {
+        try {
+            // Use ProcessBuilder to run jasmin.jar
+            ProcessBuilder pb = new ProcessBuilder(
+                "java",
+                "-jar",
+                jasminJar.getPath(),
+                "-d",
+                outputDir,
+                jasminFile
+            );
+
+            Process process = pb.start();
+            int exitCode = process.waitFor();
+
+            if (exitCode == 0 && debug) {
+                err.println("Successfully compiled " + jasminFile);
+            } else if (exitCode != 0) {
+                err.println("Error compiling " + jasminFile + ". Exit code: " + exitCode);
+
+                // Print error output if any
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(process.getErrorStream()))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        err.println(line);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            err.println("Error compiling " + jasminFile + ": " + e.getMessage());
+            e.printStackTrace(err);
+        }
+    }
+
+    /**
+     * Gets the current thread's copy of Jasmin, loading it on first use.
+     * Jasmin bundles an old CUP runtime that clashes with the one the compiler uses,
+     * so its loader delegates straight to the bootstrap loader instead of ours.
+     */
+    private Jasmin loadJasmin() throws IOException {
+        Jasmin jasmin = JASMIN.get();
+        if (jasmin != null && jasminJar.equals(jasmin.jar)) {
+            return jasmin;
+        }
+        if (!jasminJar.isFile()) {
+            throw new IOException("Jasmin assembler not found: " + jasminJar.getPath());
+        }
+        try {
+            URLClassLoader jasminLoader = new URLClassLoader(new URL[] { jasminJar.toURI().toURL() }, null);
+            jasmin = new Jasmin(jasminJar, Class.forName("jasmin.ClassFile", true, jasminLoader));
+            JASMIN.set(jasmin);
+            return jasmin;
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Cannot load Jasmin from " + jasminJar.getPath() + ": " + e, e);
+        }
+    }
+
+    /**
+     * One loaded copy of Jasmin and reflective handles on its jasmin.ClassFile.
+     */
+    private static class Jasmin {
+        final File jar;
+        final Class<?> classFileClass;
+        final Method readJasmin;
+        final Method errorCount;
+        final Method write;
+
+        Jasmin(File jar, Class<?> classFileClass) throws NoSuchMethodException {
+            this.jar = jar;
+            this.classFileClass = classFileClass;
+            this.readJasmin = classFileClass.getMethod("readJasmin", java.io.Reader.class, String.class, boolean.class);
+            this.errorCount = classFileClass.getMethod("errorCount");
+            this.write = classFileClass.getMethod("write", java.io.OutputStream.class);
+        }
+    }
+}
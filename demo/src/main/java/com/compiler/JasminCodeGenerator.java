@@ -1,12 +1,14 @@
 package com.compiler;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import com.compiler.semantic.SymbolTable;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.File;
 
 /**
  * Jasmin bytecode generator for the compiler.
@@ -28,14 +30,16 @@ public class JasminCodeGenerator {
     /** Flag for enabling debug output */
     private boolean debug = false;
 
-    /** Next available index for integer variables */
-    private int nextIntVariable = 1;
     /** Next available index for local variables */
     private int nextLocalVariableIndex = 1;
     /** Next available index for double variables (starts higher to avoid overlap) */
     private int nextDoubleVariable = 10;
     /** Symbol table containing program's semantic information */
     private SymbolTable symbolTable;
+    /** Jasmin source of each generated record type class, keyed by class name */
+    private Map<String, String> recordClasses = new LinkedHashMap<>();
+    /** Flat form of the program, or null */
+    private FlatAst flatAst;
 
     /**
      * Constructs a new JasminCodeGenerator with the given symbol table and debug setting.
@@ -48,6 +52,15 @@ public class JasminCodeGenerator {
         this.debug = debug;
     }
 
+    /**
+     * Lets the read-only checks scan a flat store of the program instead of walking its tree.
+     *
+     * @param flatAst The program being generated in flat form, or null to walk the tree
+     */
+    public void setFlatAst(FlatAst flatAst) {
+        this.flatAst = flatAst;
+    }
+
     /**
      * Outputs debug information if debug mode is enabled.
      *
@@ -59,23 +72,73 @@ public class JasminCodeGenerator {
         }
     }
 
+    /**
+     * Returns the Jasmin source of the record type classes produced by the last
+     * call to {@link #generate(Program)}, keyed by class name.
+     *
+     * @return Map of record class names to their Jasmin source
+     */
+    public Map<String, String> getRecordClasses() {
+        return recordClasses;
+    }
+
+    /**
+     * Generates the Jasmin source of the Main class.
+     *
+     * @param program The analyzed program
+     * @return The Jasmin source
+     */
     public String generate(Program program) {
+        StringWriter out = new StringWriter();
+        try {
+            generate(program, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringWriter does not throw
+        }
+        return out.toString();
+    }
+
+    /**
+     * Generates the Jasmin source of the Main class into a writer.
+     * Each method is written out as soon as it is complete, so only the code of one method
+     * is held in memory however large the program is.
+     *
+     * @param program The analyzed program
+     * @param out Writer receiving the Jasmin source
+     * @throws IOException if writing fails
+     */
+    public void generate(Program program, Writer out) throws IOException {
+        generate(program, out, null);
+    }
+
+    /**
+     * Generates the Jasmin source of the Main class into a writer, reusing the code of
+     * routines generated before.
+     * The method of a routine found in the given map is written out as stored; the method
+     * of each other routine is generated and stored in the map. This is only correct if
+     * nothing a stored routine refers to has changed since it was generated.
+     *
+     * @param program The analyzed program
+     * @param out Writer receiving the Jasmin source
+     * @param methods Jasmin source of the method of each routine, keyed by the routine
+     *                itself; null to generate every method without storing anything
+     * @throws IOException if writing fails
+     */
+    public void generate(Program program, Writer out, Map<RoutineDecl, String> methods) throws IOException {
         debugLog("Starting code generation");
         localVariables.clear();
         variableTypes.clear();
         globalVariableTypes.clear();  // Clear global variables
+        recordClasses.clear();
         StringBuilder sb = new StringBuilder();
+        DeclarationIndex declarations = program.getDeclarations();
 
         // Generate record type classes first
         debugLog("Generating record type classes");
-        for (Statement stmt : program.getStatements()) {
-            debugLog("Processing statement: " + stmt.getClass().getSimpleName());
-            if (stmt instanceof TypeDecl) {  // Changed from RecordTypeDecl to TypeDecl
-                TypeDecl typeDecl = (TypeDecl) stmt;
-                if (typeDecl.getType() instanceof RecordType) {
-                    debugLog("Found record type declaration: " + typeDecl.getName());
-                    generateRecordTypeClass(typeDecl);
-                }
+        for (TypeDecl typeDecl : declarations.getTypes()) {
+            if (typeDecl.getType() instanceof RecordType) {
+                debugLog("Found record type declaration: " + typeDecl.getName());
+                generateRecordTypeClass(typeDecl);
             }
         }
 
@@ -90,7 +153,7 @@ public class JasminCodeGenerator {
         }
 
         // Generate global variable fields and store their types
-        for (Statement stmt : program.getStatements()) {
+        for (Statement stmt : declarations.getVariables()) {
             if (stmt instanceof VarDecl) {
                 VarDecl varDecl = (VarDecl) stmt;
                 String fieldDescriptor = getTypeDescriptor(varDecl.getType());
@@ -116,18 +179,27 @@ public class JasminCodeGenerator {
         sb.append("    invokespecial java/lang/Object/<init>()V\n");
         sb.append("    return\n");
         sb.append(".end method\n\n");
+        flush(sb, out);
 
         // Generate all routine declarations first
-        for (Statement stmt : program.getStatements()) {
-            if (stmt instanceof RoutineDecl) {
-                generateRoutineDecl(program, (RoutineDecl) stmt, sb);
+        for (RoutineDecl routine : declarations.getRoutines()) {
+            String method = methods != null ? methods.get(routine) : null;
+            if (method != null) {
+                debugLog("Reusing routine: " + routine.getName());
+                out.append(method);
+                continue;
+            }
+            generateRoutineDecl(program, routine, sb);
+            if (methods != null) {
+                methods.put(routine, sb.toString());
             }
+            flush(sb, out);
         }
 
         // Generate main method
         sb.append(".method public static main([Ljava/lang/String;)V\n");
-        sb.append("    .limit stack 6\n");
-        sb.append("    .limit locals 20\n\n");
+        sb.append("    .limit stack 20\n");  // Same headroom as routines: reals take two slots
+        int localsAt = sb.length();  // The locals limit is known once the body is generated
 
         // Initialize Scanner at the beginning of main if needed
         if (hasReadStatements(program)) {
@@ -142,8 +214,8 @@ public class JasminCodeGenerator {
         nextLocalVariableIndex = 1;  // Start at 1 because 0 is reserved for args array
         localVariables.clear();
 
-        // Initialize record instances
-        for (Statement stmt : program.getStatements()) {
+        // Initialize record instances, arrays and initialized globals in declaration order
+        for (Statement stmt : declarations.getVariables()) {
             if (stmt instanceof VarDecl) {
                 VarDecl varDecl = (VarDecl) stmt;
                 if (varDecl.getType() instanceof SimpleType) {
@@ -165,21 +237,24 @@ public class JasminCodeGenerator {
                 // Create array
                 sb.append("    ; Initialize array ").append(arrayDecl.getName()).append("\n");
                 sb.append("    bipush ").append(size).append("\n");
-                sb.append("    newarray ");
-                if (elementType == Type.INTEGER) {
-                    sb.append("int\n");
-                } else if (elementType == Type.BOOLEAN) {
-                    sb.append("boolean\n");
-                }
+                sb.append("    newarray ").append(getArrayTypeDescriptor(elementType)).append("\n");
                 sb.append("    putstatic Main/").append(arrayDecl.getName())
                   .append(" [").append(getTypeDescriptor(elementType)).append("\n\n");
             }
+            if (stmt instanceof VarDecl && ((VarDecl) stmt).getInitializer() != null) {
+                VarDecl varDecl = (VarDecl) stmt;
+                sb.append("    ; var ").append(varDecl.getName()).append(": ").append(varDecl.getType()).append("\n");
+                generateExpression(varDecl.getInitializer(), sb);
+                generateImplicitCast(getExpressionType(varDecl.getInitializer()), varDecl.getType(), sb);
+                sb.append("    putstatic Main/").append(varDecl.getName())
+                  .append(" ").append(getTypeDescriptor(varDecl.getType())).append("\n\n");
+            }
         }
 
         // Generate statements
-        for (Statement stmt : program.getStatements()) {
-            if (stmt instanceof RoutineDecl && ((RoutineDecl) stmt).getName().equals("main")) {
-                for (Statement bodyStmt : ((RoutineDecl) stmt).getBody()) {
+        for (RoutineDecl routine : declarations.getRoutines()) {
+            if (routine.getName().equals("main")) {
+                for (Statement bodyStmt : routine.getBody()) {
                     generateStatement(program, bodyStmt, sb);
                 }
             }
@@ -187,8 +262,17 @@ public class JasminCodeGenerator {
 
         sb.append("\n    return\n");
         sb.append(".end method\n");
+        sb.insert(localsAt, "    .limit locals " + nextLocalVariableIndex + "\n\n");
+        flush(sb, out);
+        out.flush();
+    }
 
-        return sb.toString();
+    /**
+     * Writes out the code generated so far and empties the buffer for the next method.
+     */
+    private static void flush(StringBuilder sb, Writer out) throws IOException {
+        out.append(sb);
+        sb.setLength(0);
     }
 
     private void generateGlobalVariableField(Statement stmt, StringBuilder sb) {
@@ -254,9 +338,9 @@ public class JasminCodeGenerator {
         }
         sb.append(")").append(getTypeDescriptor(returnType)).append("\n");
 
-    // Calculate stack and locals limit (you may need to adjust these)
+    // Slots are only ever added, so the locals limit is where the index ends after the body
     sb.append("    .limit stack 20\n");
-    sb.append("    .limit locals ").append(calculateLocalsLimit(routine)).append("\n\n");
+    int localsAt = sb.length();
 
     // Map parameters to local variables
     int paramIndex = 0;
@@ -282,12 +366,13 @@ public class JasminCodeGenerator {
             }
         }
 
+    sb.insert(localsAt, "    .limit locals " + nextLocalVariableIndex + "\n\n");
     sb.append(".end method\n\n");
 }
 
 
     private int getTypeSlotSize(Type type) {
-        if (type instanceof SimpleType && ((SimpleType) type).getName().equals("real")) {
+        if (type == Type.REAL) {
             return 2; // Doubles take two slots
         } else {
             return 1; // Most types take one slot
@@ -303,11 +388,10 @@ public class JasminCodeGenerator {
             return "Z";
         } else if (type == Type.STRING) {
             return "Ljava/lang/String;";
+        } else if (type == Type.REAL) {
+            return "D";
         } else if (type instanceof SimpleType) {
             String typeName = ((SimpleType) type).getName();
-            if (typeName.equals("real")) {
-                return "D";
-            }
             // For record types, ensure we return the proper class descriptor
             Type typeDefinition = symbolTable.getTypeDefinition(typeName);
             if (typeDefinition instanceof RecordType) {
@@ -351,20 +435,49 @@ public class JasminCodeGenerator {
 
     private void generateStatement(Program program, Statement stmt, StringBuilder sb) {
         debugLog("Generating statement: " + stmt.getClass().getName());
-        
-        if (stmt instanceof VarDecl) {
-            generateVarDecl((VarDecl) stmt, sb);
-        } else if (stmt instanceof ArrayDecl) {
-            generateArrayDecl((ArrayDecl) stmt, sb);
-        } else if (stmt instanceof PrintStatement) {
-            generatePrintStatement((PrintStatement) stmt, sb);
-        } else if (stmt instanceof RoutineDecl) {
-            generateRoutineDecl(program, (RoutineDecl) stmt, sb);
-        } else if (stmt instanceof RoutineCallStatement) {
+        stmt.accept(new StatementGenerator(program, sb));
+    }
+
+    /**
+     * Appends the code for each kind of statement to a method body.
+     */
+    private class StatementGenerator implements AstVisitor<Void> {
+        private final Program program;
+        private final StringBuilder sb;
+
+        StatementGenerator(Program program, StringBuilder sb) {
+            this.program = program;
+            this.sb = sb;
+        }
+
+        @Override
+        public Void visitVarDecl(VarDecl stmt) {
+            generateVarDecl(stmt, sb);
+            return null;
+        }
+
+        @Override
+        public Void visitArrayDecl(ArrayDecl stmt) {
+            generateArrayDecl(stmt, sb);
+            return null;
+        }
+
+        @Override
+        public Void visitPrintStatement(PrintStatement stmt) {
+            generatePrintStatement(stmt, sb);
+            return null;
+        }
+
+        @Override
+        public Void visitRoutineDecl(RoutineDecl stmt) {
+            generateRoutineDecl(program, stmt, sb);
+            return null;
+        }
+
+        @Override
+        public Void visitRoutineCallStatement(RoutineCallStatement routineCall) {
             debugLog("Found RoutineCallStatement");
             try {
-                RoutineCallStatement routineCall = (RoutineCallStatement) stmt;
-                debugLog("Successfully cast to RoutineCallStatement");
                 debugLog("Routine name: " + routineCall.getName());
                 
                 RoutineCall call = new RoutineCall(routineCall.getName(), routineCall.getArguments());
@@ -381,18 +494,43 @@ public class JasminCodeGenerator {
                 System.err.println("Failed to process RoutineCallStatement: " + e.getMessage());
                 e.printStackTrace();
             }
-        } else if (stmt instanceof IfStatement) {
-            generateIfStatement(program, (IfStatement) stmt, sb);
-        } else if (stmt instanceof WhileStatement) {
-            generateWhileStatement(program, (WhileStatement) stmt, sb);
-        } else if (stmt instanceof Assignment) {
-            generateAssignment((Assignment) stmt, sb);
-        } else if (stmt instanceof ForLoop) {
-            generateForLoop(program, (ForLoop) stmt, sb);
-        } else if (stmt instanceof ReturnStatement) {
-            generateReturnStatement((ReturnStatement) stmt, sb);
-        } else if (stmt instanceof ReadStatement) {
-            generateReadStatement((ReadStatement) stmt, sb);
+            return null;
+        }
+
+        @Override
+        public Void visitIfStatement(IfStatement stmt) {
+            generateIfStatement(program, stmt, sb);
+            return null;
+        }
+
+        @Override
+        public Void visitWhileStatement(WhileStatement stmt) {
+            generateWhileStatement(program, stmt, sb);
+            return null;
+        }
+
+        @Override
+        public Void visitAssignment(Assignment stmt) {
+            generateAssignment(stmt, sb);
+            return null;
+        }
+
+        @Override
+        public Void visitForLoop(ForLoop stmt) {
+            generateForLoop(program, stmt, sb);
+            return null;
+        }
+
+        @Override
+        public Void visitReturnStatement(ReturnStatement stmt) {
+            generateReturnStatement(stmt, sb);
+            return null;
+        }
+
+        @Override
+        public Void visitReadStatement(ReadStatement stmt) {
+            generateReadStatement(stmt, sb);
+            return null;
         }
     }
 
@@ -402,7 +540,7 @@ public class JasminCodeGenerator {
         int varIndex = nextLocalVariableIndex;
         
         // Increment the index by 2 for doubles, 1 for other types
-        if (type instanceof SimpleType && ((SimpleType)type).getName().equals("real")) {
+        if (type == Type.REAL) {
             nextLocalVariableIndex += 2;  // Doubles take up 2 slots
         } else {
             nextLocalVariableIndex++;     // Other types take 1 slot
@@ -411,13 +549,21 @@ public class JasminCodeGenerator {
         localVariables.put(decl.getName(), varIndex);
         variableTypes.put(decl.getName(), type);
 
-        // Initialize variables to 0/null
-        if (type == Type.INTEGER) {
+        // Initialize variables to 0/null; arrays are allocated here
+        if (type == Type.INTEGER || type == Type.BOOLEAN) {
             sb.append("    iconst_0\n");
             sb.append("    istore ").append(varIndex).append("\n");
+        } else if (type == Type.REAL) {
+            sb.append("    dconst_0\n");
+            sb.append("    dstore ").append(varIndex).append("\n");
         } else if (type == Type.STRING) {
             sb.append("    ldc \"\"\n");  // Initialize string to empty string instead of null
             sb.append("    astore ").append(varIndex).append("\n");
+        } else if (type instanceof ArrayType) {
+            ArrayType arrayType = (ArrayType) type;
+            generateExpression(new IntegerLiteral(arrayType.getSize()), sb);
+            sb.append("    newarray ").append(getArrayTypeDescriptor(arrayType.getElementType())).append("\n");
+            sb.append("    astore ").append(varIndex).append("\n");
         }
 
         if (decl.getInitializer() != null) {
@@ -438,6 +584,7 @@ public class JasminCodeGenerator {
                 generateStore(type, varIndex, sb);
             } else {
                 generateExpression(decl.getInitializer(), sb);
+                generateImplicitCast(getExpressionType(decl.getInitializer()), type, sb);
                 generateStore(type, varIndex, sb);
             }
             sb.append("\n");
@@ -447,7 +594,7 @@ public class JasminCodeGenerator {
     private void generateStore(Type type, int varIndex, StringBuilder sb) {
         if (type == Type.INTEGER || type == Type.BOOLEAN) {
             sb.append("    istore ").append(varIndex).append("\n");
-        } else if (type instanceof SimpleType && ((SimpleType)type).getName().equals("real")) {
+        } else if (type == Type.REAL) {
             sb.append("    dstore ").append(varIndex).append("\n");  // Changed from fstore to dstore
         } else if (type == Type.STRING) {
             sb.append("    astore ").append(varIndex).append("\n");
@@ -457,7 +604,7 @@ public class JasminCodeGenerator {
     private void generateLoad(Type type, int varIndex, StringBuilder sb) {
         if (type == Type.INTEGER || type == Type.BOOLEAN) {
             sb.append("    iload ").append(varIndex).append("\n");
-        } else if (type instanceof SimpleType && ((SimpleType)type).getName().equals("real")) {
+        } else if (type == Type.REAL) {
             sb.append("    dload ").append(varIndex).append("\n");  // Changed from fload to dload
         } else if (type == Type.STRING) {
             sb.append("    aload ").append(varIndex).append("\n");
@@ -470,22 +617,8 @@ public class JasminCodeGenerator {
         // First generate the PrintStream reference
         sb.append("    getstatic java/lang/System/out Ljava/io/PrintStream;\n");
         
-        // For string concatenation, we need to use StringBuilder
-        if (expr instanceof BinaryExpression && ((BinaryExpression) expr).getOperator().equals("+")) {
-            // Create new StringBuilder
-            sb.append("    new java/lang/StringBuilder\n");
-            sb.append("    dup\n");
-            sb.append("    invokespecial java/lang/StringBuilder/<init>()V\n");
-            
-            // Generate the concatenation
-            generateStringConcatenation((BinaryExpression) expr, sb);
-            
-            // Convert StringBuilder to String
-            sb.append("    invokevirtual java/lang/StringBuilder/toString()Ljava/lang/String;\n");
-            
-            // Print the string
-            sb.append("    invokevirtual java/io/PrintStream/println(Ljava/lang/String;)V\n");
-        } else if (expr instanceof RecordAccess) {
+        // A '+' builds a string only if the analyzer typed it as one
+        if (expr instanceof RecordAccess) {
             // Handle record access
             RecordAccess access = (RecordAccess) expr;
             String recordName = access.getRecord();
@@ -506,6 +639,8 @@ public class JasminCodeGenerator {
                 sb.append("    invokevirtual java/io/PrintStream/println(Ljava/lang/String;)V\n");
             } else if (fieldType == Type.BOOLEAN) {
                 sb.append("    invokevirtual java/io/PrintStream/println(Z)V\n");
+            } else if (fieldType == Type.REAL) {
+                sb.append("    invokevirtual java/io/PrintStream/println(D)V\n");
             }
         } else {
             // Handle non-concatenation expressions
@@ -518,8 +653,7 @@ public class JasminCodeGenerator {
                 sb.append("    invokevirtual java/io/PrintStream/println(Ljava/lang/String;)V\n");
             } else if (exprType == Type.BOOLEAN) {
                 sb.append("    invokevirtual java/io/PrintStream/println(Z)V\n");
-            } else if (exprType instanceof SimpleType && 
-                      ((SimpleType)exprType).getName().equals("real")) {
+            } else if (exprType == Type.REAL) {
                 sb.append("    invokevirtual java/io/PrintStream/println(D)V\n");
             }
         }
@@ -527,8 +661,9 @@ public class JasminCodeGenerator {
     }
 
     private void generateStringConcatenation(BinaryExpression expr, StringBuilder sb) {
-        if (expr.getLeft() instanceof BinaryExpression && 
-            ((BinaryExpression)expr.getLeft()).getOperator().equals("+")) {
+        // Only a left operand that is itself a string is appended piece by piece;
+        // an arithmetic sum on the left is computed first, as the interpreters do
+        if (expr.getLeft() instanceof BinaryExpression && isStringConcatenation((BinaryExpression) expr.getLeft())) {
             generateStringConcatenation((BinaryExpression)expr.getLeft(), sb);
         } else {
             generateExpression(expr.getLeft(), sb);
@@ -543,11 +678,15 @@ public class JasminCodeGenerator {
         sb.append(")Ljava/lang/StringBuilder;\n");
     }
 
+    private boolean isStringConcatenation(BinaryExpression expr) {
+        return expr.getOperator() == Operator.ADD && (getExpressionType(expr.getLeft()) == Type.STRING
+            || getExpressionType(expr.getRight()) == Type.STRING);
+    }
+
     private void appendAppropriateType(Type type, StringBuilder sb) {
         if (type == Type.INTEGER) {
             sb.append("I");
-        } else if (type instanceof SimpleType && 
-                  ((SimpleType)type).getName().equals("real")) {
+        } else if (type == Type.REAL) {
             sb.append("D");
         } else if (type == Type.BOOLEAN) {
             sb.append("Z");
@@ -556,32 +695,37 @@ public class JasminCodeGenerator {
         }
     }
 
+    /**
+     * Returns the type semantic analysis resolved for an expression.
+     *
+     * @throws IllegalStateException if the expression was not analyzed
+     */
     private Type getExpressionType(Expression expr) {
-        if (expr instanceof IntegerLiteral) return Type.INTEGER;
-        if (expr instanceof RealLiteral) return new SimpleType("real");
-        if (expr instanceof BooleanLiteral) return Type.BOOLEAN;
-        if (expr instanceof StringLiteral) return Type.STRING;
-        if (expr instanceof VariableReference) {
-            return variableTypes.get(((VariableReference) expr).getName());
-        }
-        if (expr instanceof TypeCast) {
-            return ((TypeCast) expr).getTargetType();
-        }
-        if (expr instanceof RecordAccess) {
-            RecordAccess access = (RecordAccess) expr;
-            String recordName = access.getRecord();
-            String fieldName = access.getField();
-            Type recordType = globalVariableTypes.get(recordName);
-            return ((RecordType)symbolTable.getTypeDefinition(
-                ((SimpleType)recordType).getName())).getFields().get(fieldName);
+        Type type = expr != null ? expr.getResolvedType() : null;
+        if (type == null) {
+            throw new IllegalStateException("No type was resolved for expression " + expr);
         }
-        return Type.INTEGER; // default
+        return type;
     }
 
     private void generateExpression(Expression expr, StringBuilder sb) {
         debugLog("Generating expression: " + expr.getClass().getSimpleName());
-        if (expr instanceof IntegerLiteral) {
-            int value = ((IntegerLiteral) expr).getValue();
+        expr.accept(new ExpressionGenerator(sb));
+    }
+
+    /**
+     * Appends the code that leaves the value of each kind of expression on the stack.
+     */
+    private class ExpressionGenerator implements AstVisitor<Void> {
+        private final StringBuilder sb;
+
+        ExpressionGenerator(StringBuilder sb) {
+            this.sb = sb;
+        }
+
+        @Override
+        public Void visitIntegerLiteral(IntegerLiteral expr) {
+            int value = expr.getValue();
             if (value >= -1 && value <= 5) {
                 sb.append("    iconst_").append(value).append("\n");
             } else if (value >= -128 && value <= 127) {
@@ -591,16 +735,32 @@ public class JasminCodeGenerator {
             } else {
                 sb.append("    ldc ").append(value).append("\n");
             }
-        } else if (expr instanceof RealLiteral) {
-            double value = ((RealLiteral) expr).getValue();
+            return null;
+        }
+
+        @Override
+        public Void visitRealLiteral(RealLiteral expr) {
+            double value = expr.getValue();
             sb.append("    ldc2_w ").append(value).append("\n");  // Changed from ldc to ldc2_w for doubles
-        } else if (expr instanceof BooleanLiteral) {
-            sb.append("    iconst_").append(((BooleanLiteral) expr).getValue() ? "1" : "0").append("\n");
-        } else if (expr instanceof StringLiteral) {
-            String value = ((StringLiteral) expr).getValue();
+            return null;
+        }
+
+        @Override
+        public Void visitBooleanLiteral(BooleanLiteral expr) {
+            sb.append("    iconst_").append(expr.getValue() ? "1" : "0").append("\n");
+            return null;
+        }
+
+        @Override
+        public Void visitStringLiteral(StringLiteral expr) {
+            String value = expr.getValue();
             sb.append("    ldc \"").append(value).append("\"\n");
-        } else if (expr instanceof VariableReference) {
-            String varName = ((VariableReference) expr).getName();
+            return null;
+        }
+
+        @Override
+        public Void visitVariableReference(VariableReference expr) {
+            String varName = expr.getName();
             Integer varIndex = localVariables.get(varName);
             Type varType = variableTypes.get(varName);
             if (varIndex != null) {
@@ -614,12 +774,23 @@ public class JasminCodeGenerator {
                 String fieldDescriptor = getTypeDescriptor(varType);
                 sb.append("    getstatic Main/").append(varName).append(" ").append(fieldDescriptor).append("\n");
             }
-        } else if (expr instanceof TypeCast) {
-            generateTypeCast((TypeCast) expr, sb);
-        } else if (expr instanceof RoutineCall) {
-            generateRoutineCall((RoutineCall) expr, sb);
-        } else if (expr instanceof ArrayAccess) {
-            ArrayAccess access = (ArrayAccess) expr;
+            return null;
+        }
+
+        @Override
+        public Void visitTypeCast(TypeCast expr) {
+            generateTypeCast(expr, sb);
+            return null;
+        }
+
+        @Override
+        public Void visitRoutineCall(RoutineCall expr) {
+            generateRoutineCall(expr, sb);
+            return null;
+        }
+
+        @Override
+        public Void visitArrayAccess(ArrayAccess access) {
             String arrayName = access.getArray();
             Type arrayType = variableTypes.get(arrayName);
 
@@ -650,32 +821,37 @@ public class JasminCodeGenerator {
                     : ((ArrayType) globalVariableTypes.get(arrayName)).getElementType();
             if (elementType == Type.INTEGER || elementType == Type.BOOLEAN) {
                 sb.append("    iaload\n");
-            } else if (elementType instanceof SimpleType && 
-                      ((SimpleType) elementType).getName().equals("real")) {
+            } else if (elementType == Type.REAL) {
                 sb.append("    daload\n");
             }
-        } else if (expr instanceof RecordAccess) {
+            return null;
+        }
+
+        @Override
+        public Void visitRecordAccess(RecordAccess access) {
             // Update to use the existing RecordAccess class methods
-            RecordAccess access = (RecordAccess) expr;
             String recordName = access.getRecord(); // Changed from getRecordName()
             String fieldName = access.getField();   // Changed from getFieldName()
-            
+
             // Load the record reference
             sb.append("    getstatic Main/").append(recordName)
               .append(" L").append(getRecordTypeName(recordName)).append(";\n");
-            
+
             // Get the field type
             Type recordType = globalVariableTypes.get(recordName);
             Type fieldType = ((RecordType)symbolTable.getTypeDefinition(
                 ((SimpleType)recordType).getName())).getFields().get(fieldName);
-            
+
             // Get the field value
             sb.append("    getfield ").append(getRecordTypeName(recordName))
               .append("/").append(fieldName)
               .append(" ").append(getTypeDescriptor(fieldType)).append("\n");
-        } else if (expr instanceof UnaryExpression) {
-            UnaryExpression unary = (UnaryExpression) expr;
-            if (unary.getOperator().equals("not")) {
+            return null;
+        }
+
+        @Override
+        public Void visitUnaryExpression(UnaryExpression unary) {
+            if (unary.getOperator() == Operator.NOT) {
                 generateExpression(unary.getExpression(), sb);
                 // Negate the boolean value
                 String label = getNextLabel();
@@ -685,15 +861,23 @@ public class JasminCodeGenerator {
                 sb.append(label).append("_true:\n");
                 sb.append("    iconst_1\n");
                 sb.append(label).append("_end:\n");
+            } else {
+                generateExpression(unary.getExpression(), sb);
+                Operator op = unary.getOperator();
+                boolean real = getExpressionType(unary.getExpression()) == Type.REAL;
+                sb.append("    ").append(real ? op.getRealInstruction() : op.getIntInstruction()).append("\n");
             }
-        } else if (expr instanceof BinaryExpression) {
-            BinaryExpression binary = (BinaryExpression) expr;
-            String op = binary.getOperator();
-            if (op.equals("and") || op.equals("or") || op.equals("xor")) {
+            return null;
+        }
+
+        @Override
+        public Void visitBinaryExpression(BinaryExpression binary) {
+            Operator op = binary.getOperator();
+            if (op.isLogical()) {
                 generateLogicalOperation(binary, sb);   
             }
             // Special handling for string equality comparison
-            else if (op.equals("=") && (getExpressionType(binary.getLeft()) == Type.STRING || 
+            else if (op == Operator.EQUAL && (getExpressionType(binary.getLeft()) == Type.STRING || 
                                   getExpressionType(binary.getRight()) == Type.STRING)) {
                 generateExpression(binary.getLeft(), sb);
                 generateExpression(binary.getRight(), sb);
@@ -705,87 +889,51 @@ public class JasminCodeGenerator {
                 sb.append(label).append("_false:\n");
                 sb.append("    iconst_0\n");
                 sb.append(label).append("_end:\n");
-            } else if (op.equals("=")) {
-                // Special handling for equality comparison
+            } else if (isStringConcatenation(binary)) {
+                sb.append("    new java/lang/StringBuilder\n");
+                sb.append("    dup\n");
+                sb.append("    invokespecial java/lang/StringBuilder/<init>()V\n");
+                generateStringConcatenation(binary, sb);
+                sb.append("    invokevirtual java/lang/StringBuilder/toString()Ljava/lang/String;\n");
+            } else if (getExpressionType(binary.getLeft()) == Type.REAL
+                    || getExpressionType(binary.getRight()) == Type.REAL) {
+                // Mixed integer/real operands are widened to double
                 generateExpression(binary.getLeft(), sb);
+                generateImplicitCast(getExpressionType(binary.getLeft()), Type.REAL, sb);
                 generateExpression(binary.getRight(), sb);
-                String label = getNextLabel();
-                sb.append("    if_icmpeq ").append(label).append("_true\n");
-                sb.append("    iconst_0\n");
-                sb.append("    goto ").append(label).append("_end\n");
-                sb.append(label).append("_true:\n");
-                sb.append("    iconst_1\n");
-                sb.append(label).append("_end:\n");
-            } else if (op.equals("+") && (getExpressionType(binary.getLeft()) == Type.STRING || 
-                                  getExpressionType(binary.getRight()) == Type.STRING)) {
-                generateStringConcatenation(binary, sb);
+                generateImplicitCast(getExpressionType(binary.getRight()), Type.REAL, sb);
+                if (op.isComparison()) {
+                    String label = getNextLabel();
+                    sb.append("    ").append(op.getRealCompareInstruction()).append("\n");
+                    sb.append("    ").append(op.getRealInstruction()).append(" ").append(label).append("_true\n");
+                    sb.append("    iconst_0\n");
+                    sb.append("    goto ").append(label).append("_end\n");
+                    sb.append(label).append("_true:\n");
+                    sb.append("    iconst_1\n");
+                    sb.append(label).append("_end:\n");
+                } else {
+                    sb.append("    ").append(op.getRealInstruction()).append("\n");
+                }
             }
             else {
                 // Generate code for left and right operands
                 generateExpression(binary.getLeft(), sb);
                 generateExpression(binary.getRight(), sb);
 
-                // Generate the operation
-                switch (op) {
-                    case "+": sb.append("    iadd\n"); break;
-                    case "-": sb.append("    isub\n"); break;
-                    case "*": sb.append("    imul\n"); break;
-                    case "/": sb.append("    idiv\n"); break;
-                    case "%": sb.append("    irem\n"); break;
-                    case ">": {
-                        String label = getNextLabel();
-                        sb.append("    if_icmpgt ").append(label).append("_true\n");
-                        sb.append("    iconst_0\n");
-                        sb.append("    goto ").append(label).append("_end\n");
-                        sb.append(label).append("_true:\n");
-                        sb.append("    iconst_1\n");
-                        sb.append(label).append("_end:\n");
-                        break;
-                    }
-                    case ">=": {
-                        String label = getNextLabel();
-                        sb.append("    if_icmpge ").append(label).append("_true\n");
-                        sb.append("    iconst_0\n");
-                        sb.append("    goto ").append(label).append("_end\n");
-                        sb.append(label).append("_true:\n");
-                        sb.append("    iconst_1\n");
-                        sb.append(label).append("_end:\n");
-                        break;
-                    }
-                    case "<": {
-                        String label = getNextLabel();
-                        sb.append("    if_icmplt ").append(label).append("_true\n");
-                        sb.append("    iconst_0\n");
-                        sb.append("    goto ").append(label).append("_end\n");
-                        sb.append(label).append("_true:\n");
-                        sb.append("    iconst_1\n");
-                        sb.append(label).append("_end:\n");
-                        break;
-                    }
-                    case "<=": {
-                        String label = getNextLabel();
-                        sb.append("    if_icmple ").append(label).append("_true\n");
-                        sb.append("    iconst_0\n");
-                        sb.append("    goto ").append(label).append("_end\n");
-                        sb.append(label).append("_true:\n");
-                        sb.append("    iconst_1\n");
-                        sb.append(label).append("_end:\n");
-                        break;
-                    }
-                    case "!=": {
-                        String label = getNextLabel();
-                        sb.append("    if_icmpne ").append(label).append("_true\n");
-                        sb.append("    iconst_0\n");
-                        sb.append("    goto ").append(label).append("_end\n");
-                        sb.append(label).append("_true:\n");
-                        sb.append("    iconst_1\n");
-                        sb.append(label).append("_end:\n");
-                        break;
-                    }
-                    default:
-                        throw new RuntimeException("Unknown operator: " + op);
+                // Generate the operation; a comparison jumps when it holds
+                if (op.isComparison()) {
+                    String label = getNextLabel();
+                    sb.append("    ").append(op.getIntInstruction()).append(" ").append(label).append("_true\n");
+                    sb.append("    iconst_0\n");
+                    sb.append("    goto ").append(label).append("_end\n");
+                    sb.append(label).append("_true:\n");
+                    sb.append("    iconst_1\n");
+                    sb.append(label).append("_end:\n");
+                } else {
+                    sb.append("    ").append(op.getIntInstruction()).append("\n");
                 }
             }
+            return null;
         }
     }
 
@@ -813,7 +961,7 @@ public class JasminCodeGenerator {
             } else {
                 sb.append("    istore ").append(varIndex).append("\n");
             }
-        } else if (varType instanceof SimpleType && ((SimpleType) varType).getName().equals("real")) {
+        } else if (varType == Type.REAL) {
             sb.append("    invokevirtual java/util/Scanner/nextDouble()D\n");
             if (isGlobal) {
                 sb.append("    putstatic Main/").append(varName).append(" D\n");
@@ -840,9 +988,9 @@ public class JasminCodeGenerator {
     }
 
     private void generateLogicalOperation(BinaryExpression expr, StringBuilder sb) {
-        String op = expr.getOperator();
+        Operator op = expr.getOperator();
         
-        if (op.equals("and")) {
+        if (op == Operator.AND) {
             // Generate short-circuit AND
             String endLabel = getNextLabel();
             String falseLabel = getNextLabel();
@@ -857,7 +1005,7 @@ public class JasminCodeGenerator {
             sb.append("    iconst_0\n");
             sb.append(endLabel).append(":\n");
         } 
-        else if (op.equals("or")) {
+        else if (op == Operator.OR) {
             // Generate short-circuit OR
             String endLabel = getNextLabel();
             String trueLabel = getNextLabel();
@@ -872,7 +1020,7 @@ public class JasminCodeGenerator {
             sb.append("    iconst_1\n");
             sb.append(endLabel).append(":\n");
         }
-        else if (op.equals("xor")) {
+        else if (op == Operator.XOR) {
             // Generate XOR
             generateExpression(expr.getLeft(), sb);
             generateExpression(expr.getRight(), sb);
@@ -881,12 +1029,10 @@ public class JasminCodeGenerator {
     }
 
     private void generateTypeCastAndStore(Type sourceType, Type targetType, int varIndex, StringBuilder sb) {
-        if (sourceType == Type.INTEGER && targetType instanceof SimpleType && 
-            ((SimpleType)targetType).getName().equals("real")) {
+        if (sourceType == Type.INTEGER && targetType == Type.REAL) {
             sb.append("    i2d\n");  // Changed from i2f to i2d
             sb.append("    dstore ").append(varIndex).append("\n");  // Changed from fstore to dstore
-        } else if (sourceType instanceof SimpleType && 
-                  ((SimpleType)sourceType).getName().equals("real") && 
+        } else if (sourceType == Type.REAL && 
                   targetType == Type.INTEGER) {
             sb.append("    d2i\n");  // Changed from f2i to d2i
             sb.append("    istore ").append(varIndex).append("\n");
@@ -901,8 +1047,7 @@ public class JasminCodeGenerator {
             sb.append("    iconst_0\n");
             sb.append("Store").append(label).append(":\n");
             sb.append("    istore ").append(varIndex).append("\n");
-        } else if (sourceType instanceof SimpleType && 
-                  ((SimpleType)sourceType).getName().equals("real") && 
+        } else if (sourceType == Type.REAL && 
                   targetType == Type.BOOLEAN) {
             sb.append("    dconst_0\n");  // Changed from fconst_0 to dconst_0
             sb.append("    dcmpl\n");     // Changed from fcmpl to dcmpl
@@ -924,13 +1069,11 @@ public class JasminCodeGenerator {
 
         debugLog("Generating type cast from " + sourceType + " to " + targetType);
 
-        if (sourceType == Type.INTEGER && targetType instanceof SimpleType && 
-            ((SimpleType)targetType).getName().equals("real")) {
-            sb.append("    i2f\n");
-        } else if (sourceType instanceof SimpleType && 
-                  ((SimpleType)sourceType).getName().equals("real") && 
+        if (sourceType == Type.INTEGER && targetType == Type.REAL) {
+            sb.append("    i2d\n");
+        } else if (sourceType == Type.REAL && 
                   targetType == Type.INTEGER) {
-            sb.append("    f2i\n");
+            sb.append("    d2i\n");
         } else if (sourceType == Type.BOOLEAN && targetType == Type.INTEGER) {
             // No conversion needed
         } else if (sourceType == Type.INTEGER && targetType == Type.BOOLEAN) {
@@ -941,11 +1084,10 @@ public class JasminCodeGenerator {
             sb.append(label).append(":\n");
             sb.append("    iconst_0\n");
             sb.append("Store").append(label).append(":\n");
-        } else if (sourceType instanceof SimpleType && 
-                  ((SimpleType)sourceType).getName().equals("real") && 
+        } else if (sourceType == Type.REAL && 
                   targetType == Type.BOOLEAN) {
-            sb.append("    fconst_0\n");
-            sb.append("    fcmpl\n");
+            sb.append("    dconst_0\n");
+            sb.append("    dcmpl\n");
             String label = getNextLabel();
             sb.append("    ifeq ").append(label).append("\n");
             sb.append("    iconst_1\n");
@@ -963,8 +1105,7 @@ public class JasminCodeGenerator {
             
             if (exprType == Type.INTEGER || exprType == Type.BOOLEAN) {
                 sb.append("    ireturn\n");
-            } else if (exprType instanceof SimpleType && 
-                      ((SimpleType)exprType).getName().equals("real")) {
+            } else if (exprType == Type.REAL) {
                 sb.append("    dreturn\n");
             } else if (exprType == Type.STRING) {
                 sb.append("    areturn\n");
@@ -985,7 +1126,7 @@ public class JasminCodeGenerator {
         // Generate condition expression
         if (stmt.getCondition() instanceof BinaryExpression) {
             BinaryExpression condition = (BinaryExpression) stmt.getCondition();
-            if (condition.getOperator().equals("=") && 
+            if (condition.getOperator() == Operator.EQUAL && 
                 getExpressionType(condition.getLeft()) == Type.STRING) {
                 // Special handling for string equality
                 generateExpression(condition.getLeft(), sb);
@@ -1111,17 +1252,15 @@ public class JasminCodeGenerator {
             sb.append("    iconst_1\n");
             sb.append("    isub\n"); // Adjust index for zero-based arrays
 
-            // Generate value to store
-            generateExpression(stmt.getValue(), sb);
-
             // Store value in array
             Type elementType = (arrayType != null)
                     ? ((ArrayType) arrayType).getElementType()
                     : ((ArrayType) globalVariableTypes.get(arrayName)).getElementType();
+            generateExpression(stmt.getValue(), sb);
+            generateImplicitCast(getExpressionType(stmt.getValue()), elementType, sb);
             if (elementType == Type.INTEGER || elementType == Type.BOOLEAN) {
                 sb.append("    iastore\n");
-            } else if (elementType instanceof SimpleType && 
-                      ((SimpleType) elementType).getName().equals("real")) {
+            } else if (elementType == Type.REAL) {
                 sb.append("    dastore\n");
             }
         } else {  // Regular variable assignment
@@ -1131,6 +1270,7 @@ public class JasminCodeGenerator {
             Type varType = variableTypes.get(varName);
             if (varIndex != null) {
                 // Local variable
+                generateImplicitCast(getExpressionType(stmt.getValue()), varType, sb);
                 generateStore(varType, varIndex, sb);
             } else {
                 // Global variable
@@ -1138,6 +1278,7 @@ public class JasminCodeGenerator {
                 if (globalVarType == null) {
                     throw new RuntimeException("Undefined global variable: " + varName);
                 }
+                generateImplicitCast(getExpressionType(stmt.getValue()), globalVarType, sb);
                 String fieldDescriptor = getTypeDescriptor(globalVarType);
                 sb.append("    putstatic Main/").append(varName).append(" ").append(fieldDescriptor).append("\n");
             }
@@ -1203,7 +1344,7 @@ public class JasminCodeGenerator {
         sb.append("    newarray ").append(arrayTypeDesc).append("\n");
 
         // Store array reference in local variable
-        int varIndex = nextIntVariable++;
+        int varIndex = nextLocalVariableIndex++;
         localVariables.put(decl.getName(), varIndex);
         variableTypes.put(decl.getName(), arrayType);
         sb.append("    astore ").append(varIndex).append("\n");
@@ -1214,8 +1355,7 @@ public class JasminCodeGenerator {
             return "int";
         } else if (elementType == Type.BOOLEAN) {
             return "boolean";
-        } else if (elementType instanceof SimpleType && 
-                  ((SimpleType) elementType).getName().equals("real")) {
+        } else if (elementType == Type.REAL) {
             return "double";
         }
         throw new RuntimeException("Unsupported array element type: " + elementType);
@@ -1239,8 +1379,7 @@ public class JasminCodeGenerator {
             return "I";
         } else if (elementType == Type.BOOLEAN) {
             return "Z";
-        } else if (elementType instanceof SimpleType && 
-                  ((SimpleType) elementType).getName().equals("real")) {
+        } else if (elementType == Type.REAL) {
             return "D";
         }
         throw new RuntimeException("Unsupported array element type: " + elementType);
@@ -1248,7 +1387,7 @@ public class JasminCodeGenerator {
 
     private void generateStaticInitializer(Program program, StringBuilder sb) {
         boolean hasArrays = false;
-        for (Statement stmt : program.getStatements()) {
+        for (Statement stmt : program.getDeclarations().getVariables()) {
             if (stmt instanceof ArrayDecl) {
                 hasArrays = true;
                 break;
@@ -1264,7 +1403,7 @@ public class JasminCodeGenerator {
         sb.append("    .limit locals 1\n\n");
 
         // Initialize arrays
-        for (Statement stmt : program.getStatements()) {
+        for (Statement stmt : program.getDeclarations().getVariables()) {
             if (stmt instanceof ArrayDecl) {
                 ArrayDecl arrayDecl = (ArrayDecl) stmt;
                 ArrayType arrayType = (ArrayType) arrayDecl.getType();
@@ -1288,14 +1427,14 @@ public class JasminCodeGenerator {
             // No casting needed
             return;
         }
-        if (sourceType == Type.INTEGER && targetType instanceof SimpleType &&
-            ((SimpleType) targetType).getName().equals("real")) {
+        boolean sourceInt = sourceType == Type.INTEGER || sourceType == Type.BOOLEAN;
+        boolean targetInt = targetType == Type.INTEGER || targetType == Type.BOOLEAN;
+        if (sourceInt && targetType == Type.REAL) {
             sb.append("    i2d\n"); // Convert int to double
-        } else if (sourceType instanceof SimpleType &&
-                   ((SimpleType) sourceType).getName().equals("real") &&
-                   targetType == Type.INTEGER) {
+        } else if (sourceType == Type.REAL && targetInt) {
             sb.append("    d2i\n"); // Convert double to int
-        } else {
+        } else if (!sourceInt || !targetInt) {
+            // Integers and booleans share the int representation
             throw new RuntimeException("Unsupported implicit cast from " + sourceType + " to " + targetType);
         }
     }
@@ -1339,24 +1478,6 @@ public class JasminCodeGenerator {
         return Math.max(maxStack, 10); // Minimum of 10 for safety
     }
 
-    // Helper method to calculate locals limit
-    private int calculateLocalsLimit(RoutineDecl routine) {
-        // Count variables, accounting for doubles taking 2 slots
-        int count = 1; // Start at 1 for args array
-        for (Statement stmt : routine.getBody()) {
-            if (stmt instanceof VarDecl) {
-                VarDecl varDecl = (VarDecl) stmt;
-                if (varDecl.getType() instanceof SimpleType && 
-                    ((SimpleType)varDecl.getType()).getName().equals("real")) {
-                    count += 2; // Double takes 2 slots
-                } else {
-                    count++;
-                }
-            }
-        }
-        return Math.max(count, 5); // Minimum of 5 for safety
-    }
-
     private void generateRecordTypeClass(TypeDecl typeDecl) {
         debugLog("Generating record type class: " + typeDecl.getName());
         StringBuilder sb = new StringBuilder();
@@ -1386,28 +1507,9 @@ public class JasminCodeGenerator {
         sb.append("    invokespecial java/lang/Object/<init>()V\n");
         sb.append("    return\n");
         sb.append(".end method\n");
-
-        // Write to file in output directory
-        debugLog("Writing record type class file");
-        try {
-            File outputDir = new File("output");
-            if (!outputDir.exists()) {
-                outputDir.mkdirs();
-                debugLog("Created output directory: " + outputDir.getAbsolutePath());
-            }
-            String filePath = outputDir + "/" + typeDecl.getName() + ".j";
-            debugLog("Writing to file: " + filePath);
-            try (FileWriter writer = new FileWriter(filePath)) {
-                writer.write(sb.toString());
-                debugLog("Successfully wrote record type class file");
-                if (debug) {
-                    debugLog("File contents:\n" + sb.toString());
-                }
-            }
-        } catch (IOException e) {
-            System.err.println("Failed to write record type class file: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Failed to write record type class file", e);
+        recordClasses.put(typeDecl.getName(), sb.toString());
+        if (debug) {
+            debugLog("Record type class contents:\n" + sb.toString());
         }
     }
 
@@ -1474,14 +1576,39 @@ public class JasminCodeGenerator {
 
     // Add helper method to check if program contains read statements
     private boolean hasReadStatements(Program program) {
-        for (Statement stmt : program.getStatements()) {
-            if (stmt instanceof RoutineDecl) {
-                RoutineDecl routine = (RoutineDecl) stmt;
-                for (Statement bodyStmt : routine.getBody()) {
-                    if (bodyStmt instanceof ReadStatement) {
-                        return true;
-                    }
-                }
+        if (flatAst != null) {
+            return flatAst.contains(FlatAst.READ_STATEMENT);
+        }
+        for (RoutineDecl routine : program.getDeclarations().getRoutines()) {
+            if (hasReadStatements(routine.getBody())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks statements and the blocks nested in them, since a read inside a loop or an
+     * if statement needs the scanner as much as one at the top of a body.
+     */
+    private boolean hasReadStatements(List<Statement> statements) {
+        if (statements == null) {
+            return false;
+        }
+        for (Statement stmt : statements) {
+            if (stmt instanceof ReadStatement) {
+                return true;
+            }
+            if (stmt instanceof IfStatement
+                    && (hasReadStatements(((IfStatement) stmt).getThenStatements())
+                        || hasReadStatements(((IfStatement) stmt).getElseStatements()))) {
+                return true;
+            }
+            if (stmt instanceof WhileStatement && hasReadStatements(((WhileStatement) stmt).getBody())) {
+                return true;
+            }
+            if (stmt instanceof ForLoop && hasReadStatements(((ForLoop) stmt).getBody())) {
+                return true;
             }
         }
         return false;
@@ -38,4 +38,9 @@ public class LiteralExpression extends Expression {
     public Object evaluate() {
         return value;
     }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitLiteralExpression(this);
+    }
 }
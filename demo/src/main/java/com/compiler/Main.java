@@ -1,28 +1,22 @@
 package com.compiler;
 
-import com.compiler.semantic.SemanticAnalyzer;
-import com.compiler.semantic.SemanticError;
-import java_cup.runtime.ComplexSymbolFactory;
-import java_cup.runtime.Symbol;
-import java.io.FileReader;
-import java.util.List;
 import java.io.*;
+import java.util.Arrays;
+import java.util.Map;
 
 /**
  * Main class for the Imperative Language Compiler.
  * This class serves as the entry point for the compiler, handling command-line arguments,
- * file processing, and orchestrating the compilation phases:
+ * file processing, and running the compilation phases through {@link CompilerPipeline}:
  * <ul>
  *   <li>Lexical Analysis - Tokenizing the input file</li>
  *   <li>Syntactic Analysis - Parsing tokens into an AST</li>
  *   <li>Semantic Analysis - Type checking and validation</li>
- *   <li>Code Generation - Producing JVM bytecode via Jasmin</li>
+ *   <li>Code Generation - Producing JVM bytecode via Jasmin, or directly as class files</li>
  * </ul>
  * The compiler produces JVM bytecode that can be executed on any Java Virtual Machine.
  */
 public class Main {
-    /** Flag to enable/disable debug output for detailed compilation information */
-    private static boolean debug = false;
     /** Standard output stream for normal program output and compilation results */
     private static PrintStream out = System.out;
     /** Error output stream for error messages, warnings, and debug information */
@@ -35,12 +29,30 @@ public class Main {
      *
      * @param args Command line arguments:
      *             args[0] - Input file path (required) - Path to the source code file
-     *             args[1] - Optional "--debug" flag for detailed compilation output
+     *             followed by any of the optional flags:
+     *             "--debug" for detailed compilation output,
+     *             "--fork-jasmin" to assemble each .j file with a separate jasmin.jar process,
+     *             "--backend=jasmin|bytecode" to choose how class files are produced,
+     *             "--in-process" to run the compiled program in the compiler JVM,
+     *             "--interpret" to run the program in the interpreter instead of compiling it,
+     *             or "--interpret=tree" to run it by walking its AST.
+     *             Alternatively "--server [--port=N]" starts the compile server, and
+     *             "--batch" compiles many files at once with {@link BatchCompiler}.
      */
     public static void main(String[] args) {
+        if (args.length >= 1 && args[0].equals("--server")) {
+            CompileServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length >= 1 && args[0].equals("--batch")) {
+            BatchCompiler.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         if (args.length < 1) {
             err.println("Please provide an input file path");
-            err.println("Usage: java -jar imperativeLangParser.jar <input-file> [--debug]");
+            err.println("Usage: java -jar imperativeLangParser.jar <input-file> " + CompilerOptions.USAGE);
+            err.println("       java -jar imperativeLangParser.jar --server [--port=N]");
+            err.println("       java -jar imperativeLangParser.jar " + BatchCompiler.USAGE);
             System.exit(1);
         }
 
@@ -48,9 +60,14 @@ public class Main {
         String inputFilePath = args[0];
         String outputPath = "output";  // Directory for generated class files
 
-        // Check for debug flag
-        if (args.length > 1 && args[1].equals("--debug")) {
-            debug = true;
+        // Check for optional flags
+        CompilerOptions options;
+        try {
+            options = CompilerOptions.parse(Arrays.asList(args).subList(1, args.length));
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            System.exit(1);
+            return;
         }
 
         try {
@@ -61,153 +78,114 @@ public class Main {
                 System.exit(1);
             }
 
-            // Set up the lexer and parser
-            ComplexSymbolFactory symbolFactory = new ComplexSymbolFactory();
-            Lexer lexer = new Lexer(new FileReader(inputFilePath), symbolFactory);
-            ImperativeLangParser parser = new ImperativeLangParser(lexer, symbolFactory);
-
-            if (debug) {
-                err.println("\nLexical Analysis Output:");
-                err.println("----------------------------");
-                Symbol token;
-                while ((token = lexer.next_token()).sym != 0) { // 0 is EOF
-                    err.println("Token: " + token);
-                }
-                err.println("----------------------------\n");
-                
-                // Reset lexer for parsing
-                lexer = new Lexer(new FileReader(inputFilePath), symbolFactory);
-                parser = new ImperativeLangParser(lexer, symbolFactory);
-            }
-
-            // Parse the input file
-            Symbol parseTree = parser.parse();
-            Program program = (Program) parseTree.value;
-
-            if (debug) {
-                err.println("Parsed successfully!");
-                
-                err.println("\nAbstract Syntax Tree:");
-                err.println("----------------------------");
-                err.println(program.toString());
-                err.println("----------------------------\n");
+            if (options.isInterpret()) {
+                interpret(inputFile, options);
+                return;
             }
 
-            // Perform semantic analysis
-            SemanticAnalyzer analyzer = new SemanticAnalyzer(debug);
-            List<SemanticError> errors = analyzer.analyze(program);
+            File outputDir = new File(outputPath);
+            CompilationResult result = new CompilerPipeline(options, err).compile(inputFile, outputDir);
 
             // Check for semantic errors
-            if (!errors.isEmpty()) {
+            if (!result.isSuccess()) {
                 err.println("Semantic errors found:");
-                for (SemanticError error : errors) {
+                for (String error : result.getErrors()) {
                     err.println(error);
                 }
                 System.exit(1);
             }
 
-            if (debug) {
-                err.println("Semantic analysis completed successfully!");
-            }
-
-            // Create output directory if it doesn't exist
-            File outputDir = new File(outputPath);
-            if (!outputDir.exists()) {
-                outputDir.mkdirs();
-            }
-
-            // Generate Jasmin assembly code
-            JasminCodeGenerator codeGen = new JasminCodeGenerator(analyzer.getSymbolTable(), debug);
-            String jasminCode = codeGen.generate(program);
-
-            if (debug) {
-                err.println("\nGenerated Jasmin code:");
-                err.println("----------------------------");
-                err.println(jasminCode);
-                err.println("----------------------------\n");
-            }
+            writeClassFiles(outputDir, result.getClasses());
+            runProgram(result.getClasses(), outputPath, options);
+        } catch (Exception e) {
+            e.printStackTrace(err);
+            System.exit(1);
+        }
+    }
 
-            // Write Main.j assembly to file
-            String mainJasminFile = outputPath + "/Main.j";
-            try (FileWriter writer = new FileWriter(mainJasminFile)) {
-                writer.write(jasminCode);
+    /**
+     * Checks a program and runs it with the AST interpreter, exiting with status 1 on
+     * semantic errors or when the program fails.
+     *
+     * @param inputFile The program source file
+     * @param options Options of the run
+     */
+    private static void interpret(File inputFile, CompilerOptions options) throws Exception {
+        CompilationResult result;
+        try {
+            result = new CompilerPipeline(options, err).interpret(inputFile, System.in, out);
+        } catch (RuntimeException e) {
+            out.flush();
+            err.println("Runtime error: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        if (!result.isSuccess()) {
+            err.println("Semantic errors found:");
+            for (String error : result.getErrors()) {
+                err.println(error);
             }
+            System.exit(1);
+        }
+    }
 
-            // Compile all .j files in the output directory
-            File[] jasminFiles = outputDir.listFiles((dir, name) -> name.endsWith(".j"));
-            if (jasminFiles != null) {
-                // First compile record type files
-                for (File jasminFile : jasminFiles) {
-                    if (!jasminFile.getName().equals("Main.j")) {
-                        compileJasminFile(jasminFile.getPath(), outputPath);
-                    }
-                }
-                
-                // Then compile Main.j
-                compileJasminFile(mainJasminFile, outputPath);
-            }
+    /**
+     * Runs a compiled program, either in a new java process on the output directory or,
+     * with "--in-process", inside this JVM.
+     *
+     * @param classes Class files of the program
+     * @param outputPath Directory the class files were written to
+     * @param options Options of the compilation
+     * @return The exit code of the program
+     */
+    static int runProgram(Map<String, byte[]> classes, String outputPath, CompilerOptions options) throws Exception {
+        if (options.isDebug()) {
+            err.println("\nRunning the compiled program:");
+            err.println("----------------------------");
+        }
 
-            // Run the compiled program
-            if (debug) {
-                err.println("\nRunning the compiled program:");
-                err.println("----------------------------");
-            }
-            
+        int exitCode;
+        if (options.isInProcess()) {
+            exitCode = new ProgramRunner(System.in, out, err).run(classes, new String[0]);
+        } else {
             ProcessBuilder pb = new ProcessBuilder("java", "-cp", outputPath, "Main");
             pb.inheritIO();
             Process process = pb.start();
-            int exitCode = process.waitFor();
-            
-            if (debug) {
-                err.println("----------------------------");
-                err.println("Program finished with exit code: " + exitCode);
-            }
+            exitCode = process.waitFor();
+        }
 
-        } catch (Exception e) {
-            e.printStackTrace(err);
-            System.exit(1);
+        if (options.isDebug()) {
+            err.println("----------------------------");
+            err.println("Program finished with exit code: " + exitCode);
         }
+        return exitCode;
     }
 
     /**
-     * Compiles a Jasmin assembly file into JVM bytecode.
-     * Uses the Jasmin assembler to convert the .j file into a .class file.
+     * Writes the class files of a compiled program into the output directory.
      *
-     * @param jasminFile Path to the input Jasmin assembly file (.j)
-     * @param outputDir Directory where the compiled .class file should be placed
+     * @param outputDir Directory where the .class files should be placed
+     * @param classes Class file bytes keyed by class name
      */
-    private static void compileJasminFile(String jasminFile, String outputDir) {
-        try {
-            // Use ProcessBuilder to run jasmin.jar
-            ProcessBuilder pb = new ProcessBuilder(
-                "java", 
-                "-jar", 
-                "lib/jasmin.jar", 
-                "-d", 
-                outputDir, 
-                jasminFile
-            );
-            
-            Process process = pb.start();
-            int exitCode = process.waitFor();
-            
-            if (exitCode == 0 && debug) {
-                err.println("Successfully compiled " + jasminFile);
-            } else if (exitCode != 0) {
-                err.println("Error compiling " + jasminFile + ". Exit code: " + exitCode);
-                
-                // Print error output if any
-                try (BufferedReader reader = new BufferedReader(
-                        new InputStreamReader(process.getErrorStream()))) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        err.println(line);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            err.println("Error compiling " + jasminFile + ": " + e.getMessage());
-            e.printStackTrace(err);
+    static void writeClassFiles(File outputDir, Map<String, byte[]> classes) throws IOException {
+        if (!outputDir.exists()) {
+            outputDir.mkdirs();
+        }
+        for (Map.Entry<String, byte[]> compiled : classes.entrySet()) {
+            writeClassFile(outputDir, compiled.getKey(), compiled.getValue());
+        }
+    }
+
+    /**
+     * Writes the bytes of an assembled class into the output directory.
+     *
+     * @param outputDir Directory where the .class file should be placed
+     * @param className Name of the class
+     * @param bytes The class file bytes
+     */
+    private static void writeClassFile(File outputDir, String className, byte[] bytes) throws IOException {
+        try (FileOutputStream stream = new FileOutputStream(new File(outputDir, className + ".class"))) {
+            stream.write(bytes);
         }
     }
 
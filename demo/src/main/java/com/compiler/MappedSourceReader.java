@@ -0,0 +1,99 @@
+package com.compiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads UTF-8 source text straight out of a byte buffer, normally a memory-mapped source file.
+ * Source programs are almost entirely ASCII, so runs of ASCII bytes are widened to chars
+ * directly without going through a charset decoder; only a read that meets a non-ASCII
+ * byte hands the bytes to the decoder. Malformed bytes become U+FFFD, as they do when the
+ * file is read into a String.
+ */
+public class MappedSourceReader extends Reader {
+    /** Bytes not read yet */
+    private final ByteBuffer bytes;
+    /** Decoder for the bytes that are not ASCII */
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    /** Second half of a surrogate pair decoded by a read that had room for one char, or -1 */
+    private int pending = -1;
+
+    /**
+     * Creates a reader over the remaining bytes of a buffer, which it consumes.
+     */
+    public MappedSourceReader(ByteBuffer bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Maps a file into memory read-only.
+     * The mapping stays valid after this returns, without holding the file open.
+     *
+     * @param file The file to map
+     * @return The mapped bytes of the whole file
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public static ByteBuffer map(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int n = 0;
+        if (pending >= 0) {
+            cbuf[off + n++] = (char) pending;
+            pending = -1;
+        }
+
+        // ASCII fast path
+        int position = bytes.position();
+        int limit = bytes.limit();
+        while (n < len && position < limit) {
+            byte b = bytes.get(position);
+            if (b < 0) {
+                break;
+            }
+            cbuf[off + n++] = (char) b;
+            position++;
+        }
+        bytes.position(position);
+
+        if (n < len && position < limit) {
+            CharBuffer out = CharBuffer.wrap(cbuf, off + n, len - n);
+            decoder.decode(bytes, out, true);
+            if (out.position() == off + n && len - n == 1) {
+                // No room for a surrogate pair: decode it aside and keep its second half
+                CharBuffer pair = CharBuffer.allocate(2);
+                decoder.decode(bytes, pair, true);
+                pair.flip();
+                cbuf[off + n] = pair.get();
+                if (pair.hasRemaining()) {
+                    pending = pair.get();
+                }
+                return n + 1;
+            }
+            n = out.position() - off;
+        }
+        return n == 0 ? -1 : n;
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release: the mapping is unmapped when the buffer is collected
+    }
+}
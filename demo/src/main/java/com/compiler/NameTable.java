@@ -0,0 +1,141 @@
+package com.compiler;
+
+import java.util.Arrays;
+
+/**
+ * Interns the identifiers of one compilation.
+ * Each distinct name gets a dense int ID, counted from 0 in order of first appearance,
+ * and one canonical String. The lexer interns identifiers straight from its char buffer,
+ * so a name that appears many times is turned into a String once, and every AST node
+ * and symbol table key made from it shares that String: comparing two names for
+ * equality then succeeds on identity, and later phases can key their maps by ID.
+ * <p>
+ * A table is filled by a single thread while the program is parsed; once parsing is
+ * done it is only read and can be shared.
+ */
+public class NameTable {
+    /** Canonical name of each ID */
+    private String[] names = new String[256];
+    /** Number of IDs given out */
+    private int size;
+    /** Open-addressed hash table of ID + 1, 0 marking a free slot; its length is a power of two */
+    private int[] slots = new int[512];
+
+    /**
+     * Interns the name held in part of a char array.
+     *
+     * @return The ID of the name
+     */
+    public int intern(char[] chars, int start, int length) {
+        int hash = 0;
+        for (int i = start; i < start + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        int mask = slots.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id < 0) {
+                return add(new String(chars, start, length), slot);
+            }
+            if (matches(names[id], chars, start, length)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Interns a name.
+     *
+     * @return The ID of the name
+     */
+    public int intern(String name) {
+        int slot = find(name);
+        int id = slots[slot] - 1;
+        return id >= 0 ? id : add(name, slot);
+    }
+
+    /**
+     * Returns the canonical instance of a name, interning it if it is new.
+     */
+    public String canonical(String name) {
+        return names[intern(name)];
+    }
+
+    /**
+     * Returns the ID of a name without interning it.
+     *
+     * @return The ID, or -1 if the name has not been interned
+     */
+    public int getId(String name) {
+        return slots[find(name)] - 1;
+    }
+
+    /**
+     * Returns the canonical name of an ID.
+     */
+    public String getName(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Name ID " + id + " of " + size);
+        }
+        return names[id];
+    }
+
+    /**
+     * Returns the number of distinct names; IDs run from 0 to one less than this.
+     */
+    public int size() {
+        return size;
+    }
+
+    /** Returns the slot holding a name, or the free slot where it would go */
+    private int find(String name) {
+        int mask = slots.length - 1;
+        for (int slot = mix(name.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id < 0 || names[id].equals(name)) {
+                return slot;
+            }
+        }
+    }
+
+    private int add(String name, int slot) {
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+        }
+        names[size] = name;
+        slots[slot] = ++size;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return size - 1;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = mix(names[id].hashCode()) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+
+    /** Spreads the high bits of a String hash into the low bits used to pick a slot */
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(String name, char[] chars, int start, int length) {
+        if (name.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != chars[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
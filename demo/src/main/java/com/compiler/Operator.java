@@ -0,0 +1,251 @@
+package com.compiler;
+
+import static com.compiler.bytecode.Opcodes.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The operators of the language.
+ * Each operator carries the facts every phase needs about it, so the analyzer, the constant
+ * folder, the interpreters and both code generators look them up instead of comparing
+ * operator strings:
+ * <ul>
+ *   <li>its category, which decides the operand rules and the result type</li>
+ *   <li>the JVM instruction for integer operands: the arithmetic instruction, or for a
+ *       comparison the if_icmp jump taken when the comparison holds</li>
+ *   <li>the JVM instructions for real operands: the arithmetic instruction, or for a
+ *       comparison the dcmpl/dcmpg instruction and the if jump that follows it</li>
+ * </ul>
+ */
+public enum Operator {
+    ADD("+", Category.ARITHMETIC, IADD, DADD, 0),
+    SUBTRACT("-", Category.ARITHMETIC, ISUB, DSUB, 0),
+    MULTIPLY("*", Category.ARITHMETIC, IMUL, DMUL, 0),
+    DIVIDE("/", Category.ARITHMETIC, IDIV, DDIV, 0),
+    MODULO("%", Category.ARITHMETIC, IREM, DREM, 0),
+    // NaN compares false: dcmpl for > and >=, dcmpg for < and <=
+    LESS("<", Category.COMPARISON, IF_ICMPLT, IFLT, DCMPG),
+    LESS_OR_EQUAL("<=", Category.COMPARISON, IF_ICMPLE, IFLE, DCMPG),
+    GREATER(">", Category.COMPARISON, IF_ICMPGT, IFGT, DCMPL),
+    GREATER_OR_EQUAL(">=", Category.COMPARISON, IF_ICMPGE, IFGE, DCMPL),
+    EQUAL("=", Category.COMPARISON, IF_ICMPEQ, IFEQ, DCMPL),
+    NOT_EQUAL("!=", Category.COMPARISON, IF_ICMPNE, IFNE, DCMPL),
+    AND("and", Category.LOGICAL, 0, 0, 0),
+    OR("or", Category.LOGICAL, 0, 0, 0),
+    XOR("xor", Category.LOGICAL, IXOR, 0, 0),
+    NEGATE("-", Category.UNARY_ARITHMETIC, INEG, DNEG, 0),
+    NOT("not", Category.UNARY_LOGICAL, 0, 0, 0);
+
+    /**
+     * Kinds of operators.
+     */
+    public enum Category {
+        /** Numeric operands, numeric result; '+' also joins strings */
+        ARITHMETIC,
+        /** Numeric or equal-typed operands, boolean result */
+        COMPARISON,
+        /** Boolean operands, boolean result */
+        LOGICAL,
+        /** Unary minus */
+        UNARY_ARITHMETIC,
+        /** Unary not */
+        UNARY_LOGICAL
+    }
+
+    private static final Map<String, Operator> BINARY = new HashMap<>();
+    private static final Map<String, Operator> UNARY = new HashMap<>();
+
+    static {
+        for (Operator operator : values()) {
+            (operator.isUnary() ? UNARY : BINARY).put(operator.symbol, operator);
+        }
+    }
+
+    private final String symbol;
+    private final Category category;
+    private final int intOpcode;
+    private final int realOpcode;
+    private final int realCompareOpcode;
+
+    Operator(String symbol, Category category, int intOpcode, int realOpcode, int realCompareOpcode) {
+        this.symbol = symbol;
+        this.category = category;
+        this.intOpcode = intOpcode;
+        this.realOpcode = realOpcode;
+        this.realCompareOpcode = realCompareOpcode;
+    }
+
+    /**
+     * Finds a binary operator by its source symbol.
+     *
+     * @throws IllegalArgumentException if there is no such operator
+     */
+    public static Operator binary(String symbol) {
+        Operator operator = BINARY.get(symbol);
+        if (operator == null) {
+            throw new IllegalArgumentException("Unknown operator: " + symbol);
+        }
+        return operator;
+    }
+
+    /**
+     * Finds a unary operator by its source symbol.
+     *
+     * @throws IllegalArgumentException if there is no such operator
+     */
+    public static Operator unary(String symbol) {
+        Operator operator = UNARY.get(symbol);
+        if (operator == null) {
+            throw new IllegalArgumentException("Unknown unary operator: " + symbol);
+        }
+        return operator;
+    }
+
+    /**
+     * @return The operator as written in source code
+     */
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public Category getCategory() {
+        return category;
+    }
+
+    public boolean isUnary() {
+        return category == Category.UNARY_ARITHMETIC || category == Category.UNARY_LOGICAL;
+    }
+
+    public boolean isArithmetic() {
+        return category == Category.ARITHMETIC;
+    }
+
+    public boolean isComparison() {
+        return category == Category.COMPARISON;
+    }
+
+    public boolean isLogical() {
+        return category == Category.LOGICAL;
+    }
+
+    /**
+     * @return The instruction for integer operands; for a comparison the if_icmp jump
+     *         taken when it holds; 0 if there is no single instruction
+     */
+    public int getIntOpcode() {
+        return intOpcode;
+    }
+
+    /**
+     * @return The instruction for real operands; for a comparison the if jump that follows
+     *         {@link #getRealCompareOpcode()}; 0 if there is no single instruction
+     */
+    public int getRealOpcode() {
+        return realOpcode;
+    }
+
+    /**
+     * @return DCMPL or DCMPG for a comparison, 0 otherwise
+     */
+    public int getRealCompareOpcode() {
+        return realCompareOpcode;
+    }
+
+    /**
+     * @return The Jasmin mnemonic of {@link #getIntOpcode()}
+     */
+    public String getIntInstruction() {
+        return intOpcode == 0 ? null : MNEMONICS.get(intOpcode);
+    }
+
+    /**
+     * @return The Jasmin mnemonic of {@link #getRealOpcode()}
+     */
+    public String getRealInstruction() {
+        return realOpcode == 0 ? null : MNEMONICS.get(realOpcode);
+    }
+
+    /**
+     * @return The Jasmin mnemonic of {@link #getRealCompareOpcode()}
+     */
+    public String getRealCompareInstruction() {
+        return realCompareOpcode == 0 ? null : MNEMONICS.get(realCompareOpcode);
+    }
+
+    /**
+     * Gets the type of the result for operands of the given types.
+     * Comparisons and logical operators produce booleans; arithmetic on two integers
+     * produces an integer, on integers and reals a real, and '+' with a string a string.
+     * For operands the operator does not accept, the left operand's type is returned and
+     * reporting the error is left to the caller.
+     *
+     * @param left Type of the left operand, or the only operand of a unary operator
+     * @param right Type of the right operand, ignored for unary operators
+     * @return The result type
+     */
+    public Type resultType(Type left, Type right) {
+        switch (category) {
+            case COMPARISON:
+            case LOGICAL:
+            case UNARY_LOGICAL:
+                return Type.BOOLEAN;
+            case UNARY_ARITHMETIC:
+                return left;
+            default:
+                break;
+        }
+        if (this == ADD && (left == Type.STRING || right == Type.STRING)) {
+            return Type.STRING;
+        }
+        if (left == Type.INTEGER && right == Type.INTEGER) {
+            return Type.INTEGER;
+        }
+        if (isNumeric(left) && isNumeric(right)) {
+            return Type.REAL;
+        }
+        return left;
+    }
+
+    private static boolean isNumeric(Type type) {
+        return type == Type.INTEGER || type == Type.REAL;
+    }
+
+    /** Jasmin mnemonics of the instructions */
+    private static final Map<Integer, String> MNEMONICS = new HashMap<>();
+
+    static {
+        MNEMONICS.put(IADD, "iadd");
+        MNEMONICS.put(ISUB, "isub");
+        MNEMONICS.put(IMUL, "imul");
+        MNEMONICS.put(IDIV, "idiv");
+        MNEMONICS.put(IREM, "irem");
+        MNEMONICS.put(INEG, "ineg");
+        MNEMONICS.put(IXOR, "ixor");
+        MNEMONICS.put(IF_ICMPLT, "if_icmplt");
+        MNEMONICS.put(IF_ICMPLE, "if_icmple");
+        MNEMONICS.put(IF_ICMPGT, "if_icmpgt");
+        MNEMONICS.put(IF_ICMPGE, "if_icmpge");
+        MNEMONICS.put(IF_ICMPEQ, "if_icmpeq");
+        MNEMONICS.put(IF_ICMPNE, "if_icmpne");
+        MNEMONICS.put(DADD, "dadd");
+        MNEMONICS.put(DSUB, "dsub");
+        MNEMONICS.put(DMUL, "dmul");
+        MNEMONICS.put(DDIV, "ddiv");
+        MNEMONICS.put(DREM, "drem");
+        MNEMONICS.put(DNEG, "dneg");
+        MNEMONICS.put(DCMPL, "dcmpl");
+        MNEMONICS.put(DCMPG, "dcmpg");
+        MNEMONICS.put(IFLT, "iflt");
+        MNEMONICS.put(IFLE, "ifle");
+        MNEMONICS.put(IFGT, "ifgt");
+        MNEMONICS.put(IFGE, "ifge");
+        MNEMONICS.put(IFEQ, "ifeq");
+        MNEMONICS.put(IFNE, "ifne");
+    }
+
+    @Override
+    public String toString() {
+        return symbol;
+    }
+}
@@ -36,6 +36,16 @@ public class PrintStatement extends Statement {
         System.out.println(value);
     }
 
+    /**
+     * Executes this print statement in an interpreted program.
+     *
+     * @param env The run-time state of the program
+     */
+    @Override
+    public void execute(Environment env) {
+        env.getOut().println(expression.evaluate(env));
+    }
+
     /**
      * Returns a string representation of this print statement using ASCII art tree structure.
      * The output includes the expression to be printed in a hierarchical format.
@@ -60,4 +70,9 @@ public class PrintStatement extends Statement {
         }
         return sb.toString();
     }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitPrintStatement(this);
+    }
 }
@@ -1,5 +1,7 @@
 package com.compiler;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -9,23 +11,64 @@ import java.util.List;
 public class Program {
     /** The list of statements that make up this program */
     private List<Statement> statements;
+    /** The identifiers the program's names were interned into */
+    private NameTable names;
+    /** The top-level statements sorted by kind */
+    private final DeclarationIndex declarations;
 
     /**
      * Constructs a new Program with the specified list of statements.
      *
      * @param statements The list of statements that comprise the program
+     * @param names The table holding the canonical instance of every name in the statements
      */
-    public Program(List<Statement> statements) {
+    public Program(List<Statement> statements, NameTable names) {
         this.statements = statements;
+        this.names = names;
+        this.declarations = new DeclarationIndex(statements);
     }
 
     /**
      * Gets the list of statements in this program.
      *
-     * @return The list of statements
+     * @return The list of statements, which cannot be changed: the declaration index was
+     *         built from it
      */
     public List<Statement> getStatements() {
-        return statements;
+        return Collections.unmodifiableList(statements);
+    }
+
+    /**
+     * Gets the top-level statements sorted by kind, for phases that only need some kinds.
+     *
+     * @return The declaration index, built when the program was
+     */
+    public DeclarationIndex getDeclarations() {
+        return declarations;
+    }
+
+    /**
+     * Gets the table of the program's identifiers, which maps each name to a dense int ID.
+     *
+     * @return The name table
+     */
+    public NameTable getNames() {
+        return names;
+    }
+
+    /**
+     * Runs this program by walking its AST: the global declarations are executed in
+     * order, then the routine named "main" is called, if there is one.
+     *
+     * @param env The run-time state to execute in
+     */
+    public void execute(Environment env) {
+        for (Statement stmt : statements) {
+            stmt.execute(env);
+        }
+        if (env.getSymbolTable().getRoutine("main") != null) {
+            env.call("main", new ArrayList<Object>());
+        }
     }
 
     /**
@@ -0,0 +1,152 @@
+package com.compiler;
+
+import com.compiler.bytecode.StaticCallRedirector;
+
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs a compiled program inside the compiler JVM instead of starting "java -cp output Main".
+ * The generated classes are defined by an isolated class loader that only sees the JDK,
+ * and Main.main is called reflectively. While the program runs, System.in, System.out and
+ * System.err are redirected to the given streams, and calls to System.exit are rewritten
+ * to end the program rather than the compiler.
+ */
+public class ProgramRunner {
+    /** Name of the class whose main method is the program entry point */
+    private static final String MAIN_CLASS = "Main";
+
+    /** Input stream the program reads from */
+    private final InputStream in;
+    /** Stream for the program's standard output */
+    private final PrintStream out;
+    /** Stream for the program's error output and uncaught exceptions */
+    private final PrintStream err;
+
+    /**
+     * Creates a runner with the given standard streams for the program.
+     *
+     * @param in Stream the program reads from
+     * @param out Stream for the program's standard output
+     * @param err Stream for the program's error output
+     */
+    public ProgramRunner(InputStream in, PrintStream out, PrintStream err) {
+        this.in = in;
+        this.out = out;
+        this.err = err;
+    }
+
+    /**
+     * Runs a compiled program.
+     * The standard streams are process-wide, so only one program runs at a time.
+     *
+     * @param classes Class file bytes keyed by class name, including Main
+     * @param args Arguments passed to Main.main
+     * @return The exit status: the value passed to System.exit, 1 if the program
+     *         ended with an uncaught exception, otherwise 0
+     * @throws ClassNotFoundException if there is no Main class
+     */
+    public int run(Map<String, byte[]> classes, String[] args) throws ClassNotFoundException {
+        ProgramClassLoader loader = new ProgramClassLoader(classes);
+        Method main;
+        try {
+            main = loader.loadClass(MAIN_CLASS).getMethod("main", String[].class);
+        } catch (NoSuchMethodException e) {
+            throw new ClassNotFoundException("Main has no main(String[]) method", e);
+        }
+
+        synchronized (ProgramRunner.class) {
+            InputStream savedIn = System.in;
+            PrintStream savedOut = System.out;
+            PrintStream savedErr = System.err;
+            System.setIn(in);
+            System.setOut(out);
+            System.setErr(err);
+            try {
+                main.invoke(null, (Object) args);
+                return 0;
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof ProgramExit) {
+                    return ((ProgramExit) cause).status;
+                }
+                err.print("Exception in thread \"main\" ");
+                cause.printStackTrace(err);
+                return 1;
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Main.main is not accessible", e);
+            } finally {
+                out.flush();
+                err.flush();
+                System.setIn(savedIn);
+                System.setOut(savedOut);
+                System.setErr(savedErr);
+            }
+        }
+    }
+
+    /**
+     * Replacement for System.exit in programs run in process.
+     * It must be public because the generated classes call it from another class loader.
+     */
+    public static final class ExitTrap {
+        private ExitTrap() {
+        }
+
+        /**
+         * Ends the running program with the given status.
+         *
+         * @param status The exit status
+         */
+        public static void exit(int status) {
+            throw new ProgramExit(status);
+        }
+    }
+
+    /**
+     * Thrown by {@link ExitTrap#exit(int)} to unwind the program back to the runner.
+     */
+    private static final class ProgramExit extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        ProgramExit(int status) {
+            super("System.exit(" + status + ")", null, false, false);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Defines the generated classes from memory. Its parent is the bootstrap loader, so
+     * the program cannot see the compiler's classes; the only exception is {@link ExitTrap}.
+     */
+    private static final class ProgramClassLoader extends ClassLoader {
+        private static final String TRAP_NAME = ExitTrap.class.getName();
+
+        private final Map<String, byte[]> classes;
+
+        ProgramClassLoader(Map<String, byte[]> classes) {
+            super(null);
+            this.classes = new HashMap<>(classes);
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            if (name.equals(TRAP_NAME)) {
+                return ExitTrap.class;
+            }
+            byte[] bytes = classes.get(name);
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            bytes = StaticCallRedirector.redirect(bytes, "java/lang/System", "exit", "(I)V",
+                TRAP_NAME.replace('.', '/'));
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -25,6 +25,27 @@ public class ReadStatement extends Statement {
         return identifier;
     }
 
+    /**
+     * Executes this read statement in an interpreted program, reading a value of the
+     * variable's type from the input.
+     * @param env The run-time state of the program
+     */
+    @Override
+    public void execute(Environment env) {
+        Object current = env.lookup(identifier);
+        Object value;
+        if (current instanceof Double) {
+            value = env.getScanner().nextDouble();
+        } else if (current instanceof Boolean) {
+            value = env.getScanner().nextBoolean();
+        } else if (current instanceof String) {
+            value = env.getScanner().next();
+        } else {
+            value = env.getScanner().nextInt();
+        }
+        env.assign(identifier, value);
+    }
+
     /**
      * Returns a string representation of this ReadStatement in a tree-like format.
      * @return A formatted string showing the read operation and target variable
@@ -35,4 +56,9 @@ public class ReadStatement extends Statement {
                            "├── Operation: READ%n" +
                            "└── Target: %s", identifier);
     }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitReadStatement(this);
+    }
 }
@@ -41,4 +41,9 @@ public class RealLiteral extends Expression {
     public String toString() {
         return String.format("RealLiteral%n└── %.2f", value);
     }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitRealLiteral(this);
+    }
 }
@@ -1,5 +1,7 @@
 package com.compiler;
 
+import java.util.Map;
+
 /**
  * Represents a record field access expression in the form "record.field"
  */
@@ -42,6 +44,17 @@ public class RecordAccess extends Expression {
         return null;
     }
 
+    /**
+     * Evaluates this record access expression in an interpreted program
+     * @param env The run-time state of the program
+     * @return The value of the accessed field
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object evaluate(Environment env) {
+        return ((Map<String, Object>) env.lookup(record)).get(field);
+    }
+
     /**
      * Returns a string representation of this record access
      * @return A string in the format "record.field"
@@ -50,4 +63,9 @@ public class RecordAccess extends Expression {
     public String toString() {
         return String.format("%s.%s", record, field);
     }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitRecordAccess(this);
+    }
 }
@@ -1,8 +1,7 @@
 package com.compiler;
 
-import java.util.Map;
-import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Represents a record type in the compiler type system.
@@ -12,27 +11,14 @@ public class RecordType extends Type {
     private final Map<String, Type> fields;
 
     /**
-     * Creates a new record type with the specified name and field definitions.
+     * Creates a new record type with the specified field definitions.
+     * Use {@link Type#record(List)} to get the canonical instance.
      *
-     * @param name The name of the record type
      * @param fields Map of field names to their corresponding types
      */
-    public RecordType(String name, Map<String, Type> fields) {
-        super("record " + name);
-        this.fields = fields;
-    }
-
-    /**
-     * Creates a new record type from a list of variable declarations.
-     *
-     * @param fields List of variable declarations defining the record's fields
-     */
-    public RecordType(List<VariableDeclaration> fields) {
+    RecordType(Map<String, Type> fields) {
         super("record");
-        this.fields = new HashMap<>();
-        for (VariableDeclaration field : fields) {
-            this.fields.put(field.getName(), field.getType());
-        }
+        this.fields = fields;
     }
 
     /**
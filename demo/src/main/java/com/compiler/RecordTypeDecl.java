@@ -55,4 +55,9 @@ public class RecordTypeDecl extends Statement {
         
         return sb.toString();
     }
-} 
\ No newline at end of file
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitRecordTypeDecl(this);
+    }
+}
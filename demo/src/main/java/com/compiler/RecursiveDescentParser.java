@@ -0,0 +1,636 @@
+package com.compiler;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Hand-written parser for the language, as an alternative to the CUP-generated
+ * {@link ImperativeLangParser}.
+ * Declarations and statements are parsed by recursive descent and expressions by
+ * precedence climbing, reading the token kinds straight out of a {@link TokenBuffer}:
+ * no symbol is made for a token, no value goes through a parse stack, and lists are
+ * built in place instead of through left-recursive reductions.
+ * <p>
+ * It accepts the same programs as the CUP grammar and builds the same AST for them.
+ * Operator precedence and associativity follow the grammar's precedence declarations;
+ * comparisons do not chain, and "as", which has no precedence there, casts the whole
+ * expression to its left.
+ * <p>
+ * A program is a flat list of declarations, so a large one can also be split at the
+ * boundaries of its top-level declarations and the pieces parsed on several threads; see
+ * {@link #parseConcurrently()}.
+ */
+public class RecursiveDescentParser {
+    // Binding powers of the operators, loosest first
+    private static final int CAST = 1;
+    private static final int DISJUNCTION = 2;
+    private static final int CONJUNCTION = 3;
+    private static final int NOT = 4;
+    private static final int COMPARISON = 5;
+    private static final int SUM = 6;
+    private static final int PRODUCT = 7;
+    private static final int UNARY_MINUS = 8;
+
+    /** Number of pieces a program is parsed in at the same time */
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    /** Fewest tokens worth handing to another thread */
+    private static final int MIN_CHUNK_TOKENS = 10000;
+
+    /** Worker threads parsing the pieces of a program in parallel, created on first use */
+    private static ExecutorService workers;
+
+    /** The tokens of the program */
+    private final TokenBuffer tokens;
+    /** Index of the next token */
+    private int position;
+    /** Index of the token this parser stops at, which it reads as the end of the input */
+    private final int limit;
+
+    /**
+     * Creates a parser over recorded tokens.
+     *
+     * @param tokens The tokens of the program, whose name table the AST will share
+     */
+    public RecursiveDescentParser(TokenBuffer tokens) {
+        this(tokens, 0, tokens.size());
+    }
+
+    /** Creates a parser over the tokens from one index up to, not including, another */
+    RecursiveDescentParser(TokenBuffer tokens, int from, int to) {
+        this.tokens = tokens;
+        this.position = from;
+        this.limit = to;
+    }
+
+    /**
+     * Parses the whole program.
+     *
+     * @return The program
+     * @throws ParseException at the first token that does not fit the grammar
+     */
+    public Program parse() throws ParseException {
+        return new Program(declarations(), tokens.getNames());
+    }
+
+    /**
+     * Parses the whole program, splitting it at the boundaries of its top-level
+     * declarations and parsing the pieces in parallel when it is large and there is more
+     * than one processor. The result is the same as that of {@link #parse()}.
+     *
+     * @return The program
+     * @throws ParseException at the first token that does not fit the grammar
+     */
+    public Program parseConcurrently() throws ParseException {
+        int chunks = Math.min(PARALLELISM, tokens.size() / MIN_CHUNK_TOKENS);
+        return chunks > 1 ? parseConcurrently(chunks) : parse();
+    }
+
+    /**
+     * Parses the whole program in at most the given number of pieces, whatever its size.
+     */
+    Program parseConcurrently(int chunks) throws ParseException {
+        List<Integer> bounds = split(chunks);
+        if (bounds.size() <= 2) {
+            return parse();
+        }
+
+        // The workers take all pieces but the last, which this thread parses meanwhile
+        List<Future<List<Statement>>> pending = new ArrayList<>();
+        for (int i = 0; i < bounds.size() - 2; i++) {
+            RecursiveDescentParser chunk = new RecursiveDescentParser(tokens, bounds.get(i), bounds.get(i + 1));
+            pending.add(workers().submit(chunk::declarations));
+        }
+        List<Statement> statements = new ArrayList<>();
+        List<Statement> last;
+        try {
+            last = new RecursiveDescentParser(tokens, bounds.get(bounds.size() - 2), tokens.size()).declarations();
+            for (Future<List<Statement>> chunk : pending) {
+                statements.addAll(await(chunk));
+            }
+        } catch (ParseException e) {
+            // A piece fails on its own first error, which need not be the program's first;
+            // parsing it again in one piece reports the same error as parse() would
+            for (Future<List<Statement>> chunk : pending) {
+                chunk.cancel(true);
+            }
+            return parse();
+        }
+        statements.addAll(last);
+        return new Program(statements, tokens.getNames());
+    }
+
+    /**
+     * Finds where to split the program: at top-level declarations, in at most the given
+     * number of pieces of about the same number of tokens. Also interns every dotted
+     * assignment target, in the order {@link #parse()} would, so that the pieces only
+     * read the name table.
+     *
+     * @return The index of the first token of each piece, then the number of tokens
+     */
+    private List<Integer> split(int chunks) {
+        for (int i = 0; i + 3 < tokens.size(); i++) {
+            if (tokens.getKind(i) == sym.IDENTIFIER && tokens.getKind(i + 1) == sym.DOT
+                    && tokens.getKind(i + 2) == sym.IDENTIFIER && tokens.getKind(i + 3) == sym.ASSIGN) {
+                tokens.getNames().intern(tokens.getValue(i) + "." + tokens.getValue(i + 2));
+            }
+        }
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+        int target = tokens.size() / chunks;
+        for (int start : declarationStarts(tokens)) {
+            if (start - bounds.get(bounds.size() - 1) >= target && bounds.size() < chunks) {
+                bounds.add(start);
+            }
+        }
+        bounds.add(tokens.size());
+        return bounds;
+    }
+
+    /**
+     * Finds the first token of each top-level declaration by counting the blocks opened
+     * and closed before it, without parsing. In a program that does not parse, a token
+     * found this way need not start a declaration.
+     *
+     * @return The index of the first token of each declaration, in order
+     */
+    static List<Integer> declarationStarts(TokenBuffer tokens) {
+        List<Integer> starts = new ArrayList<>();
+        int depth = 0; // blocks open at each token; a declaration starts at depth 0
+        for (int i = 0; i < tokens.size(); i++) {
+            switch (tokens.getKind(i)) {
+                case sym.VAR:
+                case sym.TYPE:
+                    if (depth == 0) {
+                        starts.add(i);
+                    }
+                    break;
+                case sym.ROUTINE:
+                    if (depth == 0) {
+                        starts.add(i);
+                    }
+                    depth++;
+                    break;
+                case sym.RECORD:
+                case sym.IF:
+                case sym.WHILE:
+                case sym.FOR:
+                    depth++;
+                    break;
+                case sym.END:
+                    depth--;
+                    break;
+                default:
+                    break;
+            }
+        }
+        return starts;
+    }
+
+    /** The declarations up to this parser's limit, which must end exactly there */
+    List<Statement> declarations() throws ParseException {
+        List<Statement> statements = new ArrayList<>();
+        do {
+            statements.add(globalDeclaration());
+        } while (peek() != sym.EOF);
+        return statements;
+    }
+
+    private static List<Statement> await(Future<List<Statement>> future) throws ParseException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while parsing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ParseException) {
+                throw (ParseException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Error parsing: " + e.getCause(), e.getCause());
+        }
+    }
+
+    private static synchronized ExecutorService workers() {
+        if (workers == null) {
+            workers = Executors.newFixedThreadPool(PARALLELISM, task -> {
+                Thread thread = new Thread(task, "descent-parser");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return workers;
+    }
+
+    private Statement globalDeclaration() throws ParseException {
+        switch (peek()) {
+            case sym.VAR: {
+                position++;
+                String name = identifier();
+                expect(sym.COLON);
+                Type type = typeSpec();
+                if (accept(sym.IS)) {
+                    Expression init = expression();
+                    expect(sym.SEMICOLON);
+                    return new VarDecl(name, type, init);
+                }
+                expect(sym.SEMICOLON);
+                return type instanceof ArrayType ? new ArrayDecl(name, (ArrayType) type) : new VarDecl(name, type, null);
+            }
+            case sym.TYPE: {
+                position++;
+                String name = identifier();
+                expect(sym.IS);
+                expect(sym.RECORD);
+                List<VariableDeclaration> fields = new ArrayList<>();
+                do {
+                    expect(sym.VAR);
+                    String field = identifier();
+                    expect(sym.COLON);
+                    fields.add(new VarDecl(field, typeSpec(), null));
+                    expect(sym.SEMICOLON);
+                } while (peek() == sym.VAR);
+                expect(sym.END);
+                expect(sym.SEMICOLON);
+                return new TypeDecl(name, Type.record(fields));
+            }
+            case sym.ROUTINE: {
+                position++;
+                String name = identifier();
+                expect(sym.LPAREN);
+                List<Parameter> parameters = new ArrayList<>();
+                if (peek() != sym.RPAREN) {
+                    do {
+                        String parameter = identifier();
+                        expect(sym.COLON);
+                        parameters.add(new Parameter(parameter, typeSpec()));
+                    } while (accept(sym.COMMA));
+                }
+                expect(sym.RPAREN);
+                Type returnType = accept(sym.COLON) ? typeSpec() : null;
+                expect(sym.IS);
+                List<Statement> body = body();
+                expect(sym.END);
+                expect(sym.SEMICOLON);
+                return new RoutineDecl(name, parameters, returnType, body);
+            }
+            default:
+                throw error("a declaration");
+        }
+    }
+
+    /** One or more statements, up to the "end" or "else" that closes them */
+    private List<Statement> body() throws ParseException {
+        List<Statement> statements = new ArrayList<>();
+        do {
+            statements.add(statement());
+        } while (startsStatement(peek()));
+        return statements;
+    }
+
+    private static boolean startsStatement(int kind) {
+        switch (kind) {
+            case sym.VAR:
+            case sym.IF:
+            case sym.WHILE:
+            case sym.FOR:
+            case sym.IDENTIFIER:
+            case sym.PRINT:
+            case sym.READ:
+            case sym.RETURN:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private Statement statement() throws ParseException {
+        switch (peek()) {
+            case sym.VAR: {
+                position++;
+                String name = identifier();
+                expect(sym.COLON);
+                Type type = typeSpec();
+                Expression init = accept(sym.IS) ? expression() : null;
+                expect(sym.SEMICOLON);
+                return new VarDecl(name, type, init);
+            }
+            case sym.IF: {
+                position++;
+                Expression condition = expression();
+                expect(sym.THEN);
+                List<Statement> thenBody = body();
+                List<Statement> elseBody = accept(sym.ELSE) ? body() : new ArrayList<Statement>();
+                expect(sym.END);
+                expect(sym.SEMICOLON);
+                return new IfStatement(condition, thenBody, elseBody);
+            }
+            case sym.WHILE: {
+                position++;
+                Expression condition = expression();
+                expect(sym.LOOP);
+                List<Statement> body = body();
+                expect(sym.END);
+                expect(sym.SEMICOLON);
+                return new WhileStatement(condition, body);
+            }
+            case sym.FOR: {
+                position++;
+                String variable = identifier();
+                expect(sym.IN);
+                Reverse reverse = new Reverse(accept(sym.REVERSE));
+                Expression start = expression();
+                expect(sym.RANGE);
+                Expression end = expression();
+                expect(sym.LOOP);
+                List<Statement> body = body();
+                expect(sym.END);
+                expect(sym.SEMICOLON);
+                return new ForLoop(variable, reverse, start, end, body);
+            }
+            case sym.IDENTIFIER:
+                return assignment();
+            case sym.PRINT: {
+                position++;
+                expect(sym.LPAREN);
+                Expression value = expression();
+                expect(sym.RPAREN);
+                expect(sym.SEMICOLON);
+                return new PrintStatement(value);
+            }
+            case sym.READ: {
+                position++;
+                expect(sym.LPAREN);
+                String name = identifier();
+                expect(sym.RPAREN);
+                expect(sym.SEMICOLON);
+                return new ReadStatement(name);
+            }
+            case sym.RETURN: {
+                position++;
+                Expression value = expression();
+                expect(sym.SEMICOLON);
+                return new ReturnStatement(value);
+            }
+            default:
+                throw error("a statement");
+        }
+    }
+
+    /** An assignment to a variable, a record field or an array element */
+    private Statement assignment() throws ParseException {
+        String name = identifier();
+        switch (peek()) {
+            case sym.ASSIGN: {
+                position++;
+                Expression value = expression();
+                expect(sym.SEMICOLON);
+                return new Assignment(name, value);
+            }
+            case sym.DOT: {
+                position++;
+                String field = identifier();
+                expect(sym.ASSIGN);
+                Expression value = expression();
+                expect(sym.SEMICOLON);
+                return new Assignment(tokens.getNames().canonical(name + "." + field), value);
+            }
+            case sym.LBRACKET: {
+                position++;
+                Expression index = expression();
+                expect(sym.RBRACKET);
+                expect(sym.ASSIGN);
+                Expression value = expression();
+                expect(sym.SEMICOLON);
+                return new Assignment(name, index, value);
+            }
+            default:
+                throw error("\":=\", \".\" or \"[\"");
+        }
+    }
+
+    private Type typeSpec() throws ParseException {
+        switch (peek()) {
+            case sym.INTEGER:
+                position++;
+                return Type.INTEGER;
+            case sym.REAL:
+                position++;
+                return Type.REAL;
+            case sym.FLOAT:
+                position++;
+                return Type.simple("float");
+            case sym.BOOLEAN:
+                position++;
+                return Type.BOOLEAN;
+            case sym.STRING:
+                position++;
+                return Type.STRING;
+            case sym.ARRAY: {
+                position++;
+                expect(sym.LBRACKET);
+                Integer size = (Integer) tokens.getValue(expect(sym.INTEGER_LITERAL));
+                expect(sym.RBRACKET);
+                return Type.array(typeSpec(), size);
+            }
+            case sym.IDENTIFIER:
+                return Type.simple(identifier());
+            default:
+                throw error("a type");
+        }
+    }
+
+    private Expression expression() throws ParseException {
+        return expression(CAST);
+    }
+
+    /**
+     * Parses an expression whose binary operators bind at least as tightly as the given
+     * power; the loop climbs to looser operators only in the callers that allow them.
+     */
+    private Expression expression(int minPower) throws ParseException {
+        Expression left = unary();
+        boolean comparison = false; // whether left is a comparison made by this loop
+        while (true) {
+            int kind = peek();
+            int power = bindingPower(kind);
+            if (power == 0 || power < minPower) {
+                return left;
+            }
+            if (kind == sym.AS) {
+                position++;
+                left = new TypeCast(left, typeSpec());
+                comparison = false;
+                continue;
+            }
+            if (power == COMPARISON && comparison) {
+                throw error("an operator other than a comparison");
+            }
+            position++;
+            // Every binary operator is left-associative or does not chain
+            Expression right = expression(power + 1);
+            left = new BinaryExpression(left, binaryOperator(kind), right);
+            comparison = power == COMPARISON;
+        }
+    }
+
+    /** Binding power of an operator after an operand, or 0 for any other token */
+    private static int bindingPower(int kind) {
+        switch (kind) {
+            case sym.AS:
+                return CAST;
+            case sym.OR:
+            case sym.XOR:
+                return DISJUNCTION;
+            case sym.AND:
+                return CONJUNCTION;
+            case sym.EQUAL:
+            case sym.NOT_EQUAL:
+            case sym.LESS:
+            case sym.LESS_OR_EQUAL:
+            case sym.GREATER:
+            case sym.GREATER_OR_EQUAL:
+                return COMPARISON;
+            case sym.PLUS:
+            case sym.MINUS:
+                return SUM;
+            case sym.MULTIPLY:
+            case sym.DIVIDE:
+            case sym.MOD:
+                return PRODUCT;
+            default:
+                return 0;
+        }
+    }
+
+    private static Operator binaryOperator(int kind) {
+        switch (kind) {
+            case sym.OR: return Operator.OR;
+            case sym.XOR: return Operator.XOR;
+            case sym.AND: return Operator.AND;
+            case sym.EQUAL: return Operator.EQUAL;
+            case sym.NOT_EQUAL: return Operator.NOT_EQUAL;
+            case sym.LESS: return Operator.LESS;
+            case sym.LESS_OR_EQUAL: return Operator.LESS_OR_EQUAL;
+            case sym.GREATER: return Operator.GREATER;
+            case sym.GREATER_OR_EQUAL: return Operator.GREATER_OR_EQUAL;
+            case sym.PLUS: return Operator.ADD;
+            case sym.MINUS: return Operator.SUBTRACT;
+            case sym.MULTIPLY: return Operator.MULTIPLY;
+            case sym.DIVIDE: return Operator.DIVIDE;
+            case sym.MOD: return Operator.MODULO;
+            default: throw new IllegalArgumentException("Not a binary operator: " + sym.terminalNames[kind]);
+        }
+    }
+
+    /** A prefix operator applied to an operand, or a primary expression */
+    private Expression unary() throws ParseException {
+        switch (peek()) {
+            case sym.MINUS:
+                position++;
+                return new UnaryExpression(Operator.NEGATE, expression(UNARY_MINUS));
+            case sym.NOT:
+                position++;
+                // "not" binds looser than comparisons: not a = b is not (a = b)
+                return new UnaryExpression(Operator.NOT, expression(NOT + 1));
+            default:
+                return primary();
+        }
+    }
+
+    private Expression primary() throws ParseException {
+        switch (peek()) {
+            case sym.INTEGER_LITERAL:
+                return new IntegerLiteral((Integer) tokens.getValue(position++));
+            case sym.REAL_LITERAL:
+                return new RealLiteral((Double) tokens.getValue(position++));
+            case sym.STRING_LITERAL:
+                return new StringLiteral((String) tokens.getValue(position++));
+            case sym.BOOLEAN_LITERAL:
+                return new BooleanLiteral((Boolean) tokens.getValue(position++));
+            case sym.IDENTIFIER: {
+                String name = identifier();
+                switch (peek()) {
+                    case sym.DOT:
+                        position++;
+                        return new RecordAccess(name, identifier());
+                    case sym.LBRACKET: {
+                        position++;
+                        Expression index = expression();
+                        expect(sym.RBRACKET);
+                        return new ArrayAccess(name, index);
+                    }
+                    case sym.LPAREN: {
+                        position++;
+                        List<Expression> arguments = arguments();
+                        expect(sym.RPAREN);
+                        return new RoutineCall(name, arguments);
+                    }
+                    default:
+                        return new VariableReference(name);
+                }
+            }
+            case sym.LPAREN: {
+                position++;
+                Expression expr = expression();
+                expect(sym.RPAREN);
+                return expr;
+            }
+            default:
+                throw error("an expression");
+        }
+    }
+
+    /** Arguments of a call; as in the grammar, the first one may be left out */
+    private List<Expression> arguments() throws ParseException {
+        List<Expression> arguments = new ArrayList<>();
+        if (peek() != sym.RPAREN && peek() != sym.COMMA) {
+            arguments.add(expression());
+        }
+        while (accept(sym.COMMA)) {
+            arguments.add(expression());
+        }
+        return arguments;
+    }
+
+    private int peek() {
+        return position < limit ? tokens.getKind(position) : sym.EOF;
+    }
+
+    private boolean accept(int kind) {
+        if (peek() == kind) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Consumes a token of the given kind.
+     *
+     * @return The index of the token
+     */
+    private int expect(int kind) throws ParseException {
+        if (peek() != kind) {
+            throw error(sym.terminalNames[kind]);
+        }
+        return position++;
+    }
+
+    private String identifier() throws ParseException {
+        return (String) tokens.getValue(expect(sym.IDENTIFIER));
+    }
+
+    private ParseException error(String expected) {
+        return new ParseException("Syntax error at line " + tokens.getLine(position) + ", column "
+            + tokens.getColumn(position) + ": expected " + expected + " but found "
+            + sym.terminalNames[peek()], tokens.getOffset(position));
+    }
+}
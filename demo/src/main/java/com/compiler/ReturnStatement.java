@@ -32,6 +32,16 @@ public class ReturnStatement extends Statement {
         return expression != null;
     }
 
+    /**
+     * Executes this return statement in an interpreted program, leaving the current routine.
+     * @param env The run-time state of the program
+     * @throws Environment.ReturnSignal always, carrying the returned value
+     */
+    @Override
+    public void execute(Environment env) {
+        throw new Environment.ReturnSignal(expression != null ? expression.evaluate(env) : null);
+    }
+
     /**
      * Returns a string representation of this return statement in a tree format.
      * @return A formatted string showing the return statement and its expression if present
@@ -48,4 +58,9 @@ public class ReturnStatement extends Statement {
         }
         return sb.toString();
     }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitReturnStatement(this);
+    }
 }
@@ -1,5 +1,6 @@
 package com.compiler;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -54,6 +55,22 @@ public class RoutineCall extends Expression {
         throw new UnsupportedOperationException("Routine call evaluation not implemented yet");
     }
 
+    /**
+     * Evaluates this routine call in an interpreted program: evaluates the arguments
+     * from left to right and runs the routine.
+     *
+     * @param env The run-time state of the program
+     * @return The value the routine returns, or null for a procedure
+     */
+    @Override
+    public Object evaluate(Environment env) {
+        List<Object> values = new ArrayList<>();
+        for (Expression arg : arguments) {
+            values.add(arg.evaluate(env));
+        }
+        return env.call(name, values);
+    }
+
     /**
      * Returns a string representation of this routine call in a tree format.
      * 
@@ -80,4 +97,9 @@ public class RoutineCall extends Expression {
         }
         return sb.toString();
     }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitRoutineCall(this);
+    }
 }
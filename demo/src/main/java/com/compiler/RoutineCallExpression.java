@@ -61,4 +61,9 @@ public class RoutineCallExpression extends Expression {
         }
         return sb.toString();
     }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitRoutineCallExpression(this);
+    }
 }
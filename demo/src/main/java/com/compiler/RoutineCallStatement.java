@@ -71,4 +71,9 @@ public class RoutineCallStatement extends Statement {
         }
         return sb.toString();
     }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitRoutineCallStatement(this);
+    }
 }
@@ -69,6 +69,16 @@ public class RoutineDecl extends Statement {
         return returnType;
     }
 
+    /**
+     * A routine declaration does nothing when reached; routines run through
+     * {@link Environment#call}, which finds them in the symbol table.
+     *
+     * @param env The run-time state of the program
+     */
+    @Override
+    public void execute(Environment env) {
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -102,4 +112,9 @@ public class RoutineDecl extends Statement {
         }
         return sb.toString();
     }
-}
\ No newline at end of file
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitRoutineDecl(this);
+    }
+}
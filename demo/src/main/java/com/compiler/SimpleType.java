@@ -7,9 +7,10 @@ package com.compiler;
 public class SimpleType extends Type {
     /**
      * Constructs a new SimpleType with the given name.
+     * Use {@link Type#simple(String)} to get the canonical instance.
      * @param name The name of the type
      */
-    public SimpleType(String name) {
+    SimpleType(String name) {
         super(name);
     }
 
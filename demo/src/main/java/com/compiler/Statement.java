@@ -27,4 +27,23 @@ public abstract class Statement {
         // Default implementation
         throw new UnsupportedOperationException("Execute not implemented for " + getClass().getSimpleName());
     }
+
+    /**
+     * Executes this statement against the run-time state of an interpreted program.
+     * Statements that read or write variables override this; the default runs
+     * {@link #execute()}.
+     *
+     * @param env The variables, routines and streams of the running program
+     */
+    public void execute(Environment env) {
+        execute();
+    }
+
+    /**
+     * Calls back the visit method of the visitor for this statement's class.
+     *
+     * @param visitor The pass visiting this statement
+     * @return The value the visit method returns
+     */
+    public abstract <R> R accept(AstVisitor<R> visitor);
 }
@@ -44,6 +44,14 @@ public class StringLiteral extends Expression {
         return unescaped;
     }
 
+    /**
+     * Gets the raw string value, as written in the source.
+     * @return The raw string value including quotes and escape sequences
+     */
+    public String getRawValue() {
+        return value;
+    }
+
     /**
      * Evaluates this string literal by returning its processed value.
      * @return The processed string value
@@ -61,4 +69,9 @@ public class StringLiteral extends Expression {
     public String toString() {
         return "StringLiteral(" + value + ")";
     }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitStringLiteral(this);
+    }
 }
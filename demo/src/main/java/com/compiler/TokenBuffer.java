@@ -0,0 +1,299 @@
+package com.compiler;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java_cup.runtime.ComplexSymbolFactory.ComplexSymbol;
+import java_cup.runtime.ComplexSymbolFactory.Location;
+import java_cup.runtime.Scanner;
+import java_cup.runtime.Symbol;
+
+/**
+ * The tokens of a program, recorded once from the lexer so they can be listed and parsed
+ * without lexing the source again.
+ * <p>
+ * Tokens are stored compactly: the kind, start offset, length and line of each token sit
+ * in parallel int arrays. Identifiers are interned into the buffer's {@link NameTable},
+ * and the text of literals is copied into one shared char array. No symbol, location,
+ * boxed value or identifier String beyond the first of each name is
+ * created while lexing; a symbol is only made when the parser or a printout asks for a
+ * token, its value when the symbol is made, and its locations when an error report or a
+ * printout asks for them.
+ * <p>
+ * The parser marks every symbol it consumes and refuses a symbol it has seen before, so
+ * each {@link #replay()} makes new symbols and a buffer can be parsed any number of times.
+ */
+public class TokenBuffer {
+    /** Kind of each token, one of the {@link sym} constants */
+    private int[] kinds = new int[256];
+    /** Offset in chars of each token from the start of the source */
+    private int[] offsets = new int[256];
+    /** Length in chars of each token */
+    private int[] lengths = new int[256];
+    /** Line of each token, from 0 */
+    private int[] lines = new int[256];
+    /** Name ID of each identifier, and where the text of each literal starts in {@link #text} */
+    private int[] values = new int[256];
+    /** Number of tokens recorded */
+    private int count;
+
+    /** Text of the literals, one after the other */
+    private char[] text = new char[1024];
+    /** Number of chars used in {@link #text} */
+    private int textLength;
+
+    /** Offset of the start of each line holding a token, to turn offsets into columns */
+    private int[] lineStarts = new int[64];
+
+    /** The identifiers of the program */
+    private final NameTable names;
+
+    private TokenBuffer(NameTable names) {
+        this.names = names;
+    }
+
+    /**
+     * Reads every token from a lexer, up to and including the end of the input, interning
+     * the identifiers into a new name table.
+     *
+     * @param lexer The lexer to drain; it is left recording into the returned buffer
+     * @return The recorded tokens
+     * @throws Exception if the lexer fails
+     */
+    public static TokenBuffer record(Lexer lexer) throws Exception {
+        return record(lexer, new NameTable());
+    }
+
+    /**
+     * Reads every token from a lexer, up to and including the end of the input.
+     *
+     * @param lexer The lexer to drain; it is left recording into the returned buffer
+     * @param names Table to intern the identifiers into
+     * @return The recorded tokens
+     * @throws Exception if the lexer fails
+     */
+    public static TokenBuffer record(Lexer lexer, NameTable names) throws Exception {
+        TokenBuffer buffer = new TokenBuffer(names);
+        lexer.recordInto(buffer);
+        do {
+            lexer.next_token();
+        } while (buffer.count == 0 || buffer.kinds[buffer.count - 1] != sym.EOF);
+        return buffer;
+    }
+
+    /**
+     * Appends a token without a value; called by the lexer.
+     */
+    void add(int kind, int offset, int length, int line, int column) {
+        if (count == kinds.length) {
+            int capacity = count * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        if (line >= lineStarts.length) {
+            lineStarts = Arrays.copyOf(lineStarts, Math.max(line + 1, lineStarts.length * 2));
+        }
+        lineStarts[line] = offset - column;
+        kinds[count] = kind;
+        offsets[count] = offset;
+        lengths[count] = length;
+        lines[count] = line;
+        count++;
+    }
+
+    /**
+     * Appends a token with a value, whose text starts at the given index of the lexer's
+     * buffer: an identifier is interned, and the text of a literal is kept to compute its
+     * value from. Called by the lexer.
+     */
+    void add(int kind, int offset, int length, int line, int column, char[] source, int start) {
+        add(kind, offset, length, line, column);
+        if (kind == sym.IDENTIFIER) {
+            values[count - 1] = names.intern(source, start, length);
+            return;
+        }
+        if (textLength + length > text.length) {
+            text = Arrays.copyOf(text, Math.max(textLength + length, text.length * 2));
+        }
+        System.arraycopy(source, start, text, textLength, length);
+        values[count - 1] = textLength;
+        textLength += length;
+    }
+
+    /**
+     * Computes the value of a token from its text.
+     *
+     * @param kind Kind of the token
+     * @param text Text of the token
+     * @return The value, or null for a kind that carries none
+     */
+    static Object valueOf(int kind, String text) {
+        switch (kind) {
+            case sym.INTEGER_LITERAL:
+                return Integer.parseInt(text);
+            case sym.REAL_LITERAL:
+                return Double.parseDouble(text);
+            case sym.BOOLEAN_LITERAL:
+                return text.equals("true");
+            case sym.STRING_LITERAL:
+            case sym.IDENTIFIER:
+                return text;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Returns the number of tokens, not counting the end-of-file token.
+     */
+    public int size() {
+        return count - 1;
+    }
+
+    /**
+     * Returns the kind of a token, one of the {@link sym} constants.
+     */
+    public int getKind(int index) {
+        return kinds[index];
+    }
+
+    /**
+     * Returns the offset in chars of a token from the start of the source.
+     */
+    public int getOffset(int index) {
+        return offsets[index];
+    }
+
+    /**
+     * Returns the length in chars of a token.
+     */
+    public int getLength(int index) {
+        return lengths[index];
+    }
+
+    /**
+     * Returns the line of a token, counted from 1.
+     */
+    public int getLine(int index) {
+        return lines[index] + 1;
+    }
+
+    /**
+     * Returns the column a token starts at, counted from 1.
+     */
+    public int getColumn(int index) {
+        return offsets[index] - lineStarts[lines[index]] + 1;
+    }
+
+    /**
+     * Returns the value of a token, or null if its kind carries none.
+     * The value of an identifier is its canonical name.
+     */
+    public Object getValue(int index) {
+        switch (kinds[index]) {
+            case sym.IDENTIFIER:
+                return names.getName(values[index]);
+            case sym.STRING_LITERAL:
+            case sym.INTEGER_LITERAL:
+            case sym.REAL_LITERAL:
+            case sym.BOOLEAN_LITERAL:
+                return valueOf(kinds[index], new String(text, values[index], lengths[index]));
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Returns the name ID of an identifier token.
+     *
+     * @throws IllegalArgumentException if the token is not an identifier
+     */
+    public int getNameId(int index) {
+        if (kinds[index] != sym.IDENTIFIER) {
+            throw new IllegalArgumentException("Token " + index + " is not an identifier");
+        }
+        return values[index];
+    }
+
+    /**
+     * Returns the table the identifiers were interned into.
+     */
+    public NameTable getNames() {
+        return names;
+    }
+
+    /**
+     * Returns the tokens as symbols, without the end-of-file token, to be printed or
+     * inspected rather than parsed. Each symbol is made when it is read.
+     */
+    public List<Symbol> getTokens() {
+        return new AbstractList<Symbol>() {
+            @Override
+            public Symbol get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Token " + index + " of " + size());
+                }
+                return new TokenSymbol(index);
+            }
+
+            @Override
+            public int size() {
+                return TokenBuffer.this.size();
+            }
+        };
+    }
+
+    /**
+     * Returns a scanner that makes a symbol for each recorded token as the parser asks
+     * for it, then yields the end-of-file token for as long as it is asked.
+     */
+    public Scanner replay() {
+        return new Scanner() {
+            private int next = 0;
+
+            @Override
+            public Symbol next_token() {
+                return new TokenSymbol(Math.min(next++, count - 1));
+            }
+        };
+    }
+
+    /**
+     * A symbol made from a recorded token. Its locations are made the first time they are
+     * asked for; the parser itself never needs them, only error reports and printouts.
+     */
+    private class TokenSymbol extends ComplexSymbol {
+        private final int index;
+
+        TokenSymbol(int index) {
+            super(com.compiler.sym.terminalNames[kinds[index]], kinds[index], getValue(index));
+            this.index = index;
+        }
+
+        @Override
+        public Location getLeft() {
+            if (xleft == null) {
+                xleft = new Location(getLine(index), getColumn(index));
+            }
+            return xleft;
+        }
+
+        @Override
+        public Location getRight() {
+            if (xright == null) {
+                xright = new Location(getLine(index), getColumn(index) + lengths[index] - 1);
+            }
+            return xright;
+        }
+
+        @Override
+        public String toString() {
+            getLeft();
+            getRight();
+            return super.toString();
+        }
+    }
+}
@@ -1,9 +1,20 @@
 package com.compiler;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Abstract base class representing types in the programming language.
  * This class serves as the foundation for the type system, providing common
  * functionality for both built-in types and user-defined types.
+ * <p>
+ * Types are interned: {@link #simple(String)}, {@link #array(Type, Integer)} and
+ * {@link #record(List)} return one canonical instance per distinct type, so phases compare
+ * types with == and never allocate a type per node.
  */
 public abstract class Type {
     /** The name of this type */
@@ -28,14 +39,64 @@ public abstract class Type {
         return name;
     }
 
+    /** Canonical instances of the simple types, by name */
+    private static final Map<String, SimpleType> SIMPLE_TYPES = new ConcurrentHashMap<>();
+    /** Canonical instances of the array types, by element type and size */
+    private static final Map<List<Object>, ArrayType> ARRAY_TYPES = new ConcurrentHashMap<>();
+    /** Canonical instances of the record types, by fields */
+    private static final Map<Map<String, Type>, RecordType> RECORD_TYPES = new ConcurrentHashMap<>();
+
     /** Built-in integer type */
-    public static final SimpleType INTEGER = new SimpleType("integer");
+    public static final SimpleType INTEGER = simple("integer");
+    /** Built-in real type */
+    public static final SimpleType REAL = simple("real");
     /** Built-in boolean type */
-    public static final SimpleType BOOLEAN = new SimpleType("boolean");
+    public static final SimpleType BOOLEAN = simple("boolean");
     /** Built-in string type */
-    public static final SimpleType STRING = new SimpleType("string");
+    public static final SimpleType STRING = simple("string");
     /** Built-in void type for procedures that don't return a value */
-    public static final SimpleType VOID = new SimpleType("void");
+    public static final SimpleType VOID = simple("void");
+
+    /**
+     * Gets the canonical simple type with the given name.
+     * There is one instance per name, so simple types, including the built-in constants,
+     * are compared with ==. The keyword float is a synonym of real and gets {@link #REAL}.
+     *
+     * @param name The name of the type, such as "integer" or the name of a record type
+     * @return The type
+     */
+    public static SimpleType simple(String name) {
+        return SIMPLE_TYPES.computeIfAbsent("float".equals(name) ? "real" : name, SimpleType::new);
+    }
+
+    /**
+     * Gets the canonical array type with the given element type and size.
+     * Since element types are canonical as well, equal array types are the same instance.
+     *
+     * @param elementType The canonical type of the elements
+     * @param size The fixed size, or null for a dynamic array
+     * @return The type
+     */
+    public static ArrayType array(Type elementType, Integer size) {
+        return ARRAY_TYPES.computeIfAbsent(Arrays.asList(elementType, size),
+                key -> new ArrayType(elementType, size));
+    }
+
+    /**
+     * Gets the canonical record type with the given fields.
+     * Records with the same field names and canonical field types are the same instance,
+     * whatever name they are declared under.
+     *
+     * @param fields Declarations of the fields, with canonical types
+     * @return The type
+     */
+    public static RecordType record(List<VariableDeclaration> fields) {
+        Map<String, Type> fieldTypes = new HashMap<>();
+        for (VariableDeclaration field : fields) {
+            fieldTypes.put(field.getName(), field.getType());
+        }
+        return RECORD_TYPES.computeIfAbsent(Collections.unmodifiableMap(fieldTypes), RecordType::new);
+    }
 
     /**
      * Creates a Type instance from its string representation.
@@ -48,10 +109,12 @@ public abstract class Type {
     public static Type fromString(String typeName) {
         switch (typeName) {
             case "integer": return INTEGER;
+            case "real":
+            case "float": return REAL;
             case "boolean": return BOOLEAN;
             case "string": return STRING;
             case "void": return VOID;
             default: throw new IllegalArgumentException("Unknown type: " + typeName);
         }
     }
-}
\ No newline at end of file
+}
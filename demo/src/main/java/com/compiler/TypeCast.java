@@ -41,13 +41,74 @@ public class TypeCast extends Expression {
      * Evaluates the type cast expression.
      *
      * @return The result of casting the evaluated expression to the target type
-     * @throws UnsupportedOperationException when type casting is not yet implemented
+     * @throws RuntimeException if the value cannot be converted to the target type
      */
     @Override
     public Object evaluate() {
-        Object value = expr.evaluate();
-        // TODO: Implement type conversion
-        throw new UnsupportedOperationException("Type casting not implemented yet");
+        return convert(expr.evaluate());
+    }
+
+    /**
+     * Evaluates the type cast expression in an interpreted program.
+     *
+     * @param env The run-time state of the program
+     * @return The result of casting the evaluated expression to the target type
+     * @throws RuntimeException if the value cannot be converted to the target type
+     */
+    @Override
+    public Object evaluate(Environment env) {
+        return convert(expr.evaluate(env));
+    }
+
+    /**
+     * Converts a value to the target type the same way the generated code does:
+     * reals are truncated to integers, and booleans are 0 or 1 as integers.
+     *
+     * @param value The value to convert
+     * @return The converted value
+     * @throws RuntimeException if the value cannot be converted to the target type
+     */
+    private Object convert(Object value) {
+        switch (Environment.typeName(targetType)) {
+            case "integer":
+                if (value instanceof Double) {
+                    return (int) (double) (Double) value;
+                }
+                if (value instanceof Boolean) {
+                    return (Boolean) value ? 1 : 0;
+                }
+                if (value instanceof Integer) {
+                    return value;
+                }
+                break;
+            case "real":
+                if (value instanceof Integer) {
+                    return ((Integer) value).doubleValue();
+                }
+                if (value instanceof Boolean) {
+                    return (Boolean) value ? 1.0 : 0.0;
+                }
+                if (value instanceof Double) {
+                    return value;
+                }
+                break;
+            case "boolean":
+                if (value instanceof Integer) {
+                    return (Integer) value != 0;
+                }
+                if (value instanceof Double) {
+                    return (Double) value != 0.0;
+                }
+                if (value instanceof Boolean) {
+                    return value;
+                }
+                break;
+            case "string":
+                return String.valueOf(value);
+            default:
+                break;
+        }
+        throw new RuntimeException("Cannot convert " + value + " to " + targetType);
     }
 
     /**
@@ -70,4 +131,9 @@ public class TypeCast extends Expression {
         }
         return sb.toString();
     }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitTypeCast(this);
+    }
 }
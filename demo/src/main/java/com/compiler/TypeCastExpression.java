@@ -74,4 +74,9 @@ public class TypeCastExpression extends Expression {
         throw new RuntimeException(
                 "Invalid cast from " + (value != null ? value.getClass().getName() : "null") + " to " + targetType);
     }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitTypeCastExpression(this);
+    }
 }
@@ -37,6 +37,15 @@ public class TypeDecl extends Statement {
         return type;
     }
 
+    /**
+     * A type declaration does nothing when reached; record types are resolved through
+     * the symbol table when variables of the type are created.
+     * @param env The run-time state of the program
+     */
+    @Override
+    public void execute(Environment env) {
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -46,4 +55,9 @@ public class TypeDecl extends Statement {
         sb.append("     └── ").append(type.getClass().getSimpleName());
         return sb.toString();
     }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitTypeDecl(this);
+    }
 }
@@ -8,16 +8,16 @@ package com.compiler;
  * - "not" for boolean negation
  */
 public class UnaryExpression extends Expression {
-    private String operator;
+    private Operator operator;
     private Expression expression;
 
     /**
      * Creates a new unary expression.
      *
-     * @param operator The unary operator ("-" or "not")
+     * @param operator The unary operator, {@link Operator#NEGATE} or {@link Operator#NOT}
      * @param expression The expression to apply the operator to
      */
-    public UnaryExpression(String operator, Expression expression) {
+    public UnaryExpression(Operator operator, Expression expression) {
         this.operator = operator;
         this.expression = expression;
     }
@@ -34,9 +34,9 @@ public class UnaryExpression extends Expression {
     /**
      * Gets the unary operator.
      *
-     * @return The operator string ("-" or "not")
+     * @return The operator, {@link Operator#NEGATE} or {@link Operator#NOT}
      */
-    public String getOperator() {
+    public Operator getOperator() {
         return operator;
     }
 
@@ -48,11 +48,33 @@ public class UnaryExpression extends Expression {
      */
     @Override
     public Object evaluate() {
-        Object value = expression.evaluate();
+        return apply(expression.evaluate());
+    }
+
+    /**
+     * Evaluates this unary expression in an interpreted program.
+     *
+     * @param env The run-time state of the program
+     * @return The result of applying the unary operator
+     * @throws RuntimeException if the operator is unknown or operand type is invalid
+     */
+    @Override
+    public Object evaluate(Environment env) {
+        return apply(expression.evaluate(env));
+    }
+
+    /**
+     * Applies the operator to the value of the operand.
+     *
+     * @param value The operand value
+     * @return The result of applying the unary operator
+     * @throws RuntimeException if the operator is unknown or operand type is invalid
+     */
+    private Object apply(Object value) {
         switch (operator) {
-            case "-":
+            case NEGATE:
                 return negate(value);
-            case "not":
+            case NOT:
                 return not(value);
             default:
                 throw new RuntimeException("Unknown unary operator: " + operator);
@@ -64,12 +86,15 @@ public class UnaryExpression extends Expression {
      *
      * @param value The value to negate
      * @return The negated value
-     * @throws RuntimeException if the value is not an integer
+     * @throws RuntimeException if the value is not a number
      */
     private Object negate(Object value) {
         if (value instanceof Integer) {
             return -(Integer) value;
         }
+        if (value instanceof Double) {
+            return -(Double) value;
+        }
         throw new RuntimeException("Invalid operand type for unary -");
     }
 
@@ -108,4 +133,9 @@ public class UnaryExpression extends Expression {
         }
         return sb.toString();
     }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitUnaryExpression(this);
+    }
 }
@@ -58,6 +58,19 @@ public class VarDecl extends Statement implements VariableDeclaration {
         this.initializer = initializer;
     }
 
+    /**
+     * Declares the variable in an interpreted program, with the value of its initializer
+     * or the initial value of its type.
+     * @param env The run-time state of the program
+     */
+    @Override
+    public void execute(Environment env) {
+        Object value = initializer != null
+            ? Environment.convert(initializer.evaluate(env), type)
+            : env.defaultValue(type);
+        env.declare(name, value);
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -79,4 +92,9 @@ public class VarDecl extends Statement implements VariableDeclaration {
         }
         return sb.toString();
     }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitVarDecl(this);
+    }
 }
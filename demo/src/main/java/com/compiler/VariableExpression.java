@@ -40,4 +40,9 @@ public class VariableExpression extends Expression {
     public Object evaluate() {
         return null;
     }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitVariableExpression(this);
+    }
 }
@@ -36,6 +36,17 @@ public class VariableReference extends Expression {
         throw new UnsupportedOperationException("Variable lookup not implemented yet");
     }
 
+    /**
+     * Evaluates this variable reference in an interpreted program.
+     * @param env The run-time state of the program
+     * @return The current value of the referenced variable
+     * @throws RuntimeException if the variable is not declared
+     */
+    @Override
+    public Object evaluate(Environment env) {
+        return env.lookup(name);
+    }
+
     /**
      * Returns a string representation of this variable reference in AST format.
      * @return AST string representation showing the variable name
@@ -48,4 +59,9 @@ public class VariableReference extends Expression {
         sb.append("     └── type: <resolved at runtime>");
         return sb.toString();
     }
-}
\ No newline at end of file
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitVariableReference(this);
+    }
+}
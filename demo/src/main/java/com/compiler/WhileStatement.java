@@ -52,6 +52,18 @@ public class WhileStatement extends Statement {
         this.condition = condition;
     }
 
+    /**
+     * Executes the body while the condition holds in an interpreted program.
+     *
+     * @param env the run-time state of the program
+     */
+    @Override
+    public void execute(Environment env) {
+        while (Environment.isTrue(condition.evaluate(env))) {
+            env.executeBlock(body);
+        }
+    }
+
     /**
      * Returns a string representation of this while statement as an AST tree.
      *
@@ -80,4 +92,9 @@ public class WhileStatement extends Statement {
         }
         return sb.toString();
     }
-}
\ No newline at end of file
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitWhileStatement(this);
+    }
+}
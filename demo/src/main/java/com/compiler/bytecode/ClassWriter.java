@@ -0,0 +1,111 @@
+package com.compiler.bytecode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds a JVM class file in memory.
+ * Fields and methods are added in order; {@link #toByteArray()} finishes all methods
+ * and produces a version 52 (Java 8) class file with stack map frames.
+ */
+public class ClassWriter {
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int MAJOR_VERSION = 52;
+
+    private final ConstantPool pool = new ConstantPool();
+    private final String name;
+    private final String superName;
+    private final int access;
+
+    /** Encoded field_info structures */
+    private final List<int[]> fields = new ArrayList<>();
+    private final List<MethodWriter> methods = new ArrayList<>();
+
+    /**
+     * Creates a public class.
+     *
+     * @param name Internal name of the class
+     * @param superName Internal name of the superclass
+     */
+    public ClassWriter(String name, String superName) {
+        this.name = name;
+        this.superName = superName;
+        this.access = Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER;
+    }
+
+    /**
+     * Returns the internal name of the class being written.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Declares a field.
+     *
+     * @param access Access flags of the field
+     * @param fieldName Name of the field
+     * @param descriptor Field descriptor, e.g. "I" or "[LPerson;"
+     */
+    public void addField(int access, String fieldName, String descriptor) {
+        fields.add(new int[] { access, pool.utf8(fieldName), pool.utf8(descriptor) });
+    }
+
+    /**
+     * Declares a method and returns the writer for its code.
+     *
+     * @param access Access flags of the method
+     * @param methodName Name of the method
+     * @param descriptor Method descriptor, e.g. "(II)I"
+     * @return The writer for the method's instructions
+     */
+    public MethodWriter addMethod(int access, String methodName, String descriptor) {
+        MethodWriter method = new MethodWriter(pool, name, access, methodName, descriptor);
+        methods.add(method);
+        return method;
+    }
+
+    /**
+     * Finishes all methods and encodes the class file.
+     *
+     * @return The bytes of the class file
+     */
+    public byte[] toByteArray() {
+        try {
+            // Methods add their own constants (attribute names, frame types), so they are
+            // encoded before the pool is written out
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            DataOutputStream bodyOut = new DataOutputStream(body);
+            bodyOut.writeShort(access);
+            bodyOut.writeShort(pool.classRef(name));
+            bodyOut.writeShort(pool.classRef(superName));
+            bodyOut.writeShort(0); // interfaces
+            bodyOut.writeShort(fields.size());
+            for (int[] field : fields) {
+                bodyOut.writeShort(field[0]);
+                bodyOut.writeShort(field[1]);
+                bodyOut.writeShort(field[2]);
+                bodyOut.writeShort(0);
+            }
+            bodyOut.writeShort(methods.size());
+            for (MethodWriter method : methods) {
+                method.writeTo(bodyOut);
+            }
+            bodyOut.writeShort(0); // class attributes
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeShort(0);
+            out.writeShort(MAJOR_VERSION);
+            pool.writeTo(out);
+            body.writeTo(out);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot encode class " + name, e);
+        }
+    }
+}
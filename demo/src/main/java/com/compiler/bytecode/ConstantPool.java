@@ -0,0 +1,183 @@
+package com.compiler.bytecode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Constant pool of a class file under construction.
+ * Entries are deduplicated, so asking for the same constant twice returns the same index.
+ */
+public class ConstantPool {
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    /** Encoded pool entries, in index order */
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream data = new DataOutputStream(bytes);
+    /** Maps an entry key to its pool index */
+    private final Map<String, Integer> indices = new HashMap<>();
+    /** Next free index; index 0 is reserved by the class file format */
+    private int nextIndex = 1;
+
+    /**
+     * Returns the index of a CONSTANT_Utf8 entry.
+     */
+    public int utf8(String value) {
+        String key = "U" + value;
+        Integer index = indices.get(key);
+        if (index != null) {
+            return index;
+        }
+        try {
+            data.writeByte(CONSTANT_UTF8);
+            data.writeUTF(value);
+        } catch (IOException e) {
+            throw new IllegalStateException("Constant too long: " + value, e);
+        }
+        return register(key, 1);
+    }
+
+    /**
+     * Returns the index of a CONSTANT_Class entry for an internal class name or array descriptor.
+     */
+    public int classRef(String internalName) {
+        String key = "C" + internalName;
+        Integer index = indices.get(key);
+        if (index != null) {
+            return index;
+        }
+        int name = utf8(internalName);
+        write(CONSTANT_CLASS, name);
+        return register(key, 1);
+    }
+
+    /**
+     * Returns the index of a CONSTANT_String entry.
+     */
+    public int string(String value) {
+        String key = "S" + value;
+        Integer index = indices.get(key);
+        if (index != null) {
+            return index;
+        }
+        int utf = utf8(value);
+        write(CONSTANT_STRING, utf);
+        return register(key, 1);
+    }
+
+    /**
+     * Returns the index of a CONSTANT_Integer entry.
+     */
+    public int integer(int value) {
+        String key = "I" + value;
+        Integer index = indices.get(key);
+        if (index != null) {
+            return index;
+        }
+        try {
+            data.writeByte(CONSTANT_INTEGER);
+            data.writeInt(value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return register(key, 1);
+    }
+
+    /**
+     * Returns the index of a CONSTANT_Double entry.
+     */
+    public int doubleConstant(double value) {
+        String key = "D" + Double.doubleToRawLongBits(value);
+        Integer index = indices.get(key);
+        if (index != null) {
+            return index;
+        }
+        try {
+            data.writeByte(CONSTANT_DOUBLE);
+            data.writeDouble(value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        // Doubles take up two pool slots
+        return register(key, 2);
+    }
+
+    /**
+     * Returns the index of a CONSTANT_NameAndType entry.
+     */
+    public int nameAndType(String name, String descriptor) {
+        String key = "N" + name + ":" + descriptor;
+        Integer index = indices.get(key);
+        if (index != null) {
+            return index;
+        }
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        write(CONSTANT_NAME_AND_TYPE, nameIndex, descriptorIndex);
+        return register(key, 1);
+    }
+
+    /**
+     * Returns the index of a CONSTANT_Fieldref entry.
+     */
+    public int fieldRef(String owner, String name, String descriptor) {
+        return memberRef(CONSTANT_FIELDREF, "F", owner, name, descriptor);
+    }
+
+    /**
+     * Returns the index of a CONSTANT_Methodref entry.
+     */
+    public int methodRef(String owner, String name, String descriptor) {
+        return memberRef(CONSTANT_METHODREF, "M", owner, name, descriptor);
+    }
+
+    private int memberRef(int tag, String prefix, String owner, String name, String descriptor) {
+        String key = prefix + owner + "." + name + ":" + descriptor;
+        Integer index = indices.get(key);
+        if (index != null) {
+            return index;
+        }
+        int classIndex = classRef(owner);
+        int nameAndTypeIndex = nameAndType(name, descriptor);
+        write(tag, classIndex, nameAndTypeIndex);
+        return register(key, 1);
+    }
+
+    /**
+     * Writes constant_pool_count followed by the pool entries.
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        if (nextIndex > 0xFFFF) {
+            throw new IllegalStateException("Too many constants: " + nextIndex);
+        }
+        out.writeShort(nextIndex);
+        bytes.writeTo(out);
+    }
+
+    private void write(int tag, int... shorts) {
+        try {
+            data.writeByte(tag);
+            for (int value : shorts) {
+                data.writeShort(value);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private int register(String key, int slots) {
+        int index = nextIndex;
+        indices.put(key, index);
+        nextIndex += slots;
+        return index;
+    }
+}
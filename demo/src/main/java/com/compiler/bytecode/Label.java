@@ -0,0 +1,15 @@
+package com.compiler.bytecode;
+
+/**
+ * A position in the code of a method that instructions can jump to.
+ * A label is created first, referenced by jump instructions, and placed
+ * with {@link MethodWriter#mark(Label)}.
+ */
+public class Label {
+    /** Index of the label in the method's instruction list, or -1 if not placed yet */
+    int index = -1;
+    /** Bytecode offset of the label once the method has been laid out */
+    int offset = -1;
+    /** Whether any jump instruction targets this label */
+    boolean jumpTarget;
+}
@@ -0,0 +1,951 @@
+package com.compiler.bytecode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.compiler.bytecode.Opcodes.*;
+
+/**
+ * Builds the code of a single method.
+ * Instructions are recorded as they are emitted; when the method is finished the writer
+ * runs a data-flow pass over them to drop unreachable code, compute the real maximum stack
+ * depth and number of locals, and derive the StackMapTable frames the verifier needs.
+ * <p>
+ * Verification types are tracked as short strings: "I" (int), "D" (double), "T" (top),
+ * "N" (null), "UT" (uninitialized this), "U&lt;index&gt;" (object created by the
+ * new instruction at that index) and "L&lt;class&gt;" for initialized references,
+ * where the class is an internal name or an array descriptor.
+ */
+public class MethodWriter {
+    /** Pseudo opcode used for placed labels in the instruction list */
+    private static final int LABEL = -1;
+
+    private final ConstantPool pool;
+    private final String className;
+    private final int access;
+    private final String name;
+    private final String descriptor;
+
+    /** Instructions and labels in emission order */
+    private List<Insn> insns = new ArrayList<>();
+
+    /** Results of finishing the method */
+    private byte[] code;
+    private byte[] stackMapTable;
+    private int frameCount;
+    private int maxStack;
+    private int maxLocals;
+
+    /** Per-pass data-flow state */
+    private Map<Label, Frame> labelFrames;
+    private boolean[] reachable;
+
+    /**
+     * A recorded instruction. Which fields are used depends on the opcode.
+     */
+    private static final class Insn {
+        int opcode;
+        /** Local variable index, immediate value or constant pool index */
+        int operand;
+        /** Increment for iinc */
+        int operand2;
+        /** Jump target, or the label itself for placed labels */
+        Label label;
+        /** Owner class, type operand, or verification type of a loaded constant */
+        String owner;
+        String name;
+        String descriptor;
+        int offset;
+
+        Insn(int opcode) {
+            this.opcode = opcode;
+        }
+    }
+
+    /**
+     * Abstract state of the locals and operand stack at a point in the method.
+     */
+    private static final class Frame {
+        final String[] locals;
+        final List<String> stack;
+        int words;
+
+        Frame(String[] locals, List<String> stack, int words) {
+            this.locals = locals;
+            this.stack = stack;
+            this.words = words;
+        }
+
+        Frame copy() {
+            return new Frame(locals.clone(), new ArrayList<>(stack), words);
+        }
+
+        void push(String type) {
+            stack.add(type);
+            words += type.equals("D") ? 2 : 1;
+        }
+
+        String pop() {
+            if (stack.isEmpty()) {
+                throw new IllegalStateException("Operand stack underflow");
+            }
+            String type = stack.remove(stack.size() - 1);
+            words -= type.equals("D") ? 2 : 1;
+            return type;
+        }
+
+        String peek() {
+            return stack.get(stack.size() - 1);
+        }
+
+        void setLocal(int index, String type) {
+            if (index > 0 && locals[index - 1].equals("D")) {
+                locals[index - 1] = "T";
+            }
+            locals[index] = type;
+            if (type.equals("D")) {
+                locals[index + 1] = "T";
+            }
+        }
+    }
+
+    MethodWriter(ConstantPool pool, String className, int access, String name, String descriptor) {
+        this.pool = pool;
+        this.className = className;
+        this.access = access;
+        this.name = name;
+        this.descriptor = descriptor;
+    }
+
+    /**
+     * Emits an instruction without operands.
+     */
+    public void insn(int opcode) {
+        insns.add(new Insn(opcode));
+    }
+
+    /**
+     * Emits bipush, sipush or newarray with its immediate operand.
+     */
+    public void intInsn(int opcode, int operand) {
+        Insn insn = new Insn(opcode);
+        insn.operand = operand;
+        insns.add(insn);
+    }
+
+    /**
+     * Pushes an int constant using the shortest available instruction.
+     */
+    public void iconst(int value) {
+        if (value >= -1 && value <= 5) {
+            insn(ICONST_0 + value);
+        } else if (value >= -128 && value <= 127) {
+            intInsn(BIPUSH, value);
+        } else if (value >= -32768 && value <= 32767) {
+            intInsn(SIPUSH, value);
+        } else {
+            constant(pool.integer(value), "I", false);
+        }
+    }
+
+    /**
+     * Pushes a string constant.
+     */
+    public void ldc(String value) {
+        constant(pool.string(value), "Ljava/lang/String", false);
+    }
+
+    /**
+     * Pushes a double constant.
+     */
+    public void ldc(double value) {
+        if (Double.doubleToRawLongBits(value) == 0L) {
+            insn(DCONST_0);
+        } else if (value == 1.0) {
+            insn(DCONST_1);
+        } else {
+            constant(pool.doubleConstant(value), "D", true);
+        }
+    }
+
+    private void constant(int index, String type, boolean wide) {
+        Insn insn = new Insn(wide ? LDC2_W : (index > 255 ? LDC_W : LDC));
+        insn.operand = index;
+        insn.owner = type;
+        insns.add(insn);
+    }
+
+    /**
+     * Emits a load or store of a local variable (iload, dload, aload, istore, dstore, astore).
+     */
+    public void varInsn(int opcode, int index) {
+        Insn insn = new Insn(opcode);
+        insn.operand = index;
+        insns.add(insn);
+    }
+
+    /**
+     * Emits an increment of an int local variable.
+     */
+    public void iinc(int index, int delta) {
+        Insn insn = new Insn(IINC);
+        insn.operand = index;
+        insn.operand2 = delta;
+        insns.add(insn);
+    }
+
+    /**
+     * Emits a conditional or unconditional jump to a label.
+     */
+    public void jump(int opcode, Label target) {
+        Insn insn = new Insn(opcode);
+        insn.label = target;
+        target.jumpTarget = true;
+        insns.add(insn);
+    }
+
+    /**
+     * Places a label at the current position.
+     */
+    public void mark(Label label) {
+        if (label.index >= 0) {
+            throw new IllegalStateException("Label placed twice in " + name);
+        }
+        Insn insn = new Insn(LABEL);
+        insn.label = label;
+        label.index = insns.size();
+        insns.add(insn);
+    }
+
+    /**
+     * Emits getstatic, putstatic, getfield or putfield.
+     */
+    public void fieldInsn(int opcode, String owner, String fieldName, String fieldDescriptor) {
+        Insn insn = new Insn(opcode);
+        insn.operand = pool.fieldRef(owner, fieldName, fieldDescriptor);
+        insn.owner = owner;
+        insn.name = fieldName;
+        insn.descriptor = fieldDescriptor;
+        insns.add(insn);
+    }
+
+    /**
+     * Emits invokevirtual, invokespecial or invokestatic.
+     */
+    public void methodInsn(int opcode, String owner, String methodName, String methodDescriptor) {
+        Insn insn = new Insn(opcode);
+        insn.operand = pool.methodRef(owner, methodName, methodDescriptor);
+        insn.owner = owner;
+        insn.name = methodName;
+        insn.descriptor = methodDescriptor;
+        insns.add(insn);
+    }
+
+    /**
+     * Emits new, anewarray or checkcast with a class operand.
+     */
+    public void typeInsn(int opcode, String type) {
+        Insn insn = new Insn(opcode);
+        insn.operand = pool.classRef(type);
+        insn.owner = type;
+        insns.add(insn);
+    }
+
+    /**
+     * Returns the maximum operand stack depth, available once the method is finished.
+     */
+    public int getMaxStack() {
+        return maxStack;
+    }
+
+    /**
+     * Returns the number of local variable slots, available once the method is finished.
+     */
+    public int getMaxLocals() {
+        return maxLocals;
+    }
+
+    /**
+     * Finishes the method: removes unreachable code, lays out the instructions and
+     * computes max stack, max locals and stack map frames.
+     */
+    void end() {
+        if (code != null) {
+            return;
+        }
+        maxLocals = computeMaxLocals();
+
+        // First pass finds unreachable instructions, which would need frames of their own
+        flow();
+        List<Insn> live = new ArrayList<>(insns.size());
+        for (int i = 0; i < insns.size(); i++) {
+            Insn insn = insns.get(i);
+            if (insn.opcode == LABEL) {
+                insn.label.index = live.size();
+                live.add(insn);
+            } else if (reachable[i]) {
+                live.add(insn);
+            }
+        }
+        insns = live;
+
+        int codeLength = layout();
+        // Second pass over the final instruction list gives the frames and max stack
+        flow();
+        code = encode(codeLength);
+        stackMapTable = encodeFrames(codeLength);
+    }
+
+    /**
+     * Writes the method_info structure, including its Code attribute.
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        end();
+        out.writeShort(access);
+        out.writeShort(pool.utf8(name));
+        out.writeShort(pool.utf8(descriptor));
+        out.writeShort(1);
+
+        ByteArrayOutputStream attribute = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(attribute);
+        data.writeShort(maxStack);
+        data.writeShort(maxLocals);
+        data.writeInt(code.length);
+        data.write(code);
+        data.writeShort(0); // exception table
+        if (frameCount > 0) {
+            data.writeShort(1);
+            data.writeShort(pool.utf8("StackMapTable"));
+            data.writeInt(stackMapTable.length + 2);
+            data.writeShort(frameCount);
+            data.write(stackMapTable);
+        } else {
+            data.writeShort(0);
+        }
+
+        out.writeShort(pool.utf8("Code"));
+        out.writeInt(attribute.size());
+        attribute.writeTo(out);
+    }
+
+    private int computeMaxLocals() {
+        int max = ((access & ACC_STATIC) == 0 ? 1 : 0);
+        for (String type : argumentTypes(descriptor)) {
+            max += type.equals("D") ? 2 : 1;
+        }
+        for (Insn insn : insns) {
+            switch (insn.opcode) {
+                case DLOAD:
+                case DSTORE:
+                    max = Math.max(max, insn.operand + 2);
+                    break;
+                case ILOAD:
+                case ALOAD:
+                case ISTORE:
+                case ASTORE:
+                case IINC:
+                    max = Math.max(max, insn.operand + 1);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return max;
+    }
+
+    private Frame initialFrame() {
+        // One spare slot so a double in the last local can mark its second half
+        String[] locals = new String[maxLocals + 1];
+        Arrays.fill(locals, "T");
+        int index = 0;
+        if ((access & ACC_STATIC) == 0) {
+            locals[index++] = name.equals("<init>") ? "UT" : "L" + className;
+        }
+        for (String type : argumentTypes(descriptor)) {
+            locals[index] = type;
+            index += type.equals("D") ? 2 : 1;
+        }
+        return new Frame(locals, new ArrayList<>(), 0);
+    }
+
+    /**
+     * Propagates frames through the instruction list with a worklist,
+     * recording which instructions are reachable and the frame at each label.
+     */
+    private void flow() {
+        labelFrames = new IdentityHashMap<>();
+        reachable = new boolean[insns.size()];
+        maxStack = 0;
+        Deque<Integer> work = new ArrayDeque<>();
+
+        Frame entry = initialFrame();
+        if (!insns.isEmpty() && insns.get(0).opcode == LABEL) {
+            labelFrames.put(insns.get(0).label, entry.copy());
+        }
+        run(0, entry, work);
+        while (!work.isEmpty()) {
+            int start = work.pop();
+            run(start, labelFrames.get(insns.get(start).label).copy(), work);
+        }
+    }
+
+    private void run(int start, Frame frame, Deque<Integer> work) {
+        for (int i = start; i < insns.size(); i++) {
+            Insn insn = insns.get(i);
+            if (insn.opcode == LABEL) {
+                if (i != start) {
+                    if (mergeInto(insn.label, frame)) {
+                        work.push(i);
+                    }
+                    return;
+                }
+                continue;
+            }
+            reachable[i] = true;
+            execute(insn, frame, i);
+            maxStack = Math.max(maxStack, frame.words);
+            if (insn.label != null) {
+                if (insn.label.index < 0) {
+                    throw new IllegalStateException("Jump to a label that was never placed in " + name);
+                }
+                if (mergeInto(insn.label, frame)) {
+                    work.push(insn.label.index);
+                }
+            }
+            if (isUnconditional(insn.opcode)) {
+                return;
+            }
+        }
+        throw new IllegalStateException("Execution can fall off the end of method " + name);
+    }
+
+    private boolean mergeInto(Label label, Frame frame) {
+        Frame existing = labelFrames.get(label);
+        if (existing == null) {
+            labelFrames.put(label, frame.copy());
+            return true;
+        }
+        if (existing.stack.size() != frame.stack.size()) {
+            throw new IllegalStateException("Inconsistent stack height at a jump target in " + name);
+        }
+        boolean changed = false;
+        for (int i = 0; i < existing.locals.length; i++) {
+            if (!existing.locals[i].equals(frame.locals[i]) && !existing.locals[i].equals("T")) {
+                existing.locals[i] = "T";
+                changed = true;
+            }
+        }
+        for (int i = 0; i < existing.stack.size(); i++) {
+            String a = existing.stack.get(i);
+            String b = frame.stack.get(i);
+            if (a.equals(b)) {
+                continue;
+            }
+            if (isReference(a) && isReference(b)) {
+                String merged = a.equals("N") ? b : (b.equals("N") ? a : "Ljava/lang/Object");
+                if (!merged.equals(a)) {
+                    existing.stack.set(i, merged);
+                    changed = true;
+                }
+            } else {
+                throw new IllegalStateException("Inconsistent stack types " + a + " and " + b + " in " + name);
+            }
+        }
+        return changed;
+    }
+
+    private static boolean isReference(String type) {
+        return type.equals("N") || type.startsWith("L");
+    }
+
+    private static boolean isUnconditional(int opcode) {
+        return opcode == GOTO || opcode == ATHROW || (opcode >= IRETURN && opcode <= RETURN);
+    }
+
+    private void execute(Insn insn, Frame f, int index) {
+        int op = insn.opcode;
+        switch (op) {
+            case NOP:
+            case IINC:
+            case GOTO:
+            case RETURN:
+                break;
+            case ACONST_NULL:
+                f.push("N");
+                break;
+            case BIPUSH:
+            case SIPUSH:
+                f.push("I");
+                break;
+            case DCONST_0:
+            case DCONST_1:
+                f.push("D");
+                break;
+            case LDC:
+            case LDC_W:
+            case LDC2_W:
+                f.push(insn.owner);
+                break;
+            case ILOAD:
+                f.push("I");
+                break;
+            case DLOAD:
+                f.push("D");
+                break;
+            case ALOAD:
+                f.push(f.locals[insn.operand]);
+                break;
+            case ISTORE:
+                f.pop();
+                f.setLocal(insn.operand, "I");
+                break;
+            case DSTORE:
+                f.pop();
+                f.setLocal(insn.operand, "D");
+                break;
+            case ASTORE:
+                f.setLocal(insn.operand, f.pop());
+                break;
+            case IALOAD:
+            case BALOAD:
+                f.pop();
+                f.pop();
+                f.push("I");
+                break;
+            case DALOAD:
+                f.pop();
+                f.pop();
+                f.push("D");
+                break;
+            case AALOAD:
+                f.pop();
+                f.push(elementType(f.pop()));
+                break;
+            case IASTORE:
+            case DASTORE:
+            case AASTORE:
+            case BASTORE:
+                f.pop();
+                f.pop();
+                f.pop();
+                break;
+            case POP:
+                f.pop();
+                break;
+            case POP2:
+                if (!f.pop().equals("D")) {
+                    f.pop();
+                }
+                break;
+            case DUP:
+                f.push(f.peek());
+                break;
+            case SWAP: {
+                String top = f.pop();
+                String below = f.pop();
+                f.push(top);
+                f.push(below);
+                break;
+            }
+            case IADD:
+            case ISUB:
+            case IMUL:
+            case IDIV:
+            case IREM:
+            case IAND:
+            case IOR:
+            case IXOR:
+            case DCMPL:
+            case DCMPG:
+                f.pop();
+                f.pop();
+                f.push("I");
+                break;
+            case DADD:
+            case DSUB:
+            case DMUL:
+            case DDIV:
+            case DREM:
+                f.pop();
+                f.pop();
+                f.push("D");
+                break;
+            case INEG:
+            case D2I:
+            case ARRAYLENGTH:
+                f.pop();
+                f.push("I");
+                break;
+            case DNEG:
+            case I2D:
+                f.pop();
+                f.push("D");
+                break;
+            case IFEQ:
+            case IFNE:
+            case IFLT:
+            case IFGE:
+            case IFGT:
+            case IFLE:
+            case IRETURN:
+            case DRETURN:
+            case ARETURN:
+            case ATHROW:
+            case PUTSTATIC:
+                f.pop();
+                break;
+            case IF_ICMPEQ:
+            case IF_ICMPNE:
+            case IF_ICMPLT:
+            case IF_ICMPGE:
+            case IF_ICMPGT:
+            case IF_ICMPLE:
+            case IF_ACMPEQ:
+            case IF_ACMPNE:
+            case PUTFIELD:
+                f.pop();
+                f.pop();
+                break;
+            case GETSTATIC:
+                f.push(descriptorType(insn.descriptor));
+                break;
+            case GETFIELD:
+                f.pop();
+                f.push(descriptorType(insn.descriptor));
+                break;
+            case INVOKEVIRTUAL:
+            case INVOKESPECIAL:
+            case INVOKESTATIC: {
+                for (int i = argumentTypes(insn.descriptor).size(); i > 0; i--) {
+                    f.pop();
+                }
+                if (op != INVOKESTATIC) {
+                    String receiver = f.pop();
+                    if (op == INVOKESPECIAL && insn.name.equals("<init>") && receiver.startsWith("U")) {
+                        String initialized = "L" + (receiver.equals("UT") ? className : insn.owner);
+                        for (int i = 0; i < f.locals.length; i++) {
+                            if (f.locals[i].equals(receiver)) {
+                                f.locals[i] = initialized;
+                            }
+                        }
+                        for (int i = 0; i < f.stack.size(); i++) {
+                            if (f.stack.get(i).equals(receiver)) {
+                                f.stack.set(i, initialized);
+                            }
+                        }
+                    }
+                }
+                String returnType = insn.descriptor.substring(insn.descriptor.indexOf(')') + 1);
+                if (!returnType.equals("V")) {
+                    f.push(descriptorType(returnType));
+                }
+                break;
+            }
+            case NEW:
+                f.push("U" + index);
+                break;
+            case NEWARRAY:
+                f.pop();
+                f.push(insn.operand == T_DOUBLE ? "L[D" : (insn.operand == T_BOOLEAN ? "L[Z" : "L[I"));
+                break;
+            case ANEWARRAY:
+                f.pop();
+                f.push("L[" + (insn.owner.startsWith("[") ? insn.owner : "L" + insn.owner + ";"));
+                break;
+            case CHECKCAST:
+                f.pop();
+                f.push("L" + insn.owner);
+                break;
+            default:
+                if (op >= ICONST_M1 && op <= ICONST_5) {
+                    f.push("I");
+                    break;
+                }
+                throw new IllegalArgumentException("Unsupported opcode " + op + " in " + name);
+        }
+    }
+
+    /**
+     * Assigns bytecode offsets to instructions and labels.
+     *
+     * @return The code length in bytes
+     */
+    private int layout() {
+        int offset = 0;
+        for (Insn insn : insns) {
+            insn.offset = offset;
+            if (insn.opcode == LABEL) {
+                insn.label.offset = offset;
+                continue;
+            }
+            offset += size(insn);
+        }
+        if (offset > 0xFFFF) {
+            throw new IllegalStateException("Method " + name + " is too large: " + offset + " bytes");
+        }
+        return offset;
+    }
+
+    private static int size(Insn insn) {
+        switch (insn.opcode) {
+            case ILOAD:
+            case DLOAD:
+            case ALOAD:
+            case ISTORE:
+            case DSTORE:
+            case ASTORE:
+                return insn.operand <= 3 ? 1 : (insn.operand <= 255 ? 2 : 4);
+            case IINC:
+                return insn.operand <= 255 && insn.operand2 >= -128 && insn.operand2 <= 127 ? 3 : 6;
+            case BIPUSH:
+            case NEWARRAY:
+            case LDC:
+                return 2;
+            case SIPUSH:
+            case LDC_W:
+            case LDC2_W:
+            case GETSTATIC:
+            case PUTSTATIC:
+            case GETFIELD:
+            case PUTFIELD:
+            case INVOKEVIRTUAL:
+            case INVOKESPECIAL:
+            case INVOKESTATIC:
+            case NEW:
+            case ANEWARRAY:
+            case CHECKCAST:
+                return 3;
+            default:
+                return insn.label != null ? 3 : 1;
+        }
+    }
+
+    private byte[] encode(int codeLength) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(codeLength);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            for (Insn insn : insns) {
+                int op = insn.opcode;
+                if (op == LABEL) {
+                    continue;
+                }
+                switch (op) {
+                    case ILOAD:
+                    case DLOAD:
+                    case ALOAD:
+                    case ISTORE:
+                    case DSTORE:
+                    case ASTORE:
+                        if (insn.operand <= 3) {
+                            out.writeByte(shortForm(op) + insn.operand);
+                        } else if (insn.operand <= 255) {
+                            out.writeByte(op);
+                            out.writeByte(insn.operand);
+                        } else {
+                            out.writeByte(WIDE);
+                            out.writeByte(op);
+                            out.writeShort(insn.operand);
+                        }
+                        break;
+                    case IINC:
+                        if (size(insn) == 3) {
+                            out.writeByte(IINC);
+                            out.writeByte(insn.operand);
+                            out.writeByte(insn.operand2);
+                        } else {
+                            out.writeByte(WIDE);
+                            out.writeByte(IINC);
+                            out.writeShort(insn.operand);
+                            out.writeShort(insn.operand2);
+                        }
+                        break;
+                    case BIPUSH:
+                    case NEWARRAY:
+                    case LDC:
+                        out.writeByte(op);
+                        out.writeByte(insn.operand);
+                        break;
+                    default:
+                        out.writeByte(op);
+                        if (insn.label != null) {
+                            int delta = insn.label.offset - insn.offset;
+                            if (delta < Short.MIN_VALUE || delta > Short.MAX_VALUE) {
+                                throw new IllegalStateException("Jump out of range in method " + name);
+                            }
+                            out.writeShort(delta);
+                        } else if (size(insn) == 3) {
+                            out.writeShort(insn.operand);
+                        }
+                        break;
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static int shortForm(int opcode) {
+        switch (opcode) {
+            case ILOAD: return ILOAD_0;
+            case DLOAD: return DLOAD_0;
+            case ALOAD: return ALOAD_0;
+            case ISTORE: return ISTORE_0;
+            case DSTORE: return DSTORE_0;
+            default: return ASTORE_0;
+        }
+    }
+
+    /**
+     * Encodes a full frame for every offset that is a jump target or follows an
+     * unconditional transfer of control.
+     */
+    private byte[] encodeFrames(int codeLength) {
+        TreeMap<Integer, Frame> needed = new TreeMap<>();
+        Map<Integer, Frame> atOffset = new TreeMap<>();
+        for (Insn insn : insns) {
+            if (insn.opcode == LABEL && labelFrames.containsKey(insn.label)) {
+                atOffset.put(insn.offset, labelFrames.get(insn.label));
+            }
+        }
+        for (Insn insn : insns) {
+            if (insn.opcode == LABEL) {
+                continue;
+            }
+            if (insn.label != null) {
+                needed.put(insn.label.offset, null);
+            }
+            int next = insn.offset + size(insn);
+            if (isUnconditional(insn.opcode) && next < codeLength) {
+                needed.put(next, null);
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        frameCount = 0;
+        int previous = -1;
+        try {
+            for (int offset : needed.keySet()) {
+                Frame frame = atOffset.get(offset);
+                if (frame == null) {
+                    throw new IllegalStateException("No frame at offset " + offset + " in " + name);
+                }
+                out.writeByte(255); // full_frame
+                out.writeShort(previous < 0 ? offset : offset - previous - 1);
+                previous = offset;
+
+                int count = frame.locals.length;
+                while (count > 0 && frame.locals[count - 1].equals("T")) {
+                    count--;
+                }
+                List<String> locals = new ArrayList<>();
+                for (int i = 0; i < count; i++) {
+                    locals.add(frame.locals[i]);
+                    if (frame.locals[i].equals("D")) {
+                        i++;
+                    }
+                }
+                out.writeShort(locals.size());
+                for (String type : locals) {
+                    writeVerificationType(out, type);
+                }
+                out.writeShort(frame.stack.size());
+                for (String type : frame.stack) {
+                    writeVerificationType(out, type);
+                }
+                frameCount++;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void writeVerificationType(DataOutputStream out, String type) throws IOException {
+        switch (type) {
+            case "T":
+                out.writeByte(0);
+                break;
+            case "I":
+                out.writeByte(1);
+                break;
+            case "D":
+                out.writeByte(3);
+                break;
+            case "N":
+                out.writeByte(5);
+                break;
+            case "UT":
+                out.writeByte(6);
+                break;
+            default:
+                if (type.startsWith("L")) {
+                    out.writeByte(7);
+                    out.writeShort(pool.classRef(type.substring(1)));
+                } else {
+                    out.writeByte(8);
+                    out.writeShort(insns.get(Integer.parseInt(type.substring(1))).offset);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Returns the verification type of a value with the given field descriptor.
+     */
+    static String descriptorType(String descriptor) {
+        switch (descriptor.charAt(0)) {
+            case 'Z':
+            case 'B':
+            case 'C':
+            case 'S':
+            case 'I':
+                return "I";
+            case 'D':
+                return "D";
+            case 'L':
+                return "L" + descriptor.substring(1, descriptor.length() - 1);
+            case '[':
+                return "L" + descriptor;
+            default:
+                throw new IllegalArgumentException("Unsupported descriptor " + descriptor);
+        }
+    }
+
+    /**
+     * Returns the verification types of the arguments in a method descriptor.
+     */
+    static List<String> argumentTypes(String methodDescriptor) {
+        List<String> types = new ArrayList<>();
+        int i = 1;
+        while (methodDescriptor.charAt(i) != ')') {
+            int start = i;
+            while (methodDescriptor.charAt(i) == '[') {
+                i++;
+            }
+            if (methodDescriptor.charAt(i) == 'L') {
+                i = methodDescriptor.indexOf(';', i);
+            }
+            i++;
+            types.add(descriptorType(methodDescriptor.substring(start, i)));
+        }
+        return types;
+    }
+
+    private static String elementType(String arrayType) {
+        if (arrayType.equals("N")) {
+            return "N";
+        }
+        return descriptorType(arrayType.substring(2));
+    }
+}
@@ -0,0 +1,112 @@
+package com.compiler.bytecode;
+
+/**
+ * JVM opcodes and access flags used by the bytecode backend.
+ * Only the subset of the instruction set the compiler emits is listed here.
+ */
+public final class Opcodes {
+    /** Access flags for classes, fields and methods */
+    public static final int ACC_PUBLIC = 0x0001;
+    public static final int ACC_PRIVATE = 0x0002;
+    public static final int ACC_STATIC = 0x0008;
+    public static final int ACC_SUPER = 0x0020;
+
+    /** Element type codes for the newarray instruction */
+    public static final int T_BOOLEAN = 4;
+    public static final int T_DOUBLE = 7;
+    public static final int T_INT = 10;
+
+    public static final int NOP = 0;
+    public static final int ACONST_NULL = 1;
+    public static final int ICONST_M1 = 2;
+    public static final int ICONST_0 = 3;
+    public static final int ICONST_1 = 4;
+    public static final int ICONST_5 = 8;
+    public static final int DCONST_0 = 14;
+    public static final int DCONST_1 = 15;
+    public static final int BIPUSH = 16;
+    public static final int SIPUSH = 17;
+    public static final int LDC = 18;
+    public static final int LDC_W = 19;
+    public static final int LDC2_W = 20;
+    public static final int ILOAD = 21;
+    public static final int DLOAD = 24;
+    public static final int ALOAD = 25;
+    public static final int ILOAD_0 = 26;
+    public static final int DLOAD_0 = 38;
+    public static final int ALOAD_0 = 42;
+    public static final int IALOAD = 46;
+    public static final int DALOAD = 49;
+    public static final int AALOAD = 50;
+    public static final int BALOAD = 51;
+    public static final int ISTORE = 54;
+    public static final int DSTORE = 57;
+    public static final int ASTORE = 58;
+    public static final int ISTORE_0 = 59;
+    public static final int DSTORE_0 = 71;
+    public static final int ASTORE_0 = 75;
+    public static final int IASTORE = 79;
+    public static final int DASTORE = 82;
+    public static final int AASTORE = 83;
+    public static final int BASTORE = 84;
+    public static final int POP = 87;
+    public static final int POP2 = 88;
+    public static final int DUP = 89;
+    public static final int SWAP = 95;
+    public static final int IADD = 96;
+    public static final int DADD = 99;
+    public static final int ISUB = 100;
+    public static final int DSUB = 103;
+    public static final int IMUL = 104;
+    public static final int DMUL = 107;
+    public static final int IDIV = 108;
+    public static final int DDIV = 111;
+    public static final int IREM = 112;
+    public static final int DREM = 115;
+    public static final int INEG = 116;
+    public static final int DNEG = 119;
+    public static final int IAND = 126;
+    public static final int IOR = 128;
+    public static final int IXOR = 130;
+    public static final int IINC = 132;
+    public static final int I2D = 135;
+    public static final int D2I = 142;
+    public static final int DCMPL = 151;
+    public static final int DCMPG = 152;
+    public static final int IFEQ = 153;
+    public static final int IFNE = 154;
+    public static final int IFLT = 155;
+    public static final int IFGE = 156;
+    public static final int IFGT = 157;
+    public static final int IFLE = 158;
+    public static final int IF_ICMPEQ = 159;
+    public static final int IF_ICMPNE = 160;
+    public static final int IF_ICMPLT = 161;
+    public static final int IF_ICMPGE = 162;
+    public static final int IF_ICMPGT = 163;
+    public static final int IF_ICMPLE = 164;
+    public static final int IF_ACMPEQ = 165;
+    public static final int IF_ACMPNE = 166;
+    public static final int GOTO = 167;
+    public static final int IRETURN = 172;
+    public static final int DRETURN = 175;
+    public static final int ARETURN = 176;
+    public static final int RETURN = 177;
+    public static final int GETSTATIC = 178;
+    public static final int PUTSTATIC = 179;
+    public static final int GETFIELD = 180;
+    public static final int PUTFIELD = 181;
+    public static final int INVOKEVIRTUAL = 182;
+    public static final int INVOKESPECIAL = 183;
+    public static final int INVOKESTATIC = 184;
+    public static final int NEW = 187;
+    public static final int NEWARRAY = 188;
+    public static final int ANEWARRAY = 189;
+    public static final int ARRAYLENGTH = 190;
+    public static final int ATHROW = 191;
+    public static final int CHECKCAST = 192;
+    public static final int WIDE = 196;
+
+    private Opcodes() {
+    }
+}
@@ -0,0 +1,140 @@
+package com.compiler.bytecode;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Rewrites the constant pool of a compiled class so that calls to one static method go
+ * to a method with the same name and descriptor on another class.
+ * Only the Methodref entries are patched, so the code itself is left untouched; this
+ * works for classes produced by either backend.
+ */
+public final class StaticCallRedirector {
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private StaticCallRedirector() {
+    }
+
+    /**
+     * Redirects calls to a static method.
+     *
+     * @param classFile Bytes of the class file
+     * @param owner Internal name of the class whose method is replaced, e.g. "java/lang/System"
+     * @param name Name of the method
+     * @param descriptor Descriptor of the method
+     * @param newOwner Internal name of the class that provides the replacement
+     * @return The rewritten class file, or the original bytes if the method is never referenced
+     */
+    public static byte[] redirect(byte[] classFile, String owner, String name, String descriptor, String newOwner) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(classFile));
+            in.skipBytes(8); // magic and version
+            int count = in.readUnsignedShort();
+
+            // Offsets of the entries in the class file, and the decoded UTF-8 constants
+            int[] tags = new int[count];
+            int[] offsets = new int[count];
+            String[] strings = new String[count];
+            int offset = 10;
+            for (int i = 1; i < count; i++) {
+                int tag = classFile[offset] & 0xFF;
+                tags[i] = tag;
+                offsets[i] = offset;
+                int size = entrySize(classFile, offset, tag);
+                if (tag == CONSTANT_UTF8) {
+                    strings[i] = new DataInputStream(
+                        new ByteArrayInputStream(classFile, offset + 1, size - 1)).readUTF();
+                }
+                offset += size;
+                if (tag == 5 || tag == 6) {
+                    i++; // long and double take two slots
+                }
+            }
+            int poolEnd = offset;
+
+            boolean found = false;
+            boolean[] patch = new boolean[count];
+            for (int i = 1; i < count; i++) {
+                if (tags[i] != CONSTANT_METHODREF) {
+                    continue;
+                }
+                int classIndex = readShort(classFile, offsets[i] + 1);
+                int nameAndType = readShort(classFile, offsets[i] + 3);
+                String className = strings[readShort(classFile, offsets[classIndex] + 1)];
+                String methodName = strings[readShort(classFile, offsets[nameAndType] + 1)];
+                String methodDescriptor = strings[readShort(classFile, offsets[nameAndType] + 3)];
+                if (owner.equals(className) && name.equals(methodName) && descriptor.equals(methodDescriptor)) {
+                    patch[i] = true;
+                    found = true;
+                }
+            }
+            if (!found) {
+                return classFile;
+            }
+
+            // Append the new class entry to the end of the pool and point the matching refs at it
+            int utf8Index = count;
+            int classIndex = count + 1;
+            byte[] patched = classFile.clone();
+            for (int i = 1; i < count; i++) {
+                if (patch[i]) {
+                    patched[offsets[i] + 1] = (byte) (classIndex >> 8);
+                    patched[offsets[i] + 2] = (byte) classIndex;
+                }
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(classFile.length + newOwner.length() + 8);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.write(patched, 0, 8);
+            out.writeShort(count + 2);
+            out.write(patched, 10, poolEnd - 10);
+            out.writeByte(CONSTANT_UTF8);
+            out.writeUTF(newOwner);
+            out.writeByte(CONSTANT_CLASS);
+            out.writeShort(utf8Index);
+            out.write(patched, poolEnd, patched.length - poolEnd);
+            return bytes.toByteArray();
+        } catch (IOException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed class file", e);
+        }
+    }
+
+    private static int entrySize(byte[] classFile, int offset, int tag) {
+        switch (tag) {
+            case CONSTANT_UTF8:
+                return 3 + readShort(classFile, offset + 1);
+            case CONSTANT_CLASS:
+            case 8:  // String
+            case 16: // MethodType
+            case 19: // Module
+            case 20: // Package
+                return 3;
+            case 15: // MethodHandle
+                return 4;
+            case 3:  // Integer
+            case 4:  // Float
+            case 9:  // Fieldref
+            case CONSTANT_METHODREF:
+            case 11: // InterfaceMethodref
+            case CONSTANT_NAME_AND_TYPE:
+            case 17: // Dynamic
+            case 18: // InvokeDynamic
+                return 5;
+            case 5:  // Long
+            case 6:  // Double
+                return 9;
+            default:
+                throw new IllegalArgumentException("Unknown constant pool tag " + tag);
+        }
+    }
+
+    private static int readShort(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+    }
+}
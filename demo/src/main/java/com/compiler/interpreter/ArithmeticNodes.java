@@ -0,0 +1,202 @@
+package com.compiler.interpreter;
+
+/**
+ * Arithmetic operators, one node class per operator and operand kind. Mixed integer and
+ * real operands are widened by the compiler, so each node works on a single kind.
+ */
+final class ArithmeticNodes {
+    private ArithmeticNodes() {
+    }
+
+    static final class IntAdd extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        IntAdd(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        int executeInt(Frame frame) {
+            return left.executeInt(frame) + right.executeInt(frame);
+        }
+    }
+
+    static final class IntSubtract extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        IntSubtract(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        int executeInt(Frame frame) {
+            return left.executeInt(frame) - right.executeInt(frame);
+        }
+    }
+
+    static final class IntMultiply extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        IntMultiply(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        int executeInt(Frame frame) {
+            return left.executeInt(frame) * right.executeInt(frame);
+        }
+    }
+
+    static final class IntDivide extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        IntDivide(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        int executeInt(Frame frame) {
+            return left.executeInt(frame) / right.executeInt(frame);
+        }
+    }
+
+    static final class IntModulo extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        IntModulo(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        int executeInt(Frame frame) {
+            return left.executeInt(frame) % right.executeInt(frame);
+        }
+    }
+
+    static final class RealAdd extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        RealAdd(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double executeReal(Frame frame) {
+            return left.executeReal(frame) + right.executeReal(frame);
+        }
+    }
+
+    static final class RealSubtract extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        RealSubtract(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double executeReal(Frame frame) {
+            return left.executeReal(frame) - right.executeReal(frame);
+        }
+    }
+
+    static final class RealMultiply extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        RealMultiply(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double executeReal(Frame frame) {
+            return left.executeReal(frame) * right.executeReal(frame);
+        }
+    }
+
+    static final class RealDivide extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        RealDivide(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double executeReal(Frame frame) {
+            return left.executeReal(frame) / right.executeReal(frame);
+        }
+    }
+
+    static final class RealModulo extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        RealModulo(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double executeReal(Frame frame) {
+            return left.executeReal(frame) % right.executeReal(frame);
+        }
+    }
+
+    static final class IntNegate extends ExpressionNode {
+        private final ExpressionNode operand;
+
+        IntNegate(ExpressionNode operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        int executeInt(Frame frame) {
+            return -operand.executeInt(frame);
+        }
+    }
+
+    static final class RealNegate extends ExpressionNode {
+        private final ExpressionNode operand;
+
+        RealNegate(ExpressionNode operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        double executeReal(Frame frame) {
+            return -operand.executeReal(frame);
+        }
+    }
+
+    /** Joins two strings; the compiler converts other operands with the to-string nodes */
+    static final class Concatenate extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        Concatenate(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        Object executeObject(Frame frame) {
+            return (String) left.executeObject(frame) + (String) right.executeObject(frame);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.compiler.interpreter;
+
+import java.util.Objects;
+
+/**
+ * Comparison operators, one node class per operator and operand kind.
+ */
+final class ComparisonNodes {
+    private ComparisonNodes() {
+    }
+
+    static final class IntLess extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        IntLess(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return left.executeInt(frame) < right.executeInt(frame);
+        }
+    }
+
+    static final class IntLessOrEqual extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        IntLessOrEqual(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return left.executeInt(frame) <= right.executeInt(frame);
+        }
+    }
+
+    static final class IntGreater extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        IntGreater(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return left.executeInt(frame) > right.executeInt(frame);
+        }
+    }
+
+    static final class IntGreaterOrEqual extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        IntGreaterOrEqual(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return left.executeInt(frame) >= right.executeInt(frame);
+        }
+    }
+
+    static final class IntEqual extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        IntEqual(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return left.executeInt(frame) == right.executeInt(frame);
+        }
+    }
+
+    static final class IntNotEqual extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        IntNotEqual(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return left.executeInt(frame) != right.executeInt(frame);
+        }
+    }
+
+    static final class RealLess extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        RealLess(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return left.executeReal(frame) < right.executeReal(frame);
+        }
+    }
+
+    static final class RealLessOrEqual extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        RealLessOrEqual(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return left.executeReal(frame) <= right.executeReal(frame);
+        }
+    }
+
+    static final class RealGreater extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        RealGreater(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return left.executeReal(frame) > right.executeReal(frame);
+        }
+    }
+
+    static final class RealGreaterOrEqual extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        RealGreaterOrEqual(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return left.executeReal(frame) >= right.executeReal(frame);
+        }
+    }
+
+    static final class RealEqual extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        RealEqual(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return left.executeReal(frame) == right.executeReal(frame);
+        }
+    }
+
+    static final class RealNotEqual extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        RealNotEqual(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return left.executeReal(frame) != right.executeReal(frame);
+        }
+    }
+
+    static final class BooleanEqual extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        BooleanEqual(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return left.executeBoolean(frame) == right.executeBoolean(frame);
+        }
+    }
+
+    static final class BooleanNotEqual extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        BooleanNotEqual(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return left.executeBoolean(frame) != right.executeBoolean(frame);
+        }
+    }
+
+    /** Compares strings by value, and arrays and records by identity */
+    static final class ObjectEqual extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        ObjectEqual(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return Objects.equals(left.executeObject(frame), right.executeObject(frame));
+        }
+    }
+
+    static final class ObjectNotEqual extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        ObjectNotEqual(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return !Objects.equals(left.executeObject(frame), right.executeObject(frame));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.compiler.interpreter;
+
+/**
+ * A program compiled by {@link NodeCompiler}, ready to run.
+ */
+public class CompiledProgram {
+    /** Initializes the global variables */
+    private final StatementNode globalInit;
+    private final int intSlots;
+    private final int realSlots;
+    private final int objectSlots;
+    /** The main routine, or null if the program has none */
+    private final Routine main;
+
+    CompiledProgram(StatementNode globalInit, int intSlots, int realSlots, int objectSlots, Routine main) {
+        this.globalInit = globalInit;
+        this.intSlots = intSlots;
+        this.realSlots = realSlots;
+        this.objectSlots = objectSlots;
+        this.main = main;
+    }
+
+    /**
+     * Runs the program: initializes the globals, then calls the main routine.
+     *
+     * @throws RuntimeException if the program fails, for example on an array index out of bounds
+     */
+    public void run() {
+        Frame globals = new Frame(intSlots, realSlots, objectSlots);
+        globalInit.execute(globals);
+        if (main != null) {
+            new ControlNodes.Call(main, new ControlNodes.Argument[0]).executeObject(globals);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.compiler.interpreter;
+
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.Scanner;
+
+/**
+ * Streams a running program prints to and reads from.
+ */
+final class Console {
+    final PrintStream out;
+    private final InputStream in;
+    /** Scanner over the input, created by the first read statement */
+    private Scanner scanner;
+
+    Console(InputStream in, PrintStream out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    Scanner scanner() {
+        if (scanner == null) {
+            scanner = new Scanner(in);
+        }
+        return scanner;
+    }
+}
@@ -0,0 +1,139 @@
+package com.compiler.interpreter;
+
+import java.util.Arrays;
+
+/**
+ * Literals and the creation of initial values for variables.
+ */
+final class ConstantNodes {
+    private ConstantNodes() {
+    }
+
+    static final class IntConstant extends ExpressionNode {
+        private final int value;
+
+        IntConstant(int value) {
+            this.value = value;
+        }
+
+        @Override
+        int executeInt(Frame frame) {
+            return value;
+        }
+    }
+
+    static final class BooleanConstant extends ExpressionNode {
+        private final boolean value;
+
+        BooleanConstant(boolean value) {
+            this.value = value;
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return value;
+        }
+
+        @Override
+        int executeInt(Frame frame) {
+            return value ? 1 : 0;
+        }
+    }
+
+    static final class RealConstant extends ExpressionNode {
+        private final double value;
+
+        RealConstant(double value) {
+            this.value = value;
+        }
+
+        @Override
+        double executeReal(Frame frame) {
+            return value;
+        }
+    }
+
+    static final class ObjectConstant extends ExpressionNode {
+        private final Object value;
+
+        ObjectConstant(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        Object executeObject(Frame frame) {
+            return value;
+        }
+    }
+
+    /** Creates an array of integers or booleans, all 0 */
+    static final class NewIntArray extends ExpressionNode {
+        private final int size;
+
+        NewIntArray(int size) {
+            this.size = size;
+        }
+
+        @Override
+        Object executeObject(Frame frame) {
+            return new int[size];
+        }
+    }
+
+    /** Creates an array of reals, all 0.0 */
+    static final class NewRealArray extends ExpressionNode {
+        private final int size;
+
+        NewRealArray(int size) {
+            this.size = size;
+        }
+
+        @Override
+        Object executeObject(Frame frame) {
+            return new double[size];
+        }
+    }
+
+    /** Creates an array of strings, arrays or records, each set to its initial value */
+    static final class NewObjectArray extends ExpressionNode {
+        private final int size;
+        private final ExpressionNode element;
+
+        NewObjectArray(int size, ExpressionNode element) {
+            this.size = size;
+            this.element = element;
+        }
+
+        @Override
+        Object executeObject(Frame frame) {
+            Object[] array = new Object[size];
+            if (element instanceof ObjectConstant) {
+                Arrays.fill(array, element.executeObject(frame));
+            } else {
+                for (int i = 0; i < size; i++) {
+                    array[i] = element.executeObject(frame);
+                }
+            }
+            return array;
+        }
+    }
+
+    /** Creates a record with every field set to its initial value */
+    static final class NewRecord extends ExpressionNode {
+        private final RecordLayout layout;
+
+        NewRecord(RecordLayout layout) {
+            this.layout = layout;
+        }
+
+        @Override
+        Object executeObject(Frame frame) {
+            Record record = new Record(layout.getIntSlots(), layout.getRealSlots(), layout.getObjectSlots());
+            ExpressionNode[] defaults = layout.getObjectDefaults();
+            for (int i = 0; i < defaults.length; i++) {
+                record.objects[i] = defaults[i].executeObject(frame);
+            }
+            return record;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.compiler.interpreter;
+
+/**
+ * Blocks, branches, loops, routine calls and returns.
+ */
+final class ControlNodes {
+    private ControlNodes() {
+    }
+
+    static final class Block extends StatementNode {
+        private final StatementNode[] statements;
+
+        Block(StatementNode[] statements) {
+            this.statements = statements;
+        }
+
+        @Override
+        boolean execute(Frame frame) {
+            for (StatementNode statement : statements) {
+                if (statement.execute(frame)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    static final class If extends StatementNode {
+        private final ExpressionNode condition;
+        private final StatementNode thenBody;
+        private final StatementNode elseBody;
+
+        If(ExpressionNode condition, StatementNode thenBody, StatementNode elseBody) {
+            this.condition = condition;
+            this.thenBody = thenBody;
+            this.elseBody = elseBody;
+        }
+
+        @Override
+        boolean execute(Frame frame) {
+            return condition.executeBoolean(frame) ? thenBody.execute(frame) : elseBody.execute(frame);
+        }
+    }
+
+    static final class While extends StatementNode {
+        private final ExpressionNode condition;
+        private final StatementNode body;
+
+        While(ExpressionNode condition, StatementNode body) {
+            this.condition = condition;
+            this.body = body;
+        }
+
+        @Override
+        boolean execute(Frame frame) {
+            while (condition.executeBoolean(frame)) {
+                if (body.execute(frame)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Counting loop over an int slot. Like the generated code, the loop variable starts at
+     * the range start and the range end is evaluated before every iteration.
+     */
+    static final class For extends StatementNode {
+        private final int slot;
+        private final ExpressionNode start;
+        private final ExpressionNode end;
+        private final boolean reverse;
+        private final StatementNode body;
+
+        For(int slot, ExpressionNode start, ExpressionNode end, boolean reverse, StatementNode body) {
+            this.slot = slot;
+            this.start = start;
+            this.end = end;
+            this.reverse = reverse;
+            this.body = body;
+        }
+
+        @Override
+        boolean execute(Frame frame) {
+            int[] ints = frame.ints;
+            ints[slot] = start.executeInt(frame);
+            if (reverse) {
+                while (ints[slot] >= end.executeInt(frame)) {
+                    if (body.execute(frame)) {
+                        return true;
+                    }
+                    ints[slot]--;
+                }
+            } else {
+                while (ints[slot] <= end.executeInt(frame)) {
+                    if (body.execute(frame)) {
+                        return true;
+                    }
+                    ints[slot]++;
+                }
+            }
+            return false;
+        }
+    }
+
+    /** Evaluates an argument in the caller's frame and stores it in a parameter slot of the callee's */
+    abstract static class Argument {
+        final int slot;
+        final ExpressionNode value;
+
+        Argument(int slot, ExpressionNode value) {
+            this.slot = slot;
+            this.value = value;
+        }
+
+        abstract void bind(Frame caller, Frame callee);
+    }
+
+    static final class IntArgument extends Argument {
+        IntArgument(int slot, ExpressionNode value) {
+            super(slot, value);
+        }
+
+        @Override
+        void bind(Frame caller, Frame callee) {
+            callee.ints[slot] = value.executeInt(caller);
+        }
+    }
+
+    static final class RealArgument extends Argument {
+        RealArgument(int slot, ExpressionNode value) {
+            super(slot, value);
+        }
+
+        @Override
+        void bind(Frame caller, Frame callee) {
+            callee.reals[slot] = value.executeReal(caller);
+        }
+    }
+
+    static final class ObjectArgument extends Argument {
+        ObjectArgument(int slot, ExpressionNode value) {
+            super(slot, value);
+        }
+
+        @Override
+        void bind(Frame caller, Frame callee) {
+            callee.objects[slot] = value.executeObject(caller);
+        }
+    }
+
+    static final class Call extends ExpressionNode {
+        private final Routine routine;
+        private final Argument[] arguments;
+
+        Call(Routine routine, Argument[] arguments) {
+            this.routine = routine;
+            this.arguments = arguments;
+        }
+
+        private Frame invoke(Frame caller) {
+            Frame callee = new Frame(routine.intSlots, routine.realSlots, routine.objectSlots, caller.globals);
+            for (Argument argument : arguments) {
+                argument.bind(caller, callee);
+            }
+            routine.body.execute(callee);
+            return callee;
+        }
+
+        @Override
+        int executeInt(Frame frame) {
+            return invoke(frame).returnInt;
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return invoke(frame).returnInt != 0;
+        }
+
+        @Override
+        double executeReal(Frame frame) {
+            return invoke(frame).returnReal;
+        }
+
+        @Override
+        Object executeObject(Frame frame) {
+            return invoke(frame).returnObject;
+        }
+    }
+
+    /** Runs a call for its effects, discarding any returned value */
+    static final class CallStatement extends StatementNode {
+        private final Call call;
+
+        CallStatement(Call call) {
+            this.call = call;
+        }
+
+        @Override
+        boolean execute(Frame frame) {
+            call.invoke(frame);
+            return false;
+        }
+    }
+
+    static final class ReturnInt extends StatementNode {
+        private final ExpressionNode value;
+
+        ReturnInt(ExpressionNode value) {
+            this.value = value;
+        }
+
+        @Override
+        boolean execute(Frame frame) {
+            frame.returnInt = value.executeInt(frame);
+            return true;
+        }
+    }
+
+    static final class ReturnReal extends StatementNode {
+        private final ExpressionNode value;
+
+        ReturnReal(ExpressionNode value) {
+            this.value = value;
+        }
+
+        @Override
+        boolean execute(Frame frame) {
+            frame.returnReal = value.executeReal(frame);
+            return true;
+        }
+    }
+
+    static final class ReturnObject extends StatementNode {
+        private final ExpressionNode value;
+
+        ReturnObject(ExpressionNode value) {
+            this.value = value;
+        }
+
+        @Override
+        boolean execute(Frame frame) {
+            frame.returnObject = value.executeObject(frame);
+            return true;
+        }
+    }
+
+    static final class ReturnVoid extends StatementNode {
+        @Override
+        boolean execute(Frame frame) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.compiler.interpreter;
+
+/**
+ * Conversions between kinds, for implicit widening, casts and string concatenation.
+ * They follow the generated code: reals are truncated to integers and booleans
+ * are 0 or 1.
+ */
+final class ConversionNodes {
+    private ConversionNodes() {
+    }
+
+    static final class IntToReal extends ExpressionNode {
+        private final ExpressionNode operand;
+
+        IntToReal(ExpressionNode operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        double executeReal(Frame frame) {
+            return operand.executeInt(frame);
+        }
+    }
+
+    static final class RealToInt extends ExpressionNode {
+        private final ExpressionNode operand;
+
+        RealToInt(ExpressionNode operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        int executeInt(Frame frame) {
+            return (int) operand.executeReal(frame);
+        }
+    }
+
+    static final class BooleanToInt extends ExpressionNode {
+        private final ExpressionNode operand;
+
+        BooleanToInt(ExpressionNode operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        int executeInt(Frame frame) {
+            return operand.executeBoolean(frame) ? 1 : 0;
+        }
+    }
+
+    static final class IntToBoolean extends ExpressionNode {
+        private final ExpressionNode operand;
+
+        IntToBoolean(ExpressionNode operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return operand.executeInt(frame) != 0;
+        }
+
+        @Override
+        int executeInt(Frame frame) {
+            return operand.executeInt(frame) != 0 ? 1 : 0;
+        }
+    }
+
+    static final class RealToBoolean extends ExpressionNode {
+        private final ExpressionNode operand;
+
+        RealToBoolean(ExpressionNode operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return operand.executeReal(frame) != 0.0;
+        }
+
+        @Override
+        int executeInt(Frame frame) {
+            return operand.executeReal(frame) != 0.0 ? 1 : 0;
+        }
+    }
+
+    static final class IntToString extends ExpressionNode {
+        private final ExpressionNode operand;
+
+        IntToString(ExpressionNode operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        Object executeObject(Frame frame) {
+            return Integer.toString(operand.executeInt(frame));
+        }
+    }
+
+    static final class RealToString extends ExpressionNode {
+        private final ExpressionNode operand;
+
+        RealToString(ExpressionNode operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        Object executeObject(Frame frame) {
+            return Double.toString(operand.executeReal(frame));
+        }
+    }
+
+    static final class BooleanToString extends ExpressionNode {
+        private final ExpressionNode operand;
+
+        BooleanToString(ExpressionNode operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        Object executeObject(Frame frame) {
+            return Boolean.toString(operand.executeBoolean(frame));
+        }
+    }
+
+    static final class ObjectToString extends ExpressionNode {
+        private final ExpressionNode operand;
+
+        ObjectToString(ExpressionNode operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        Object executeObject(Frame frame) {
+            return String.valueOf(operand.executeObject(frame));
+        }
+    }
+}
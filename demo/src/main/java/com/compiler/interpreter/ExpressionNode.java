@@ -0,0 +1,28 @@
+package com.compiler.interpreter;
+
+/**
+ * Executable form of an expression.
+ * The compiler knows the kind of every expression, so it calls only the execute method
+ * for that kind; nodes implement the ones that apply to them.
+ */
+abstract class ExpressionNode {
+    int executeInt(Frame frame) {
+        throw unsupported("integer");
+    }
+
+    double executeReal(Frame frame) {
+        throw unsupported("real");
+    }
+
+    boolean executeBoolean(Frame frame) {
+        throw unsupported("boolean");
+    }
+
+    Object executeObject(Frame frame) {
+        throw unsupported("object");
+    }
+
+    private IllegalStateException unsupported(String kind) {
+        return new IllegalStateException(getClass().getSimpleName() + " does not produce a " + kind + " value");
+    }
+}
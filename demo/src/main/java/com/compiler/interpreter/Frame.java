@@ -0,0 +1,38 @@
+package com.compiler.interpreter;
+
+/**
+ * Storage of one routine activation. Every variable was given a slot index when the
+ * routine was compiled, so reading or writing it is a plain array access.
+ */
+final class Frame {
+    final int[] ints;
+    final double[] reals;
+    final Object[] objects;
+    /** Frame holding the global variables; the global frame points at itself */
+    final Frame globals;
+
+    /** Value of the executed return statement, in the slot matching the return kind */
+    int returnInt;
+    double returnReal;
+    Object returnObject;
+
+    /**
+     * Creates the global frame.
+     */
+    Frame(int intSlots, int realSlots, int objectSlots) {
+        this.ints = new int[intSlots];
+        this.reals = new double[realSlots];
+        this.objects = new Object[objectSlots];
+        this.globals = this;
+    }
+
+    /**
+     * Creates the frame of a routine call.
+     */
+    Frame(int intSlots, int realSlots, int objectSlots, Frame globals) {
+        this.ints = new int[intSlots];
+        this.reals = new double[realSlots];
+        this.objects = new Object[objectSlots];
+        this.globals = globals;
+    }
+}
@@ -0,0 +1,125 @@
+package com.compiler.interpreter;
+
+/**
+ * Print statements and the values read by read statements.
+ */
+final class IoNodes {
+    private IoNodes() {
+    }
+
+    static final class PrintInt extends StatementNode {
+        private final Console console;
+        private final ExpressionNode value;
+
+        PrintInt(Console console, ExpressionNode value) {
+            this.console = console;
+            this.value = value;
+        }
+
+        @Override
+        boolean execute(Frame frame) {
+            console.out.println(value.executeInt(frame));
+            return false;
+        }
+    }
+
+    static final class PrintReal extends StatementNode {
+        private final Console console;
+        private final ExpressionNode value;
+
+        PrintReal(Console console, ExpressionNode value) {
+            this.console = console;
+            this.value = value;
+        }
+
+        @Override
+        boolean execute(Frame frame) {
+            console.out.println(value.executeReal(frame));
+            return false;
+        }
+    }
+
+    static final class PrintBoolean extends StatementNode {
+        private final Console console;
+        private final ExpressionNode value;
+
+        PrintBoolean(Console console, ExpressionNode value) {
+            this.console = console;
+            this.value = value;
+        }
+
+        @Override
+        boolean execute(Frame frame) {
+            console.out.println(value.executeBoolean(frame));
+            return false;
+        }
+    }
+
+    static final class PrintObject extends StatementNode {
+        private final Console console;
+        private final ExpressionNode value;
+
+        PrintObject(Console console, ExpressionNode value) {
+            this.console = console;
+            this.value = value;
+        }
+
+        @Override
+        boolean execute(Frame frame) {
+            console.out.println(value.executeObject(frame));
+            return false;
+        }
+    }
+
+    static final class InputInt extends ExpressionNode {
+        private final Console console;
+
+        InputInt(Console console) {
+            this.console = console;
+        }
+
+        @Override
+        int executeInt(Frame frame) {
+            return console.scanner().nextInt();
+        }
+    }
+
+    static final class InputReal extends ExpressionNode {
+        private final Console console;
+
+        InputReal(Console console) {
+            this.console = console;
+        }
+
+        @Override
+        double executeReal(Frame frame) {
+            return console.scanner().nextDouble();
+        }
+    }
+
+    static final class InputBoolean extends ExpressionNode {
+        private final Console console;
+
+        InputBoolean(Console console) {
+            this.console = console;
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return console.scanner().nextBoolean();
+        }
+    }
+
+    static final class InputString extends ExpressionNode {
+        private final Console console;
+
+        InputString(Console console) {
+            this.console = console;
+        }
+
+        @Override
+        Object executeObject(Frame frame) {
+            return console.scanner().next();
+        }
+    }
+}
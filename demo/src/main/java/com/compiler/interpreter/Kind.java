@@ -0,0 +1,24 @@
+package com.compiler.interpreter;
+
+/**
+ * How a value is represented at run time.
+ * Integers and booleans share the int slots of a frame (booleans as 0 or 1), reals use
+ * the double slots, and strings, arrays and records use the object slots, so no value of
+ * a primitive type is ever boxed.
+ */
+enum Kind {
+    INTEGER(Storage.INT),
+    BOOLEAN(Storage.INT),
+    REAL(Storage.REAL),
+    STRING(Storage.OBJECT),
+    REFERENCE(Storage.OBJECT);
+
+    /** The slot array values of a kind are kept in */
+    enum Storage { INT, REAL, OBJECT }
+
+    final Storage storage;
+
+    Kind(Storage storage) {
+        this.storage = storage;
+    }
+}
@@ -0,0 +1,68 @@
+package com.compiler.interpreter;
+
+/**
+ * Boolean operators. "and" and "or" evaluate the right operand only when it decides
+ * the result.
+ */
+final class LogicNodes {
+    private LogicNodes() {
+    }
+
+    static final class And extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        And(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return left.executeBoolean(frame) && right.executeBoolean(frame);
+        }
+    }
+
+    static final class Or extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        Or(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return left.executeBoolean(frame) || right.executeBoolean(frame);
+        }
+    }
+
+    static final class Xor extends ExpressionNode {
+        private final ExpressionNode left;
+        private final ExpressionNode right;
+
+        Xor(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return left.executeBoolean(frame) ^ right.executeBoolean(frame);
+        }
+    }
+
+    static final class Not extends ExpressionNode {
+        private final ExpressionNode operand;
+
+        Not(ExpressionNode operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return !operand.executeBoolean(frame);
+        }
+    }
+}
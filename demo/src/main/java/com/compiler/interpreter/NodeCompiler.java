@@ -0,0 +1,726 @@
+package com.compiler.interpreter;
+
+import com.compiler.ArrayAccess;
+import com.compiler.ArrayDecl;
+import com.compiler.ArrayType;
+import com.compiler.Assignment;
+import com.compiler.BinaryExpression;
+import com.compiler.BooleanLiteral;
+import com.compiler.DeclarationIndex;
+import com.compiler.Expression;
+import com.compiler.ForLoop;
+import com.compiler.IfStatement;
+import com.compiler.IntegerLiteral;
+import com.compiler.Operator;
+import com.compiler.Parameter;
+import com.compiler.PrintStatement;
+import com.compiler.Program;
+import com.compiler.ReadStatement;
+import com.compiler.RealLiteral;
+import com.compiler.RecordAccess;
+import com.compiler.RecordType;
+import com.compiler.ReturnStatement;
+import com.compiler.RoutineCall;
+import com.compiler.RoutineDecl;
+import com.compiler.SimpleType;
+import com.compiler.Statement;
+import com.compiler.StringLiteral;
+import com.compiler.Type;
+import com.compiler.TypeCast;
+import com.compiler.TypeDecl;
+import com.compiler.UnaryExpression;
+import com.compiler.VarDecl;
+import com.compiler.VariableReference;
+import com.compiler.WhileStatement;
+import com.compiler.interpreter.ArithmeticNodes.*;
+import com.compiler.interpreter.ComparisonNodes.*;
+import com.compiler.interpreter.ConstantNodes.*;
+import com.compiler.interpreter.ControlNodes.*;
+import com.compiler.interpreter.ConversionNodes.*;
+import com.compiler.interpreter.IoNodes.*;
+import com.compiler.interpreter.LogicNodes.*;
+import com.compiler.interpreter.VariableNodes.*;
+import com.compiler.semantic.SymbolTable;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles a checked AST into a tree of executable nodes.
+ * All the decisions the tree-walking interpreter makes while the program runs are made
+ * here once: every variable is resolved to a slot of the routine's frame or of the global
+ * frame, every call to its {@link Routine}, and every operator, by the kinds of its
+ * operands, to a node class of its own that works on unboxed int, double or boolean values.
+ * The nodes that run are then small and each call site sees few receiver classes,
+ * which the JIT compiles well.
+ */
+public class NodeCompiler {
+    /** Symbol table from semantic analysis, used for routine signatures and type names */
+    private final SymbolTable symbolTable;
+    /** Streams of the program */
+    private final Console console;
+
+    /** Compiled routines by name */
+    private final Map<String, Routine> routines = new HashMap<>();
+    /** Layouts of the record types seen so far */
+    private final Map<RecordType, RecordLayout> recordLayouts = new IdentityHashMap<>();
+
+    /** Global variables by name */
+    private final Map<String, Variable> globals = new HashMap<>();
+    /** Number of slots of each storage used in the global frame */
+    private final int[] globalSlots = new int[Kind.Storage.values().length];
+
+    /** Scopes of the routine being compiled, innermost first; empty at the top level */
+    private final Deque<Map<String, Variable>> scopes = new ArrayDeque<>();
+    /** Number of slots of each storage used in the frame of the routine being compiled */
+    private int[] frameSlots;
+    /** The routine being compiled, or null at the top level */
+    private Routine currentRoutine;
+
+    /**
+     * Creates a compiler for one program.
+     *
+     * @param symbolTable Symbol table filled in by semantic analysis of the program
+     * @param in Stream read statements read from
+     * @param out Stream print statements write to
+     */
+    public NodeCompiler(SymbolTable symbolTable, InputStream in, PrintStream out) {
+        this.symbolTable = symbolTable;
+        this.console = new Console(in, out);
+    }
+
+    /**
+     * Compiles a program.
+     *
+     * @param program A program without semantic errors
+     * @return The executable program
+     * @throws RuntimeException if the program uses a construct the interpreter does not support
+     */
+    public CompiledProgram compile(Program program) {
+        // Create the routines first, so calls can be compiled before the routine's body
+        DeclarationIndex declarations = program.getDeclarations();
+        for (RoutineDecl decl : declarations.getRoutines()) {
+            routines.put(decl.getName(), new Routine(decl.getName(), kindOf(decl.getReturnType())));
+        }
+
+        List<StatementNode> globalInit = new ArrayList<>();
+        for (Statement stmt : declarations.getVariables()) {
+            globalInit.add(compileStatement(stmt));
+        }
+
+        for (RoutineDecl decl : declarations.getRoutines()) {
+            compileRoutine(decl);
+        }
+
+        return new CompiledProgram(new Block(globalInit.toArray(new StatementNode[0])),
+            globalSlots[Kind.Storage.INT.ordinal()], globalSlots[Kind.Storage.REAL.ordinal()],
+            globalSlots[Kind.Storage.OBJECT.ordinal()], routines.get("main"));
+    }
+
+    private void compileRoutine(RoutineDecl decl) {
+        Routine routine = routines.get(decl.getName());
+        currentRoutine = routine;
+        frameSlots = new int[Kind.Storage.values().length];
+        scopes.push(new HashMap<String, Variable>());
+
+        // Parameters take the first slots, in order, which is what calls bind to
+        for (Parameter param : decl.getParameters()) {
+            declare(param.getName(), param.getType());
+        }
+        routine.body = compileBlock(decl.getBody(), false);
+        routine.intSlots = frameSlots[Kind.Storage.INT.ordinal()];
+        routine.realSlots = frameSlots[Kind.Storage.REAL.ordinal()];
+        routine.objectSlots = frameSlots[Kind.Storage.OBJECT.ordinal()];
+
+        scopes.pop();
+        currentRoutine = null;
+        frameSlots = null;
+    }
+
+    private StatementNode compileBlock(List<Statement> statements, boolean newScope) {
+        if (newScope) {
+            scopes.push(new HashMap<String, Variable>());
+        }
+        List<StatementNode> nodes = new ArrayList<>();
+        for (Statement stmt : statements) {
+            StatementNode node = compileStatement(stmt);
+            if (node != null) {
+                nodes.add(node);
+            }
+        }
+        if (newScope) {
+            scopes.pop();
+        }
+        return nodes.size() == 1 ? nodes.get(0) : new Block(nodes.toArray(new StatementNode[0]));
+    }
+
+    /**
+     * Compiles a statement.
+     *
+     * @return The node, or null for declarations that do nothing when executed
+     */
+    private StatementNode compileStatement(Statement stmt) {
+        if (stmt instanceof VarDecl) {
+            VarDecl decl = (VarDecl) stmt;
+            // The initializer is compiled before the name is declared, so it cannot see the new variable
+            ExpressionNode value = decl.getInitializer() != null
+                ? convert(compileExpression(decl.getInitializer()), decl.getType())
+                : initialValue(decl.getType());
+            return write(declare(decl.getName(), decl.getType()), value);
+        }
+        if (stmt instanceof ArrayDecl) {
+            ArrayDecl decl = (ArrayDecl) stmt;
+            return write(declare(decl.getName(), decl.getType()), initialValue(decl.getType()));
+        }
+        if (stmt instanceof Assignment) {
+            return compileAssignment((Assignment) stmt);
+        }
+        if (stmt instanceof IfStatement) {
+            IfStatement ifStmt = (IfStatement) stmt;
+            List<Statement> elseBody = ifStmt.getElseStatements() != null
+                ? ifStmt.getElseStatements() : new ArrayList<Statement>();
+            return new If(toBoolean(compileExpression(ifStmt.getCondition())),
+                compileBlock(ifStmt.getThenStatements(), true), compileBlock(elseBody, true));
+        }
+        if (stmt instanceof WhileStatement) {
+            WhileStatement whileStmt = (WhileStatement) stmt;
+            return new While(toBoolean(compileExpression(whileStmt.getCondition())),
+                compileBlock(whileStmt.getBody(), true));
+        }
+        if (stmt instanceof ForLoop) {
+            return compileForLoop((ForLoop) stmt);
+        }
+        if (stmt instanceof PrintStatement) {
+            Typed value = compileExpression(((PrintStatement) stmt).getExpression());
+            switch (value.kind) {
+                case INTEGER:
+                    return new PrintInt(console, value.node);
+                case REAL:
+                    return new PrintReal(console, value.node);
+                case BOOLEAN:
+                    return new PrintBoolean(console, value.node);
+                default:
+                    return new PrintObject(console, value.node);
+            }
+        }
+        if (stmt instanceof ReadStatement) {
+            Variable variable = lookup(((ReadStatement) stmt).getVariable());
+            ExpressionNode input;
+            switch (variable.kind) {
+                case INTEGER:
+                    input = new InputInt(console);
+                    break;
+                case REAL:
+                    input = new InputReal(console);
+                    break;
+                case BOOLEAN:
+                    input = new InputBoolean(console);
+                    break;
+                case STRING:
+                    input = new InputString(console);
+                    break;
+                default:
+                    throw new RuntimeException("Cannot read a value of type " + variable.type);
+            }
+            return write(variable, input);
+        }
+        if (stmt instanceof ReturnStatement) {
+            return compileReturn((ReturnStatement) stmt);
+        }
+        if (stmt instanceof TypeDecl || stmt instanceof RoutineDecl) {
+            return null;
+        }
+        throw new RuntimeException("Cannot interpret " + stmt.getClass().getSimpleName());
+    }
+
+    private StatementNode compileAssignment(Assignment assignment) {
+        String target = assignment.getTarget();
+        if (assignment.getIndex() != null) {
+            Variable array = lookup(target);
+            Type elementType = ((ArrayType) resolve(array.type)).getElementType();
+            ExpressionNode index = toInt(compileExpression(assignment.getIndex()));
+            ExpressionNode value = stored(kindOf(elementType),
+                convert(compileExpression(assignment.getValue()), elementType));
+            switch (kindOf(elementType).storage) {
+                case INT:
+                    return new WriteIntElement(read(array), index, value);
+                case REAL:
+                    return new WriteRealElement(read(array), index, value);
+                default:
+                    return new WriteObjectElement(read(array), index, value);
+            }
+        }
+        if (target.contains(".")) {
+            int dot = target.indexOf('.');
+            Variable record = lookup(target.substring(0, dot));
+            Variable field = layoutOf(record.type).getField(target.substring(dot + 1));
+            ExpressionNode value = stored(field.kind, convert(compileExpression(assignment.getValue()), field.type));
+            switch (field.kind.storage) {
+                case INT:
+                    return new WriteIntField(read(record), field.slot, value);
+                case REAL:
+                    return new WriteRealField(read(record), field.slot, value);
+                default:
+                    return new WriteObjectField(read(record), field.slot, value);
+            }
+        }
+        Variable variable = lookup(target);
+        return write(variable, convert(compileExpression(assignment.getValue()), variable.type));
+    }
+
+    private StatementNode compileForLoop(ForLoop loop) {
+        ExpressionNode start = toInt(compileExpression(loop.getRangeStart()));
+        // The loop variable lives in a scope of its own and is visible in the range end, as in the generated code
+        scopes.push(new HashMap<String, Variable>());
+        Variable variable = declare(loop.getVariable(), Type.INTEGER);
+        ExpressionNode end = toInt(compileExpression(loop.getRangeEnd()));
+        StatementNode body = compileBlock(loop.getBody(), true);
+        scopes.pop();
+        if (variable.global) {
+            throw new RuntimeException("Loops are only supported inside routines");
+        }
+        return new For(variable.slot, start, end, loop.isReverse(), body);
+    }
+
+    private StatementNode compileReturn(ReturnStatement stmt) {
+        if (currentRoutine == null || currentRoutine.returnKind == null || !stmt.hasExpression()) {
+            return new ReturnVoid();
+        }
+        RoutineDecl decl = symbolTable.getRoutine(currentRoutine.name);
+        ExpressionNode value = stored(currentRoutine.returnKind,
+            convert(compileExpression(stmt.getExpression()), decl.getReturnType()));
+        switch (currentRoutine.returnKind.storage) {
+            case INT:
+                return new ReturnInt(value);
+            case REAL:
+                return new ReturnReal(value);
+            default:
+                return new ReturnObject(value);
+        }
+    }
+
+    /**
+     * An expression node with the type of the value it produces.
+     */
+    private static final class Typed {
+        final ExpressionNode node;
+        final Type type;
+        final Kind kind;
+
+        Typed(ExpressionNode node, Type type, Kind kind) {
+            this.node = node;
+            this.type = type;
+            this.kind = kind;
+        }
+    }
+
+    private Typed typed(ExpressionNode node, Type type) {
+        return new Typed(node, type, kindOf(type));
+    }
+
+    private Typed compileExpression(Expression expr) {
+        if (expr instanceof IntegerLiteral) {
+            return typed(new IntConstant(((IntegerLiteral) expr).getValue()), Type.INTEGER);
+        }
+        if (expr instanceof RealLiteral) {
+            return typed(new RealConstant(((RealLiteral) expr).getValue()), Type.REAL);
+        }
+        if (expr instanceof BooleanLiteral) {
+            return typed(new BooleanConstant(((BooleanLiteral) expr).getValue()), Type.BOOLEAN);
+        }
+        if (expr instanceof StringLiteral) {
+            return typed(new ObjectConstant(((StringLiteral) expr).getValue()), Type.STRING);
+        }
+        if (expr instanceof VariableReference) {
+            Variable variable = lookup(((VariableReference) expr).getName());
+            return new Typed(read(variable), variable.type, variable.kind);
+        }
+        if (expr instanceof ArrayAccess) {
+            ArrayAccess access = (ArrayAccess) expr;
+            Variable array = lookup(access.getArray());
+            Type elementType = ((ArrayType) resolve(array.type)).getElementType();
+            ExpressionNode index = toInt(compileExpression(access.getIndex()));
+            switch (kindOf(elementType).storage) {
+                case INT:
+                    return typed(new ReadIntElement(read(array), index), elementType);
+                case REAL:
+                    return typed(new ReadRealElement(read(array), index), elementType);
+                default:
+                    return typed(new ReadObjectElement(read(array), index), elementType);
+            }
+        }
+        if (expr instanceof RecordAccess) {
+            RecordAccess access = (RecordAccess) expr;
+            Variable record = lookup(access.getRecord());
+            Variable field = layoutOf(record.type).getField(access.getField());
+            switch (field.kind.storage) {
+                case INT:
+                    return typed(new ReadIntField(read(record), field.slot), field.type);
+                case REAL:
+                    return typed(new ReadRealField(read(record), field.slot), field.type);
+                default:
+                    return typed(new ReadObjectField(read(record), field.slot), field.type);
+            }
+        }
+        if (expr instanceof RoutineCall) {
+            return compileCall((RoutineCall) expr);
+        }
+        if (expr instanceof TypeCast) {
+            TypeCast cast = (TypeCast) expr;
+            return typed(convert(compileExpression(cast.getExpression()), cast.getTargetType()), cast.getTargetType());
+        }
+        if (expr instanceof UnaryExpression) {
+            UnaryExpression unary = (UnaryExpression) expr;
+            Typed operand = compileExpression(unary.getExpression());
+            if (unary.getOperator() == Operator.NOT) {
+                return typed(new Not(toBoolean(operand)), Type.BOOLEAN);
+            }
+            if (operand.kind == Kind.REAL) {
+                return typed(new RealNegate(operand.node), Type.REAL);
+            }
+            return typed(new IntNegate(toInt(operand)), Type.INTEGER);
+        }
+        if (expr instanceof BinaryExpression) {
+            return compileBinary((BinaryExpression) expr);
+        }
+        throw new RuntimeException("Cannot interpret " + expr.getClass().getSimpleName());
+    }
+
+    private Typed compileCall(RoutineCall call) {
+        Routine routine = routines.get(call.getName());
+        RoutineDecl decl = symbolTable.getRoutine(call.getName());
+        if (routine == null || decl == null) {
+            throw new RuntimeException("Undefined routine: " + call.getName());
+        }
+
+        // Parameters occupy the first slots of the callee's frame in declaration order
+        int[] slots = new int[Kind.Storage.values().length];
+        Argument[] arguments = new Argument[decl.getParameters().size()];
+        for (int i = 0; i < arguments.length; i++) {
+            Type paramType = decl.getParameters().get(i).getType();
+            Kind kind = kindOf(paramType);
+            int slot = slots[kind.storage.ordinal()]++;
+            ExpressionNode value = stored(kind, convert(compileExpression(call.getArguments().get(i)), paramType));
+            switch (kind.storage) {
+                case INT:
+                    arguments[i] = new IntArgument(slot, value);
+                    break;
+                case REAL:
+                    arguments[i] = new RealArgument(slot, value);
+                    break;
+                default:
+                    arguments[i] = new ObjectArgument(slot, value);
+                    break;
+            }
+        }
+        Type returnType = decl.getReturnType() != null ? decl.getReturnType() : Type.VOID;
+        return new Typed(new Call(routine, arguments), returnType, routine.returnKind);
+    }
+
+    private Typed compileBinary(BinaryExpression binary) {
+        Operator operator = binary.getOperator();
+        Typed left = compileExpression(binary.getLeft());
+        Typed right = compileExpression(binary.getRight());
+
+        switch (operator) {
+            case AND:
+                return typed(new And(toBoolean(left), toBoolean(right)), Type.BOOLEAN);
+            case OR:
+                return typed(new Or(toBoolean(left), toBoolean(right)), Type.BOOLEAN);
+            case XOR:
+                return typed(new Xor(toBoolean(left), toBoolean(right)), Type.BOOLEAN);
+            default:
+                break;
+        }
+
+        boolean strings = left.kind == Kind.STRING || right.kind == Kind.STRING;
+        if (operator == Operator.ADD && strings) {
+            return typed(new Concatenate(toStringNode(left), toStringNode(right)), Type.STRING);
+        }
+        if (operator == Operator.EQUAL || operator == Operator.NOT_EQUAL) {
+            boolean equal = operator == Operator.EQUAL;
+            if (strings || left.kind == Kind.REFERENCE || right.kind == Kind.REFERENCE) {
+                ExpressionNode l = strings ? toStringNode(left) : left.node;
+                ExpressionNode r = strings ? toStringNode(right) : right.node;
+                return typed(equal ? new ObjectEqual(l, r) : new ObjectNotEqual(l, r), Type.BOOLEAN);
+            }
+            if (left.kind == Kind.BOOLEAN && right.kind == Kind.BOOLEAN) {
+                return typed(equal ? new BooleanEqual(left.node, right.node)
+                    : new BooleanNotEqual(left.node, right.node), Type.BOOLEAN);
+            }
+        }
+
+        if (left.kind == Kind.REAL || right.kind == Kind.REAL) {
+            ExpressionNode l = toReal(left);
+            ExpressionNode r = toReal(right);
+            switch (operator) {
+                case ADD: return typed(new RealAdd(l, r), Type.REAL);
+                case SUBTRACT: return typed(new RealSubtract(l, r), Type.REAL);
+                case MULTIPLY: return typed(new RealMultiply(l, r), Type.REAL);
+                case DIVIDE: return typed(new RealDivide(l, r), Type.REAL);
+                case MODULO: return typed(new RealModulo(l, r), Type.REAL);
+                case LESS: return typed(new RealLess(l, r), Type.BOOLEAN);
+                case LESS_OR_EQUAL: return typed(new RealLessOrEqual(l, r), Type.BOOLEAN);
+                case GREATER: return typed(new RealGreater(l, r), Type.BOOLEAN);
+                case GREATER_OR_EQUAL: return typed(new RealGreaterOrEqual(l, r), Type.BOOLEAN);
+                case EQUAL: return typed(new RealEqual(l, r), Type.BOOLEAN);
+                case NOT_EQUAL: return typed(new RealNotEqual(l, r), Type.BOOLEAN);
+                default: break;
+            }
+        } else {
+            ExpressionNode l = toInt(left);
+            ExpressionNode r = toInt(right);
+            switch (operator) {
+                case ADD: return typed(new IntAdd(l, r), Type.INTEGER);
+                case SUBTRACT: return typed(new IntSubtract(l, r), Type.INTEGER);
+                case MULTIPLY: return typed(new IntMultiply(l, r), Type.INTEGER);
+                case DIVIDE: return typed(new IntDivide(l, r), Type.INTEGER);
+                case MODULO: return typed(new IntModulo(l, r), Type.INTEGER);
+                case LESS: return typed(new IntLess(l, r), Type.BOOLEAN);
+                case LESS_OR_EQUAL: return typed(new IntLessOrEqual(l, r), Type.BOOLEAN);
+                case GREATER: return typed(new IntGreater(l, r), Type.BOOLEAN);
+                case GREATER_OR_EQUAL: return typed(new IntGreaterOrEqual(l, r), Type.BOOLEAN);
+                case EQUAL: return typed(new IntEqual(l, r), Type.BOOLEAN);
+                case NOT_EQUAL: return typed(new IntNotEqual(l, r), Type.BOOLEAN);
+                default: break;
+            }
+        }
+        throw new RuntimeException("Unknown operator: " + operator);
+    }
+
+    private ExpressionNode toInt(Typed value) {
+        switch (value.kind) {
+            case INTEGER:
+                return value.node;
+            case BOOLEAN:
+                return new BooleanToInt(value.node);
+            case REAL:
+                return new RealToInt(value.node);
+            default:
+                throw new RuntimeException("Cannot convert " + value.type + " to integer");
+        }
+    }
+
+    private ExpressionNode toReal(Typed value) {
+        switch (value.kind) {
+            case REAL:
+                return value.node;
+            case INTEGER:
+                return new IntToReal(value.node);
+            case BOOLEAN:
+                return new IntToReal(new BooleanToInt(value.node));
+            default:
+                throw new RuntimeException("Cannot convert " + value.type + " to real");
+        }
+    }
+
+    private ExpressionNode toBoolean(Typed value) {
+        switch (value.kind) {
+            case BOOLEAN:
+                return value.node;
+            case INTEGER:
+                return new IntToBoolean(value.node);
+            case REAL:
+                return new RealToBoolean(value.node);
+            default:
+                throw new RuntimeException("Cannot convert " + value.type + " to boolean");
+        }
+    }
+
+    private ExpressionNode toStringNode(Typed value) {
+        switch (value.kind) {
+            case STRING:
+                return value.node;
+            case INTEGER:
+                return new IntToString(value.node);
+            case REAL:
+                return new RealToString(value.node);
+            case BOOLEAN:
+                return new BooleanToString(value.node);
+            default:
+                return new ObjectToString(value.node);
+        }
+    }
+
+    /**
+     * Converts a value to the given type, as an assignment, argument or cast does.
+     */
+    private ExpressionNode convert(Typed value, Type type) {
+        switch (kindOf(type)) {
+            case INTEGER:
+                return toInt(value);
+            case REAL:
+                return toReal(value);
+            case BOOLEAN:
+                return toBoolean(value);
+            case STRING:
+                return toStringNode(value);
+            default:
+                return value.node;
+        }
+    }
+
+    /**
+     * Turns a value of the given kind into the form its storage holds: booleans become 0 or 1.
+     */
+    private static ExpressionNode stored(Kind kind, ExpressionNode value) {
+        return kind == Kind.BOOLEAN ? new BooleanToInt(value) : value;
+    }
+
+    /**
+     * Creates the node that builds the initial value of a variable of the given type.
+     */
+    private ExpressionNode initialValue(Type type) {
+        Type resolved = resolve(type);
+        if (resolved instanceof ArrayType) {
+            ArrayType arrayType = (ArrayType) resolved;
+            int size = arrayType.getSize() != null ? arrayType.getSize() : 0;
+            switch (kindOf(arrayType.getElementType()).storage) {
+                case INT:
+                    return new NewIntArray(size);
+                case REAL:
+                    return new NewRealArray(size);
+                default:
+                    return new NewObjectArray(size, initialValue(arrayType.getElementType()));
+            }
+        }
+        if (resolved instanceof RecordType) {
+            return new NewRecord(layoutOf(resolved));
+        }
+        switch (kindOf(resolved)) {
+            case INTEGER:
+                return new IntConstant(0);
+            case REAL:
+                return new RealConstant(0.0);
+            case BOOLEAN:
+                return new BooleanConstant(false);
+            case STRING:
+                return new ObjectConstant("");
+            default:
+                throw new RuntimeException("Unknown type: " + type);
+        }
+    }
+
+    private RecordLayout layoutOf(Type type) {
+        Type resolved = resolve(type);
+        if (!(resolved instanceof RecordType)) {
+            throw new RuntimeException("Not a record type: " + type);
+        }
+        RecordType recordType = (RecordType) resolved;
+        RecordLayout layout = recordLayouts.get(recordType);
+        if (layout == null) {
+            layout = new RecordLayout();
+            recordLayouts.put(recordType, layout);
+            for (Map.Entry<String, Type> field : recordType.getFieldEntries()) {
+                Kind kind = kindOf(field.getValue());
+                layout.addField(field.getKey(), field.getValue(), kind,
+                    kind.storage == Kind.Storage.OBJECT ? initialValue(field.getValue()) : null);
+            }
+        }
+        return layout;
+    }
+
+    /**
+     * Declares a variable in the innermost scope, or as a global at the top level,
+     * and gives it the next free slot of its storage.
+     */
+    private Variable declare(String name, Type type) {
+        Kind kind = kindOf(type);
+        if (currentRoutine == null) {
+            Variable variable = new Variable(type, kind, globalSlots[kind.storage.ordinal()]++, true);
+            globals.put(name, variable);
+            return variable;
+        }
+        Variable variable = new Variable(type, kind, frameSlots[kind.storage.ordinal()]++, false);
+        scopes.peek().put(name, variable);
+        return variable;
+    }
+
+    private Variable lookup(String name) {
+        for (Map<String, Variable> scope : scopes) {
+            Variable variable = scope.get(name);
+            if (variable != null) {
+                return variable;
+            }
+        }
+        Variable variable = globals.get(name);
+        if (variable == null) {
+            throw new RuntimeException("Undefined variable: " + name);
+        }
+        return variable;
+    }
+
+    /**
+     * Creates the node reading a variable. At the top level the running frame is the
+     * global frame, so globals are read like locals there.
+     */
+    private ExpressionNode read(Variable variable) {
+        boolean global = variable.global && currentRoutine != null;
+        switch (variable.kind.storage) {
+            case INT:
+                return global ? new ReadGlobalInt(variable.slot) : new ReadLocalInt(variable.slot);
+            case REAL:
+                return global ? new ReadGlobalReal(variable.slot) : new ReadLocalReal(variable.slot);
+            default:
+                return global ? new ReadGlobalObject(variable.slot) : new ReadLocalObject(variable.slot);
+        }
+    }
+
+    /**
+     * Creates the node storing a value, already converted to the variable's type, in a variable.
+     */
+    private StatementNode write(Variable variable, ExpressionNode value) {
+        boolean global = variable.global && currentRoutine != null;
+        ExpressionNode stored = stored(variable.kind, value);
+        switch (variable.kind.storage) {
+            case INT:
+                return global ? new WriteGlobalInt(variable.slot, stored) : new WriteLocalInt(variable.slot, stored);
+            case REAL:
+                return global ? new WriteGlobalReal(variable.slot, stored) : new WriteLocalReal(variable.slot, stored);
+            default:
+                return global ? new WriteGlobalObject(variable.slot, stored)
+                    : new WriteLocalObject(variable.slot, stored);
+        }
+    }
+
+    /**
+     * Replaces the name of a user-defined type with its definition.
+     */
+    private Type resolve(Type type) {
+        if (type instanceof SimpleType) {
+            Type definition = symbolTable.getTypeDefinition(((SimpleType) type).getName());
+            if (definition != null) {
+                return definition;
+            }
+        }
+        return type;
+    }
+
+    /**
+     * Gets the run-time kind of values of a type, or null for no type.
+     */
+    private Kind kindOf(Type type) {
+        if (type == null) {
+            return null;
+        }
+        Type resolved = resolve(type);
+        if (resolved == Type.INTEGER) {
+            return Kind.INTEGER;
+        } else if (resolved == Type.REAL) {
+            return Kind.REAL;
+        } else if (resolved == Type.BOOLEAN) {
+            return Kind.BOOLEAN;
+        } else if (resolved == Type.STRING) {
+            return Kind.STRING;
+        } else if (resolved == Type.VOID) {
+            return null;
+        }
+        return Kind.REFERENCE;
+    }
+}
@@ -0,0 +1,16 @@
+package com.compiler.interpreter;
+
+/**
+ * Run-time value of a record. Fields have slot indexes like variables in a frame.
+ */
+final class Record {
+    final int[] ints;
+    final double[] reals;
+    final Object[] objects;
+
+    Record(int intSlots, int realSlots, int objectSlots) {
+        this.ints = new int[intSlots];
+        this.reals = new double[realSlots];
+        this.objects = new Object[objectSlots];
+    }
+}
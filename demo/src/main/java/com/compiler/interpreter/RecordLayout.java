@@ -0,0 +1,59 @@
+package com.compiler.interpreter;
+
+import com.compiler.Type;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Slot assignment of the fields of a record type.
+ */
+final class RecordLayout {
+    private final Map<String, Variable> fields = new HashMap<>();
+    private final int[] slotCounts = new int[Kind.Storage.values().length];
+    /** Initial values of the object fields, indexed by slot */
+    private ExpressionNode[] objectDefaults = new ExpressionNode[0];
+
+    /**
+     * Adds a field and gives it the next slot of its kind's storage.
+     */
+    Variable addField(String name, Type type, Kind kind, ExpressionNode initialValue) {
+        Variable field = new Variable(type, kind, slotCounts[kind.storage.ordinal()]++, false);
+        fields.put(name, field);
+        if (kind.storage == Kind.Storage.OBJECT) {
+            ExpressionNode[] defaults = new ExpressionNode[field.slot + 1];
+            System.arraycopy(objectDefaults, 0, defaults, 0, objectDefaults.length);
+            defaults[field.slot] = initialValue;
+            objectDefaults = defaults;
+        }
+        return field;
+    }
+
+    /**
+     * Gets a field.
+     *
+     * @throws RuntimeException if the record has no such field
+     */
+    Variable getField(String name) {
+        Variable field = fields.get(name);
+        if (field == null) {
+            throw new RuntimeException("Unknown record field: " + name);
+        }
+        return field;
+    }
+
+    int getIntSlots() {
+        return slotCounts[Kind.Storage.INT.ordinal()];
+    }
+
+    int getRealSlots() {
+        return slotCounts[Kind.Storage.REAL.ordinal()];
+    }
+
+    int getObjectSlots() {
+        return slotCounts[Kind.Storage.OBJECT.ordinal()];
+    }
+
+    ExpressionNode[] getObjectDefaults() {
+        return objectDefaults;
+    }
+}
@@ -0,0 +1,23 @@
+package com.compiler.interpreter;
+
+/**
+ * A compiled routine: its body and the size of the frame it runs in.
+ * Calls refer to the routine object directly, so a call never looks up a name.
+ * The frame sizes and the body are filled in once the body has been compiled, which may be
+ * after calls to the routine have been compiled.
+ */
+final class Routine {
+    final String name;
+    /** Kind of the returned value, or null for a procedure */
+    final Kind returnKind;
+
+    int intSlots;
+    int realSlots;
+    int objectSlots;
+    StatementNode body;
+
+    Routine(String name, Kind returnKind) {
+        this.name = name;
+        this.returnKind = returnKind;
+    }
+}
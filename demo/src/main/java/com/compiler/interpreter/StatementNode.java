@@ -0,0 +1,14 @@
+package com.compiler.interpreter;
+
+/**
+ * Executable form of a statement.
+ */
+abstract class StatementNode {
+    /**
+     * Executes the statement.
+     *
+     * @param frame Frame of the running routine
+     * @return true if a return statement ran, so the enclosing routine must stop
+     */
+    abstract boolean execute(Frame frame);
+}
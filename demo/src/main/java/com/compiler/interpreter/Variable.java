@@ -0,0 +1,23 @@
+package com.compiler.interpreter;
+
+import com.compiler.Type;
+
+/**
+ * A variable or record field resolved to a slot.
+ */
+final class Variable {
+    /** Declared type, used to find element types and record layouts */
+    final Type type;
+    final Kind kind;
+    /** Index in the slot array for the kind's storage */
+    final int slot;
+    /** Whether the slot is in the global frame rather than in the routine's frame */
+    final boolean global;
+
+    Variable(Type type, Kind kind, int slot, boolean global) {
+        this.type = type;
+        this.kind = kind;
+        this.slot = slot;
+        this.global = global;
+    }
+}
@@ -0,0 +1,425 @@
+package com.compiler.interpreter;
+
+/**
+ * Reads and writes of variables, array elements and record fields. Variables are
+ * resolved to slots of the routine's frame or of the global frame when the program is
+ * compiled, so no name is looked up while it runs.
+ */
+final class VariableNodes {
+    private VariableNodes() {
+    }
+
+    /**
+     * Converts a 1-based source language index to a position in an array.
+     *
+     * @throws RuntimeException if the index is out of bounds
+     */
+    static int position(int length, int index) {
+        if (index < 1 || index > length) {
+            throw new RuntimeException("Array index out of bounds: " + index);
+        }
+        return index - 1;
+    }
+
+    /** Reads a variable of the running routine stored in an int slot */
+    static final class ReadLocalInt extends ExpressionNode {
+        private final int slot;
+
+        ReadLocalInt(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        int executeInt(Frame frame) {
+            return frame.ints[slot];
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return frame.ints[slot] != 0;
+        }
+    }
+
+    static final class ReadLocalReal extends ExpressionNode {
+        private final int slot;
+
+        ReadLocalReal(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        double executeReal(Frame frame) {
+            return frame.reals[slot];
+        }
+    }
+
+    static final class ReadLocalObject extends ExpressionNode {
+        private final int slot;
+
+        ReadLocalObject(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        Object executeObject(Frame frame) {
+            return frame.objects[slot];
+        }
+    }
+
+    /** Reads a global variable stored in an int slot */
+    static final class ReadGlobalInt extends ExpressionNode {
+        private final int slot;
+
+        ReadGlobalInt(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        int executeInt(Frame frame) {
+            return frame.globals.ints[slot];
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return frame.globals.ints[slot] != 0;
+        }
+    }
+
+    static final class ReadGlobalReal extends ExpressionNode {
+        private final int slot;
+
+        ReadGlobalReal(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        double executeReal(Frame frame) {
+            return frame.globals.reals[slot];
+        }
+    }
+
+    static final class ReadGlobalObject extends ExpressionNode {
+        private final int slot;
+
+        ReadGlobalObject(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        Object executeObject(Frame frame) {
+            return frame.globals.objects[slot];
+        }
+    }
+
+    static final class WriteLocalInt extends StatementNode {
+        private final int slot;
+        private final ExpressionNode value;
+
+        WriteLocalInt(int slot, ExpressionNode value) {
+            this.slot = slot;
+            this.value = value;
+        }
+
+        @Override
+        boolean execute(Frame frame) {
+            frame.ints[slot] = value.executeInt(frame);
+            return false;
+        }
+    }
+
+    static final class WriteLocalReal extends StatementNode {
+        private final int slot;
+        private final ExpressionNode value;
+
+        WriteLocalReal(int slot, ExpressionNode value) {
+            this.slot = slot;
+            this.value = value;
+        }
+
+        @Override
+        boolean execute(Frame frame) {
+            frame.reals[slot] = value.executeReal(frame);
+            return false;
+        }
+    }
+
+    static final class WriteLocalObject extends StatementNode {
+        private final int slot;
+        private final ExpressionNode value;
+
+        WriteLocalObject(int slot, ExpressionNode value) {
+            this.slot = slot;
+            this.value = value;
+        }
+
+        @Override
+        boolean execute(Frame frame) {
+            frame.objects[slot] = value.executeObject(frame);
+            return false;
+        }
+    }
+
+    static final class WriteGlobalInt extends StatementNode {
+        private final int slot;
+        private final ExpressionNode value;
+
+        WriteGlobalInt(int slot, ExpressionNode value) {
+            this.slot = slot;
+            this.value = value;
+        }
+
+        @Override
+        boolean execute(Frame frame) {
+            frame.globals.ints[slot] = value.executeInt(frame);
+            return false;
+        }
+    }
+
+    static final class WriteGlobalReal extends StatementNode {
+        private final int slot;
+        private final ExpressionNode value;
+
+        WriteGlobalReal(int slot, ExpressionNode value) {
+            this.slot = slot;
+            this.value = value;
+        }
+
+        @Override
+        boolean execute(Frame frame) {
+            frame.globals.reals[slot] = value.executeReal(frame);
+            return false;
+        }
+    }
+
+    static final class WriteGlobalObject extends StatementNode {
+        private final int slot;
+        private final ExpressionNode value;
+
+        WriteGlobalObject(int slot, ExpressionNode value) {
+            this.slot = slot;
+            this.value = value;
+        }
+
+        @Override
+        boolean execute(Frame frame) {
+            frame.globals.objects[slot] = value.executeObject(frame);
+            return false;
+        }
+    }
+
+    /** Reads an element of an integer or boolean array */
+    static final class ReadIntElement extends ExpressionNode {
+        private final ExpressionNode array;
+        private final ExpressionNode index;
+
+        ReadIntElement(ExpressionNode array, ExpressionNode index) {
+            this.array = array;
+            this.index = index;
+        }
+
+        @Override
+        int executeInt(Frame frame) {
+            int[] elements = (int[]) array.executeObject(frame);
+            return elements[position(elements.length, index.executeInt(frame))];
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return executeInt(frame) != 0;
+        }
+    }
+
+    static final class ReadRealElement extends ExpressionNode {
+        private final ExpressionNode array;
+        private final ExpressionNode index;
+
+        ReadRealElement(ExpressionNode array, ExpressionNode index) {
+            this.array = array;
+            this.index = index;
+        }
+
+        @Override
+        double executeReal(Frame frame) {
+            double[] elements = (double[]) array.executeObject(frame);
+            return elements[position(elements.length, index.executeInt(frame))];
+        }
+    }
+
+    static final class ReadObjectElement extends ExpressionNode {
+        private final ExpressionNode array;
+        private final ExpressionNode index;
+
+        ReadObjectElement(ExpressionNode array, ExpressionNode index) {
+            this.array = array;
+            this.index = index;
+        }
+
+        @Override
+        Object executeObject(Frame frame) {
+            Object[] elements = (Object[]) array.executeObject(frame);
+            return elements[position(elements.length, index.executeInt(frame))];
+        }
+    }
+
+    static final class WriteIntElement extends StatementNode {
+        private final ExpressionNode array;
+        private final ExpressionNode index;
+        private final ExpressionNode value;
+
+        WriteIntElement(ExpressionNode array, ExpressionNode index, ExpressionNode value) {
+            this.array = array;
+            this.index = index;
+            this.value = value;
+        }
+
+        @Override
+        boolean execute(Frame frame) {
+            int[] elements = (int[]) array.executeObject(frame);
+            elements[position(elements.length, index.executeInt(frame))] = value.executeInt(frame);
+            return false;
+        }
+    }
+
+    static final class WriteRealElement extends StatementNode {
+        private final ExpressionNode array;
+        private final ExpressionNode index;
+        private final ExpressionNode value;
+
+        WriteRealElement(ExpressionNode array, ExpressionNode index, ExpressionNode value) {
+            this.array = array;
+            this.index = index;
+            this.value = value;
+        }
+
+        @Override
+        boolean execute(Frame frame) {
+            double[] elements = (double[]) array.executeObject(frame);
+            elements[position(elements.length, index.executeInt(frame))] = value.executeReal(frame);
+            return false;
+        }
+    }
+
+    static final class WriteObjectElement extends StatementNode {
+        private final ExpressionNode array;
+        private final ExpressionNode index;
+        private final ExpressionNode value;
+
+        WriteObjectElement(ExpressionNode array, ExpressionNode index, ExpressionNode value) {
+            this.array = array;
+            this.index = index;
+            this.value = value;
+        }
+
+        @Override
+        boolean execute(Frame frame) {
+            Object[] elements = (Object[]) array.executeObject(frame);
+            elements[position(elements.length, index.executeInt(frame))] = value.executeObject(frame);
+            return false;
+        }
+    }
+
+    /** Reads an integer or boolean field of a record */
+    static final class ReadIntField extends ExpressionNode {
+        private final ExpressionNode record;
+        private final int slot;
+
+        ReadIntField(ExpressionNode record, int slot) {
+            this.record = record;
+            this.slot = slot;
+        }
+
+        @Override
+        int executeInt(Frame frame) {
+            return ((Record) record.executeObject(frame)).ints[slot];
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) {
+            return ((Record) record.executeObject(frame)).ints[slot] != 0;
+        }
+    }
+
+    static final class ReadRealField extends ExpressionNode {
+        private final ExpressionNode record;
+        private final int slot;
+
+        ReadRealField(ExpressionNode record, int slot) {
+            this.record = record;
+            this.slot = slot;
+        }
+
+        @Override
+        double executeReal(Frame frame) {
+            return ((Record) record.executeObject(frame)).reals[slot];
+        }
+    }
+
+    static final class ReadObjectField extends ExpressionNode {
+        private final ExpressionNode record;
+        private final int slot;
+
+        ReadObjectField(ExpressionNode record, int slot) {
+            this.record = record;
+            this.slot = slot;
+        }
+
+        @Override
+        Object executeObject(Frame frame) {
+            return ((Record) record.executeObject(frame)).objects[slot];
+        }
+    }
+
+    static final class WriteIntField extends StatementNode {
+        private final ExpressionNode record;
+        private final int slot;
+        private final ExpressionNode value;
+
+        WriteIntField(ExpressionNode record, int slot, ExpressionNode value) {
+            this.record = record;
+            this.slot = slot;
+            this.value = value;
+        }
+
+        @Override
+        boolean execute(Frame frame) {
+            ((Record) record.executeObject(frame)).ints[slot] = value.executeInt(frame);
+            return false;
+        }
+    }
+
+    static final class WriteRealField extends StatementNode {
+        private final ExpressionNode record;
+        private final int slot;
+        private final ExpressionNode value;
+
+        WriteRealField(ExpressionNode record, int slot, ExpressionNode value) {
+            this.record = record;
+            this.slot = slot;
+            this.value = value;
+        }
+
+        @Override
+        boolean execute(Frame frame) {
+            ((Record) record.executeObject(frame)).reals[slot] = value.executeReal(frame);
+            return false;
+        }
+    }
+
+    static final class WriteObjectField extends StatementNode {
+        private final ExpressionNode record;
+        private final int slot;
+        private final ExpressionNode value;
+
+        WriteObjectField(ExpressionNode record, int slot, ExpressionNode value) {
+            this.record = record;
+            this.slot = slot;
+            this.value = value;
+        }
+
+        @Override
+        boolean execute(Frame frame) {
+            ((Record) record.executeObject(frame)).objects[slot] = value.executeObject(frame);
+            return false;
+        }
+    }
+}
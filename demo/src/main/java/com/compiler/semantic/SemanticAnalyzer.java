@@ -2,6 +2,10 @@ package com.compiler.semantic;
 
 import com.compiler.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * The SemanticAnalyzer performs semantic analysis on the AST to check for:
@@ -10,9 +14,17 @@ import java.util.*;
  * - Function/routine declarations and calls
  * - Control flow analysis
  * - Constant expression optimization
- * - Unused variable detection
  */
 public class SemanticAnalyzer {
+    /** Number of threads that analyze routine bodies by default */
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    /** Fewest routine bodies worth handing to another thread, by default */
+    private static final int MIN_CHUNK_ROUTINES = 64;
+
+    /** Worker threads analyzing routine bodies in parallel, created on first use */
+    private static ExecutorService workers;
+
     /** Symbol table to track variables and their types across different scopes */
     private SymbolTable symbolTable;
 
@@ -22,8 +34,6 @@ public class SemanticAnalyzer {
     /** Stack to track the expected return types when analyzing nested routines */
     private Stack<Type> expectedReturnTypes;
 
-    /** Set of variables that are referenced in the code */
-    private Set<String> usedVariables;
 
     /** Flag indicating whether the current analysis context is inside a loop structure */
     private boolean insideLoop;
@@ -33,6 +43,11 @@ public class SemanticAnalyzer {
     /** Flags to track context during analysis */
     private boolean debug;  // Add debug flag
 
+    /** Most threads to analyze routine bodies on */
+    private int parallelism = PARALLELISM;
+    /** Fewest routine bodies handed to one thread */
+    private int minChunkRoutines = MIN_CHUNK_ROUTINES;
+
     /**
      * Creates a new semantic analyzer with empty state
      */
@@ -40,7 +55,6 @@ public class SemanticAnalyzer {
         this.symbolTable = new SymbolTable();
         this.errors = new ArrayList<>();
         this.expectedReturnTypes = new Stack<>();
-        this.usedVariables = new HashSet<>();
         this.insideLoop = false;
         this.insideRoutine = false;
         this.debug = debug;
@@ -51,6 +65,44 @@ public class SemanticAnalyzer {
         this(false);
     }
 
+    /**
+     * Creates an analyzer of routine bodies that works on its own scopes over a frozen
+     * view of the global symbol table.
+     */
+    private SemanticAnalyzer(SymbolTable frozen) {
+        this(false);
+        this.symbolTable = frozen;
+    }
+
+    /**
+     * Sets the most threads routine bodies are analyzed on. With more than one, once the
+     * global declarations are collected, the bodies of a program with many routines are
+     * checked in parallel; the errors are the same, in the same order, as with one.
+     * Bodies are always analyzed in turn in debug mode, so that the log stays in order.
+     *
+     * @param parallelism Number of threads, at least 1
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets the fewest routine bodies worth handing to another thread; programs with fewer
+     * routines than this for two threads are analyzed in turn. Lowering it splits even
+     * small programs, which checks that splitting does not change the outcome.
+     *
+     * @param minChunkRoutines Number of routines, at least 1
+     */
+    public void setMinChunkRoutines(int minChunkRoutines) {
+        if (minChunkRoutines < 1) {
+            throw new IllegalArgumentException("Chunks must hold at least 1 routine: " + minChunkRoutines);
+        }
+        this.minChunkRoutines = minChunkRoutines;
+    }
+
     private void debugLog(String message) {
         if (debug) {
             System.err.println("[DEBUG] Semantic Analysis: " + message);
@@ -62,63 +114,83 @@ public class SemanticAnalyzer {
      * Performs semantic analysis and returns list of any errors found.
      */
     public List<SemanticError> analyze(Program program) {
+        return analyze(program, null);
+    }
+
+    /**
+     * Analyzes a program, skipping the bodies of routines analyzed before.
+     * The body of a routine found in the given map is not visited again; the errors stored
+     * for it are reported instead. The errors found in the body of each other routine are
+     * stored in the map. This is only correct if nothing a stored routine refers to has
+     * changed since it was analyzed, and the types resolved in it are still set.
+     *
+     * @param program The program to analyze
+     * @param bodyErrors Errors found in the body of each routine, keyed by the routine
+     *                   itself; null to analyze every body without storing anything
+     * @return The errors, in the same order as {@link #analyze(Program)} reports them
+     */
+    public List<SemanticError> analyze(Program program, Map<RoutineDecl, List<SemanticError>> bodyErrors) {
         debugLog("Starting semantic analysis");
         errors.clear();
         symbolTable.clear();
-        usedVariables.clear();
         
         // Create global scope
         symbolTable.enterScope();
         debugLog("Entered global scope");
         
+        DeclarationIndex declarations = program.getDeclarations();
+
         // First pass: collect all routine declarations
         debugLog("First pass: collecting routine declarations");
-        for (Statement stmt : program.getStatements()) {
-            if (stmt instanceof RoutineDecl) {
-                RoutineDecl routine = (RoutineDecl) stmt;
-                debugLog("Found routine declaration: " + routine.getName());
-                if (!symbolTable.declareRoutine(routine.getName(), routine)) {
-                    errors.add(new SemanticError("Routine " + routine.getName() + " is already defined"));
-                }
+        for (RoutineDecl routine : declarations.getRoutines()) {
+            debugLog("Found routine declaration: " + routine.getName());
+            if (!symbolTable.declareRoutine(routine.getName(), routine)) {
+                errors.add(new SemanticError("Routine " + routine.getName() + " is already defined"));
             }
         }
         
         // Second pass: collect all type declarations
         debugLog("Second pass: collecting type declarations");
-        for (Statement stmt : program.getStatements()) {
-            if (stmt instanceof TypeDecl) {
-                debugLog("Processing type declaration");
-                visitTypeDecl((TypeDecl) stmt);
-            }
+        for (TypeDecl typeDecl : declarations.getTypes()) {
+            debugLog("Processing type declaration");
+            visitTypeDecl(typeDecl);
         }
         
         // Third pass: collect all variable declarations
         debugLog("Third pass: collecting variable declarations");
-        for (Statement stmt : program.getStatements()) {
-            if (stmt instanceof VarDecl || stmt instanceof ArrayDecl) {
-                debugLog("Processing variable/array declaration");
-                visitStatement(stmt);
-            }
+        for (Statement stmt : declarations.getVariables()) {
+            debugLog("Processing variable/array declaration");
+            visitStatement(stmt);
         }
         
         // Fourth pass: analyze routine bodies
         debugLog("Fourth pass: analyzing routine bodies");
-        for (Statement stmt : program.getStatements()) {
-            if (stmt instanceof RoutineDecl) {
-                debugLog("Analyzing routine body: " + ((RoutineDecl) stmt).getName());
-                visitRoutineBody((RoutineDecl) stmt);
+        Map<RoutineDecl, List<SemanticError>> analyzed = analyzeBodiesConcurrently(declarations.getRoutines(), bodyErrors);
+        for (RoutineDecl routine : declarations.getRoutines()) {
+            List<SemanticError> previous = bodyErrors != null ? bodyErrors.get(routine) : null;
+            if (previous != null) {
+                debugLog("Reusing analysis of routine body: " + routine.getName());
+                errors.addAll(previous);
+                continue;
+            }
+            List<SemanticError> routineErrors = analyzed.get(routine);
+            if (routineErrors != null) {
+                errors.addAll(routineErrors);
+            } else {
+                debugLog("Analyzing routine body: " + routine.getName());
+                int firstError = errors.size();
+                visitRoutineBody(routine);
+                routineErrors = new ArrayList<>(errors.subList(firstError, errors.size()));
+            }
+            if (bodyErrors != null) {
+                bodyErrors.put(routine, routineErrors);
             }
         }
         
         // Fifth pass: analyze remaining statements
         debugLog("Fifth pass: analyzing remaining statements");
-        for (Statement stmt : program.getStatements()) {
-            if (!(stmt instanceof TypeDecl) && 
-                !(stmt instanceof VarDecl) && 
-                !(stmt instanceof ArrayDecl) && 
-                !(stmt instanceof RoutineDecl)) {
-                visitStatement(stmt);
-            }
+        for (Statement stmt : declarations.getOthers()) {
+            visitStatement(stmt);
         }
         
         // Exit global scope
@@ -135,37 +207,90 @@ public class SemanticAnalyzer {
     }
 
     /**
-     * Visits each statement in the program to perform semantic analysis
+     * Analyzes the bodies of the routines not analyzed before in parallel, if there are
+     * enough of them. A body only adds to its own scopes, so each thread checks a run of
+     * routines with its own analyzer over a frozen view of the global declarations.
+     *
+     * @return The errors found in the body of each routine analyzed, empty if the
+     *         bodies are to be analyzed in turn
      */
-    private void visit(Program program) {
-        // First pass: collect all type declarations
-        for (Statement stmt : program.getStatements()) {
-            if (stmt instanceof TypeDecl) {
-                visitTypeDecl((TypeDecl) stmt);
+    private Map<RoutineDecl, List<SemanticError>> analyzeBodiesConcurrently(
+            List<RoutineDecl> routines, Map<RoutineDecl, List<SemanticError>> bodyErrors) {
+        Map<RoutineDecl, List<SemanticError>> analyzed = new IdentityHashMap<>();
+        List<RoutineDecl> pending = new ArrayList<>();
+        for (RoutineDecl routine : routines) {
+            if (bodyErrors == null || bodyErrors.get(routine) == null) {
+                pending.add(routine);
             }
         }
+        int chunks = debug ? 1 : Math.min(parallelism, pending.size() / minChunkRoutines);
+        if (chunks <= 1) {
+            return analyzed;
+        }
 
-        // Second pass: collect routine declarations
-        for (Statement stmt : program.getStatements()) {
-            if (stmt instanceof RoutineDecl) {
-                RoutineDecl routine = (RoutineDecl) stmt;
-                symbolTable.declareRoutine(routine.getName(), routine);
+        // The workers take all runs but the last, which this thread analyzes meanwhile.
+        // Each analyzer gets a view of its own, since the scopes of a body are entered in it
+        SemanticAnalyzer[] analyzers = new SemanticAnalyzer[chunks];
+        List<Future<List<List<SemanticError>>>> results = new ArrayList<>();
+        for (int i = 0; i < chunks; i++) {
+            SemanticAnalyzer analyzer = new SemanticAnalyzer(symbolTable.frozenView());
+            List<RoutineDecl> run = pending.subList(pending.size() * i / chunks, pending.size() * (i + 1) / chunks);
+            analyzers[i] = analyzer;
+            if (i < chunks - 1) {
+                results.add(workers().submit(() -> analyzer.analyzeBodies(run)));
             }
         }
+        List<RoutineDecl> lastRun = pending.subList(pending.size() * (chunks - 1) / chunks, pending.size());
+        List<List<SemanticError>> last = analyzers[chunks - 1].analyzeBodies(lastRun);
 
-        // Third pass: analyze all other statements
-        for (Statement stmt : program.getStatements()) {
-            if (!(stmt instanceof TypeDecl) && !(stmt instanceof RoutineDecl)) {
-                visitStatement(stmt);
+        int next = 0;
+        for (int i = 0; i < chunks; i++) {
+            List<List<SemanticError>> found = i < chunks - 1 ? await(results.get(i)) : last;
+            for (List<SemanticError> routineErrors : found) {
+                analyzed.put(pending.get(next++), routineErrors);
             }
         }
+        return analyzed;
+    }
 
-        // Fourth pass: analyze routine bodies
-        for (Statement stmt : program.getStatements()) {
-            if (stmt instanceof RoutineDecl) {
-                visitRoutineDecl((RoutineDecl) stmt);
+    /**
+     * Analyzes the bodies of routines in turn.
+     *
+     * @return The errors found in the body of each routine
+     */
+    private List<List<SemanticError>> analyzeBodies(List<RoutineDecl> routines) {
+        List<List<SemanticError>> found = new ArrayList<>(routines.size());
+        for (RoutineDecl routine : routines) {
+            int firstError = errors.size();
+            visitRoutineBody(routine);
+            found.add(new ArrayList<>(errors.subList(firstError, errors.size())));
+        }
+        return found;
+    }
+
+    private static List<List<SemanticError>> await(Future<List<List<SemanticError>>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while analyzing routine bodies", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
             }
+            throw new IllegalStateException("Error analyzing routine bodies: " + e.getCause(), e.getCause());
+        }
+    }
+
+    private static synchronized ExecutorService workers() {
+        if (workers == null) {
+            workers = Executors.newFixedThreadPool(PARALLELISM, task -> {
+                Thread thread = new Thread(task, "semantic-analyzer");
+                thread.setDaemon(true);
+                return thread;
+            });
         }
+        return workers;
     }
 
     /**
@@ -175,27 +300,69 @@ public class SemanticAnalyzer {
      */
     private void visitStatement(Statement stmt) {
         debugLog("Visiting statement: " + stmt.getClass().getSimpleName());
-        if (stmt instanceof VarDecl) {
-            visitVarDecl((VarDecl) stmt);
-        } else if (stmt instanceof ArrayDecl) {
-            visitArrayDecl((ArrayDecl) stmt);
-        } else if (stmt instanceof Assignment) {
-            visitAssignment((Assignment) stmt);
-        } else if (stmt instanceof IfStatement) {
-            visitIfStatement((IfStatement) stmt);
-        } else if (stmt instanceof WhileStatement) {
-            visitWhileStatement((WhileStatement) stmt);
-        } else if (stmt instanceof ForLoop) {
-            visitForLoop((ForLoop) stmt);
-        } else if (stmt instanceof PrintStatement) {
-            visitPrintStatement((PrintStatement) stmt);
-        } else if (stmt instanceof ReturnStatement) {
-            visitReturnStatement((ReturnStatement) stmt);
-        } else if (stmt instanceof RoutineCallStatement) {
-            visitRoutineCallStatement((RoutineCallStatement) stmt);
-        }
+        stmt.accept(statementChecker);
     }
 
+    /**
+     * Calls the visit method for each kind of statement that is checked outside the
+     * declaration passes; other statements are skipped.
+     */
+    private final AstVisitor<Void> statementChecker = new AstVisitor<Void>() {
+        @Override
+        public Void visitVarDecl(VarDecl stmt) {
+            SemanticAnalyzer.this.visitVarDecl(stmt);
+            return null;
+        }
+
+        @Override
+        public Void visitArrayDecl(ArrayDecl stmt) {
+            SemanticAnalyzer.this.visitArrayDecl(stmt);
+            return null;
+        }
+
+        @Override
+        public Void visitAssignment(Assignment stmt) {
+            SemanticAnalyzer.this.visitAssignment(stmt);
+            return null;
+        }
+
+        @Override
+        public Void visitIfStatement(IfStatement stmt) {
+            SemanticAnalyzer.this.visitIfStatement(stmt);
+            return null;
+        }
+
+        @Override
+        public Void visitWhileStatement(WhileStatement stmt) {
+            SemanticAnalyzer.this.visitWhileStatement(stmt);
+            return null;
+        }
+
+        @Override
+        public Void visitForLoop(ForLoop stmt) {
+            SemanticAnalyzer.this.visitForLoop(stmt);
+            return null;
+        }
+
+        @Override
+        public Void visitPrintStatement(PrintStatement stmt) {
+            SemanticAnalyzer.this.visitPrintStatement(stmt);
+            return null;
+        }
+
+        @Override
+        public Void visitReturnStatement(ReturnStatement stmt) {
+            SemanticAnalyzer.this.visitReturnStatement(stmt);
+            return null;
+        }
+
+        @Override
+        public Void visitRoutineCallStatement(RoutineCallStatement stmt) {
+            SemanticAnalyzer.this.visitRoutineCallStatement(stmt);
+            return null;
+        }
+    };
+
     /**
      * Checks variable declarations for:
      * - Duplicate declarations in same scope
@@ -229,6 +396,9 @@ public class SemanticAnalyzer {
 
         // Add variable to symbol table
         symbolTable.declareVariable(decl.getName(), declaredType);
+
+        // Resolve the initializer's type for code generation
+        getExpressionType(decl.getInitializer());
     }
 
     /**
@@ -255,7 +425,7 @@ public class SemanticAnalyzer {
             
             // Check index type (must be integer)
             Type indexType = getExpressionType(assign.getIndex());
-            if (!(indexType instanceof SimpleType && ((SimpleType)indexType).getName().equals("integer"))) {
+            if (indexType != Type.INTEGER) {
                 errors.add(new SemanticError("Array index must be an integer"));
                 return;
             }
@@ -268,8 +438,6 @@ public class SemanticAnalyzer {
                 errors.add(new SemanticError("Type mismatch in array assignment: cannot assign value of type " +
                         valueType + " to array element of type " + elementType));
             }
-            
-            usedVariables.add(target);
             return;
         }
         
@@ -317,9 +485,6 @@ public class SemanticAnalyzer {
                 errors.add(new SemanticError("Type mismatch in assignment: cannot assign value of type " +
                         valueType + " to field of type " + fieldType));
             }
-            
-            // Mark record as used
-            usedVariables.add(recordName);
             return;
         }
         
@@ -336,8 +501,6 @@ public class SemanticAnalyzer {
             errors.add(new SemanticError("Type mismatch in assignment: cannot assign value of type " +
                     valueType + " to variable of type " + targetType));
         }
-
-        usedVariables.add(target);
     }
 
     /**
@@ -394,6 +557,10 @@ public class SemanticAnalyzer {
             errors.add(new SemanticError("Undefined loop variable " + forLoop.getVariable()));
         }
 
+        // Resolve the types of the range bounds
+        getExpressionType(forLoop.getRangeStart());
+        getExpressionType(forLoop.getRangeEnd());
+
         // Visit the body of the loop
         for (Statement stmt : forLoop.getBody()) {
             visitStatement(stmt);
@@ -461,7 +628,7 @@ public class SemanticAnalyzer {
             
             // Check index type
             Type indexType = getExpressionType(access.getIndex());
-            if (!(indexType instanceof SimpleType && ((SimpleType)indexType).getName().equals("integer"))) {
+            if (indexType != Type.INTEGER) {
                 errors.add(new SemanticError("Array index must be an integer"));
                 return;
             }
@@ -477,9 +644,6 @@ public class SemanticAnalyzer {
         if (!symbolTable.isDefined(readStmt.getVariable())) {
             errors.add(new SemanticError("Undefined variable " + readStmt.getVariable()));
         }
-
-        // Mark variable as used
-        usedVariables.add(readStmt.getVariable());
     }
 
     /**
@@ -528,7 +692,7 @@ public class SemanticAnalyzer {
         // Check if non-void routine has a return statement
         Type returnType = routine.getReturnType();
         if (returnType != null &&
-                !(returnType instanceof SimpleType && ((SimpleType) returnType).getName().equals("void")) &&
+                returnType != Type.VOID &&
                 !hasReturnStatement(routine.getBody())) {
             errors.add(new SemanticError("Routine '" + routine.getName() + "' must return a value"));
         }
@@ -565,15 +729,31 @@ public class SemanticAnalyzer {
     }
 
     /**
-     * Determines the type of an expression through recursive analysis
+     * Determines the type of an expression through recursive analysis.
+     * The type is stored on the expression, so each expression is typed once and the
+     * phases after analysis read {@link Expression#getResolvedType()}.
      */
     private Type getExpressionType(Expression expr) {
         if (expr == null) {
             return null;
         }
+        Type type = expr.getResolvedType();
+        if (type == null) {
+            type = expr.accept(expressionTyper);
+            expr.setResolvedType(type);
+        }
+        return type;
+    }
 
-        if (expr instanceof ArrayAccess) {
-            ArrayAccess access = (ArrayAccess) expr;
+    /** Computes the type of each kind of expression, reporting errors on the way */
+    private final AstVisitor<Type> expressionTyper = new ExpressionTyper();
+
+    /**
+     * Type rules for each kind of expression; expressions without a rule have no type.
+     */
+    private class ExpressionTyper implements AstVisitor<Type> {
+        @Override
+        public Type visitArrayAccess(ArrayAccess access) {
             String arrayName = access.getArray();
             
             if (!symbolTable.isDefined(arrayName)) {
@@ -589,28 +769,26 @@ public class SemanticAnalyzer {
             
             // Check index type
             Type indexType = getExpressionType(access.getIndex());
-            if (!(indexType instanceof SimpleType && ((SimpleType)indexType).getName().equals("integer"))) {
+            if (indexType != Type.INTEGER) {
                 errors.add(new SemanticError("Array index must be an integer"));
                 return null;
             }
-            
-            usedVariables.add(arrayName);
             return ((ArrayType)arrayType).getElementType();
         }
 
-        if (expr instanceof VariableReference) {
-            String varName = ((VariableReference) expr).getName();
+        @Override
+        public Type visitVariableReference(VariableReference expr) {
+            String varName = expr.getName();
             if (!symbolTable.isDefined(varName)) {
                 errors.add(new SemanticError("Undefined variable '" + varName + "'"));
                 return null;
             }
             Type type = symbolTable.getType(varName);
-            usedVariables.add(varName);
             return type;
         }
 
-        if (expr instanceof RecordAccess) {
-            RecordAccess access = (RecordAccess) expr;
+        @Override
+        public Type visitRecordAccess(RecordAccess access) {
             Type recordType = symbolTable.getType(access.getRecord());
             
             if (recordType == null) {
@@ -644,8 +822,8 @@ public class SemanticAnalyzer {
             return record.getFieldType(access.getField());
         }
 
-        if (expr instanceof TypeCast) {
-            TypeCast cast = (TypeCast) expr;
+        @Override
+        public Type visitTypeCast(TypeCast cast) {
             Type sourceType = getExpressionType(cast.getExpression());
             Type targetType = cast.getTargetType();
 
@@ -658,87 +836,65 @@ public class SemanticAnalyzer {
             }
         }
 
-        if (expr instanceof RoutineCall) {
-            return getRoutineCallType((RoutineCall) expr);
+        @Override
+        public Type visitRoutineCall(RoutineCall call) {
+            return getRoutineCallType(call);
         }
 
-        if (expr instanceof IntegerLiteral) {
-            return new SimpleType("integer");
-        } else if (expr instanceof RealLiteral) {
-            // Handle float literals
-            String value = expr.toString();
-            if (value.contains(".")) {
-                return new SimpleType("float");
-            }
-            return new SimpleType("real");
-        } else if (expr instanceof BooleanLiteral) {
-            return new SimpleType("boolean");
-        } else if (expr instanceof StringLiteral) {
-            return new SimpleType("string");
-        } else if (expr instanceof BinaryExpression) {
-            BinaryExpression binExpr = (BinaryExpression) expr;
+        @Override
+        public Type visitIntegerLiteral(IntegerLiteral expr) {
+            return Type.INTEGER;
+        }
+
+        @Override
+        public Type visitRealLiteral(RealLiteral expr) {
+            return Type.REAL;
+        }
+
+        @Override
+        public Type visitBooleanLiteral(BooleanLiteral expr) {
+            return Type.BOOLEAN;
+        }
+
+        @Override
+        public Type visitStringLiteral(StringLiteral expr) {
+            return Type.STRING;
+        }
+
+        @Override
+        public Type visitBinaryOperation(BinaryOperation binOp) {
+            return analyzeBinaryOperation(binOp);
+        }
+
+        @Override
+        public Type visitBinaryExpression(BinaryExpression binExpr) {
             Type leftType = getExpressionType(binExpr.getLeft());
             Type rightType = getExpressionType(binExpr.getRight());
-            String operator = binExpr.getOperator();
-
-            // Comparison operators always return boolean
-            if (operator.equals(">") || operator.equals("<") ||
-                    operator.equals(">=") || operator.equals("<=") ||
-                    operator.equals("=") || operator.equals("!=")) {
-                // Check if operands are comparable (both numeric)
-                if (isNumeric(leftType) && isNumeric(rightType)) {
-                    return new SimpleType("boolean");
-                }
-                return new SimpleType("boolean"); // Return boolean type even if operands are invalid
-            }
+            Operator operator = binExpr.getOperator();
 
-            // Logical operators require boolean operands and return boolean
-            if (operator.equals("and") || operator.equals("or") || operator.equals("xor")) {
-                if (!isBoolean(leftType) || !isBoolean(rightType)) {
-                    errors.add(new SemanticError("Logical operators require boolean operands"));
-                }
-                return new SimpleType("boolean");
+            // Logical operators require boolean operands
+            if (operator.isLogical() && (!isBoolean(leftType) || !isBoolean(rightType))) {
+                errors.add(new SemanticError("Logical operators require boolean operands"));
             }
+            return operator.resultType(leftType, rightType);
+        }
 
-            // For arithmetic operations
-            if (leftType instanceof SimpleType && rightType instanceof SimpleType) {
-                String leftName = ((SimpleType) leftType).getName();
-                String rightName = ((SimpleType) rightType).getName();
-
-                if (leftName.equals("integer") && rightName.equals("integer")) {
-                    return new SimpleType("integer");
-                }
-                if ((leftName.equals("integer") || leftName.equals("real")) &&
-                        (rightName.equals("integer") || rightName.equals("real"))) {
-                    return new SimpleType("real");
-                }
-            }
-            return leftType;
-        } else if (expr instanceof UnaryExpression) {
-            UnaryExpression unaryExpr = (UnaryExpression) expr;
+        @Override
+        public Type visitUnaryExpression(UnaryExpression unaryExpr) {
             Type operandType = getExpressionType(unaryExpr.getExpression());
 
-            if (unaryExpr.getOperator().equals("not")) {
-                if (!isBoolean(operandType)) {
-                    errors.add(new SemanticError("Not operator requires boolean operand"));
-                }
-                return new SimpleType("boolean");
+            if (unaryExpr.getOperator() == Operator.NOT && !isBoolean(operandType)) {
+                errors.add(new SemanticError("Not operator requires boolean operand"));
             }
-
-            return operandType;
+            return unaryExpr.getOperator().resultType(operandType, null);
         }
-        return null;
     }
 
     /**
      * Checks if a type is numeric (integer or real)
      */
     private boolean isNumeric(Type type) {
-        if (type instanceof SimpleType) {
-            String typeName = ((SimpleType) type).getName();
-            return typeName.equals("integer") || typeName.equals("real");
-        }
-        return false;
+        return type == Type.INTEGER || type == Type.REAL;
     }
 
     /**
@@ -790,13 +946,11 @@ public class SemanticAnalyzer {
         }
 
         if (type instanceof SimpleType) {
-            String typeName = ((SimpleType) type).getName();
-            return typeName.equals("integer") || 
-                   typeName.equals("real") || 
-                   typeName.equals("float") || 
-                   typeName.equals("boolean") || 
-                   typeName.equals("string") ||
-                   symbolTable.isTypeDefined(typeName);
+            return type == Type.INTEGER ||
+                   type == Type.REAL ||
+                   type == Type.BOOLEAN ||
+                   type == Type.STRING ||
+                   symbolTable.isTypeDefined(((SimpleType) type).getName());
         } else if (type instanceof ArrayType) {
             ArrayType arrayType = (ArrayType) type;
             return isValidType(arrayType.getElementType());
@@ -821,6 +975,11 @@ public class SemanticAnalyzer {
             return false;
         }
 
+        // Types are canonical, so equal types are the same instance
+        if (expected == actual) {
+            return true;
+        }
+
         // Handle array type compatibility
         if (expected instanceof ArrayType && actual instanceof ArrayType) {
             ArrayType expectedArray = (ArrayType) expected;
@@ -829,23 +988,9 @@ public class SemanticAnalyzer {
                    isTypeCompatible(expectedArray.getElementType(), actualArray.getElementType());
         }
 
-        // Handle simple types
-        if (expected instanceof SimpleType && actual instanceof SimpleType) {
-            String expectedName = ((SimpleType) expected).getName();
-            String actualName = ((SimpleType) actual).getName();
-
-            // Direct type match
-            if (expectedName.equals(actualName)) {
-                return true;
-            }
-
-            // Numeric type conversions
-            if (expectedName.equals("float")) {
-                return actualName.equals("integer") || actualName.equals("real");
-            }
-            if (expectedName.equals("real")) {
-                return actualName.equals("integer") || actualName.equals("float");
-            }
+        // Numeric type conversions
+        if (expected == Type.REAL) {
+            return actual == Type.INTEGER;
         }
 
         return false;
@@ -855,57 +1000,83 @@ public class SemanticAnalyzer {
      * Checks if a type is boolean
      */
     private boolean isBoolean(Type type) {
-        if (type instanceof SimpleType) {
-            return ((SimpleType) type).getName().equals("boolean");
-        }
-        return false;
+        return type == Type.BOOLEAN;
     }
 
     /**
-     * Removes unused variable declarations from the program
+     * Optimizes constant expressions within a statement
      */
-    private void removeUnusedVariables(Program program) {
-        Iterator<Statement> iterator = program.getStatements().iterator();
-        while (iterator.hasNext()) {
-            Statement stmt = iterator.next();
-            if (stmt instanceof VarDecl) {
-                VarDecl varDecl = (VarDecl) stmt;
-                if (!usedVariables.contains(varDecl.getName())) {
-                    iterator.remove();
-                }
-            }
-        }
+    private void optimizeStatement(Statement stmt) {
+        stmt.accept(constantFolder);
     }
 
     /**
-     * Optimizes constant expressions in the program
+     * Attempts to optimize constant expressions
      */
-    private void optimizeConstantExpressions(Program program) {
-        for (Statement stmt : program.getStatements()) {
-            optimizeStatement(stmt);
+    private Expression optimizeExpression(Expression expr) {
+        if (expr == null)
+            return null;
+
+        // Try to evaluate constant expressions
+        Expression optimized = null;
+        if (isConstantExpression(expr)) {
+            try {
+                Object value = evaluateConstant(expr);
+                if (value instanceof Integer) {
+                    optimized = new IntegerLiteral((Integer) value);
+                } else if (value instanceof Boolean) {
+                    optimized = new BooleanLiteral((Boolean) value);
+                } else if (value instanceof Double) {
+                    optimized = new RealLiteral((Double) value);
+                } else if (value instanceof String) {
+                    optimized = new StringLiteral((String) value);
+                }
+            } catch (Exception e) {
+                // If evaluation fails, return original expression
+                return expr;
+            }
         }
+
+        if (optimized == null) {
+            optimized = expr.accept(constantFolder);
+        }
+        // The replacement has the type of the expression it replaces
+        if (optimized != null) {
+            optimized.setResolvedType(expr.getResolvedType());
+        }
+        return optimized;
     }
 
+    /** Folds constant expressions in statements and in operands of compound expressions */
+    private final AstVisitor<Expression> constantFolder = new ConstantFolder();
+
     /**
-     * Optimizes constant expressions within a statement
+     * Replaces constant expressions in place within statements. Visiting an expression
+     * returns its optimized replacement, or null if it is unchanged.
      */
-    private void optimizeStatement(Statement stmt) {
-        if (stmt instanceof VarDecl) {
-            VarDecl varDecl = (VarDecl) stmt;
+    private class ConstantFolder implements AstVisitor<Expression> {
+        @Override
+        public Expression visitVarDecl(VarDecl varDecl) {
             if (varDecl.getInitializer() != null) {
                 Expression optimized = optimizeExpression(varDecl.getInitializer());
                 if (optimized != null) {
                     varDecl.setInitializer(optimized);
                 }
             }
-        } else if (stmt instanceof Assignment) {
-            Assignment assign = (Assignment) stmt;
+            return null;
+        }
+
+        @Override
+        public Expression visitAssignment(Assignment assign) {
             Expression optimized = optimizeExpression(assign.getValue());
             if (optimized != null) {
                 assign.setValue(optimized);
             }
-        } else if (stmt instanceof IfStatement) {
-            IfStatement ifStmt = (IfStatement) stmt;
+            return null;
+        }
+
+        @Override
+        public Expression visitIfStatement(IfStatement ifStmt) {
             Expression optimizedCond = optimizeExpression(ifStmt.getCondition());
             if (optimizedCond != null) {
                 ifStmt.setCondition(optimizedCond);
@@ -918,8 +1089,11 @@ public class SemanticAnalyzer {
                     optimizeStatement(s);
                 }
             }
-        } else if (stmt instanceof WhileStatement) {
-            WhileStatement whileStmt = (WhileStatement) stmt;
+            return null;
+        }
+
+        @Override
+        public Expression visitWhileStatement(WhileStatement whileStmt) {
             Expression optimizedCond = optimizeExpression(whileStmt.getCondition());
             if (optimizedCond != null) {
                 whileStmt.setCondition(optimizedCond);
@@ -927,38 +1101,12 @@ public class SemanticAnalyzer {
             for (Statement s : whileStmt.getBody()) {
                 optimizeStatement(s);
             }
-        }
-    }
-
-    /**
-     * Attempts to optimize constant expressions
-     */
-    private Expression optimizeExpression(Expression expr) {
-        if (expr == null)
             return null;
-
-        // Try to evaluate constant expressions
-        if (isConstantExpression(expr)) {
-            try {
-                Object value = evaluateConstant(expr);
-                if (value instanceof Integer) {
-                    return new IntegerLiteral((Integer) value);
-                } else if (value instanceof Boolean) {
-                    return new BooleanLiteral((Boolean) value);
-                } else if (value instanceof Double) {
-                    return new RealLiteral((Double) value);
-                } else if (value instanceof String) {
-                    return new StringLiteral((String) value);
-                }
-            } catch (Exception e) {
-                // If evaluation fails, return original expression
-                return expr;
-            }
         }
 
         // Recursively optimize binary expressions
-        if (expr instanceof BinaryExpression) {
-            BinaryExpression binExpr = (BinaryExpression) expr;
+        @Override
+        public Expression visitBinaryExpression(BinaryExpression binExpr) {
             Expression leftOpt = optimizeExpression(binExpr.getLeft());
             Expression rightOpt = optimizeExpression(binExpr.getRight());
             if (leftOpt != null || rightOpt != null) {
@@ -967,18 +1115,18 @@ public class SemanticAnalyzer {
                         binExpr.getOperator(),
                         rightOpt != null ? rightOpt : binExpr.getRight());
             }
+            return null;
         }
 
         // Recursively optimize unary expressions
-        if (expr instanceof UnaryExpression) {
-            UnaryExpression unaryExpr = (UnaryExpression) expr;
+        @Override
+        public Expression visitUnaryExpression(UnaryExpression unaryExpr) {
             Expression operandOpt = optimizeExpression(unaryExpr.getExpression());
             if (operandOpt != null) {
                 return new UnaryExpression(unaryExpr.getOperator(), operandOpt);
             }
+            return null;
         }
-
-        return null;
     }
 
     /**
@@ -1034,44 +1182,48 @@ public class SemanticAnalyzer {
     /**
      * Evaluates a binary operation on constant values
      */
-    private Object evaluateBinaryOperation(Object left, Object right, String operator) {
+    private Object evaluateBinaryOperation(Object left, Object right, Operator operator) {
         if (left instanceof Integer && right instanceof Integer) {
             int l = (Integer) left;
             int r = (Integer) right;
             switch (operator) {
-                case "+":
+                case ADD:
                     return l + r;
-                case "-":
+                case SUBTRACT:
                     return l - r;
-                case "*":
+                case MULTIPLY:
                     return l * r;
-                case "/":
+                case DIVIDE:
                     return l / r;
-                case "%":
+                case MODULO:
                     return l % r;
-                case "<":
+                case LESS:
                     return l < r;
-                case "<=":
+                case LESS_OR_EQUAL:
                     return l <= r;
-                case ">":
+                case GREATER:
                     return l > r;
-                case ">=":
+                case GREATER_OR_EQUAL:
                     return l >= r;
-                case "=":
+                case EQUAL:
                     return l == r;
-                case "!=":
+                case NOT_EQUAL:
                     return l != r;
+                default:
+                    break;
             }
         } else if (left instanceof Boolean && right instanceof Boolean) {
             boolean l = (Boolean) left;
             boolean r = (Boolean) right;
             switch (operator) {
-                case "and":
+                case AND:
                     return l && r;
-                case "or":
+                case OR:
                     return l || r;
-                case "xor":
+                case XOR:
                     return l ^ r;
+                default:
+                    break;
             }
         }
         throw new RuntimeException("Invalid operands for operator " + operator);
@@ -1080,10 +1232,10 @@ public class SemanticAnalyzer {
     /**
      * Evaluates a unary operation on a constant value
      */
-    private Object evaluateUnaryOperation(Object operand, String operator) {
-        if (operand instanceof Integer && operator.equals("-")) {
+    private Object evaluateUnaryOperation(Object operand, Operator operator) {
+        if (operand instanceof Integer && operator == Operator.NEGATE) {
             return -(Integer) operand;
-        } else if (operand instanceof Boolean && operator.equals("not")) {
+        } else if (operand instanceof Boolean && operator == Operator.NOT) {
             return !(Boolean) operand;
         }
         throw new RuntimeException("Invalid operand for operator " + operator);
@@ -1095,32 +1247,22 @@ public class SemanticAnalyzer {
         }
 
         if (sourceType instanceof SimpleType && targetType instanceof SimpleType) {
-            String sourceName = ((SimpleType) sourceType).getName();
-            String targetName = ((SimpleType) targetType).getName();
-
             // Same type casts are always valid
-            if (sourceName.equals(targetName)) {
+            if (sourceType == targetType) {
                 return true;
             }
 
             // Numeric conversions (both ways)
-            if ((sourceName.equals("integer") || sourceName.equals("real")) &&
-                    (targetName.equals("integer") || targetName.equals("real"))) {
+            if (isNumeric(sourceType) && isNumeric(targetType)) {
                 return true;
             }
 
-            // Boolean conversions
-            if (sourceName.equals("boolean") && targetName.equals("integer")) {
-                return true; // boolean to integer
-            }
-            if (sourceName.equals("integer") && targetName.equals("boolean")) {
-                return true; // integer to boolean
-            }
-            if (sourceName.equals("real") && targetName.equals("boolean")) {
-                return true; // real to boolean (via integer)
+            // Boolean conversions: to and from integer, and real via integer
+            if (sourceType == Type.BOOLEAN && isNumeric(targetType)) {
+                return true;
             }
-            if (sourceName.equals("boolean") && targetName.equals("real")) {
-                return true; // boolean to real (via integer)
+            if (isNumeric(sourceType) && targetType == Type.BOOLEAN) {
+                return true;
             }
         }
 
@@ -1149,9 +1291,6 @@ public class SemanticAnalyzer {
         if (!record.hasField(access.getField())) {
             errors.add(new SemanticError("Field " + access.getField() + " does not exist in record " + access.getRecord()));
         }
-
-        // Mark record variable as used
-        usedVariables.add(access.getRecord());
     }
 
     private void visitTypeDecl(TypeDecl typeDecl) {
@@ -1277,17 +1416,16 @@ public class SemanticAnalyzer {
     /**
      * Checks if two types are compatible for a binary operation
      */
-    private void checkBinaryOperationTypes(Type leftType, Type rightType, String operator, String context) {
+    private void checkBinaryOperationTypes(Type leftType, Type rightType, Operator operator, String context) {
         if (leftType == null || rightType == null) {
             return; // Skip checking if either type is null (error already reported)
         }
 
         // For arithmetic operators
-        if (operator.equals("+") || operator.equals("-") || 
-            operator.equals("*") || operator.equals("/")) {
+        if (operator.isArithmetic() && operator != Operator.MODULO) {
             
             // Special case for string concatenation with +
-            if (operator.equals("+")) {
+            if (operator == Operator.ADD) {
                 if (leftType.equals(Type.STRING) || rightType.equals(Type.STRING)) {
                     // If either operand is a string, both must be strings
                     if (!leftType.equals(Type.STRING) || !rightType.equals(Type.STRING)) {
@@ -1317,67 +1455,11 @@ public class SemanticAnalyzer {
      * Analyzes a binary operation expression
      */
     private Type analyzeBinaryOperation(BinaryOperation binOp) {
-        Type leftType = analyzeExpression(binOp.getLeft());
-        Type rightType = analyzeExpression(binOp.getRight());
+        Type leftType = getExpressionType(binOp.getLeft());
+        Type rightType = getExpressionType(binOp.getRight());
         
         // Check for type compatibility and report errors
         checkBinaryOperationTypes(leftType, rightType, binOp.getOperator(), "expression");
-        
-        // Determine return type
-        switch (binOp.getOperator()) {
-            case "+":
-                if (leftType.equals(Type.STRING) && rightType.equals(Type.STRING)) {
-                    return Type.STRING;
-                }
-                return Type.INTEGER;
-            case "-":
-            case "*":
-            case "/":
-                return Type.INTEGER;
-            case "and":
-            case "or":
-            case "xor":
-            case "<":
-            case "<=":
-            case ">":
-            case ">=":
-            case "=":
-            case "!=":
-                return Type.BOOLEAN;
-            default:
-                errors.add(new SemanticError("Unknown operator: " + binOp.getOperator()));
-                return null;
-        }
-    }
-
-    /**
-     * Analyzes an expression and returns its type
-     */
-    private Type analyzeExpression(Expression expr) {
-        if (expr == null) {
-            return null;
-        }
-
-        if (expr instanceof IntegerLiteral) {
-            return new SimpleType("integer");
-        } else if (expr instanceof StringLiteral) {
-            return new SimpleType("string");
-        } else if (expr instanceof BooleanLiteral) {
-            return new SimpleType("boolean");
-        } else if (expr instanceof BinaryOperation) {
-            return analyzeBinaryOperation((BinaryOperation) expr);
-        } else if (expr instanceof VariableReference) {
-            String varName = ((VariableReference) expr).getName();
-            if (!symbolTable.isDefined(varName)) {
-                errors.add(new SemanticError("Undefined variable: " + varName));
-                return null;
-            }
-            usedVariables.add(varName);
-            return symbolTable.getType(varName);
-        }
-        // Add other expression types as needed
-        
-        errors.add(new SemanticError("Unsupported expression type: " + expr.getClass().getSimpleName()));
-        return null;
+        return binOp.getOperator().resultType(leftType, rightType);
     }
 }
\ No newline at end of file
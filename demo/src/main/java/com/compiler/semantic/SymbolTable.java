@@ -9,6 +9,7 @@ import java.util.Set;
 import java.util.HashSet;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
 
 /**
  * The SymbolTable class manages variable, routine and type declarations during
@@ -49,6 +50,28 @@ public class SymbolTable {
         initializeBuiltInTypes();
     }
 
+    private SymbolTable(List<Map<String, Type>> scopes, Map<String, RoutineDecl> routines,
+                        Map<String, Type> types, Set<String> builtInTypes) {
+        this.scopes = scopes;
+        this.routines = routines;
+        this.types = types;
+        this.builtInTypes = builtInTypes;
+    }
+
+    /**
+     * Returns a table for analyzing a routine body on another thread. It reads the
+     * routines, types and scopes of this table, which must not change while it is in
+     * use, and cannot change them; the scopes entered in it are its own.
+     */
+    public SymbolTable frozenView() {
+        List<Map<String, Type>> frozenScopes = new ArrayList<>();
+        for (Map<String, Type> scope : scopes) {
+            frozenScopes.add(Collections.unmodifiableMap(scope));
+        }
+        return new SymbolTable(frozenScopes, Collections.unmodifiableMap(routines),
+            Collections.unmodifiableMap(types), Collections.unmodifiableSet(builtInTypes));
+    }
+
     /**
      * Initializes the set of built-in primitive types
      */
@@ -0,0 +1,167 @@
+package com.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java_cup.runtime.ComplexSymbolFactory;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class AstFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testExamplesLoadAsParsed() throws Exception {
+        File[] examples = new File("examples").listFiles((dir, name) -> name.endsWith(".txt"));
+        assertNotNull(examples);
+        for (File example : examples) {
+            Program parsed = parse(new String(Files.readAllBytes(example.toPath()), StandardCharsets.UTF_8));
+            File saved = folder.newFile(example.getName() + ".ast");
+            try (OutputStream out = new FileOutputStream(saved)) {
+                AstFile.write(parsed, out);
+            }
+            Program loaded = AstFile.open(saved).load();
+            assertSameTree(example.getName(), parsed, loaded);
+            for (int i = 0; i < parsed.getNames().size(); i++) {
+                assertEquals(parsed.getNames().getName(i), loaded.getNames().getName(i));
+            }
+        }
+    }
+
+    @Test
+    public void testDecodesRoutinesOnDemand() throws Exception {
+        Program parsed = parse("type P is record var x : integer; var s : array [3] real; end;\n" +
+            "var p : P;\n" +
+            "routine f(a : integer, b : real) : real is\n" +
+            "    var q : array [2] P;\n" +
+            "    for i in reverse 1 .. a loop p.x := -i % 2; end;\n" +
+            "    if not (b > 1500.25) then return b; else return a as real; end;\n" +
+            "end;\n" +
+            "routine main() is\n    print(f(-3, 0.5));\n    print(\"done\");\nend;\n");
+        AstFile file = new AstFile(ByteBuffer.wrap(write(parsed)));
+        assertEquals(4, file.size());
+        assertEquals("f", file.getName(2));
+        assertTrue(file.isRoutine(2));
+        assertFalse(file.isRoutine(1));
+        assertSameTree("f", parsed.getStatements().get(2), file.getRoutine("f"));
+        assertNotSame(file.getRoutine("main"), file.getRoutine("main"));
+        assertNull(file.getRoutine("p"));
+    }
+
+    @Test
+    public void testRejectsOtherFiles() throws Exception {
+        byte[] bytes = write(parse("routine main() is\n    print(1);\nend;\n"));
+        byte[] otherVersion = bytes.clone();
+        otherVersion[4] = (byte) (AstFile.VERSION + 1);
+        byte[][] rejected = {
+            "routine main() is end;".getBytes(StandardCharsets.UTF_8),
+            otherVersion,
+            Arrays.copyOf(bytes, 6),
+        };
+        for (byte[] file : rejected) {
+            try {
+                new AstFile(ByteBuffer.wrap(file));
+                fail("Expected the file to be rejected");
+            } catch (IOException expected) {
+                // The tables cannot be read
+            }
+        }
+    }
+
+    @Test
+    public void testCompilesSavedAst() throws Exception {
+        String source = new String(Files.readAllBytes(new File("examples").listFiles(
+            (dir, name) -> name.endsWith(".txt"))[0].toPath()), StandardCharsets.UTF_8);
+        File saved = new File(folder.getRoot(), "program.ast");
+        PrintStream discard = new PrintStream(new ByteArrayOutputStream());
+        CompilerOptions options = CompilerOptions.parse(Collections.singletonList("--backend=bytecode"));
+        CompilationResult fromSource = new CompilerPipeline(
+            CompilerOptions.parse(Arrays.asList("--backend=bytecode", "--save-ast=" + saved)), discard)
+            .compile(source, folder.newFolder());
+        assertTrue(saved.exists());
+        CompilationResult fromAst = new CompilerPipeline(options, discard).compile(saved, folder.newFolder());
+        assertEquals(fromSource.getErrors(), fromAst.getErrors());
+        assertEquals(fromSource.getClasses().keySet(), fromAst.getClasses().keySet());
+        for (Map.Entry<String, byte[]> compiled : fromSource.getClasses().entrySet()) {
+            assertArrayEquals(compiled.getKey(), compiled.getValue(), fromAst.getClasses().get(compiled.getKey()));
+        }
+    }
+
+    @Test
+    public void testSavesAstOnCacheHit() throws Exception {
+        String source = "routine main() is\n    print(6 * 7);\nend;\n";
+        String cache = "--cache=" + folder.newFolder("cache");
+        PrintStream discard = new PrintStream(new ByteArrayOutputStream());
+        CompilationResult first = new CompilerPipeline(
+            CompilerOptions.parse(Arrays.asList("--backend=bytecode", cache)), discard)
+            .compile(source, folder.newFolder());
+        File saved = new File(folder.getRoot(), "cached.ast");
+        CompilationResult cached = new CompilerPipeline(
+            CompilerOptions.parse(Arrays.asList("--backend=bytecode", cache, "--save-ast=" + saved)), discard)
+            .compile(source, folder.newFolder());
+        assertArrayEquals(first.getClasses().get("Main"), cached.getClasses().get("Main"));
+        assertSameTree("program", parse(source), AstFile.open(saved).load());
+    }
+
+    private static Program parse(String source) throws Exception {
+        TokenBuffer tokens = TokenBuffer.record(new Lexer(new StringReader(source), new ComplexSymbolFactory()));
+        return new RecursiveDescentParser(tokens).parse();
+    }
+
+    private static byte[] write(Program program) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AstFile.write(program, out);
+        return out.toByteArray();
+    }
+
+    /** Compares two object graphs field by field */
+    static void assertSameTree(String path, Object expected, Object actual) throws Exception {
+        if (expected == null || actual == null) {
+            assertSame(path, expected, actual);
+            return;
+        }
+        assertEquals(path, expected.getClass(), actual.getClass());
+        if (expected instanceof String || expected instanceof Number || expected instanceof Boolean
+                || expected instanceof Enum) {
+            assertEquals(path, expected, actual);
+        } else if (expected instanceof List) {
+            List<?> expectedList = (List<?>) expected;
+            List<?> actualList = (List<?>) actual;
+            assertEquals(path + ".size", expectedList.size(), actualList.size());
+            for (int i = 0; i < expectedList.size(); i++) {
+                assertSameTree(path + "[" + i + "]", expectedList.get(i), actualList.get(i));
+            }
+        } else if (expected instanceof Type) {
+            assertSame(path, expected, actual);
+        } else if (!(expected instanceof NameTable)) {
+            for (Class<?> c = expected.getClass(); c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        assertSameTree(path + "." + field.getName(), field.get(expected), field.get(actual));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class BatchCompilerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File source(String name, String text) throws Exception {
+        File file = folder.newFile(name);
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void testCompilesEachProgramIntoItsOwnDirectory() throws Exception {
+        File good = source("good.txt",
+            "routine main() is\n" +
+            "    print(6 * 7);\n" +
+            "end;");
+        File bad = source("bad.txt",
+            "routine main() is\n" +
+            "    print(undefinedVar);\n" +
+            "end;");
+        File outputRoot = folder.newFolder("out");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        CompilerOptions options = CompilerOptions.parse(Collections.singletonList("--backend=bytecode"));
+
+        int status = new BatchCompiler(options, outputRoot, 2, new PrintStream(output, true))
+            .compileAll(Arrays.asList(good, bad));
+
+        assertEquals(1, status);
+        assertTrue(new File(outputRoot, "good/Main.class").isFile());
+        assertFalse(new File(outputRoot, "bad/Main.class").exists());
+        assertTrue(output.toString().contains("1 of 2 programs compiled"));
+    }
+}
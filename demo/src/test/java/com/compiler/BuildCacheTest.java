@@ -0,0 +1,83 @@
+package com.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class BuildCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSecondCompilationIsServedFromCache() throws Exception {
+        String input =
+            "routine main() is\n" +
+            "    print(6 * 7);\n" +
+            "end;";
+        File cacheDir = folder.newFolder("cache");
+        CompilerOptions options = CompilerOptions.parse(
+            Arrays.asList("--backend=bytecode", "--debug", "--cache=" + cacheDir.getPath()));
+
+        ByteArrayOutputStream firstLog = new ByteArrayOutputStream();
+        CompilationResult first = new CompilerPipeline(options, new PrintStream(firstLog, true))
+            .compile(input, folder.newFolder("first"));
+        ByteArrayOutputStream secondLog = new ByteArrayOutputStream();
+        CompilationResult second = new CompilerPipeline(options, new PrintStream(secondLog, true))
+            .compile(input, folder.newFolder("second"));
+
+        assertFalse(firstLog.toString().contains("Using cached classes"));
+        assertTrue(secondLog.toString().contains("Using cached classes"));
+        assertFalse("A hit runs no phase", secondLog.toString().contains("Lexical Analysis"));
+        assertArrayEquals(first.getClasses().get("Main"), second.getClasses().get("Main"));
+    }
+
+    @Test
+    public void testHitLeavesTheSameFiles() throws Exception {
+        String input =
+            "type Point is record var x : integer; end;\n" +
+            "var p : Point;\n" +
+            "routine main() is\n" +
+            "    p.x := 6 * 7;\n" +
+            "    print(p.x);\n" +
+            "end;";
+        CompilerOptions options = CompilerOptions.parse(
+            Arrays.asList("--backend=jasmin", "--cache=" + folder.newFolder("cache").getPath()));
+        PrintStream discard = new PrintStream(new ByteArrayOutputStream());
+
+        File first = folder.newFolder("first");
+        new CompilerPipeline(options, discard).compile(input, first);
+        File second = new File(folder.getRoot(), "second");
+        CompilationResult cached = new CompilerPipeline(options, discard).compile(input, second);
+
+        assertTrue(cached.isSuccess());
+        String[] files = first.list();
+        Arrays.sort(files);
+        assertEquals(Arrays.asList("Main.j", "Point.j"), Arrays.asList(files));
+        for (String name : files) {
+            assertArrayEquals(name, Files.readAllBytes(new File(first, name).toPath()),
+                Files.readAllBytes(new File(second, name).toPath()));
+        }
+    }
+
+    @Test
+    public void testKeyDependsOnSourceAndBackend() throws Exception {
+        BuildCache cache = new BuildCache(folder.getRoot());
+        CompilerOptions jasmin = CompilerOptions.parse(Arrays.<String>asList());
+        CompilerOptions bytecode = CompilerOptions.parse(Arrays.asList("--backend=bytecode"));
+
+        assertEquals(cache.key("a", jasmin), cache.key("a", jasmin));
+        assertNotEquals(cache.key("a", jasmin), cache.key("b", jasmin));
+        assertNotEquals(cache.key("a", jasmin), cache.key("a", bytecode));
+        assertNull(cache.load(cache.key("a", jasmin)));
+    }
+}
@@ -0,0 +1,121 @@
+package com.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class CompilationSessionTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final PrintStream DISCARD = new PrintStream(new ByteArrayOutputStream());
+
+    @Test
+    public void testReusesOnlyUntouchedRoutines() throws Exception {
+        CompilationSession session = new CompilationSession();
+        compileLikeFresh(session, "--backend=bytecode", program("x + 1", "integer"));
+        List<Statement> before = session.getProgram().getStatements();
+
+        // A change to the body of one routine leaves its callers alone
+        compileLikeFresh(session, "--backend=bytecode", program("x + 2", "integer"));
+        List<Statement> after = session.getProgram().getStatements();
+        assertEquals(2, session.getParsedCount()); // the global variable and the edited routine
+        for (int i = 0; i < after.size(); i++) {
+            boolean edited = after.get(i) instanceof RoutineDecl && ((RoutineDecl) after.get(i)).getName().equals("r3");
+            assertEquals("statement " + i, !(after.get(i) instanceof RoutineDecl) || edited,
+                before.get(i) != after.get(i));
+        }
+
+        // A change to its header reaches the routines calling it, but not their callers
+        compileLikeFresh(session, "--backend=bytecode", program("x + 2", "real"));
+        after = session.getProgram().getStatements();
+        assertEquals(3, session.getParsedCount());
+        assertNotSame(before.get(4), after.get(4));
+        assertSame(before.get(5), after.get(5));
+    }
+
+    @Test
+    public void testMatchesFreshCompilationAcrossEdits() throws Exception {
+        for (String backend : Arrays.asList("--backend=bytecode", "--backend=jasmin")) {
+            CompilationSession session = new CompilationSession();
+            compileLikeFresh(session, backend, program("x + 1", "integer"));
+            compileLikeFresh(session, backend, program("undefinedVar", "integer"));
+            compileLikeFresh(session, backend, program("x * 3", "integer"));
+            compileLikeFresh(session, backend, program("x * 3", "real"));
+            compileLikeFresh(session, backend, program("x * 3", "integer").replace("routine r2", "routine r9"));
+            compileLikeFresh(session, backend, program("x * 3", "integer"));
+            try {
+                compileLikeFresh(session, backend, program("x *", "integer"));
+                fail("Expected a syntax error");
+            } catch (Exception expected) {
+                // The session keeps the last program that parsed
+            }
+            compileLikeFresh(session, backend, program("x - 1", "integer"));
+        }
+    }
+
+    @Test
+    public void testMatchesFreshCompilationOfEachExample() throws Exception {
+        File[] examples = new File("examples").listFiles((dir, name) -> name.endsWith(".txt"));
+        assertNotNull(examples);
+        Arrays.sort(examples);
+        CompilationSession session = new CompilationSession();
+        for (int round = 0; round < 2; round++) {
+            for (File example : examples) {
+                String source = new String(Files.readAllBytes(example.toPath()), StandardCharsets.UTF_8);
+                compileLikeFresh(session, "--backend=bytecode", source);
+            }
+        }
+    }
+
+    /** A program of a few routines calling each other, with r3 computing the given expression */
+    private static String program(String expression, String parameterType) {
+        return "var total : integer is 0;\n" +
+            "routine r1(x : integer) : integer is\n    return x * 2;\nend;\n" +
+            "routine r2(x : integer) : integer is\n    return r1(x) + 1;\nend;\n" +
+            "routine r3(x : " + parameterType + ") : integer is\n    return " + expression + ";\nend;\n" +
+            "routine r4(x : integer) : integer is\n    return r3(x) + r2(x);\nend;\n" +
+            "routine main() is\n    total := r4(5);\n    print(total);\nend;\n";
+    }
+
+    /**
+     * Compiles a program in a session and on its own, and checks that both give the same
+     * errors and class files.
+     */
+    private void compileLikeFresh(CompilationSession session, String backend, String source) throws Exception {
+        CompilerOptions options = CompilerOptions.parse(Collections.singletonList(backend));
+        CompilationResult fresh;
+        try {
+            fresh = new CompilerPipeline(options, DISCARD).compile(source, folder.newFolder());
+        } catch (Exception e) {
+            try {
+                new CompilerPipeline(options, DISCARD, session).compile(source, folder.newFolder());
+            } catch (Exception again) {
+                assertEquals(e.toString(), again.toString());
+                throw again;
+            }
+            fail("Expected " + e);
+            return;
+        }
+        CompilationResult incremental = new CompilerPipeline(options, DISCARD, session).compile(source, folder.newFolder());
+        assertEquals(fresh.getErrors(), incremental.getErrors());
+        assertEquals(fresh.getClasses().keySet(), incremental.getClasses().keySet());
+        for (Map.Entry<String, byte[]> compiled : fresh.getClasses().entrySet()) {
+            assertArrayEquals(compiled.getKey(), compiled.getValue(), incremental.getClasses().get(compiled.getKey()));
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.compiler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class CompileServerTest {
+
+    private static final List<String> BYTECODE = Collections.singletonList("--backend=bytecode");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File tokenFile;
+    private CompileServer server;
+    private Thread serverThread;
+    private CompileClient client;
+
+    @Before
+    public void startServer() throws Exception {
+        tokenFile = new File(folder.getRoot(), "server.token");
+        server = new CompileServer(0, tokenFile, new PrintStream(new ByteArrayOutputStream()));
+        serverThread = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        serverThread.start();
+        client = new CompileClient(server.getPort(), tokenFile);
+    }
+
+    @After
+    public void stopServer() throws Exception {
+        server.shutdown();
+        serverThread.join(10000);
+    }
+
+    @Test
+    public void testCompilesAndRunsProgram() throws Exception {
+        String input =
+            "routine main() is\n" +
+            "    var x: integer is 6;\n" +
+            "    print(x * 7);\n" +
+            "end;";
+
+        CompilationResult result = client.compile("test.txt", input, BYTECODE, System.err);
+        assertTrue(result.isSuccess());
+        assertTrue(result.getClasses().containsKey("Main"));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new ProgramRunner(System.in, new PrintStream(output, true), System.err)
+            .run(result.getClasses(), new String[0]);
+        assertEquals("42", output.toString().trim());
+    }
+
+    @Test
+    public void testReportsSemanticErrors() throws Exception {
+        String input =
+            "routine main() is\n" +
+            "    var x: integer;\n" +
+            "    x := \"hello\";\n" +
+            "end;";
+
+        CompilationResult result = client.compile("test.txt", input, BYTECODE, System.err);
+        assertFalse(result.isSuccess());
+        assertTrue(result.getClasses().isEmpty());
+    }
+
+    @Test
+    public void testShutdownRequestStopsServer() throws Exception {
+        client.shutdownServer();
+        serverThread.join(10000);
+        assertFalse(serverThread.isAlive());
+        assertFalse(tokenFile.exists());
+    }
+
+    @Test
+    public void testRejectsRequestsWithoutTheToken() throws Exception {
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(tokenFile.toPath())));
+        }
+        File otherToken = new File(folder.getRoot(), "other.token");
+        CompileProtocol.writeToken(otherToken);
+        CompileClient intruder = new CompileClient(server.getPort(), otherToken);
+        try {
+            intruder.shutdownServer();
+            fail("Expected the shutdown request to be rejected");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("token"));
+        }
+        try {
+            intruder.compile("test.txt", "routine main() is end;", BYTECODE, System.err);
+            fail("Expected the compile request to be rejected");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("token"));
+        }
+        serverThread.join(200);
+        assertTrue(serverThread.isAlive());
+    }
+
+    @Test(timeout = 30000)
+    public void testIdleConnectionsTimeOut() throws Exception {
+        server.setReadTimeout(200);
+        // More idle connections than there are workers
+        List<Socket> idle = new ArrayList<>();
+        try {
+            for (int i = 0; i <= Runtime.getRuntime().availableProcessors(); i++) {
+                idle.add(new Socket(InetAddress.getLoopbackAddress(), server.getPort()));
+            }
+            CompilationResult result = client.compile("test.txt",
+                "routine main() is\n    print(1);\nend;\n", BYTECODE, System.err);
+            assertTrue(result.getErrors().toString(), result.isSuccess());
+            for (Socket socket : idle) {
+                socket.setSoTimeout(10000);
+                assertEquals(-1, socket.getInputStream().read());
+            }
+        } finally {
+            for (Socket socket : idle) {
+                socket.close();
+            }
+        }
+    }
+
+    @Test
+    public void testRejectsInvalidLengths() throws Exception {
+        for (int length : new int[] {-1, CompileProtocol.MAX_LENGTH + 1}) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            new DataOutputStream(bytes).writeInt(length);
+            try {
+                CompileProtocol.readBytes(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+                fail("Expected length " + length + " to be rejected");
+            } catch (IOException expected) {
+                assertTrue(expected.getMessage(), expected.getMessage().contains("Invalid length"));
+            }
+        }
+    }
+
+    @Test
+    public void testClientSendsAbsolutePathsAndRejectsLocalOptions() throws Exception {
+        List<String> args = CompileClient.serverArguments(CompilerOptions.parse(
+            Arrays.asList("--backend=bytecode", "--cache=build/cache", "--save-ast=out.ast")));
+        assertTrue(args.contains("--cache=" + new File("build/cache").getAbsolutePath()));
+        assertTrue(args.contains("--save-ast=" + new File("out.ast").getAbsolutePath()));
+
+        for (String flag : Arrays.asList("--interpret", "--interpret=tree", "--fork-jasmin", "--debug")) {
+            try {
+                CompileClient.serverArguments(CompilerOptions.parse(Collections.singletonList(flag)));
+                fail("Expected " + flag + " to be rejected");
+            } catch (IllegalArgumentException expected) {
+                assertTrue(expected.getMessage(), expected.getMessage().startsWith(flag.split("=")[0]));
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.compiler;
+
+import java.io.StringReader;
+import java_cup.runtime.ComplexSymbolFactory;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class DeclarationIndexTest {
+
+    @Test
+    public void testSortsDeclarationsKeepingOrder() throws Exception {
+        String source = "routine b() is\n    print(1);\nend;\n" +
+            "var x : integer is 1;\n" +
+            "type P is record var v : integer; end;\n" +
+            "var q : array [2] integer;\n" +
+            "routine a() is\n    print(2);\nend;\n" +
+            "var y : P;\n";
+        TokenBuffer tokens = TokenBuffer.record(new Lexer(new StringReader(source), new ComplexSymbolFactory()));
+        Program program = new RecursiveDescentParser(tokens).parse();
+        DeclarationIndex declarations = program.getDeclarations();
+
+        assertEquals(2, declarations.getRoutines().size());
+        assertSame(program.getStatements().get(0), declarations.getRoutines().get(0));
+        assertSame(program.getStatements().get(4), declarations.getRoutines().get(1));
+        assertEquals(1, declarations.getTypes().size());
+        assertEquals("P", declarations.getTypes().get(0).getName());
+        assertEquals(3, declarations.getVariables().size());
+        assertTrue(declarations.getVariables().get(1) instanceof ArrayDecl);
+        assertSame(program.getStatements().get(5), declarations.getVariables().get(2));
+        assertTrue(declarations.getOthers().isEmpty());
+
+        try {
+            program.getStatements().remove(0);
+            fail("Expected the statements the index was built from to be read-only");
+        } catch (UnsupportedOperationException expected) {
+            // The index stays in step with the statements
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.compiler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class EngineAgreementTest {
+
+    /** Every way of running a program: both interpreters and both code generators */
+    private static final List<String> ENGINES = Arrays.asList(
+        "--interpret", "--interpret=tree", "--backend=bytecode", "--backend=jasmin");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** Runs a program with every engine and checks that each prints the expected output */
+    private void assertPrints(String expected, String input) throws Exception {
+        for (String engine : ENGINES) {
+            assertEquals(engine, expected, run(engine, input));
+        }
+    }
+
+    private String run(String engine, String input) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(output, true);
+        ByteArrayInputStream in = new ByteArrayInputStream(new byte[0]);
+        CompilerPipeline pipeline = new CompilerPipeline(
+            CompilerOptions.parse(Collections.singletonList(engine)), new PrintStream(new ByteArrayOutputStream()));
+        CompilationResult result;
+        if (engine.startsWith("--interpret")) {
+            result = pipeline.interpret(input, in, out);
+        } else {
+            result = pipeline.compile(input, folder.newFolder());
+            assertTrue(engine + ": " + result.getErrors(), result.isSuccess());
+            assertEquals(engine, 0, new ProgramRunner(in, out, System.err).run(result.getClasses(), new String[0]));
+        }
+        assertTrue(engine + ": " + result.getErrors(), result.isSuccess());
+        return output.toString().trim().replace("\r\n", "\n");
+    }
+
+    @Test
+    public void testPrintAddsIntegers() throws Exception {
+        String input =
+            "routine main() is\n" +
+            "    var a: integer is 1;\n" +
+            "    var b: integer is 2;\n" +
+            "    var x: real is 0.5;\n" +
+            "    print(a + b);\n" +
+            "    print(a + x);\n" +
+            "    print(a + b + \"s\");\n" +
+            "    print(\"s\" + a + b);\n" +
+            "end;";
+
+        assertPrints("3\n1.5\n3s\ns12", input);
+    }
+
+    @Test
+    public void testInitializedGlobals() throws Exception {
+        String input =
+            "var g: integer is 7;\n" +
+            "var twice: integer is g * 2;\n" +
+            "var r: real is 3;\n" +
+            "var on: boolean is g > 5;\n" +
+            "var name: string is \"g\" + g;\n" +
+            "routine main() is\n" +
+            "    print(g + 1);\n" +
+            "    print(twice);\n" +
+            "    print(r);\n" +
+            "    print(on);\n" +
+            "    print(name);\n" +
+            "end;";
+
+        assertPrints("8\n14\n3.0\ntrue\ng7", input);
+    }
+
+    @Test
+    public void testReverseLoops() throws Exception {
+        String input =
+            "routine main() is\n" +
+            "    var i: integer;\n" +
+            "    var sum: integer is 0;\n" +
+            "    for i in reverse 3 .. 1 loop\n" +
+            "        print(i);\n" +
+            "    end;\n" +
+            "    for i in reverse 1 .. 3 loop\n" +
+            "        print(-i);\n" +
+            "    end;\n" +
+            "    for i in 1 .. 4 loop\n" +
+            "        sum := sum + i;\n" +
+            "    end;\n" +
+            "    print(sum);\n" +
+            "end;";
+
+        assertPrints("3\n2\n1\n10", input);
+    }
+
+    @Test
+    public void testRealArrays() throws Exception {
+        String input =
+            "var totals: array[2] real;\n" +
+            "routine main() is\n" +
+            "    var xs: array[3] real;\n" +
+            "    var i: integer;\n" +
+            "    for i in 1 .. 3 loop\n" +
+            "        xs[i] := i / 2.0;\n" +
+            "    end;\n" +
+            "    for i in reverse 3 .. 1 loop\n" +
+            "        print(xs[i]);\n" +
+            "    end;\n" +
+            "    totals[1] := xs[1] + xs[3];\n" +
+            "    totals[2] := 4;\n" +
+            "    print(totals[1] * 2 >= totals[2]);\n" +
+            "    print(-totals[1]);\n" +
+            "end;";
+
+        assertPrints("1.5\n1.0\n0.5\ntrue\n-2.0", input);
+    }
+
+    @Test
+    public void testRoutineSlots() throws Exception {
+        String input =
+            "var calls: integer is 0;\n" +
+            "routine scale(x: real, times: integer): real is\n" +
+            "    var result: real is x;\n" +
+            "    calls := calls + 1;\n" +
+            "    if times > 1 then\n" +
+            "        result := scale(x, times - 1) + x;\n" +
+            "    end;\n" +
+            "    return result;\n" +
+            "end;\n" +
+            "routine main() is\n" +
+            "    var i: integer;\n" +
+            "    for i in 1 .. 2 loop\n" +
+            "        var half: real is i / 2.0;\n" +
+            "        print(scale(half, 3));\n" +
+            "    end;\n" +
+            "    print(calls);\n" +
+            "end;";
+
+        assertPrints("1.5\n3.0\n6", input);
+    }
+
+    @Test
+    public void testFloatVariables() throws Exception {
+        String input =
+            "var scale: float is 2;\n" +
+            "routine half(x: float): real is\n" +
+            "    return x / 2;\n" +
+            "end;\n" +
+            "routine main() is\n" +
+            "    var f: float is 1.5;\n" +
+            "    var r: real is f * scale;\n" +
+            "    var n: integer is 3;\n" +
+            "    f := n;\n" +
+            "    print(r);\n" +
+            "    print(half(f) + scale);\n" +
+            "end;";
+
+        assertPrints("3.0\n3.5", input);
+    }
+
+    @Test
+    public void testManyLocals() throws Exception {
+        String locals =
+            "    var a: integer is 1;\n" +
+            "    var b: real is 2.5;\n" +
+            "    var c: integer is 3;\n" +
+            "    var d: real is 0.5;\n" +
+            "    var e: integer is 5;\n" +
+            "    var xs: array[3] integer;\n" +
+            "    var i: integer;\n" +
+            "    for i in 1 .. 3 loop\n" +
+            "        var f: integer is i * e;\n" +
+            "        xs[i] := f + a + c;\n" +
+            "    end;\n";
+        String input =
+            "routine sum(n: integer): real is\n" +
+            locals +
+            "    return xs[1] + xs[2] + xs[3] + b + d + n;\n" +
+            "end;\n" +
+            "routine main() is\n" +
+            locals +
+            "    print(xs[3]);\n" +
+            "    print(sum(e) + b * d);\n" +
+            "end;";
+
+        assertPrints("19\n51.25", input);
+    }
+}
@@ -0,0 +1,114 @@
+package com.compiler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java_cup.runtime.ComplexSymbolFactory;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class FlatAstTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testExamplesInflateAsParsed() throws Exception {
+        File[] examples = new File("examples").listFiles((dir, name) -> name.endsWith(".txt"));
+        assertNotNull(examples);
+        for (File example : examples) {
+            Program parsed = parse(new String(Files.readAllBytes(example.toPath()), StandardCharsets.UTF_8));
+            FlatAst flat = FlatAst.of(parsed);
+            assertEquals(parsed.getStatements().size(), flat.getDeclarationCount());
+            AstFileTest.assertSameTree(example.getName(), parsed, flat.toProgram());
+        }
+    }
+
+    @Test
+    public void testViewWalksSubtrees() throws Exception {
+        Program parsed = parse("var n : integer is 3;\n" +
+            "routine f(a : integer, b : real) : real is\n" +
+            "    for i in reverse 1 .. a loop n := -i % 2; end;\n" +
+            "    if not (b > 1500.25) then return b; else return a as real; end;\n" +
+            "end;\n" +
+            "routine main() is\n    print(f(n, 0.5));\n    print(\"done\");\nend;\n");
+        FlatAst flat = FlatAst.of(parsed);
+        assertEquals(3, flat.getDeclarationCount());
+
+        int routine = flat.getDeclaration(1);
+        assertEquals(FlatAst.ROUTINE_DECL, flat.kind(routine));
+        assertEquals("f", flat.name(routine));
+        assertEquals(parsed.getNames().getId("f"), flat.nameIndex(routine));
+        assertSame(Type.REAL, flat.type(routine));
+        assertEquals(flat.getDeclaration(2), flat.end(routine));
+
+        int parameters = flat.child(routine, 0);
+        assertEquals(2, flat.childCount(parameters));
+        assertEquals("b", flat.name(flat.child(parameters, 1)));
+        int body = flat.child(routine, 1);
+        assertEquals(2, flat.childCount(body));
+        int loop = flat.firstChild(body);
+        assertEquals(FlatAst.FOR_LOOP, flat.kind(loop));
+        assertTrue(flat.isReverse(loop));
+
+        // A subtree is a range of nodes, so it can be scanned without recursion
+        int literals = 0;
+        for (int node = routine; node < flat.end(routine); node++) {
+            if (flat.kind(node) == FlatAst.REAL_LITERAL) {
+                assertEquals(1500.25, flat.realValue(node), 0);
+                literals++;
+            } else if (flat.kind(node) == FlatAst.UNARY_EXPRESSION) {
+                assertTrue(flat.operator(node) == Operator.NOT || flat.operator(node) == Operator.NEGATE);
+            }
+        }
+        assertEquals(1, literals);
+        AstFileTest.assertSameTree("f", parsed.getStatements().get(1), flat.statement(routine));
+    }
+
+    @Test
+    public void testCodeGeneratorsFindNestedReadsInFlatAst() throws Exception {
+        String input =
+            "routine main() is\n" +
+            "    var i: integer;\n" +
+            "    var n: integer;\n" +
+            "    var sum: integer is 0;\n" +
+            "    for i in 1 .. 2 loop\n" +
+            "        read(n);\n" +
+            "        sum := sum + n;\n" +
+            "    end;\n" +
+            "    print(sum);\n" +
+            "end;";
+        assertTrue(FlatAst.of(parse(input)).contains(FlatAst.READ_STATEMENT));
+        assertFalse(FlatAst.of(parse("routine main() is\n    print(1);\nend;")).contains(FlatAst.READ_STATEMENT));
+
+        for (String backend : Arrays.asList("--backend=bytecode", "--backend=jasmin")) {
+            for (boolean flat : new boolean[] {false, true}) {
+                CompilerOptions options = CompilerOptions.parse(flat
+                    ? Arrays.asList(backend, "--flat-ast") : Arrays.asList(backend));
+                CompilationResult result = new CompilerPipeline(options, new PrintStream(new ByteArrayOutputStream()))
+                    .compile(input, folder.newFolder());
+                assertTrue(result.getErrors().toString(), result.isSuccess());
+
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                new ProgramRunner(new ByteArrayInputStream("2\n3\n".getBytes()), new PrintStream(output, true),
+                    System.err).run(result.getClasses(), new String[0]);
+                assertEquals(options.toArguments().toString(), "5", output.toString().trim());
+            }
+        }
+    }
+
+    private static Program parse(String source) throws Exception {
+        TokenBuffer tokens = TokenBuffer.record(new Lexer(new StringReader(source), new ComplexSymbolFactory()));
+        return new RecursiveDescentParser(tokens).parse();
+    }
+}
@@ -0,0 +1,88 @@
+package com.compiler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Collections;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class InterpreterTest {
+
+    /** Runs a program with both interpreters and checks that they print the same */
+    private String interpret(String input, String stdin) throws Exception {
+        String output = interpret("--interpret", input, stdin);
+        assertEquals(output, interpret("--interpret=tree", input, stdin));
+        return output;
+    }
+
+    private String interpret(String flag, String input, String stdin) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        CompilerOptions options = CompilerOptions.parse(Collections.singletonList(flag));
+        CompilationResult result = new CompilerPipeline(options, System.err)
+            .interpret(input, new ByteArrayInputStream(stdin.getBytes()), new PrintStream(output, true));
+        assertTrue(result.isSuccess());
+        return output.toString().trim().replace("\r\n", "\n");
+    }
+
+    @Test
+    public void testRoutinesLoopsAndArrays() throws Exception {
+        String input =
+            "routine square(x: integer): integer is\n" +
+            "    return x * x;\n" +
+            "end;\n" +
+            "routine main() is\n" +
+            "    var a: array[3] integer;\n" +
+            "    var i: integer;\n" +
+            "    for i in 1 .. 3 loop\n" +
+            "        a[i] := square(i);\n" +
+            "    end;\n" +
+            "    for i in reverse 3 .. 1 loop\n" +
+            "        print(a[i]);\n" +
+            "    end;\n" +
+            "end;";
+
+        assertEquals("9\n4\n1", interpret(input, ""));
+    }
+
+    @Test
+    public void testRecursionAndInput() throws Exception {
+        String input =
+            "routine fact(n: integer): integer is\n" +
+            "    if n <= 1 then\n" +
+            "        return 1;\n" +
+            "    end;\n" +
+            "    return n * fact(n - 1);\n" +
+            "end;\n" +
+            "routine main() is\n" +
+            "    var n: integer;\n" +
+            "    read(n);\n" +
+            "    print(fact(n));\n" +
+            "end;";
+
+        assertEquals("120", interpret(input, "5\n"));
+    }
+
+    @Test
+    public void testRecordsRealsAndBooleans() throws Exception {
+        String input =
+            "type Point is record\n" +
+            "    var x: real;\n" +
+            "    var visible: boolean;\n" +
+            "end;\n" +
+            "routine main() is\n" +
+            "    var p: Point;\n" +
+            "    p.x := 3;\n" +
+            "    p.x := p.x / 2;\n" +
+            "    p.visible := p.x > 1 and not false;\n" +
+            "    print(p.x);\n" +
+            "    print(p.visible);\n" +
+            "    print(p.x as integer);\n" +
+            "end;";
+
+        assertEquals("1.5\ntrue\n1", interpret(input, ""));
+    }
+}
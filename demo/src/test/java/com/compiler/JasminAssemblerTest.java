@@ -0,0 +1,55 @@
+package com.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class JasminAssemblerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static String emptyClass(String name) {
+        return ".class public " + name + "\n" +
+            ".super java/lang/Object\n\n" +
+            ".method public <init>()V\n" +
+            "    .limit stack 1\n" +
+            "    .limit locals 1\n" +
+            "    aload_0\n" +
+            "    invokespecial java/lang/Object/<init>()V\n" +
+            "    return\n" +
+            ".end method\n";
+    }
+
+    @Test
+    public void testAssemblesAllClassesInOrder() throws Exception {
+        Map<String, File> sources = new LinkedHashMap<>();
+        for (String name : new String[] { "First", "Second", "Third", "Main" }) {
+            File jasminFile = folder.newFile(name + ".j");
+            Files.write(jasminFile.toPath(), emptyClass(name).getBytes(StandardCharsets.UTF_8));
+            sources.put(name, jasminFile);
+        }
+        JasminAssembler assembler = new JasminAssembler(new File(JasminAssembler.DEFAULT_JASMIN_JAR), false,
+            new PrintStream(new ByteArrayOutputStream()));
+
+        Map<String, byte[]> classes = assembler.assembleAll(sources);
+
+        assertEquals(new ArrayList<>(sources.keySet()), new ArrayList<>(classes.keySet()));
+        for (byte[] bytes : classes.values()) {
+            assertEquals(0xCAFEBABE, ((bytes[0] & 0xFF) << 24) | ((bytes[1] & 0xFF) << 16)
+                | ((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF));
+        }
+    }
+}
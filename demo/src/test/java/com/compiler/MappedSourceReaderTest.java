@@ -0,0 +1,55 @@
+package com.compiler;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class MappedSourceReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testDecodesLikeString() throws Exception {
+        byte[] bytes = ("var s : string is \"café → 😀\";\n" +
+            "print(s); // ascii again\n").getBytes(StandardCharsets.UTF_8);
+        byte[] malformed = {'a', (byte) 0xC3, 'b', (byte) 0xFF, 'c'};
+
+        for (byte[] input : new byte[][] {bytes, malformed}) {
+            String expected = new String(input, StandardCharsets.UTF_8);
+            for (int chunk : new int[] {1, 2, 3, 4096}) {
+                assertEquals("chunk " + chunk, expected, readAll(ByteBuffer.wrap(input), chunk));
+            }
+        }
+    }
+
+    @Test
+    public void testReadsMappedFile() throws Exception {
+        File file = folder.newFile("program.txt");
+        String source = "routine main() is\n    print(\"été\");\nend;";
+        Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(source, readAll(MappedSourceReader.map(file), 64));
+        assertEquals("", readAll(MappedSourceReader.map(folder.newFile("empty.txt")), 64));
+    }
+
+    private static String readAll(ByteBuffer bytes, int chunk) throws Exception {
+        StringBuilder sb = new StringBuilder();
+        char[] buffer = new char[chunk];
+        try (MappedSourceReader reader = new MappedSourceReader(bytes)) {
+            int n;
+            while ((n = reader.read(buffer, 0, chunk)) != -1) {
+                sb.append(buffer, 0, n);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,57 @@
+package com.compiler;
+
+import java.io.StringReader;
+import java_cup.runtime.ComplexSymbolFactory;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class NameTableTest {
+
+    @Test
+    public void testDenseIdsAndCanonicalNames() {
+        NameTable names = new NameTable();
+        char[] text = "count total count".toCharArray();
+
+        assertEquals(0, names.intern(text, 0, 5));
+        assertEquals(1, names.intern(text, 6, 5));
+        assertEquals(0, names.intern(text, 12, 5));
+        assertEquals(1, names.intern(new String("total")));
+        assertSame(names.getName(0), names.canonical(new String("count")));
+        assertEquals(-1, names.getId("missing"));
+        assertEquals(2, names.size());
+
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i + 2, names.intern("v" + i));
+        }
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i + 2, names.getId("v" + i));
+        }
+        assertEquals(1, names.getId("total"));
+    }
+
+    @Test
+    public void testIdentifiersShareOneString() throws Exception {
+        String input =
+            "type P is record var x : integer; end;\n" +
+            "routine main() is\n" +
+            "    var p : P;\n" +
+            "    p.x := 1;\n" +
+            "    print(p.x);\n" +
+            "end;";
+        ComplexSymbolFactory symbolFactory = new ComplexSymbolFactory();
+        TokenBuffer tokens = TokenBuffer.record(new Lexer(new StringReader(input), symbolFactory));
+        ImperativeLangParser parser = new ImperativeLangParser(tokens.replay(), symbolFactory);
+        parser.setNames(tokens.getNames());
+        Program program = (Program) parser.parse().value;
+
+        NameTable names = program.getNames();
+        assertSame(tokens.getNames(), names);
+        RoutineDecl main = (RoutineDecl) program.getStatements().get(1);
+        Assignment assignment = (Assignment) main.getBody().get(1);
+        assertSame(names.getName(names.getId("p.x")), assignment.getTarget());
+        assertSame(names.getName(names.getId("main")), main.getName());
+    }
+}
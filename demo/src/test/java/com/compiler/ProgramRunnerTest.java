@@ -0,0 +1,106 @@
+package com.compiler;
+
+import com.compiler.bytecode.ClassWriter;
+import com.compiler.bytecode.MethodWriter;
+import com.compiler.semantic.SemanticAnalyzer;
+import java_cup.runtime.ComplexSymbolFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static com.compiler.bytecode.Opcodes.*;
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class ProgramRunnerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Map<String, byte[]> compile(String input) throws Exception {
+        ComplexSymbolFactory symbolFactory = new ComplexSymbolFactory();
+        Lexer lexer = new Lexer(new StringReader(input), symbolFactory);
+        ImperativeLangParser parser = new ImperativeLangParser(lexer, symbolFactory);
+
+        Program program = (Program) parser.parse().value;
+        SemanticAnalyzer analyzer = new SemanticAnalyzer();
+        assertTrue(analyzer.analyze(program).isEmpty());
+        return new BytecodeGenerator(analyzer.getSymbolTable(), false).generate(program);
+    }
+
+    @Test
+    public void testRedirectsStandardStreams() throws Exception {
+        String input =
+            "routine main() is\n" +
+            "    var num: integer;\n" +
+            "    read(num);\n" +
+            "    print(num * num);\n" +
+            "end;";
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ProgramRunner runner = new ProgramRunner(
+            new ByteArrayInputStream("7\n".getBytes()), new PrintStream(output, true), System.err);
+        int status = runner.run(compile(input), new String[0]);
+
+        assertEquals(0, status);
+        assertEquals("49", output.toString().trim());
+    }
+
+    @Test
+    public void testSystemExitEndsOnlyTheProgram() throws Exception {
+        ClassWriter cw = new ClassWriter("Main", "java/lang/Object");
+        MethodWriter mw = cw.addMethod(ACC_PUBLIC | ACC_STATIC, "main", "([Ljava/lang/String;)V");
+        mw.fieldInsn(GETSTATIC, "java/lang/System", "out", "Ljava/io/PrintStream;");
+        mw.ldc("before");
+        mw.methodInsn(INVOKEVIRTUAL, "java/io/PrintStream", "println", "(Ljava/lang/String;)V");
+        mw.iconst(3);
+        mw.methodInsn(INVOKESTATIC, "java/lang/System", "exit", "(I)V");
+        mw.fieldInsn(GETSTATIC, "java/lang/System", "out", "Ljava/io/PrintStream;");
+        mw.ldc("after");
+        mw.methodInsn(INVOKEVIRTUAL, "java/io/PrintStream", "println", "(Ljava/lang/String;)V");
+        mw.insn(RETURN);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ProgramRunner runner = new ProgramRunner(
+            new ByteArrayInputStream(new byte[0]), new PrintStream(output, true), System.err);
+        int status = runner.run(Collections.singletonMap("Main", cw.toByteArray()), new String[0]);
+
+        assertEquals(3, status);
+        assertEquals("before", output.toString().trim());
+    }
+
+    @Test
+    public void testBytecodeBackendInitializesGlobals() throws Exception {
+        String input =
+            "var g: integer is 7;\n" +
+            "var r: real is 3;\n" +
+            "var twice: integer is g * 2;\n" +
+            "routine main() is\n" +
+            "    var a: integer is 1;\n" +
+            "    var b: integer is 2;\n" +
+            "    print(g + 1);\n" +
+            "    print(r + 1.5);\n" +
+            "    print(twice);\n" +
+            "    print(a + b);\n" +
+            "    print(a + b + \"s\");\n" +
+            "end;";
+
+        CompilationResult result = new CompilerPipeline(
+            CompilerOptions.parse(Collections.singletonList("--backend=bytecode")),
+            new PrintStream(new ByteArrayOutputStream())).compile(input, folder.getRoot());
+        assertTrue(result.getErrors().toString(), result.isSuccess());
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ProgramRunner runner = new ProgramRunner(
+            new ByteArrayInputStream(new byte[0]), new PrintStream(output, true), System.err);
+        assertEquals(0, runner.run(result.getClasses(), new String[0]));
+        assertEquals("8\n4.5\n14\n3\n3s", output.toString().trim().replace("\r\n", "\n"));
+    }
+}
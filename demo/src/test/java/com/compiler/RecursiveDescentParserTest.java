@@ -0,0 +1,225 @@
+package com.compiler;
+
+import java.io.File;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.ParseException;
+import java.util.List;
+import java.util.Random;
+import java_cup.runtime.ComplexSymbolFactory;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class RecursiveDescentParserTest {
+
+    @Test
+    public void testExamplesParseLikeCup() throws Exception {
+        File[] examples = new File("examples").listFiles((dir, name) -> name.endsWith(".txt"));
+        assertNotNull(examples);
+        assertTrue(examples.length > 0);
+        for (File example : examples) {
+            String source = new String(Files.readAllBytes(example.toPath()), StandardCharsets.UTF_8);
+            assertSameTree(example.getName(), parseWithCup(source), parseByDescent(source));
+        }
+    }
+
+    @Test
+    public void testExpressionsParseLikeCup() throws Exception {
+        String[] expressions = {
+            "a or b and c xor d",
+            "not a = b and c",
+            "a and not b or c",
+            "a * not b + c",
+            "- a * b - - c % 2",
+            "a + b as real * c",
+            "not a as boolean",
+            "a < b as integer < c",
+            "a = b as integer = c",
+            "(a < b) = c",
+            "a = not b = c",
+            "f(, x) + g() + h(1, 2)",
+            "r.x + q[i + 1] / 2.5",
+            "\"s\" + true",
+        };
+        for (String expression : expressions) {
+            String source = program(expression);
+            assertSameTree(expression, parseWithCup(source), parseByDescent(source));
+        }
+    }
+
+    @Test
+    public void testRejectsWhatCupRejects() throws Exception {
+        String[] sources = {
+            program("a < b < c"),
+            program("f(x,)"),
+            program("r.x.y"),
+            "",
+            "routine main() is end;",
+            "var x : integer; print(x);",
+        };
+        for (String source : sources) {
+            assertFalse(source, accepts(() -> parseWithCup(source)));
+            assertFalse(source, accepts(() -> parseByDescent(source)));
+        }
+    }
+
+    @Test
+    public void testRandomExpressionsParseLikeCup() throws Exception {
+        String[] operands = {"a", "1", "2.5", "true", "r.x", "q[1]", "f(a)"};
+        String[] operators = {"+", "-", "*", "/", "%", "and", "or", "xor", "=", "!=", "<", "<=", ">", ">="};
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int length = 1 + random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                if (j > 0) {
+                    sb.append(' ').append(operators[random.nextInt(operators.length)]).append(' ');
+                }
+                int prefix = random.nextInt(6);
+                sb.append(prefix == 0 ? "not " : prefix == 1 ? "- " : prefix == 2 ? "(" : "");
+                sb.append(operands[random.nextInt(operands.length)]);
+                if (prefix == 2) {
+                    sb.append(random.nextBoolean() ? ")" : " as real)");
+                }
+                if (random.nextInt(8) == 0) {
+                    sb.append(" as integer");
+                }
+            }
+            String source = program(sb.toString());
+            boolean cupAccepts = accepts(() -> parseWithCup(source));
+            assertEquals(sb.toString(), cupAccepts, accepts(() -> parseByDescent(source)));
+            if (cupAccepts) {
+                assertSameTree(sb.toString(), parseWithCup(source), parseByDescent(source));
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentParseMatchesSequential() throws Exception {
+        File[] examples = new File("examples").listFiles((dir, name) -> name.endsWith(".txt"));
+        assertNotNull(examples);
+        for (File example : examples) {
+            String source = new String(Files.readAllBytes(example.toPath()), StandardCharsets.UTF_8);
+            assertSameTree(example.getName(), parseByDescent(source), parser(source).parseConcurrently(8));
+        }
+        StringBuilder all = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            all.append("type Point").append(i).append(" is record var x : integer; end;\n");
+            all.append("var p").append(i).append(" : Point").append(i).append(";\n");
+            all.append("routine r").append(i).append("(n : integer) : integer is\n")
+                .append("    if n > 0 then p").append(i).append(".x := n; else while n < 0 loop n := n + 1; end; end;\n")
+                .append("    for j in reverse 1 .. n loop print(j); end;\n")
+                .append("    return p").append(i).append(".x;\nend;\n");
+        }
+        String source = all.toString();
+        Program expected = parser(source).parse();
+        Program actual = parser(source).parseConcurrently(8);
+        assertSameTree("generated", expected, actual);
+        assertEquals(600, actual.getStatements().size());
+        for (int i = 0; i < expected.getNames().size(); i++) {
+            assertEquals(expected.getNames().getName(i), actual.getNames().getName(i));
+        }
+    }
+
+    @Test
+    public void testConcurrentParseReportsFirstError() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append("routine r").append(i).append("() is\n    print(").append(i % 40 == 39 ? "1 +" : "1")
+                .append(");\nend;\n");
+        }
+        String source = sb.toString();
+        try {
+            parser(source).parseConcurrently(8);
+            fail("Expected a syntax error");
+        } catch (ParseException e) {
+            try {
+                parser(source).parse();
+                fail("Expected a syntax error");
+            } catch (ParseException expected) {
+                assertEquals(expected.getMessage(), e.getMessage());
+                assertTrue(e.getMessage(), e.getMessage().contains("line 119,"));
+            }
+        }
+    }
+
+    private static RecursiveDescentParser parser(String source) throws Exception {
+        return new RecursiveDescentParser(TokenBuffer.record(new Lexer(new StringReader(source), new ComplexSymbolFactory())));
+    }
+
+    private static String program(String expression) {
+        return "routine main() is\n    print(" + expression + ");\nend;";
+    }
+
+    private static Program parseWithCup(String source) throws Exception {
+        ComplexSymbolFactory symbolFactory = new ComplexSymbolFactory();
+        TokenBuffer tokens = TokenBuffer.record(new Lexer(new StringReader(source), symbolFactory));
+        ImperativeLangParser parser = new ImperativeLangParser(tokens.replay(), symbolFactory) {
+            @Override
+            public void syntax_error(java_cup.runtime.Symbol token) {
+                // Rejections are expected here
+            }
+
+            @Override
+            public void report_error(String message, Object info) {
+                // Rejections are expected here
+            }
+        };
+        parser.setNames(tokens.getNames());
+        return (Program) parser.parse().value;
+    }
+
+    private static Program parseByDescent(String source) throws Exception {
+        TokenBuffer tokens = TokenBuffer.record(new Lexer(new StringReader(source), new ComplexSymbolFactory()));
+        return new RecursiveDescentParser(tokens).parse();
+    }
+
+    private interface Parse {
+        Program run() throws Exception;
+    }
+
+    private static boolean accepts(Parse parse) {
+        try {
+            return parse.run() != null;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /** Compares two object graphs field by field */
+    private static void assertSameTree(String path, Object expected, Object actual) throws Exception {
+        if (expected == null || actual == null) {
+            assertSame(path, expected, actual);
+            return;
+        }
+        assertEquals(path, expected.getClass(), actual.getClass());
+        if (expected instanceof String || expected instanceof Number || expected instanceof Boolean
+                || expected instanceof Enum) {
+            assertEquals(path, expected, actual);
+        } else if (expected instanceof List) {
+            List<?> expectedList = (List<?>) expected;
+            List<?> actualList = (List<?>) actual;
+            assertEquals(path + ".size", expectedList.size(), actualList.size());
+            for (int i = 0; i < expectedList.size(); i++) {
+                assertSameTree(path + "[" + i + "]", expectedList.get(i), actualList.get(i));
+            }
+        } else if (expected instanceof Type) {
+            assertSame(path, expected, actual);
+        } else if (!(expected instanceof NameTable)) {
+            for (Class<?> c = expected.getClass(); c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        assertSameTree(path + "." + field.getName(), field.get(expected), field.get(actual));
+                    }
+                }
+            }
+        }
+    }
+}
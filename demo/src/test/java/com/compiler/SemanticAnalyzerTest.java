@@ -3,8 +3,14 @@ package com.compiler;
 import com.compiler.semantic.SemanticAnalyzer;
 import com.compiler.semantic.SemanticError;
 import java_cup.runtime.ComplexSymbolFactory;
+import java.io.File;
 import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -102,4 +108,146 @@ public class SemanticAnalyzerTest {
         List<SemanticError> errors = analyze(input);
         assertTrue("Valid type assignments should not produce errors", errors.isEmpty());
     }
-} 
\ No newline at end of file
+
+    @Test
+    public void testResolvedTypes() throws Exception {
+        String input =
+            "routine main() is\n" +
+            "    var x: integer is 5;\n" +
+            "    var r: real is x + 1.5;\n" +
+            "    print(x < 3);\n" +
+            "end;";
+
+        ComplexSymbolFactory symbolFactory = new ComplexSymbolFactory();
+        Lexer lexer = new Lexer(new StringReader(input), symbolFactory);
+        Program program = (Program) new ImperativeLangParser(lexer, symbolFactory).parse().value;
+        assertTrue(new SemanticAnalyzer().analyze(program).isEmpty());
+
+        List<Statement> body = ((RoutineDecl) program.getStatements().get(0)).getBody();
+        Type sumType = ((VarDecl) body.get(1)).getInitializer().getResolvedType();
+        assertEquals("real", ((SimpleType) sumType).getName());
+        assertSame(Type.BOOLEAN, ((PrintStatement) body.get(2)).getExpression().getResolvedType());
+    }
+
+    @Test
+    public void testConcurrentAnalysisMatchesSequential() throws Exception {
+        StringBuilder sb = new StringBuilder("type Point is record var x : integer; var y : real; end;\n");
+        sb.append("var origin : Point;\nvar count : integer is 0;\n");
+        for (int i = 0; i < 500; i++) {
+            sb.append("routine r").append(i).append("(n : integer) : real is\n")
+                .append("    var p : Point;\n")
+                .append("    p.x := n + ").append(i).append(" * 2;\n")
+                .append("    for j in 1 .. n loop count := count + j; end;\n");
+            if (i % 37 == 5) {
+                sb.append("    print(missing").append(i).append(");\n");
+            }
+            if (i % 53 == 7) {
+                sb.append("    count := \"text\";\n");
+            }
+            sb.append("    return p.x as real + origin.y;\nend;\n");
+        }
+        sb.append("routine main() is\n    print(r1(3));\nend;\n");
+        String source = sb.toString();
+
+        Program sequential = new RecursiveDescentParser(tokens(source)).parse();
+        SemanticAnalyzer inTurn = new SemanticAnalyzer();
+        inTurn.setParallelism(1);
+        Map<RoutineDecl, List<SemanticError>> sequentialBodies = new IdentityHashMap<>();
+        List<SemanticError> expected = inTurn.analyze(sequential, sequentialBodies);
+        assertTrue(expected.size() > 10);
+
+        Program concurrent = new RecursiveDescentParser(tokens(source)).parse();
+        SemanticAnalyzer inParallel = new SemanticAnalyzer();
+        inParallel.setParallelism(4);
+        Map<RoutineDecl, List<SemanticError>> concurrentBodies = new IdentityHashMap<>();
+        List<SemanticError> actual = inParallel.analyze(concurrent, concurrentBodies);
+
+        assertEquals(messages(expected), messages(actual));
+        for (int i = 0; i < sequential.getStatements().size(); i++) {
+            Statement statement = sequential.getStatements().get(i);
+            if (statement instanceof RoutineDecl) {
+                assertEquals(messages(sequentialBodies.get(statement)),
+                    messages(concurrentBodies.get(concurrent.getStatements().get(i))));
+            }
+        }
+        // The bodies are resolved and folded the same way
+        AstFileTest.assertSameTree("program", sequential, concurrent);
+    }
+
+    @Test
+    public void testConcurrentAnalysisMatchesSequentialOnExamples() throws Exception {
+        File[] examples = new File("examples").listFiles((dir, name) -> name.endsWith(".txt"));
+        assertNotNull(examples);
+        for (File example : examples) {
+            String source = new String(Files.readAllBytes(example.toPath()), StandardCharsets.UTF_8);
+            assertSameAnalysis(example.getName(), source, 4);
+        }
+    }
+
+    @Test
+    public void testConcurrentErrorsKeepRoutineOrderAcrossChunks() throws Exception {
+        // Nine routines in three chunks of three, with errors on both sides of each boundary
+        StringBuilder sb = new StringBuilder("var count : integer is 0;\n");
+        for (int i = 0; i < 9; i++) {
+            sb.append("routine r").append(i).append("() is\n")
+                .append("    print(missing").append(i).append(");\n");
+            if (i % 3 != 1) {
+                sb.append("    count := \"text\";\n");
+            }
+            sb.append("end;\n");
+        }
+        sb.append("routine main() is\n    print(count);\nend;\n");
+
+        List<String> errors = assertSameAnalysis("chunks", sb.toString(), 3);
+        int previous = -1;
+        for (int i = 0; i < 9; i++) {
+            int index = indexOf(errors, "missing" + i);
+            assertTrue(errors.toString(), index > previous);
+            previous = index;
+        }
+        // Each missing variable also makes its print invalid, and six routines assign a string
+        assertEquals(9 * 2 + 6, errors.size());
+    }
+
+    /**
+     * Analyzes a program in turn and split into chunks of one routine on the given number
+     * of threads, and checks that both find the same errors and resolve the same types.
+     *
+     * @return The error messages
+     */
+    private static List<String> assertSameAnalysis(String name, String source, int parallelism) throws Exception {
+        Program sequential = new RecursiveDescentParser(tokens(source)).parse();
+        SemanticAnalyzer inTurn = new SemanticAnalyzer();
+        inTurn.setParallelism(1);
+        List<String> expected = messages(inTurn.analyze(sequential));
+
+        Program concurrent = new RecursiveDescentParser(tokens(source)).parse();
+        SemanticAnalyzer inParallel = new SemanticAnalyzer();
+        inParallel.setParallelism(parallelism);
+        inParallel.setMinChunkRoutines(1);
+        assertEquals(name, expected, messages(inParallel.analyze(concurrent)));
+        AstFileTest.assertSameTree(name, sequential, concurrent);
+        return expected;
+    }
+
+    private static int indexOf(List<String> messages, String text) {
+        for (int i = 0; i < messages.size(); i++) {
+            if (messages.get(i).contains(text)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static TokenBuffer tokens(String source) throws Exception {
+        return TokenBuffer.record(new Lexer(new StringReader(source), new ComplexSymbolFactory()));
+    }
+
+    private static List<String> messages(List<SemanticError> errors) {
+        List<String> messages = new ArrayList<>();
+        for (SemanticError error : errors) {
+            messages.add(error.toString());
+        }
+        return messages;
+    }
+}
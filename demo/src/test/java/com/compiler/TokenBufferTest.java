@@ -0,0 +1,43 @@
+package com.compiler;
+
+import java.io.StringReader;
+import java_cup.runtime.ComplexSymbolFactory;
+import java_cup.runtime.Symbol;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class TokenBufferTest {
+
+    @Test
+    public void testReplayParsesLikeTheLexer() throws Exception {
+        String input =
+            "var x : integer is 2;\n" +
+            "routine main() is\n" +
+            "    print(x * 21);\n" +
+            "end;";
+        ComplexSymbolFactory symbolFactory = new ComplexSymbolFactory();
+        String direct = new ImperativeLangParser(new Lexer(new StringReader(input), symbolFactory), symbolFactory)
+            .parse().value.toString();
+
+        TokenBuffer tokens = TokenBuffer.record(new Lexer(new StringReader(input), symbolFactory));
+        Lexer lexer = new Lexer(new StringReader(input), symbolFactory);
+        for (Symbol token : tokens.getTokens()) {
+            Symbol expected = lexer.next_token();
+            assertEquals(expected.toString(), token.toString());
+            assertEquals(expected.value, token.value);
+        }
+        assertEquals(sym.EOF, lexer.next_token().sym);
+        assertEquals(Integer.valueOf(21), tokens.getValue(tokens.size() - 5));
+        assertEquals(3, tokens.getLine(tokens.size() - 5));
+        assertEquals(15, tokens.getColumn(tokens.size() - 5));
+
+        // Each replay hands the parser fresh symbols, so the buffer parses more than once
+        for (int i = 0; i < 2; i++) {
+            Symbol parsed = new ImperativeLangParser(tokens.replay(), symbolFactory).parse();
+            assertEquals(direct, parsed.value.toString());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.compiler;
+
+import java.util.Arrays;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class TypeTest {
+
+    @Test
+    public void testSimpleTypesAreCanonical() {
+        assertSame(Type.REAL, Type.simple("real"));
+        assertSame(Type.REAL, Type.fromString("real"));
+        assertSame(Type.simple("Point"), Type.simple("Point"));
+    }
+
+    @Test
+    public void testFloatIsReal() {
+        assertSame(Type.REAL, Type.simple("float"));
+        assertSame(Type.REAL, Type.fromString("float"));
+    }
+
+    @Test
+    public void testCompositeTypesAreCanonical() {
+        assertSame(Type.array(Type.INTEGER, 10), Type.array(Type.simple("integer"), 10));
+        assertNotSame(Type.array(Type.INTEGER, 10), Type.array(Type.INTEGER, 5));
+
+        RecordType point = Type.record(Arrays.asList(
+            new VarDecl("x", Type.INTEGER, null), new VarDecl("y", Type.INTEGER, null)));
+        assertSame(point, Type.record(Arrays.asList(
+            new VarDecl("y", Type.INTEGER, null), new VarDecl("x", Type.INTEGER, null))));
+    }
+}